@@ -0,0 +1,122 @@
+package Benchmark;
+
+import System.Config;
+import System.Floor.TraceSource;
+import System.Floor.TrafficGenerator;
+import System.Floor.WindowedSubmitter;
+import System.Scheduler.Bank;
+import System.Scheduler.BankRouter;
+import System.Scheduler.Scheduler;
+import System.Util.DuplexSocket;
+import System.Util.Logger;
+import System.Util.ThreadLauncher;
+import System.Util.Utility;
+import Types.DispatchStrategyType;
+import Types.TrafficPattern;
+import org.json.JSONObject;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.util.ArrayList;
+
+/**
+ * Measures how many calls per second a campus takes in when its elevators
+ * are split into banks. A windowed floor sends every call at once to a
+ * BankRouter, which forwards each to one of N headless bank Schedulers over
+ * loopback sockets; a run ends once the floor has every ack, which the
+ * router only sends after the call's bank acked it. The same call trace is
+ * sent with 1, 2, 4, ... banks.
+ *
+ * Options: --calls=N --floors=F --elevators=E --window=W --dispatch=NAME --seed=S
+ */
+public class BankScalingBenchmark {
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int ROUTER_PORT = 13500;
+    private static final int FLOOR_PORT = ROUTER_PORT - 1;
+
+    /**
+     * Sends the calls through a router to the specified number of bank schedulers.
+     * @return double, the elapsed time in ms.
+     */
+    private static double run(JSONObject[] calls, int numFloors, int numElevators, int numBanks, int window,
+                              DispatchStrategyType dispatch) throws InterruptedException {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        Bank[] banks = Bank.partition(numFloors, numElevators, numBanks);
+        Scheduler[] schedulers = new Scheduler[numBanks];
+
+        for (Bank bank : banks) {
+            schedulers[bank.getId()] = new Scheduler("Scheduler-bank-" + bank.getId(), numFloors,
+                    60 * Utility.SECONDS_TO_MILLISECONDS, bank.getFloorPort(), bank.getSchedulerPort(),
+                    bank.getElevatorBasePort(), bank.getNumElevators(), host, null, false, dispatch);
+            schedulers[bank.getId()].setHeartbeatInterval(0);
+            schedulers[bank.getId()].start();
+        }
+        BankRouter router = new BankRouter("BankRouter", banks, ROUTER_PORT, FLOOR_PORT,
+                Config.FLOOR_RETRANSMIT_TIMEOUT, host);
+        ThreadLauncher.start(router::run, "BankRouter");
+        DuplexSocket socket = DuplexSocket.open(FLOOR_PORT, ROUTER_PORT, host, new Logger("Floor"),
+                Config.FLOOR_RETRANSMIT_TIMEOUT);
+        Thread.sleep(200);
+
+        int[] read = {0};
+        TraceSource source = () -> (read[0] < calls.length) ? calls[read[0]++] : null;
+        long start = System.nanoTime();
+        new WindowedSubmitter(socket, new Logger("Floor"), window, Config.FLOOR_BATCH_SIZE).submit(source, call -> 0);
+        double elapsed = (System.nanoTime() - start) / 1e6;
+
+        socket.close();
+        router.close();
+        for (Scheduler scheduler : schedulers) {
+            scheduler.close();
+        }
+        Thread.sleep(200);      // Let the closed sockets' threads end and free the ports before they are reused.
+        return elapsed;
+    }
+
+    /**
+     * Benchmark entrypoint. The system's logging is discarded while measuring.
+     * @param args String[], command line args (see class doc).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int numCalls = Integer.parseInt(Utility.getOption(args, "calls", "50000"));
+        int numFloors = Integer.parseInt(Utility.getOption(args, "floors", "88"));
+        int numElevators = Integer.parseInt(Utility.getOption(args, "elevators", "16"));
+        int window = Integer.parseInt(Utility.getOption(args, "window", "64"));
+        long seed = Long.parseLong(Utility.getOption(args, "seed", "3303"));
+        DispatchStrategyType dispatch = Utility.getOption(args, "dispatch", DispatchStrategyType.LOOK);
+        TraceSource trace = new TrafficGenerator(numFloors, 0, seed, TrafficPattern.INTERFLOOR).asTraceSource(numCalls);
+        JSONObject[] calls = new JSONObject[numCalls];
+        PrintStream out = System.out;
+
+        for (int i = 0; i < numCalls; i++) {
+            calls[i] = trace.next();
+        }
+
+        ArrayList<Integer> bankCounts = new ArrayList<>();
+        for (int numBanks = 1; numBanks <= numElevators && numBanks < numFloors; numBanks *= 2) {
+            bankCounts.add(numBanks);
+        }
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (int numBanks : bankCounts) {
+                run(calls, numFloors, numElevators, numBanks, window, dispatch);
+            }
+        }
+        double[] elapsed = new double[bankCounts.size()];
+        for (int b = 0; b < bankCounts.size(); b++) {
+            elapsed[b] = run(calls, numFloors, numElevators, bankCounts.get(b), window, dispatch);
+        }
+        System.setOut(out);
+
+        System.out.printf("%d calls, %d floors, %d elevators, window %d, %s dispatch, %d cores%n", numCalls,
+                numFloors, numElevators, window, dispatch, Runtime.getRuntime().availableProcessors());
+        System.out.println("banks\tms\tcalls/s\tspeedup");
+        for (int b = 0; b < bankCounts.size(); b++) {
+            System.out.printf("%d\t%.0f\t%.0f\t%.2fx%n", bankCounts.get(b), elapsed[b], numCalls / elapsed[b] * 1000,
+                    elapsed[0] / elapsed[b]);
+        }
+        System.exit(0);
+    }
+}
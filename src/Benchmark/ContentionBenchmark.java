@@ -0,0 +1,106 @@
+package Benchmark;
+
+import System.Config;
+import System.Scheduler.SchedulerController;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures scheduler controller throughput when the floor listener and
+ * every elevator listener hit it at once. The striped controller is compared
+ * against the same calls serialized on a single monitor (the previous design).
+ */
+public class ContentionBenchmark {
+    private static final int[] ELEVATOR_COUNTS = new int[]{4, 32, 128};
+    private static final int NUM_FLOORS = 100;
+    private static final long WARMUP_MS = 1000;
+    private static final long RUN_MS = 3000;
+
+    /**
+     * Runs one floor thread and numElevators elevator threads against
+     * a controller for the specified duration.
+     * @param numElevators int, the number of elevator listener threads.
+     * @param coarse boolean, true to serialize every call on one lock.
+     * @param durationMs long, how long to run for.
+     * @return double, controller operations per second.
+     */
+    private static double run(int numElevators, boolean coarse, long durationMs) throws InterruptedException {
+        SchedulerController controller = new SchedulerController(NUM_FLOORS, numElevators);
+        Object monitor = new Object();
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder operations = new LongAdder();
+        Thread[] threads = new Thread[numElevators + 1];
+
+        threads[0] = new Thread(() -> {
+            Random random = new Random(0);
+            while (running.get()) {
+                int pickup = 1 + random.nextInt(NUM_FLOORS);
+                int dest = 1 + random.nextInt(NUM_FLOORS);
+                if (coarse) {
+                    synchronized (monitor) { controller.addRequest(pickup, dest, ElevatorState.NO_ERROR); }
+                } else {
+                    controller.addRequest(pickup, dest, ElevatorState.NO_ERROR);
+                }
+                operations.increment();
+            }
+        });
+
+        for (int id = 0; id < numElevators; id++) {
+            final int elevatorID = id;
+            threads[id + 1] = new Thread(() -> {
+                int currentFloor = 1 + elevatorID % NUM_FLOORS;
+                ElevatorDirection direction = ElevatorDirection.UP;
+
+                while (running.get()) {
+                    Integer nextFloor;
+                    if (coarse) {
+                        synchronized (monitor) { nextFloor = controller.getNextFloor(elevatorID, currentFloor, direction); }
+                    } else {
+                        nextFloor = controller.getNextFloor(elevatorID, currentFloor, direction);
+                    }
+                    operations.increment();
+                    if (nextFloor == null) { continue; }
+
+                    direction = (nextFloor >= currentFloor) ? ElevatorDirection.UP : ElevatorDirection.DOWN;
+                    currentFloor = nextFloor;
+                    if (coarse) {
+                        synchronized (monitor) { controller.ackFloor(elevatorID, currentFloor); }
+                    } else {
+                        controller.ackFloor(elevatorID, currentFloor);
+                    }
+                    operations.increment();
+                }
+            });
+        }
+
+        for (Thread thread : threads) { thread.start(); }
+        Thread.sleep(durationMs);
+        running.set(false);
+        for (Thread thread : threads) { thread.join(); }
+
+        return operations.sum() * 1000.0 / durationMs;
+    }
+
+    /**
+     * Benchmark entrypoint.
+     * @param args String[], command line args (unused).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("floors: " + NUM_FLOORS + " (system default " + Config.MAX_FLOOR + "), cores: "
+                + Runtime.getRuntime().availableProcessors());
+        System.out.println("elevators\tsingle-lock ops/s\tstriped ops/s");
+
+        for (int numElevators : ELEVATOR_COUNTS) {
+            run(numElevators, true, WARMUP_MS);
+            run(numElevators, false, WARMUP_MS);
+
+            System.out.printf("%d\t\t%,.0f\t\t%,.0f%n", numElevators,
+                    run(numElevators, true, RUN_MS),
+                    run(numElevators, false, RUN_MS));
+        }
+    }
+}
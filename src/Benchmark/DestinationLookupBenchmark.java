@@ -0,0 +1,89 @@
+package Benchmark;
+
+import System.Scheduler.FloorBitSet;
+
+/**
+ * Measures the cost of finding an elevator's next destination
+ * floor as the number of floors in the building grows, comparing
+ * the packed floor set against the previous boolean row scan.
+ */
+public class DestinationLookupBenchmark {
+    private static final int[] FLOOR_COUNTS = new int[]{22, 64, 128, 256, 512, 1024};
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 2_000_000;
+
+    /**
+     * Times lookups for an elevator at the bottom of the building whose
+     * only destination is the top floor (worst case scan).
+     * @param numFloors int, the number of floors in system.
+     * @param iterations int, the number of lookups to perform.
+     * @return double, the average time per lookup in ns.
+     */
+    private static double timeBitSetLookup(int numFloors, int iterations) {
+        FloorBitSet destinations = new FloorBitSet(numFloors);
+        destinations.add(numFloors);
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            checksum += destinations.nextSetFloor(1 + (i & 1));
+        }
+        long elapsed = System.nanoTime() - start;
+
+        verify(checksum, numFloors, iterations);
+        return (double) elapsed / iterations;
+    }
+
+    /**
+     * Times the same lookups using a linear scan over a boolean row.
+     * @param numFloors int, the number of floors in system.
+     * @param iterations int, the number of lookups to perform.
+     * @return double, the average time per lookup in ns.
+     */
+    private static double timeLinearLookup(int numFloors, int iterations) {
+        boolean[] destinations = new boolean[numFloors];
+        destinations[numFloors - 1] = true;
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (int j = (i & 1); j < destinations.length; j++) {
+                if (destinations[j]) {
+                    checksum += j + 1;
+                    break;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        verify(checksum, numFloors, iterations);
+        return (double) elapsed / iterations;
+    }
+
+    /**
+     * Ensures every lookup found the top floor (and keeps the JIT honest).
+     */
+    private static void verify(long checksum, int numFloors, int iterations) {
+        if (checksum != (long) numFloors * iterations) {
+            throw new IllegalStateException("Unexpected destination returned.");
+        }
+    }
+
+    /**
+     * Benchmark entrypoint.
+     * @param args String[], command line args (unused).
+     */
+    public static void main(String[] args) {
+        for (int numFloors : FLOOR_COUNTS) {
+            timeBitSetLookup(numFloors, WARMUP_ITERATIONS);
+            timeLinearLookup(numFloors, WARMUP_ITERATIONS);
+        }
+
+        System.out.println("floors\tbitset ns/lookup\tlinear ns/lookup");
+        for (int numFloors : FLOOR_COUNTS) {
+            System.out.printf("%d\t%.1f\t\t\t%.1f%n", numFloors,
+                    timeBitSetLookup(numFloors, ITERATIONS),
+                    timeLinearLookup(numFloors, ITERATIONS));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package Benchmark;
+
+import System.Config;
+import System.Floor.TrafficGenerator;
+import System.Simulation.BuildingSimulation;
+import System.Util.Utility;
+import Types.DispatchStrategyType;
+import Types.TrafficPattern;
+
+import java.util.Arrays;
+
+/**
+ * Replays the same passenger trace against each dispatch strategy and
+ * reports wait and journey time percentiles. Each replay runs on a
+ * BuildingSimulation's virtual clock, so the reported times are simulated
+ * while the replay itself takes about a second.
+ *
+ * Options: --riders=N --seed=S --floors=F --elevators=E --interval=MS
+ *          --traffic=interfloor|up-peak|down-peak|lunch|day --hall-calls=directional|any --parking=on|off
+ */
+public class DispatchComparison {
+    /**
+     * Replays the trace with the specified dispatch strategy.
+     * @param strategyType DispatchStrategyType, the strategy to run.
+     * @param trace long[][], rows of {callTimeMs, pickupFloor, destFloor}.
+     * @param numFloors int, the number of floors in system.
+     * @param numElevators int, the number of elevators in system.
+     * @param directionalHallCalls boolean, true if cars only collect riders going their way.
+     * @param parking boolean, true to park idle cars where calls are expected.
+     * @return BuildingSimulation, the finished simulation with per-rider timings and car statistics.
+     */
+    private static BuildingSimulation simulate(DispatchStrategyType strategyType, long[][] trace, int numFloors,
+                                               int numElevators, boolean directionalHallCalls, boolean parking) {
+        BuildingSimulation simulation = new BuildingSimulation(numFloors, numElevators, strategyType,
+                directionalHallCalls, parking);
+        simulation.run(Arrays.asList(trace).iterator());
+        return simulation;
+    }
+
+    /**
+     * Generates a seeded trace with a TrafficGenerator. A day runs up-peak,
+     * interfloor then down-peak traffic, a third of the riders each.
+     * @param numRiders int, the number of riders.
+     * @param numFloors int, the number of floors.
+     * @param meanIntervalMs long, the mean time between calls.
+     * @param seed long, the random seed.
+     * @param traffic String, the traffic pattern.
+     * @return long[][], rows of {callTimeMs, pickupFloor, destFloor}.
+     */
+    private static long[][] generateTrace(int numRiders, int numFloors, long meanIntervalMs, long seed, String traffic) {
+        boolean day = traffic.equals("day");
+        TrafficGenerator generator = new TrafficGenerator(numFloors, meanIntervalMs, seed,
+                day ? TrafficPattern.UP_PEAK : TrafficPattern.valueOf(traffic.toUpperCase().replace('-', '_')));
+        long[][] trace = new long[numRiders][];
+
+        for (int i = 0; i < numRiders; i++) {
+            if (day && i == numRiders / 3) {
+                generator.setPattern(TrafficPattern.INTERFLOOR);
+            } else if (day && i == 2 * numRiders / 3) {
+                generator.setPattern(TrafficPattern.DOWN_PEAK);
+            }
+            trace[i] = generator.next();
+        }
+        return trace;
+    }
+
+    /**
+     * Returns the specified percentile of sorted values in seconds.
+     */
+    private static double percentile(long[] sorted, double p) {
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))] / 1000.0;
+    }
+
+    /**
+     * Returns the mean of the values in seconds.
+     */
+    private static double mean(long[] values) {
+        return Arrays.stream(values).average().orElse(0) / 1000.0;
+    }
+
+    /**
+     * Comparison entrypoint.
+     * @param args String[], command line args (see class doc).
+     */
+    public static void main(String[] args) {
+        int numRiders = Integer.parseInt(Utility.getOption(args, "riders", "500"));
+        long seed = Long.parseLong(Utility.getOption(args, "seed", "3303"));
+        int numFloors = Integer.parseInt(Utility.getOption(args, "floors", String.valueOf(Config.MAX_FLOOR)));
+        int numElevators = Integer.parseInt(Utility.getOption(args, "elevators", String.valueOf(Config.NUMBER_ELEVATORS)));
+        long interval = Long.parseLong(Utility.getOption(args, "interval", "15000"));
+        String traffic = Utility.getOption(args, "traffic", "interfloor");
+        String hallCalls = Utility.getOption(args, "hall-calls", Config.DIRECTIONAL_HALL_CALLS ? "directional" : "any");
+        String parking = Utility.getOption(args, "parking", Config.IDLE_PARKING ? "on" : "off");
+        long[][] trace = generateTrace(numRiders, numFloors, interval, seed, traffic);
+
+        System.out.printf("%s: %d riders, %d floors, %d elevators, mean call interval %d ms, seed %d, %s hall calls, parking %s%n",
+                traffic, numRiders, numFloors, numElevators, interval, seed, hallCalls, parking);
+        System.out.println("strategy      wait(s): mean   p50    p90    p99  | journey(s): mean   p50    p90    p99  | ride(s) | stops reversals | simulated");
+
+        for (DispatchStrategyType type : DispatchStrategyType.values()) {
+            long start = System.nanoTime();
+            BuildingSimulation result = simulate(type, trace, numFloors, numElevators, hallCalls.equals("directional"),
+                    parking.equals("on"));
+            long wallMs = (System.nanoTime() - start) / 1_000_000;
+            long[] waits = result.getWaits();
+            long[] journeys = result.getJourneys();
+            Arrays.sort(waits);
+            Arrays.sort(journeys);
+
+            System.out.printf("%-12s %13.1f %6.1f %6.1f %6.1f | %16.1f %6.1f %6.1f %6.1f | %7.1f | %5d %9d | %5.1f h in %d ms%n", type,
+                    mean(waits), percentile(waits, 50), percentile(waits, 90), percentile(waits, 99),
+                    mean(journeys), percentile(journeys, 50), percentile(journeys, 90), percentile(journeys, 99),
+                    mean(result.getRides()), result.getStops(), result.getReversals(),
+                    result.getMakespan() / 3_600_000.0, wallMs);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package Benchmark;
+
+import System.Scheduler.SchedulerController;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+
+/**
+ * Measures the cost of a full dispatch decision (add a hall call,
+ * fetch the next floor and ack it) as the building grows taller.
+ */
+public class DispatchLookupBenchmark {
+    private static final int[] FLOOR_COUNTS = new int[]{22, 64, 128, 256, 512, 1024};
+    private static final int NUM_ELEVATORS = 4;
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 2_000_000;
+
+    /**
+     * Times dispatch cycles for an elevator on the ground floor
+     * whose only hall call is on the top floor (worst case scan).
+     * @param numFloors int, the number of floors in system.
+     * @param iterations int, the number of dispatch cycles.
+     * @return double, the average time per cycle in ns.
+     */
+    private static double timeDispatch(int numFloors, int iterations) {
+        SchedulerController controller = new SchedulerController(numFloors, NUM_ELEVATORS);
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            controller.addRequest(numFloors, numFloors, ElevatorState.NO_ERROR);
+            Integer nextFloor = controller.getNextFloor(0, 1, ElevatorDirection.UP);
+            controller.ackFloor(0, nextFloor);
+            checksum += nextFloor;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (checksum != (long) numFloors * iterations) {
+            throw new IllegalStateException("Unexpected floor dispatched.");
+        }
+        return (double) elapsed / iterations;
+    }
+
+    /**
+     * Benchmark entrypoint.
+     * @param args String[], command line args (unused).
+     */
+    public static void main(String[] args) {
+        for (int numFloors : FLOOR_COUNTS) {
+            timeDispatch(numFloors, WARMUP_ITERATIONS);
+        }
+
+        System.out.println("floors\tns/dispatch");
+        for (int numFloors : FLOOR_COUNTS) {
+            System.out.printf("%d\t%.1f%n", numFloors, timeDispatch(numFloors, ITERATIONS));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package Benchmark;
+
+import System.Config;
+import System.Scheduler.Scheduler;
+import System.Util.JSONPacket;
+import System.Util.Utility;
+import Types.ElevatorDirection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * Runs a headless scheduler against many simulated elevators over loopback
+ * and reports the scheduler's thread count and elevator round trips per
+ * second, with a blocking listener thread per elevator and with the
+ * elevators serviced by event loops. Each simulated elevator keeps one
+ * floor update in flight and sends the next as soon as it is acked.
+ *
+ * Options: --elevators=N --loops=L --seconds=S
+ */
+public class ElevatorLoopbackBenchmark {
+    /**
+     * Port ranges for each run, clear of the system's own ports and the ephemeral range.
+     */
+    private static final int BASE_PORT = 10000;
+    private static final int RUN_PORT_OFFSET = 11000;
+
+    /**
+     * Time to let the scheduler's listeners bind before sending.
+     */
+    private static final long STARTUP_MS = 1000;
+
+    /**
+     * Starts a scheduler and measures it.
+     * @param numElevators int, the number of simulated elevators.
+     * @param numEventLoops int, the number of event loops (0 for a thread per elevator).
+     * @param run int, the run index (selects a port range).
+     * @param durationMs long, how long to measure for.
+     * @return double[], {scheduler threads, round trips per second}.
+     */
+    private static double[] run(int numElevators, int numEventLoops, int run, long durationMs) throws IOException, InterruptedException {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        int schedulerPort = BASE_PORT + run * RUN_PORT_OFFSET;
+        int elevatorPort = schedulerPort + 1000;
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        Scheduler scheduler = new Scheduler("Scheduler", Config.MAX_FLOOR, 60 * Utility.SECONDS_TO_MILLISECONDS,
+                schedulerPort - 1, schedulerPort, elevatorPort, numElevators, host, null, false,
+                Config.DISPATCH_STRATEGY);
+        scheduler.setEventLoops(numEventLoops);
+        scheduler.start();
+        Thread.sleep(STARTUP_MS);
+        int schedulerThreads = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+
+        byte[] update = JSONPacket.serialize(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+            put(Config.K_FLOOR, 2);
+            put(Config.K_FLOOR_BUTTON, ElevatorDirection.UP);
+        }}));
+        Selector selector = Selector.open();
+        DatagramChannel[] channels = new DatagramChannel[numElevators];
+        for (int i = 0; i < numElevators; i++) {
+            InetSocketAddress listener = new InetSocketAddress(host, schedulerPort + i + 1);
+            channels[i] = DatagramChannel.open();
+            channels[i].bind(new InetSocketAddress(host, elevatorPort + i * Config.ELEVATOR_INCREMENT));
+            channels[i].configureBlocking(false);
+            channels[i].register(selector, SelectionKey.OP_READ, listener);
+            channels[i].send(ByteBuffer.wrap(update), listener);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        long roundTrips = 0;
+        long start = System.currentTimeMillis();
+        while (System.currentTimeMillis() - start < durationMs) {
+            selector.select(100);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                DatagramChannel channel = (DatagramChannel) key.channel();
+                keys.remove();
+                buffer.clear();
+                while (channel.receive(buffer) != null) {
+                    roundTrips++;
+                    buffer.clear();
+                    channel.send(ByteBuffer.wrap(update), (InetSocketAddress) key.attachment());
+                }
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        selector.close();
+        for (DatagramChannel channel : channels) {
+            channel.close();
+        }
+        return new double[]{schedulerThreads, roundTrips * 1000.0 / elapsed};
+    }
+
+    /**
+     * Benchmark entrypoint. The system's per-packet logging is discarded while measuring.
+     * @param args String[], command line args (see class doc).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int numElevators = Integer.parseInt(Utility.getOption(args, "elevators", "500"));
+        int numEventLoops = Integer.parseInt(Utility.getOption(args, "loops", "1"));
+        long durationMs = Long.parseLong(Utility.getOption(args, "seconds", "10")) * 1000;
+        PrintStream out = System.out;
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        double[] threaded = run(numElevators, 0, 0, durationMs);
+        double[] evented = run(numElevators, numEventLoops, 1, durationMs);
+
+        out.printf("%d elevators, %d cores%n", numElevators, Runtime.getRuntime().availableProcessors());
+        out.println("listeners\t\tscheduler threads\tround trips/s");
+        out.printf("thread per elevator\t%.0f\t\t\t%.0f%n", threaded[0], threaded[1]);
+        out.printf("%d event loop(s)\t%.0f\t\t\t%.0f%n", numEventLoops, evented[0], evented[1]);
+        System.exit(0);
+    }
+}
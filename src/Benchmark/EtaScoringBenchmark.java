@@ -0,0 +1,108 @@
+package Benchmark;
+
+import System.Scheduler.EtaEstimator;
+import System.Scheduler.FloorBitSet;
+import Types.ElevatorDirection;
+
+/**
+ * Measures the cost of scoring a hall call against every elevator's
+ * ETA, comparing the cached timelines against rebuilding each
+ * elevator's timeline for every call.
+ */
+public class EtaScoringBenchmark {
+    private static final int[] ELEVATOR_COUNTS = new int[]{4, 16, 64};
+    private static final int NUM_FLOORS = 128;
+    private static final int STOPS_PER_ELEVATOR = 8;
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    /**
+     * Gives each elevator a spread of committed stops.
+     * @param numElevators int, the number of elevators.
+     * @return FloorBitSet[], the stops of each elevator.
+     */
+    private static FloorBitSet[] createStops(int numElevators) {
+        FloorBitSet[] stops = new FloorBitSet[numElevators];
+        for (int i = 0; i < numElevators; i++) {
+            stops[i] = new FloorBitSet(NUM_FLOORS);
+            for (int j = 0; j < STOPS_PER_ELEVATOR; j++) {
+                stops[i].add(1 + (i * 7 + j * 13) % NUM_FLOORS);
+            }
+        }
+        return stops;
+    }
+
+    /**
+     * Times calls scored against the cached timelines.
+     * @param numElevators int, the number of elevators.
+     * @param iterations int, the number of calls to score.
+     * @return double, the average time per call in ns.
+     */
+    private static double timeCached(int numElevators, int iterations) {
+        FloorBitSet[] stops = createStops(numElevators);
+        EtaEstimator estimator = new EtaEstimator(NUM_FLOORS, numElevators, () -> 0L);
+        for (int i = 0; i < numElevators; i++) {
+            estimator.update(i, 1 + i % NUM_FLOORS, ElevatorDirection.UP, stops[i], true);
+        }
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            checksum += estimator.getFastestElevator(1 + i % NUM_FLOORS);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (checksum < 0) { throw new IllegalStateException("No elevator found."); }
+        return (double) elapsed / iterations;
+    }
+
+    /**
+     * Times calls scored by rebuilding every elevator's timeline.
+     * @param numElevators int, the number of elevators.
+     * @param iterations int, the number of calls to score.
+     * @return double, the average time per call in ns.
+     */
+    private static double timeRebuild(int numElevators, int iterations) {
+        FloorBitSet[] stops = createStops(numElevators);
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            int floor = 1 + i % NUM_FLOORS;
+            int fastest = -1;
+            double fastestEta = Double.POSITIVE_INFINITY;
+
+            for (int j = 0; j < numElevators; j++) {
+                double eta = EtaEstimator.computeTimeline(NUM_FLOORS, 1 + j % NUM_FLOORS,
+                        ElevatorDirection.UP, stops[j], true)[floor];
+                if (eta < fastestEta) {
+                    fastest = j;
+                    fastestEta = eta;
+                }
+            }
+            checksum += fastest;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (checksum < 0) { throw new IllegalStateException("No elevator found."); }
+        return (double) elapsed / iterations;
+    }
+
+    /**
+     * Benchmark entrypoint.
+     * @param args String[], command line args (unused).
+     */
+    public static void main(String[] args) {
+        for (int numElevators : ELEVATOR_COUNTS) {
+            timeCached(numElevators, WARMUP_ITERATIONS);
+            timeRebuild(numElevators, WARMUP_ITERATIONS);
+        }
+
+        System.out.println("elevators\tcached ns/call\trebuild ns/call");
+        for (int numElevators : ELEVATOR_COUNTS) {
+            System.out.printf("%d\t\t%.1f\t\t%.1f%n", numElevators,
+                    timeCached(numElevators, ITERATIONS),
+                    timeRebuild(numElevators, ITERATIONS));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package Benchmark;
+
+import System.Config;
+import System.Floor.WindowedSubmitter;
+import System.Scheduler.Scheduler;
+import System.Util.DuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import System.Util.Utility;
+
+import org.json.JSONObject;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Measures how fast the floor can hand requests to a headless scheduler
+ * over loopback, one at a time waiting for each ack (Floor.run) and with
+ * windowed, batched submission. Every request is due at once, as when
+ * replaying high rate traffic.
+ *
+ * Options: --requests=N --seed=S
+ */
+public class FloorSubmissionBenchmark {
+    private static final int BASE_PORT = 13000;
+    private static final int RUN_PORT_OFFSET = 100;
+    private static final int[] WINDOWS = {1, 8, 32, 128};
+
+    /**
+     * Starts a headless scheduler and returns a floor socket to it.
+     * @param run int, the run index (selects a port range).
+     * @return DuplexSocket, the floor's socket.
+     */
+    private static DuplexSocket startScheduler(int run) throws InterruptedException {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        int schedulerPort = BASE_PORT + run * RUN_PORT_OFFSET;
+        int floorPort = schedulerPort - 1;
+
+        Scheduler scheduler = new Scheduler("Scheduler", Config.MAX_FLOOR, 60 * Utility.SECONDS_TO_MILLISECONDS,
+                floorPort, schedulerPort, schedulerPort + 50, Config.NUMBER_ELEVATORS, host, null, false,
+                Config.DISPATCH_STRATEGY);
+        scheduler.start();
+        Thread.sleep(200);
+
+        return new DuplexSocket(floorPort, schedulerPort, host, new Logger("Floor"), Config.FLOOR_RETRANSMIT_TIMEOUT);
+    }
+
+    /**
+     * Benchmark entrypoint. The system's logging is discarded while measuring.
+     * @param args String[], command line args (see class doc).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int numRequests = Integer.parseInt(Utility.getOption(args, "requests", "5000"));
+        Random random = new Random(Long.parseLong(Utility.getOption(args, "seed", "1")));
+        JSONObject[] requests = new JSONObject[numRequests];
+        long[] dueTimes = new long[numRequests];
+        PrintStream out = System.out;
+
+        for (int i = 0; i < numRequests; i++) {
+            int floor = 1 + random.nextInt(Config.MAX_FLOOR);
+            int destination = 1 + (floor + random.nextInt(Config.MAX_FLOOR - 1)) % Config.MAX_FLOOR;
+            requests[i] = JSONPacket.createPacket(new HashMap<>(){{
+                put(Config.K_TIME, "14:05:15.0");
+                put(Config.K_FLOOR, String.valueOf(floor));
+                put(Config.K_FLOOR_BUTTON, (destination > floor) ? "Up" : "Down");
+                put(Config.K_DESTINATION_FLOOR, String.valueOf(destination));
+                put(Config.K_ERROR, "NO_ERROR");
+            }});
+        }
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        DuplexSocket socket = startScheduler(0);
+        long start = System.nanoTime();
+        for (JSONObject request : requests) {
+            boolean success = false;
+            while (!success) {
+                socket.send(JSONPacket.serialize(request));
+                try {
+                    socket.receive();
+                    success = true;
+                } catch (SocketTimeoutException e) {
+                    // Resend.
+                }
+            }
+        }
+        double stopAndWait = numRequests / ((System.nanoTime() - start) / 1e9);
+        socket.close();
+
+        double[] windowed = new double[WINDOWS.length];
+        for (int w = 0; w < WINDOWS.length; w++) {
+            socket = startScheduler(w + 1);
+            start = System.nanoTime();
+            new WindowedSubmitter(socket, new Logger("Floor"), WINDOWS[w], Config.FLOOR_BATCH_SIZE).submit(requests, dueTimes);
+            windowed[w] = numRequests / ((System.nanoTime() - start) / 1e9);
+            socket.close();
+        }
+        System.setOut(out);
+
+        System.out.printf("%d requests, %d per batch%n", numRequests, Config.FLOOR_BATCH_SIZE);
+        System.out.println("submission\t\trequests/s");
+        System.out.printf("stop-and-wait\t\t%.0f%n", stopAndWait);
+        for (int w = 0; w < WINDOWS.length; w++) {
+            System.out.printf("window %d\t\t%.0f%n", WINDOWS[w], windowed[w]);
+        }
+        System.exit(0);
+    }
+}
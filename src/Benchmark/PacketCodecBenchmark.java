@@ -0,0 +1,101 @@
+package Benchmark;
+
+import System.Config;
+import System.Util.BinaryPacket;
+import System.Util.JSONPacket;
+import System.Util.Utility;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+import Types.PacketCodec;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+
+/**
+ * Compares the JSON and binary wire formats for the system's busiest
+ * packets: the frame size, and the time to serialize a packet and to
+ * deserialize it back (what every send and receive pays on top of the
+ * socket). Packets are built once, so createPacket is not timed.
+ *
+ * Options: --iterations=N
+ */
+public class PacketCodecBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Serializes and deserializes a packet repeatedly.
+     * @param packet JSONObject, the packet.
+     * @param iterations int, the number of round trips.
+     * @return double[], {encode ns per packet, decode ns per packet}.
+     */
+    private static double[] run(JSONObject packet, int iterations) {
+        long sink = 0;
+
+        long start = System.nanoTime();
+        byte[] serialized = null;
+        for (int i = 0; i < iterations; i++) {
+            serialized = JSONPacket.serialize(packet);
+            sink += serialized.length;
+        }
+        long encodeNs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += JSONPacket.deserialize(serialized, serialized.length).length();
+        }
+        long decodeNs = System.nanoTime() - start;
+
+        if (sink == 42) System.out.println();
+        return new double[]{(double) encodeNs / iterations, (double) decodeNs / iterations};
+    }
+
+    /**
+     * Benchmark entrypoint.
+     * @param args String[], command line args (see class doc).
+     */
+    public static void main(String[] args) {
+        int iterations = Integer.parseInt(Utility.getOption(args, "iterations", "1000000"));
+        String[] names = {"update-floor", "floor request", "destination ack", "ack"};
+        JSONObject[] packets = {
+                JSONPacket.createPacket(new HashMap<>(){{
+                    put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+                    put(Config.K_ELEVATOR_ID, 3);
+                    put(Config.K_FLOOR, 12);
+                    put(Config.K_FLOOR_BUTTON, ElevatorDirection.UP);
+                    put(Config.K_ERROR, ElevatorState.NO_ERROR);
+                }}),
+                JSONPacket.createPacket(new HashMap<>(){{
+                    put(Config.K_TIME, "14:05:15.0");
+                    put(Config.K_FLOOR, "2");
+                    put(Config.K_FLOOR_BUTTON, "Up");
+                    put(Config.K_DESTINATION_FLOOR, "4");
+                    put(Config.K_ERROR, "NO_ERROR");
+                }}),
+                JSONPacket.createPacket(new HashMap<>(){{
+                    put(Config.K_ACK, true);
+                    put(Config.K_DESTINATION_FLOOR, 7);
+                    put(Config.K_ERROR, ElevatorState.NO_ERROR);
+                }}),
+                JSONPacket.createPacket(new HashMap<>(){{
+                    put(Config.K_ACK, true);
+                }})
+        };
+
+        System.out.printf("%d iterations%n", iterations);
+        System.out.println("packet\t\t\tcodec\tbytes\tencode ns\tdecode ns");
+        for (int p = 0; p < packets.length; p++) {
+            for (PacketCodec codec : PacketCodec.values()) {
+                JSONPacket.setCodec(codec);
+                for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                    run(packets[p], iterations / 10);
+                }
+                double[] result = run(packets[p], iterations);
+
+                System.out.printf("%-16s\t%s\t%d\t%.0f\t\t%.0f%n", names[p], codec,
+                        JSONPacket.serialize(packets[p]).length, result[0], result[1]);
+            }
+        }
+        JSONPacket.setCodec(Config.PACKET_CODEC);
+        System.out.printf("(largest binary frame: %d bytes)%n", BinaryPacket.MAX_SIZE);
+    }
+}
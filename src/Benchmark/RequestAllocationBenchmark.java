@@ -0,0 +1,76 @@
+package Benchmark;
+
+import System.Scheduler.SchedulerController;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated per hall call by the scheduler controller at
+ * steady state: bursts of calls are queued on a floor, an elevator claims
+ * and drains it, and an elevator error resets a claimed floor's requests.
+ * Uses the HotSpot per-thread allocation counter.
+ */
+public class RequestAllocationBenchmark {
+    private static final int NUM_FLOORS = 22;
+    private static final int NUM_ELEVATORS = 4;
+    private static final int BURST_SIZE = 32;
+    private static final int WARMUP_ROUNDS = 50_000;
+    private static final int ROUNDS = 100_000;
+
+    /**
+     * Runs rounds of bursts, claims, errors and drains.
+     * @param controller SchedulerController, the controller under test.
+     * @param rounds int, the number of rounds.
+     * @return long, a checksum of the floors dispatched.
+     */
+    private static long run(SchedulerController controller, int rounds) {
+        long checksum = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            int pickup = 2 + round % (NUM_FLOORS - 1);
+            for (int i = 0; i < BURST_SIZE; i++) {
+                controller.addRequest(pickup, 1 + i % (pickup - 1), ElevatorDirection.DOWN, ElevatorState.DOOR_JAM);
+            }
+
+            // Elevator 1 claims the floor then fails; elevator 0 picks everyone up.
+            checksum += controller.getNextFloor(1, NUM_FLOORS, ElevatorDirection.DOWN);
+            controller.processError(1);
+            Integer nextFloor = controller.getNextFloor(0, NUM_FLOORS, ElevatorDirection.DOWN);
+            controller.ackFloor(0, nextFloor, ElevatorDirection.DOWN);
+
+            // Drop everyone off.
+            int currentFloor = nextFloor;
+            while ((nextFloor = controller.getNextFloor(0, currentFloor, ElevatorDirection.DOWN)) != null) {
+                controller.ackFloor(0, nextFloor, ElevatorDirection.DOWN);
+                currentFloor = nextFloor;
+            }
+            checksum += currentFloor;
+        }
+        return checksum;
+    }
+
+    /**
+     * Benchmark entrypoint.
+     * @param args String[], command line args (unused).
+     */
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadID = Thread.currentThread().getId();
+        SchedulerController controller = new SchedulerController(NUM_FLOORS, NUM_ELEVATORS);
+
+        long checksum = run(controller, WARMUP_ROUNDS);
+
+        long startBytes = threadBean.getThreadAllocatedBytes(threadID);
+        long start = System.nanoTime();
+        checksum += run(controller, ROUNDS);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadBean.getThreadAllocatedBytes(threadID) - startBytes;
+
+        long calls = (long) ROUNDS * BURST_SIZE;
+        System.out.printf("%d calls, %.1f ns/call, %d bytes allocated, %.3f bytes/call (checksum %d)%n",
+                calls, (double) elapsed / calls, allocated, (double) allocated / calls, checksum);
+    }
+}
@@ -0,0 +1,97 @@
+package Benchmark;
+
+import System.Config;
+import System.Util.DuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import System.Util.NioDuplexSocket;
+import System.Util.Utility;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+
+/**
+ * Measures the garbage and time per message of DuplexSocket and
+ * NioDuplexSocket. Two sockets on loopback bounce the same serialized
+ * floor update back and forth on one thread, and the thread's allocated
+ * bytes are read before and after the timed messages. Only the sockets
+ * are measured, the message is serialized once.
+ *
+ * Options: --messages=N
+ */
+public class SocketAllocationBenchmark {
+    private static final int PORT = 12000;
+    private static final int WARMUP_MESSAGES = 20000;
+
+    /**
+     * Bounces the message between two sockets.
+     * @param a DuplexSocket, sends to b.
+     * @param b DuplexSocket, sends to a.
+     * @param msg byte[], the message.
+     * @param messages int, the number of messages (two per round trip).
+     * @return double[], {bytes allocated per message, ns per message}.
+     */
+    private static double[] run(DuplexSocket a, DuplexSocket b, byte[] msg, int messages) throws SocketTimeoutException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadID = Thread.currentThread().getId();
+
+        bounce(a, b, msg, WARMUP_MESSAGES);
+        long allocated = threads.getThreadAllocatedBytes(threadID);
+        long start = System.nanoTime();
+        bounce(a, b, msg, messages);
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getThreadAllocatedBytes(threadID) - allocated;
+
+        a.close();
+        b.close();
+        return new double[]{(double) allocated / messages, (double) elapsed / messages};
+    }
+
+    /**
+     * Sends messages back and forth.
+     */
+    private static void bounce(DuplexSocket a, DuplexSocket b, byte[] msg, int messages) throws SocketTimeoutException {
+        for (int i = 0; i < messages; i += 2) {
+            a.send(msg);
+            b.receive();
+            b.send(msg);
+            a.receive();
+        }
+    }
+
+    /**
+     * Benchmark entrypoint. The sockets' logging is discarded while measuring.
+     * @param args String[], command line args (see class doc).
+     */
+    public static void main(String[] args) throws SocketTimeoutException {
+        int messages = Integer.parseInt(Utility.getOption(args, "messages", "200000"));
+        InetAddress host = InetAddress.getLoopbackAddress();
+        Logger logger = new Logger("SocketAllocationBenchmark");
+        byte[] msg = JSONPacket.serialize(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+            put(Config.K_ELEVATOR_ID, 3);
+            put(Config.K_FLOOR, 12);
+            put(Config.K_FLOOR_BUTTON, ElevatorDirection.UP);
+            put(Config.K_ERROR, ElevatorState.NO_ERROR);
+        }}));
+        PrintStream out = System.out;
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        double[] plain = run(new DuplexSocket(PORT, PORT + 1, host, logger, 1000),
+                new DuplexSocket(PORT + 1, PORT, host, logger, 1000), msg, messages);
+        double[] nio = run(new NioDuplexSocket(PORT + 2, PORT + 3, host, logger, 1000),
+                new NioDuplexSocket(PORT + 3, PORT + 2, host, logger, 1000), msg, messages);
+        System.setOut(out);
+
+        System.out.printf("%d messages of %d bytes%n", messages, msg.length);
+        System.out.println("socket\t\tbytes/message\tns/message");
+        System.out.printf("DuplexSocket\t%.1f\t\t%.0f%n", plain[0], plain[1]);
+        System.out.printf("NioDuplexSocket\t%.1f\t\t%.0f%n", nio[0], nio[1]);
+    }
+}
@@ -0,0 +1,144 @@
+package Benchmark;
+
+import System.Util.ThreadLauncher;
+import System.Util.Utility;
+import Types.ThreadMode;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares platform and virtual threads for simulating many elevators in
+ * one JVM. Each simulated elevator loops sleeping for a fixed tick, like
+ * Elevator's door and motion sleeps, and records how late each wake up
+ * is. Reports the OS thread count, the memory the threads add and the
+ * wake up latency percentiles. Virtual threads are skipped on runtimes
+ * without them.
+ *
+ * Options: --elevators=N --tick=MS --seconds=S
+ */
+public class ThreadModeBenchmark {
+    /**
+     * Wake ups recorded per elevator.
+     */
+    private static final int MAX_SAMPLES = 512;
+
+    /**
+     * Runs the simulated elevators in one mode.
+     * @return double[], {start up ms, os threads added, memory added in MB, p50 lateness ms, p99 lateness ms, max lateness ms}.
+     */
+    private static double[] run(ThreadMode mode, int numElevators, long tickMs, long durationMs) throws InterruptedException {
+        long[][] samples = new long[numElevators][MAX_SAMPLES];
+        int[] counts = new int[numElevators];
+        Thread[] threads = new Thread[numElevators];
+        CountDownLatch started = new CountDownLatch(numElevators);
+        CountDownLatch go = new CountDownLatch(1);
+        long[] deadline = new long[1];
+
+        System.gc();
+        long memoryBefore = getMemory();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < numElevators; i++) {
+            final int id = i;
+            threads[i] = ThreadLauncher.start(() -> {
+                started.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                while (System.currentTimeMillis() < deadline[0]) {
+                    long expected = System.nanoTime() + tickMs * 1_000_000;
+                    try {
+                        Thread.sleep(tickMs);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (counts[id] < MAX_SAMPLES) {
+                        samples[id][counts[id]++] = System.nanoTime() - expected;
+                    }
+                }
+            }, "Elevator-" + i, mode);
+        }
+        started.await();
+        double startUpMs = (System.nanoTime() - startTime) / 1e6;
+
+        long memoryAfter = getMemory();
+        int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+        deadline[0] = System.currentTimeMillis() + durationMs;
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = 0;
+        for (int count : counts) { total += count; }
+        long[] lateness = new long[total];
+        int idx = 0;
+        for (int i = 0; i < numElevators; i++) {
+            System.arraycopy(samples[i], 0, lateness, idx, counts[i]);
+            idx += counts[i];
+        }
+        Arrays.sort(lateness);
+
+        return new double[]{startUpMs, threadsAfter - threadsBefore, (memoryAfter - memoryBefore) / 1e6,
+                percentile(lateness, 50), percentile(lateness, 99), lateness[lateness.length - 1] / 1e6};
+    }
+
+    /**
+     * Returns the process' resident memory in bytes, or the used heap where /proc is unavailable.
+     */
+    private static long getMemory() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException e) {
+            // Fall through to the heap.
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Returns the specified percentile of sorted values in ms.
+     */
+    private static double percentile(long[] sorted, double p) {
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))] / 1e6;
+    }
+
+    /**
+     * Benchmark entrypoint.
+     * @param args String[], command line args (see class doc).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int numElevators = Integer.parseInt(Utility.getOption(args, "elevators", "5000"));
+        long tickMs = Long.parseLong(Utility.getOption(args, "tick", "100"));
+        long durationMs = Long.parseLong(Utility.getOption(args, "seconds", "10")) * 1000;
+
+        System.out.printf("%d elevators, %d ms tick, %d cores, Java %s%n", numElevators, tickMs,
+                Runtime.getRuntime().availableProcessors(), System.getProperty("java.version"));
+        System.out.println("mode\t\tstart up ms\tos threads\tmemory MB\tlateness ms: p50\tp99\tmax");
+
+        for (ThreadMode mode : ThreadMode.values()) {
+            if (mode == ThreadMode.VIRTUAL && !ThreadLauncher.isVirtualSupported()) {
+                System.out.println(mode + "\t\tnot supported by this runtime");
+                continue;
+            }
+
+            double[] result = run(mode, numElevators, tickMs, durationMs);
+            System.out.printf("%s\t%s%.0f\t\t%.0f\t\t%.1f\t\t%.2f\t\t\t%.2f\t%.2f%n", mode, (mode == ThreadMode.VIRTUAL) ? "\t" : "",
+                    result[0], result[1], result[2], result[3], result[4], result[5]);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package System;
 
+import Types.DispatchStrategyType;
+import Types.PacketCodec;
+import Types.ThreadMode;
+
 /**
  * Defines the port each subsystem is listening on.
  */
@@ -11,7 +15,139 @@ public class Config {
     public static final int ELEVATOR_BASE_PORT = 6000;
     public static final int ELEVATOR_INCREMENT = 20;
     public static final int NUMBER_ELEVATORS = 4;
-    public static final int ELEVATOR_TIMEOUT = 20; // seconds;
+    public static final int ELEVATOR_TIMEOUT = 20; // seconds; longest an idle elevator stays quiet
+    /**
+     * Simulated seconds per real second, from 1 (real time) up to MAX_TIME_SCALE (override with
+     * --time-scale=N on every process). Scales trace pacing, door, boarding, unjamming and travel
+     * times, and the timeouts derived from them; measured network round trips stay real.
+     */
+    public static final double TIME_SCALE = 1;
+    public static final double MAX_TIME_SCALE = 1000;
+    /**
+     * Trace time per simulated unit of time: traces are written a minute per second
+     * (data.txt's calls are minutes apart), the time scale applying on top.
+     */
+    public static final int TRACE_COMPRESSION = 60;
+
+    /* Scheduler Properties */
+    /**
+     * Default dispatch algorithm (override with --dispatch=NAME).
+     */
+    public static final DispatchStrategyType DISPATCH_STRATEGY = DispatchStrategyType.DIRECTIONAL;
+    /**
+     * Whether elevators only collect hall calls going their way (unless reversing).
+     */
+    public static final boolean DIRECTIONAL_HALL_CALLS = true;
+    /**
+     * Number of event loops servicing the elevators (0 for a blocking listener thread per elevator).
+     */
+    public static final int ELEVATOR_EVENT_LOOPS = 1;
+    /**
+     * Whether all elevators send to one scheduler port (SCHEDULER_PORT + 1), the scheduler telling
+     * them apart by the id in each frame, instead of a port each (override with --shared-port=true|false).
+     */
+    public static final boolean SHARED_ELEVATOR_PORT = false;
+    /**
+     * Default kind of thread for listeners and elevators (override with --threads=platform|virtual).
+     * Virtual threads need a Java 21+ runtime; otherwise platform threads are used.
+     */
+    public static final ThreadMode THREAD_MODE = ThreadMode.PLATFORM;
+    /**
+     * Whether idle elevators are sent to the floors most likely to call next.
+     */
+    public static final boolean IDLE_PARKING = true;
+    /**
+     * Length of the time of day slots hall call rates are learned over, in minutes.
+     */
+    public static final int PARKING_SLOT_MINUTES = 60;
+    /**
+     * Calls remembered per slot before older calls are halved away.
+     */
+    public static final int PARKING_HISTORY = 500;
+    /**
+     * Number of elevator banks, each run by its own scheduler (override with --banks=N).
+     * With more than one bank a BankRouter listens on SCHEDULER_PORT instead.
+     */
+    public static final int NUMBER_BANKS = 1;
+    /**
+     * Port offset between banks (must exceed NUMBER_ELEVATORS * ELEVATOR_INCREMENT).
+     */
+    public static final int BANK_PORT_OFFSET = 1000;
+    /**
+     * Requests the bank router keeps in flight to each bank.
+     */
+    public static final int BANK_WINDOW = 64;
+    /**
+     * Wire format packets are sent in (override with --codec=json|binary). Both are always received.
+     */
+    public static final PacketCodec PACKET_CODEC = PacketCodec.JSON;
+    /**
+     * Whether sockets reuse NIO buffers instead of allocating per message (override with --nio=true|false).
+     */
+    public static final boolean NIO_SOCKETS = false;
+    /**
+     * Whether sockets pass messages between threads of one JVM instead of over UDP (all subsystems in one process).
+     */
+    public static final boolean IN_MEMORY_SOCKETS = false;
+    /**
+     * Largest frame in bytes an NIO socket sends or receives; larger sends raise a FrameSizeException and larger receives are dropped.
+     */
+    public static final int MAX_FRAME_SIZE = 1024;
+    /**
+     * Whether sockets number, ack and retransmit messages themselves, dropping duplicates
+     * (override with --reliable=true|false). Every subsystem must use the same setting.
+     */
+    public static final boolean RELIABLE_SOCKETS = false;
+    /**
+     * Time in ms before an unacked message is first retransmitted; doubled on each retry.
+     */
+    public static final int RELIABLE_RETRANSMIT_TIMEOUT = 200;
+    /**
+     * Retransmissions before an unacked message is given up on.
+     */
+    public static final int RELIABLE_MAX_RETRIES = 20;
+
+    /* Floor Properties */
+    /**
+     * Requests the floor keeps in flight to the scheduler (override with --window=N).
+     * 0 sends one request at a time and waits for its ack.
+     */
+    public static final int FLOOR_WINDOW = 0;
+    /**
+     * Most requests sent in one datagram when windowed.
+     */
+    public static final int FLOOR_BATCH_SIZE = 8;
+    /**
+     * Map trace files into memory instead of reading them through a buffer (override with --mmap=true).
+     */
+    public static final boolean MAPPED_TRACE_READS = false;
+    /**
+     * Time in ms without an ack before the floor resends its window.
+     */
+    public static final int FLOOR_RETRANSMIT_TIMEOUT = 500;
+
+    /* Fault Detection Properties */
+    /**
+     * Time in ms between heartbeat probes of each elevator (0 for none, leaving only command timeouts).
+     */
+    public static final int HEARTBEAT_INTERVAL = 500;
+    /**
+     * Probes in a row an elevator may leave unanswered before it is suspected silent.
+     */
+    public static final int HEARTBEAT_MISSES = 3;
+    /**
+     * Time in ms between checks of a quiet elevator's timeouts.
+     */
+    public static final int ELEVATOR_CHECK_INTERVAL = 250;
+    /**
+     * Retransmission timeout in ms before any round trip has been measured.
+     */
+    public static final int RTT_INITIAL_TIMEOUT = 1000;
+    /**
+     * Bounds in ms on retransmission timeouts measured from round trips.
+     */
+    public static final int RTT_MIN_TIMEOUT = 1000;
+    public static final int RTT_MAX_TIMEOUT = 10000;
 
     /* Elevator Properties */
     /**
@@ -44,15 +180,6 @@ public class Config {
      */
     public static final long DISTANCE_BETWEEN_FLOOR = 4;
 
-    /**
-     * Time in which the elevator is accelerating
-     */
-    public static final double ACCELERATION_TIME = 7.78;
-
-    /**
-     * Distance covered while accelerating
-     */
-    public static final int ACCELERATION_DISTANCE = 9;
 
 
     /* JSON Keys */
@@ -64,12 +191,20 @@ public class Config {
     public static final String K_ERROR = "error";
     public static final String K_TOPIC = "topic";
     public static final String K_COMMAND = "command";
+    public static final String K_ELEVATOR_ID = "elevator";
+    public static final String K_SESSION = "session";
+    public static final String K_SEQUENCE = "seq";
+    public static final String K_REQUESTS = "requests";
+    public static final String K_STATE = "state";
+    public static final String K_ELAPSED = "elapsed";
 
     public static final String UPDATE_FLOOR_MSG = "update-floor";
     public static final String REQUEST_FLOOR_MSG = "request-floor";
     public static final String OPENING_DOORS_MSG = "open-door";
     public static final String ERROR_TYPE_MSG = "error-type";
     public static final String COMMAND_MSG = "command";
+    public static final String BATCH_MSG = "batch";
+    public static final String HEARTBEAT_MSG = "heartbeat";
 
     public static final String UNLOCK_DOOR_COMMAND = "unlock-door";
     public static final String TERMINATE_COMMAND = "terminate";
@@ -4,6 +4,9 @@ import System.Util.Chrono;
 import System.Util.DuplexSocket;
 import System.Util.JSONPacket;
 import System.Util.Logger;
+import System.Util.MotionProfile;
+import System.Util.RttEstimator;
+import System.Util.ThreadLauncher;
 import Types.ElevatorDirection;
 import Types.ElevatorState;
 import org.json.JSONObject;
@@ -13,8 +16,8 @@ import java.net.DatagramPacket;
 import java.net.InetAddress;
 import java.net.SocketTimeoutException;
 import java.util.HashMap;
-
-import static java.lang.Math.abs;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Implements an elevator.
@@ -29,7 +32,12 @@ public class Elevator implements Runnable {
     /**
      * This elevator's state;
      */
-    private ElevatorState state;
+    private volatile ElevatorState state;
+
+    /**
+     * When this elevator entered its state, in ms.
+     */
+    private volatile long stateTime;
 
     /**
      * This elevator's current floor.
@@ -76,6 +84,36 @@ public class Elevator implements Runnable {
      */
     private Chrono chrono;
 
+    /**
+     * Estimates the scheduler's ack round trip, bounding how long to wait before resending.
+     */
+    private final RttEstimator rtt;
+
+    /**
+     * The amount of ms to timeout after a socket receive while idle.
+     */
+    private final int idleTimeout;
+
+    /**
+     * Sends floor updates without blocking the car's motion.
+     */
+    private FloorTelemetry telemetry;
+
+    /**
+     * Messages for the state machine, floor update acks being taken by the telemetry.
+     */
+    private final BlockingQueue<JSONObject> inbox = new LinkedBlockingQueue<>();
+
+    /**
+     * The time this elevator's transitions sleep on.
+     */
+    private final ElevatorClock clock;
+
+    /**
+     * True once closed, ending the state machine loop after its current transition.
+     */
+    private volatile boolean closed;
+
     /**
      * Creates a new elevator with the specified parameters.
      * @param receivingPort int, the port the elevator listens to.
@@ -86,19 +124,48 @@ public class Elevator implements Runnable {
      * @param timeout int, the amount of ms to timeout after a socket receive.
      */
     public Elevator (int receivingPort, int sendPortNum, InetAddress sendAddress, int elevatorID, boolean testing, int timeout) {
-        this.id = elevatorID;
-        this.logger = new Logger("Elevator-" + this.id);
-        this.chrono = new Chrono("Elevator-" + this.id, "Timing-measurement");
-        this.testing = testing;
+        this(elevatorID, testing, timeout, ElevatorClock.SCALED, new Logger("Elevator-" + elevatorID));
 
-        
         if (!this.testing) {
-        	this.socket = new DuplexSocket(receivingPort, sendPortNum, sendAddress, this.logger, timeout);
-        } else {
-        	this.socket = null;
+        	this.socket = DuplexSocket.open(receivingPort, sendPortNum, sendAddress, this.logger, timeout);
+        	this.telemetry = new FloorTelemetry(this.socket, this.rtt, this.logger);
+        	ThreadLauncher.start(this::receiveLoop, "Elevator-" + this.id + "-receiver");
         }
-        
+    }
+
+    /**
+     * Creates a new elevator sending on a socket and sleeping on a clock of
+     * the caller's, who receives for it and hands it each message with deliver.
+     * @param socket DuplexSocket, the socket to send to the scheduler on.
+     * @param elevatorID int, the elevator's id.
+     * @param timeout int, the amount of ms to wait for a message while idle.
+     * @param clock ElevatorClock, the clock to sleep on.
+     * @param logger Logger, the logger to log to.
+     */
+    public Elevator(DuplexSocket socket, int elevatorID, int timeout, ElevatorClock clock, Logger logger) {
+        this(elevatorID, false, timeout, clock, logger);
+        this.socket = socket;
+        this.telemetry = new FloorTelemetry(this.socket, this.rtt, this.logger);
+    }
+
+    /**
+     * Creates a new elevator at the first floor without a socket.
+     * @param elevatorID int, the elevator's id.
+     * @param testing boolean, true if this elevator is being tested.
+     * @param timeout int, the amount of ms to wait for a message while idle.
+     * @param clock ElevatorClock, the clock to sleep on.
+     * @param logger Logger, the logger to log to.
+     */
+    private Elevator(int elevatorID, boolean testing, int timeout, ElevatorClock clock, Logger logger) {
+        this.id = elevatorID;
+        this.logger = logger;
+        this.chrono = new Chrono("Elevator-" + this.id, "Timing-measurement");
+        this.testing = testing;
+        this.rtt = new RttEstimator(Config.RTT_INITIAL_TIMEOUT, Config.RTT_MIN_TIMEOUT, Config.RTT_MAX_TIMEOUT);
+        this.idleTimeout = timeout;
+        this.clock = clock;
         this.state = ElevatorState.SEND_ACK;
+        this.stateTime = System.currentTimeMillis();
         this.currentFloor = 1;
         this.destinationFloor = 0;
         this.currentErrorType = ElevatorState.NO_ERROR;
@@ -111,10 +178,68 @@ public class Elevator implements Runnable {
         }
     }
 
+    /**
+     * Receives until terminated, handing floor update acks to the
+     * telemetry and everything else to the state machine.
+     */
+    private void receiveLoop() {
+        while (this.state != ElevatorState.TERMINATED) {
+            DatagramPacket receivePacket;
+            try {
+                receivePacket = this.socket.receive();
+            } catch (SocketTimeoutException e) {
+                continue;
+            } catch (IllegalStateException e) {
+                return;     // Closed by the state machine loop.
+            }
+
+            this.deliver(JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength()));
+        }
+
+        this.telemetry.close();
+        this.socket.close();
+    }
+
+    /**
+     * Hands this elevator a message from the scheduler: floor update
+     * acks to the telemetry, everything else to the state machine.
+     * @param json JSONObject, the message.
+     */
+    public void deliver(JSONObject json) {
+        if (FloorTelemetry.isAck(json)) {
+            this.telemetry.acknowledge(json.getInt(Config.K_SEQUENCE));
+        } else {
+            this.inbox.add(json);
+        }
+    }
+
+    /**
+     * Receives the state machine's next message.
+     * @param timeout long, the time in ms to wait (0 for no limit).
+     * @return JSONObject, the message.
+     */
+    private JSONObject receive(long timeout) throws SocketTimeoutException {
+        JSONObject json = null;
+
+        try {
+            json = this.clock.poll(this.inbox, timeout);
+        } catch (InterruptedException e) {
+            // Treated as a timeout.
+        }
+
+        if (json == null) {
+            throw new SocketTimeoutException();
+        }
+        return json;
+    }
+
     /**
      * Sets the current state;
      */
-    public void setState(ElevatorState state) { this.state = state; }
+    public void setState(ElevatorState state) {
+        this.state = state;
+        this.stateTime = System.currentTimeMillis();
+    }
 
     /**
      * Returns the current state;
@@ -122,6 +247,12 @@ public class Elevator implements Runnable {
      */
     public ElevatorState getState() { return this.state; }
 
+    /**
+     * Returns when this elevator entered its current state.
+     * @return long, the time in ms.
+     */
+    public long getStateTime() { return this.stateTime; }
+
     /**
      * Sends an arrival ack to the scheduler.
      * Blocks for response.
@@ -129,7 +260,6 @@ public class Elevator implements Runnable {
     private void sendAck() {
         JSONObject sendPacket;
         JSONObject dataPacket;
-        DatagramPacket receivePacket;
 
         if (this.testing) {
             this.state = ElevatorState.DOOR_CLOSE;
@@ -141,6 +271,7 @@ public class Elevator implements Runnable {
         final ElevatorDirection direction = this.direction;
         sendPacket = JSONPacket.createPacket(new HashMap<>(){{
             put(Config.K_TOPIC, Config.REQUEST_FLOOR_MSG);
+            put(Config.K_ELEVATOR_ID, id);
             put(Config.K_FLOOR, currentFloor);
             put(Config.K_FLOOR_BUTTON, direction);
             put(Config.K_ERROR, ElevatorState.NO_ERROR);
@@ -149,7 +280,7 @@ public class Elevator implements Runnable {
 
         this.logger.log("Waiting for elevator request....");
         try {
-            receivePacket = socket.receive();
+            dataPacket = this.receive(this.idleTimeout);
         } catch (SocketTimeoutException e) {
             // e.printStackTrace();
             this.logger.log("Timed out.");
@@ -157,7 +288,6 @@ public class Elevator implements Runnable {
             return;
         }
 
-        dataPacket = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
         this.logger.log(dataPacket.toString());
 
         this.destinationFloor = dataPacket.getInt(Config.K_DESTINATION_FLOOR);
@@ -178,7 +308,7 @@ public class Elevator implements Runnable {
         this.logger.log("Closing Doors");
 
         try {
-            Thread.sleep(Config.DOOR_ACTION_TIME * SECONDS_TO_MILLI);
+            this.clock.sleep(Config.DOOR_ACTION_TIME * SECONDS_TO_MILLI);
         } catch (InterruptedException e) {
             this.logger.log("Timed out. Retrying.");
         }
@@ -192,16 +322,11 @@ public class Elevator implements Runnable {
     }
 
     /**
-     * Moves this elevator from current to destination floor.
+     * Moves this elevator from current to destination floor, sleeping
+     * straight to each floor's crossing time to send its update.
      */
     private void move() {
-        final double dt = 0.1;
-        double totalTimeout;
-        double[] timeouts = new double[3];
-        double[] accelerations = new double[]{Config.ACCELERATION, 0, -Config.ACCELERATION};
-        double velocity = 0;
-        double deltaDistance = 0;
-        double timer = 0;
+        final long start = this.clock.currentTimeMillis();
 
         this.logger.log("Moving to destination floor " + this.destinationFloor);
 
@@ -211,50 +336,19 @@ public class Elevator implements Runnable {
             this.direction = ElevatorDirection.DOWN;
         }
 
-        long distanceToDestination = abs(this.destinationFloor - this.currentFloor) * Config.DISTANCE_BETWEEN_FLOOR;
-
-        if(distanceToDestination > Config.ACCELERATION_DISTANCE * 2){
-            // t = t_a * 2 + (Î”d - Î”d_a) / v_top
-            totalTimeout = Math.round((Config.ACCELERATION_TIME * 2 + abs(distanceToDestination - Config.ACCELERATION_DISTANCE * 2) / Config.TOP_SPEED) * 10.0) / 10.0;
-            timeouts[0] = Config.TOP_SPEED / Config.ACCELERATION;
-            timeouts[1] = totalTimeout - 2 * timeouts[0];
-            timeouts[2] = timeouts[0];
-        }
-        else{
-            // d = Vit + 1/2 at^2
-            // Accelerate half and deaccelerate other half
-            // t = 2sqrt(0.5 * 2d/a)
-            totalTimeout = 2 * (Math.sqrt((distanceToDestination) / Config.ACCELERATION));
-            timeouts[0] = totalTimeout / 2;
-            timeouts[1] = 0;
-            timeouts[2] = timeouts[0];
-        }
-
-        for (int timeoutIdx = 0; timeoutIdx < timeouts.length; timeoutIdx++){
-            while (timer <= timeouts[timeoutIdx]) {
-                try {
-                    Thread.sleep(new Double(dt * SECONDS_TO_MILLI).longValue());
-                } catch (InterruptedException e) {
-                    //e.printStackTrace();
-                }
-
-                timer += dt;
-                velocity += accelerations[timeoutIdx] * dt;
-                deltaDistance += velocity * dt;
-
-//                this.logger.log("Distance: " + String.format("%.2f", deltaDistance));
-//                this.logger.log("Velocity: " + String.format("%.2f", velocity));
-//                this.logger.log("Acceleration: " + String.format("%.2f", accelerations[timeoutIdx]));
-
-                if (deltaDistance > Config.DISTANCE_BETWEEN_FLOOR) {
-                    deltaDistance = deltaDistance % Config.DISTANCE_BETWEEN_FLOOR;
-                    this.chrono.start();
-                    this.sendFloorUpdate();
-                    this.chrono.end();
-                    this.chrono.logElapsed("ELEVATOR_FLOOR_UPDATE");
-                }
+        for (double crossingTime : MotionProfile.getCrossingTimes(this.currentFloor, this.destinationFloor)) {
+            // Sleep to the crossing's deadline, so time spent sending doesn't accumulate.
+            long deadline = start + Math.round(crossingTime * SECONDS_TO_MILLI);
+            try {
+                this.clock.sleep(Math.max(0, deadline - this.clock.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                //e.printStackTrace();
             }
-            timer = 0;
+
+            this.chrono.start();
+            this.sendFloorUpdate();
+            this.chrono.end();
+            this.chrono.logElapsed("ELEVATOR_FLOOR_UPDATE");
         }
 
         this.logger.log("\t>>>>>>>>> Arrived to destination floor " + this.destinationFloor);
@@ -263,13 +357,9 @@ public class Elevator implements Runnable {
     }
 
     /**
-     * Sends floor update event to scheduler.
+     * Sends floor update event to scheduler, without waiting for its ack.
      */
     public void sendFloorUpdate() {
-        JSONObject sendPacket;
-        JSONObject dataPacket;
-        DatagramPacket receivePacket;
-
         if (this.direction == ElevatorDirection.UP) {
             this.currentFloor ++;
         } else {
@@ -278,44 +368,25 @@ public class Elevator implements Runnable {
 
         if (this.testing) return;
 
-        while (true) {
-            this.logger.log("Sending floorUpdate: floor - " + this.currentFloor);
-            final int currentFloor = this.currentFloor;
-            final ElevatorDirection direction = this.direction;
-            sendPacket = JSONPacket.createPacket(new HashMap<>(){{
-                put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
-                put(Config.K_FLOOR, currentFloor);
-                put(Config.K_FLOOR_BUTTON, direction);
-                put(Config.K_ERROR, ElevatorState.NO_ERROR);
-            }});
-            socket.send(JSONPacket.serialize(sendPacket));
-
-            this.logger.log("Waiting for elevator ack....");
-
-            try {
-                receivePacket = socket.receive();
-                dataPacket = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
-                this.logger.log(dataPacket.toString());
-                return;
-            } catch (SocketTimeoutException e) {
-                // e.printStackTrace();
-                this.logger.log("Timed out. Retrying.");
-                continue;
-            }
-        }
+        this.logger.log("Sending floorUpdate: floor - " + this.currentFloor);
+        final int currentFloor = this.currentFloor;
+        final ElevatorDirection direction = this.direction;
+        this.telemetry.send(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+            put(Config.K_ELEVATOR_ID, id);
+            put(Config.K_FLOOR, currentFloor);
+            put(Config.K_FLOOR_BUTTON, direction);
+            put(Config.K_ERROR, ElevatorState.NO_ERROR);
+        }}));
     }
 
     /**
      * Sends door open event to scheduler.
      */
     private void doorOpen() {
-        JSONObject sendPacket;
-        JSONObject dataPacket;
-        DatagramPacket receivePacket;
-
         this.logger.log("Opening Doors");
         try {
-            Thread.sleep(Config.DOOR_ACTION_TIME * SECONDS_TO_MILLI);
+            this.clock.sleep(Config.DOOR_ACTION_TIME * SECONDS_TO_MILLI);
         } catch (InterruptedException e) {
             // e.printStackTrace();
         }
@@ -325,30 +396,57 @@ public class Elevator implements Runnable {
             return;
         }
 
+        this.logger.log("Sending open doors notification: floor - " + this.currentFloor);
+        final int currentFloor = this.currentFloor;
+        final ElevatorDirection direction = this.direction;
+        this.sendUntilAcked(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.OPENING_DOORS_MSG);
+            put(Config.K_ELEVATOR_ID, id);
+            put(Config.K_FLOOR, currentFloor);
+            put(Config.K_FLOOR_BUTTON, direction);
+            put(Config.K_ERROR, ElevatorState.NO_ERROR);
+        }}));
+        this.state = ElevatorState.WAIT_BOARDING;
+    }
+
+    /**
+     * Sends a notification to the scheduler and blocks for its ack, resending
+     * after the estimated retransmission timeout. Only round trips of
+     * notifications sent once are sampled, an ack after a resend could be
+     * for either copy (Karn's algorithm).
+     * @param sendPacket JSONObject, the notification.
+     */
+    private void sendUntilAcked(JSONObject sendPacket) {
+        JSONObject dataPacket;
+        byte[] serialized = JSONPacket.serialize(sendPacket);
+        boolean resend = true;
+        boolean retransmitted = false;
+        long sendTime = 0;
+        long giveUps = 0;
+
         while (true) {
-            this.logger.log("Sending open doors notification: floor - " + this.currentFloor);
-            final int currentFloor = this.currentFloor;
-            final ElevatorDirection direction = this.direction;
-            sendPacket = JSONPacket.createPacket(new HashMap<>(){{
-                put(Config.K_TOPIC, Config.OPENING_DOORS_MSG);
-                put(Config.K_FLOOR, currentFloor);
-                put(Config.K_FLOOR_BUTTON, direction);
-                put(Config.K_ERROR, ElevatorState.NO_ERROR);
-            }});
-            socket.send(JSONPacket.serialize(sendPacket));
+            if (resend) {
+                sendTime = System.currentTimeMillis();
+                giveUps = socket.getGiveUpCount();
+                socket.send(serialized);
+            }
 
             this.logger.log("Waiting for elevator ack....");
 
             try {
-                receivePacket = socket.receive();
-                dataPacket = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
+                dataPacket = this.receive(this.rtt.getTimeout());
+                if (!retransmitted) {
+                    this.rtt.sample(System.currentTimeMillis() - sendTime);
+                }
                 this.logger.log(dataPacket.toString());
-                this.state = ElevatorState.WAIT_BOARDING;
                 return;
             } catch (SocketTimeoutException e) {
                 // e.printStackTrace();
+                // A reliable socket is still retransmitting unless it gave up, resending would duplicate the update.
                 this.logger.log("Timed out. Retrying.");
-                continue;
+                this.rtt.backoff();
+                resend = !socket.isReliable() || socket.getGiveUpCount() != giveUps;
+                retransmitted |= resend;
             }
         }
     }
@@ -359,7 +457,7 @@ public class Elevator implements Runnable {
     private void waitBoarding() {
         this.logger.log("Waiting for passengers to board");
         try {
-            Thread.sleep(Config.BOARDING_TIME * SECONDS_TO_MILLI);
+            this.clock.sleep(Config.BOARDING_TIME * SECONDS_TO_MILLI);
         } catch (InterruptedException e) {
             // e.printStackTrace();
         }
@@ -371,7 +469,6 @@ public class Elevator implements Runnable {
      */
     private void doorJam() {
         JSONObject sendPacket;
-        DatagramPacket receivePacket;
         JSONObject json;
 
         if (this.testing) {
@@ -384,19 +481,19 @@ public class Elevator implements Runnable {
         // Get status request
         while (true) {
             try {
-                receivePacket = socket.receive();
+                json = this.receive(this.idleTimeout);
                 break;
             } catch (SocketTimeoutException e) {
                 // e.printStackTrace();
                 this.logger.log("Timed out.");
             }
         }
-        json = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
 
         this.logger.log("Got elevator status request: " + json +  ". " +  "Sending door jam notification.");
         final int currentFloor = this.currentFloor;
         sendPacket = JSONPacket.createPacket(new HashMap<>(){{
             put(Config.K_TOPIC, Config.ERROR_TYPE_MSG);
+            put(Config.K_ELEVATOR_ID, id);
             put(Config.K_ERROR, ElevatorState.DOOR_JAM);
             put(Config.K_FLOOR, currentFloor);
         }});
@@ -412,7 +509,6 @@ public class Elevator implements Runnable {
      */
     private void stuckFloor() {
         JSONObject sendPacket;
-        DatagramPacket receivePacket;
         JSONObject json;
 
         if (this.testing) {
@@ -425,19 +521,19 @@ public class Elevator implements Runnable {
         // Get status request
         while (true) {
             try {
-                receivePacket = socket.receive();
+                json = this.receive(this.idleTimeout);
                 break;
             } catch (SocketTimeoutException e) {
                 // e.printStackTrace();
                 this.logger.log("Timed out.");
             }
         }
-        json = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
 
         this.logger.log("Got elevator status request: " + json +  ". " +  "Sending stuck floor notification.");
         final int currentFloor = this.currentFloor;
         sendPacket = JSONPacket.createPacket(new HashMap<>(){{
             put(Config.K_TOPIC, Config.ERROR_TYPE_MSG);
+            put(Config.K_ELEVATOR_ID, id);
             put(Config.K_ERROR, ElevatorState.STUCK_FLOOR);
             put(Config.K_FLOOR, currentFloor);
         }});
@@ -452,7 +548,6 @@ public class Elevator implements Runnable {
      * jam event.
      */
     private void waitCommand(String testParam) {
-        DatagramPacket receivePacket;
         JSONObject json;
 
         if (this.testing) {
@@ -470,7 +565,7 @@ public class Elevator implements Runnable {
         // Get status request
         while (true) {
             try {
-                receivePacket = socket.receive();
+                json = this.receive(this.idleTimeout);
                 this.chrono.end();
                 this.chrono.logElapsed("ERROR_WAIT_COMMAND");
                 break;
@@ -479,7 +574,6 @@ public class Elevator implements Runnable {
                 this.logger.log("Timed out.");
             }
         }
-        json = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
         this.logger.log("Got elevator command: " + json);
 
         String command = json.getString(Config.K_COMMAND);
@@ -488,7 +582,7 @@ public class Elevator implements Runnable {
             case Config.UNLOCK_DOOR_COMMAND: {
                 this.logger.log("Unjamming doors, standby...");
                 try {
-                    Thread.sleep(Config.DOOR_UNJAMMING_TIME * SECONDS_TO_MILLI);
+                    this.clock.sleep(Config.DOOR_UNJAMMING_TIME * SECONDS_TO_MILLI);
                 } catch (InterruptedException e) {
                     e.printStackTrace();
                 }
@@ -523,6 +617,8 @@ public class Elevator implements Runnable {
      * state machine with testing injection.
      */
     public void execute(String testParam) {
+        ElevatorState previous = this.state;
+
         switch(this.state) {
             case SEND_ACK: {
                 this.logger.log("State: SEND_ACK");
@@ -578,16 +674,33 @@ public class Elevator implements Runnable {
                 break;
             }
         }
+
+        if (this.state != previous) {
+            this.stateTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Stops this elevator's state machine loop after its current
+     * transition, which then closes the socket, ending the receive thread.
+     */
+    public void close() {
+        this.closed = true;
     }
 
     /**
      * Runs this elevator's state machine loop.
      */
     public void run() {
-        while(this.state != ElevatorState.TERMINATED) {
+        while(this.state != ElevatorState.TERMINATED && !this.closed) {
             this.execute();
         }
 
+        if (this.closed) {
+            this.telemetry.close();
+            this.socket.close();
+        }
+
         this.logger.log("Terminated.");
         return;
     }
@@ -0,0 +1,56 @@
+package System.ElevatorSystem;
+
+import System.Util.ScaledClock;
+import org.json.JSONObject;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time an elevator's state machine runs on. Elevators sleep on the
+ * ScaledClock by default; a clock of the caller's runs their transitions
+ * on another time, such as a simulator's virtual clock.
+ */
+public interface ElevatorClock {
+    /**
+     * Sleeps on the process wide ScaledClock.
+     */
+    ElevatorClock SCALED = new ElevatorClock() {
+        @Override
+        public long currentTimeMillis() {
+            return ScaledClock.currentTimeMillis();
+        }
+
+        @Override
+        public void sleep(long simulatedMs) throws InterruptedException {
+            ScaledClock.sleep(simulatedMs);
+        }
+
+        @Override
+        public JSONObject poll(BlockingQueue<JSONObject> inbox, long timeout) throws InterruptedException {
+            return (timeout > 0) ? inbox.poll(timeout, TimeUnit.MILLISECONDS) : inbox.take();
+        }
+    };
+
+    /**
+     * Returns the simulated time.
+     * @return long, the time in ms.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Sleeps for a simulated duration.
+     * @param simulatedMs long, the duration in ms.
+     * @throws InterruptedException if interrupted while sleeping.
+     */
+    void sleep(long simulatedMs) throws InterruptedException;
+
+    /**
+     * Waits for an elevator's next message.
+     * @param inbox BlockingQueue<JSONObject>, the elevator's messages.
+     * @param timeout long, the time in ms to wait (0 for no limit).
+     * @return JSONObject, the message, or null if none came in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    JSONObject poll(BlockingQueue<JSONObject> inbox, long timeout) throws InterruptedException;
+}
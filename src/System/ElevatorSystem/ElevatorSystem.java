@@ -4,6 +4,11 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 
 import System.Config;
+import System.Scheduler.Bank;
+import System.Util.DuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.ScaledClock;
+import System.Util.ThreadLauncher;
 import System.Util.Utility;
 
 /**
@@ -38,6 +43,21 @@ public class ElevatorSystem {
      */
     private int timeout;
 
+    /**
+     * True if every elevator sends to the scheduler's one shared port.
+     */
+    private boolean sharedSchedulerPort;
+
+    /**
+     * The system's elevators, indexed by id.
+     */
+    private final Elevator[] elevators;
+
+    /**
+     * Answers the scheduler's heartbeats, null until started or without heartbeats.
+     */
+    private HeartbeatResponder responder;
+
     /**
      * Creates a new elevator system.
      * @param receiveBasePort int, base port for elevator receiving ports.
@@ -53,6 +73,16 @@ public class ElevatorSystem {
         this.receiveBasePort = receiveBasePort;
         this.receiveBasePortIncrement = receiveBasePortIncrement;
         this.timeout = timeout;
+        this.sharedSchedulerPort = Config.SHARED_ELEVATOR_PORT;
+        this.elevators = new Elevator[numElevators];
+    }
+
+    /**
+     * Sets whether every elevator sends to the scheduler's one shared port, must be called before start.
+     * @param sharedSchedulerPort boolean, true to share sendBasePort + 1, false for a port each.
+     */
+    public void setSharedSchedulerPort(boolean sharedSchedulerPort) {
+        this.sharedSchedulerPort = sharedSchedulerPort;
     }
 
     /**
@@ -63,14 +93,15 @@ public class ElevatorSystem {
      * @param elevatorID int, the elevator's id.
      */
     public void initElevator(int receivingPort, int sendPortNum, InetAddress sendAddress, int elevatorID){
-        Runnable elevator = new Elevator(receivingPort, sendPortNum, sendAddress, elevatorID, false, this.timeout);
+        Elevator elevator = new Elevator(receivingPort, sendPortNum, sendAddress, elevatorID, false, this.timeout);
+        this.elevators[elevatorID] = elevator;
 
-        Thread elevatorThread = new Thread(elevator);
-        elevatorThread.start();
+        ThreadLauncher.start(elevator, "Elevator-" + elevatorID);
     }
 
     /**
-     * Starts all elevator threads.
+     * Starts all elevator threads, and answers the scheduler's heartbeats
+     * for them on the port below the first elevator's.
      */
     public void start() {
         int receivingPort;
@@ -78,16 +109,45 @@ public class ElevatorSystem {
 
         for (int i = 0; i < this.numElevators; i++) {
             receivingPort = this.receiveBasePort + i * this.receiveBasePortIncrement;
-            sendingPort = this.sendBasePort + 1 + i;
+            sendingPort = this.sendBasePort + 1 + (this.sharedSchedulerPort ? 0 : i);
             initElevator(receivingPort, sendingPort, this.sendAddress, i);
         }
+
+        if (Config.HEARTBEAT_INTERVAL > 0) {
+            this.responder = new HeartbeatResponder(this.receiveBasePort - 1,
+                    this.sendBasePort + this.numElevators + 1, this.sendAddress, this.elevators);
+            ThreadLauncher.start(this.responder, "Elevator-heartbeat");
+        }
+    }
+
+    /**
+     * Stops every elevator after its current transition, and the heartbeat responder.
+     */
+    public void close() {
+        for (Elevator elevator : this.elevators) {
+            if (elevator != null) elevator.close();
+        }
+        if (this.responder != null) this.responder.close();
     }
 
     /**
      * Elevator system entrypoint.
-     * @param args String[], command line args (unused).
+     * @param args String[], command line args (--banks=N --bank=B runs the elevators of bank B of N,
+     *             --threads=platform|virtual selects the kind of elevator thread,
+     *             --shared-port=true sends every elevator to one scheduler port,
+     *             --codec=json|binary selects the wire format, --nio=true reuses socket buffers,
+     *             --reliable=true acks and retransmits in the socket layer,
+     *             --time-scale=N runs N times faster than real time).
      */
     public static void main(String[] args) {
+        JSONPacket.setCodec(Utility.getOption(args, "codec", Config.PACKET_CODEC));
+        DuplexSocket.setNio(Boolean.parseBoolean(Utility.getOption(args, "nio", String.valueOf(Config.NIO_SOCKETS))));
+        DuplexSocket.setReliable(Boolean.parseBoolean(Utility.getOption(args, "reliable", String.valueOf(Config.RELIABLE_SOCKETS))));
+        ThreadLauncher.setMode(Utility.getOption(args, "threads", Config.THREAD_MODE));
+        ScaledClock.setScale(Double.parseDouble(Utility.getOption(args, "time-scale", String.valueOf(Config.TIME_SCALE))));
+        final int NUM_BANKS = Integer.parseInt(Utility.getOption(args, "banks", String.valueOf(Config.NUMBER_BANKS)));
+        final Bank BANK = Bank.partition(Config.MAX_FLOOR, Config.NUMBER_ELEVATORS, NUM_BANKS)[
+                Integer.parseInt(Utility.getOption(args, "bank", "0"))];
         InetAddress HOST;
 
         try {
@@ -98,14 +158,16 @@ public class ElevatorSystem {
         }
 
         ElevatorSystem elevator = new ElevatorSystem(
-                Config.ELEVATOR_BASE_PORT,
+                BANK.getElevatorBasePort(),
                 Config.ELEVATOR_INCREMENT,
-                Config.SCHEDULER_PORT,
+                BANK.getSchedulerPort(),
                 HOST,
-                Config.NUMBER_ELEVATORS,
-                Config.ELEVATOR_TIMEOUT * Utility.SECONDS_TO_MILLISECONDS / 2
+                BANK.getNumElevators(),
+                ScaledClock.toRealTimeout(Config.ELEVATOR_TIMEOUT * Utility.SECONDS_TO_MILLISECONDS / 2)
         );
 
+        elevator.setSharedSchedulerPort(Boolean.parseBoolean(
+                Utility.getOption(args, "shared-port", String.valueOf(Config.SHARED_ELEVATOR_PORT))));
         elevator.start();
     }
 }
@@ -0,0 +1,167 @@
+package System.ElevatorSystem;
+
+import System.Config;
+import System.Util.DuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import System.Util.RttEstimator;
+import org.json.JSONObject;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends an elevator's floor updates without waiting for their acks, so the
+ * car keeps moving whatever the network does. Updates are numbered and
+ * their acks are handed in asynchronously. Only the newest update is
+ * retransmitted (from a timer, after the estimated retransmission timeout)
+ * until acked, an older position being stale once a newer one is sent.
+ * Over a reliable socket the socket layer retransmits instead.
+ */
+public class FloorTelemetry {
+    /**
+     * Runs the retransmission timers of every elevator.
+     */
+    private static final ScheduledExecutorService TIMERS = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "floor-telemetry-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final DuplexSocket socket;
+    private final RttEstimator rtt;
+    private final Logger logger;
+
+    /**
+     * The newest update's sequence, and the update itself until acked (null once acked).
+     */
+    private int sequence;
+    private byte[] unacked;
+
+    /**
+     * When the newest update was first sent, and whether it was resent since
+     * (its round trip is then ambiguous and not sampled).
+     */
+    private long sendTime;
+    private boolean retransmitted;
+
+    private ScheduledFuture<?> timer;
+
+    /**
+     * Creates new telemetry with the specified parameters.
+     * @param socket DuplexSocket, the elevator's socket.
+     * @param rtt RttEstimator, the elevator's round trip estimate to the scheduler.
+     * @param logger Logger, the elevator's logger.
+     */
+    public FloorTelemetry(DuplexSocket socket, RttEstimator rtt, Logger logger) {
+        this.socket = socket;
+        this.rtt = rtt;
+        this.logger = logger;
+    }
+
+    /**
+     * Returns true if a packet acks a floor update.
+     * @param json JSONObject, the received packet.
+     * @return boolean, true if a floor update ack.
+     */
+    public static boolean isAck(JSONObject json) {
+        return json.optBoolean(Config.K_ACK) && Config.UPDATE_FLOOR_MSG.equals(json.optString(Config.K_TOPIC))
+                && json.has(Config.K_SEQUENCE);
+    }
+
+    /**
+     * Numbers and sends a floor update, superseding any unacked one. Never blocks on the network.
+     * @param update JSONObject, the floor update.
+     * @return int, the update's sequence.
+     */
+    public synchronized int send(JSONObject update) {
+        this.cancelTimer();
+
+        update.put(Config.K_SEQUENCE, ++this.sequence);
+        this.unacked = JSONPacket.serialize(update);
+        this.sendTime = System.currentTimeMillis();
+        this.retransmitted = false;
+        this.socket.send(this.unacked);
+
+        if (!this.socket.isReliable()) {
+            this.schedule(this.unacked);
+        }
+        return this.sequence;
+    }
+
+    /**
+     * Handles a floor update ack. Acks of superseded updates are ignored.
+     * @param sequence int, the acked update's sequence.
+     */
+    public synchronized void acknowledge(int sequence) {
+        if (sequence != this.sequence || this.unacked == null) {
+            return;
+        }
+
+        if (!this.retransmitted) {
+            this.rtt.sample(System.currentTimeMillis() - this.sendTime);
+        }
+        this.unacked = null;
+        this.cancelTimer();
+    }
+
+    /**
+     * Returns true if the newest update was acked.
+     * @return boolean, true if nothing is waiting for an ack.
+     */
+    public synchronized boolean isAcked() {
+        return this.unacked == null;
+    }
+
+    /**
+     * Returns the newest update's sequence.
+     * @return int, the sequence (0 before the first update).
+     */
+    public synchronized int getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Stops retransmitting.
+     */
+    public synchronized void close() {
+        this.unacked = null;
+        this.cancelTimer();
+    }
+
+    /**
+     * Schedules an update's next retransmission after the current timeout.
+     * @param update byte[], the update.
+     */
+    private void schedule(byte[] update) {
+        this.timer = TIMERS.schedule(() -> this.retransmit(update), this.rtt.getTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Resends an update that is still the newest and unacked, backing off.
+     * @param update byte[], the update.
+     */
+    private synchronized void retransmit(byte[] update) {
+        if (this.unacked != update) {
+            return;
+        }
+
+        this.logger.log("Floor update " + this.sequence + " unacked. Resending.");
+        this.rtt.backoff();
+        this.retransmitted = true;
+        this.socket.send(update);
+        this.schedule(update);
+    }
+
+    /**
+     * Cancels the pending retransmission, if any.
+     */
+    private void cancelTimer() {
+        if (this.timer != null) {
+            this.timer.cancel(false);
+            this.timer = null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package System.ElevatorSystem;
+
+import System.Config;
+import System.Util.DuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import org.json.JSONObject;
+
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+
+/**
+ * Answers the scheduler's heartbeat probes for every elevator in the system
+ * with the elevator's state and how long it has been in it, on a channel of
+ * its own so that probes never mix with command traffic.
+ */
+public class HeartbeatResponder implements Runnable {
+    /**
+     * The heartbeat socket.
+     */
+    private final DuplexSocket socket;
+
+    /**
+     * The elevators to answer for, indexed by id.
+     */
+    private final Elevator[] elevators;
+
+    /**
+     * Creates a new responder with the specified parameters.
+     * @param receivePortNum int, the port probes are received on.
+     * @param sendPortNum int, the scheduler's heartbeat port.
+     * @param sendAddress InetAddress, the address to send to.
+     * @param elevators Elevator[], the elevators to answer for, indexed by id.
+     */
+    public HeartbeatResponder(int receivePortNum, int sendPortNum, InetAddress sendAddress, Elevator[] elevators) {
+        this.socket = DuplexSocket.openUnreliable(receivePortNum, sendPortNum, sendAddress, new Logger("Heartbeat"), 0);
+        this.elevators = elevators;
+    }
+
+    /**
+     * Answers probes until the socket is closed.
+     */
+    @Override
+    public void run() {
+        while (true) {
+            JSONObject probe;
+            try {
+                DatagramPacket receivePacket = this.socket.receive();
+                probe = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
+            } catch (SocketTimeoutException e) {
+                continue;   // No timeout is set.
+            } catch (RuntimeException e) {
+                return;     // Closed.
+            }
+
+            int elevatorID = probe.optInt(Config.K_ELEVATOR_ID, -1);
+            if (elevatorID < 0 || elevatorID >= this.elevators.length || this.elevators[elevatorID] == null) {
+                continue;
+            }
+
+            Elevator elevator = this.elevators[elevatorID];
+            this.socket.send(JSONPacket.serialize(JSONPacket.createPacket(new HashMap<>(){{
+                put(Config.K_TOPIC, Config.HEARTBEAT_MSG);
+                put(Config.K_ELEVATOR_ID, elevatorID);
+                put(Config.K_SEQUENCE, probe.getInt(Config.K_SEQUENCE));
+                put(Config.K_STATE, elevator.getState());
+                put(Config.K_ELAPSED, System.currentTimeMillis() - elevator.getStateTime());
+            }})));
+        }
+    }
+
+    /**
+     * Closes the socket, stopping the responder.
+     */
+    public void close() {
+        this.socket.close();
+    }
+}
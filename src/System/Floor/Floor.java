@@ -2,6 +2,7 @@ package System.Floor;
 
 import System.Util.*;
 import System.Config;
+import Types.TrafficPattern;
 import jdk.jshell.execution.Util;
 import org.json.JSONObject;
 
@@ -13,7 +14,6 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -23,11 +23,13 @@ import java.util.stream.Collectors;
  */
 public class Floor {
     private ArrayList<ArrayList<String>> inputData;                 // Storage buffer for parsed request data.
-    private HashMap<String,Integer> headers = new HashMap<>();      // Defines column headers name to col number from input file.
     private String name;                                              // This floor's id.
     private String inputFilename;                                   // Callback that this elevator.
     private DuplexSocket duplexPacket;                              // Duplex send receive socket utility.
     private Logger logger;                                          // System logger.
+    private int window = Config.FLOOR_WINDOW;                       // Requests in flight (0 for stop-and-wait).
+    private TraceSource traceSource;                                // Requests to send instead of the input file's.
+    private boolean mappedReads = Config.MAPPED_TRACE_READS;        // Map the input file instead of buffering reads.
     private static final SimpleDateFormat sdf =                     // Time formatter.
             new SimpleDateFormat("HH:mm:ss.S");
 
@@ -43,7 +45,34 @@ public class Floor {
         this.name = name;
         this.inputFilename = inputFilename;
         this.logger = new Logger(this.name);
-        this.duplexPacket = new DuplexSocket(receivePortNum, sendPortNum, sendAddress, this.logger, timeout);
+        this.duplexPacket = DuplexSocket.open(receivePortNum, sendPortNum, sendAddress, this.logger, timeout);
+    }
+
+    /**
+     * Sets how many requests are kept in flight to the scheduler.
+     *
+     * @param window int, the window size (0 sends one request at a time and waits for its ack).
+     */
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    /**
+     * Sets a trace to send instead of the input file, such as generated traffic.
+     *
+     * @param traceSource TraceSource, the requests to send in order.
+     */
+    public void setTraceSource(TraceSource traceSource) {
+        this.traceSource = traceSource;
+    }
+
+    /**
+     * Sets whether the input file is mapped into memory instead of read through a buffer.
+     *
+     * @param mappedReads boolean, true to map the input file.
+     */
+    public void setMappedReads(boolean mappedReads) {
+        this.mappedReads = mappedReads;
     }
 
     /**
@@ -64,7 +93,6 @@ public class Floor {
         InputReader r = new InputReader();
         r.loadData(this.inputFilename);                 // Open the specified input file.
         this.inputData = r.getFileData();
-        this.initHeaders();                             // Initialized column header names
 
         if (DEBUG) {
             String listString = this.inputData.stream().map(Object::toString)
@@ -75,86 +103,68 @@ public class Floor {
     }
 
     /**
-     * Initializes map from column header names to
-     * column number.
-     */
-    private void initHeaders() {
-        // Column header names are in first row (0)
-        ArrayList<String> headersList = inputData.get(0);
-
-        // Map each header name to its column number.
-        for (int i = 0; i < headersList.size(); i++) {
-            this.headers.put(headersList.get(i).toLowerCase(), i);
-        }
-
-        if (DEBUG) {
-            this.logger.log("Initialized headers.");
-            this.logger.log(this.headers.toString());
-        }
-    }
-
-    /**
-     * Creates JSON packet from specified input row data.
-     *
-     * @param rowIdx int, the index of the row to create the packet from.
-     * @return DataPacket, the data packet holding the row's data.
-     */
-    private JSONObject createPacketFromRow(int rowIdx) {
-        ArrayList<String> rowData = inputData.get(rowIdx);
-        //System.out.println(rowData.toString());
-
-        String time = rowData.get(headers.get("time"));
-        String floor = rowData.get(headers.get("floor"));
-        String floorButton = rowData.get(headers.get("floor button"));
-        String cartButton = rowData.get(headers.get("car button"));
-        String error = rowData.get(headers.get("error"));
-
-        return JSONPacket.createPacket(new HashMap<>(){{
-            put(Config.K_TIME, time);
-            put(Config.K_FLOOR, floor);
-            put(Config.K_FLOOR_BUTTON, floorButton);
-            put(Config.K_DESTINATION_FLOOR, cartButton);
-            put(Config.K_ERROR, error.toUpperCase());
-        }});
-    }
-
-    /**
-     * Returns the difference in times between timeA and timeB
-     * as a list containing [deltaHours, deltaMinutes, deltaSeconds].
+     * Returns the difference in times between timeA and timeB,
+     * wrapping past midnight.
      *
      * @param timeA Time, the initial time.
      * @param timeB Time, the final time.
-     * @return ArrayList<Integer>, the difference between the times.
+     * @return long, the difference between the times in ms.
      */
     private long deltaTime(Time timeA, Time timeB) {
-        return timeB.getTime() - timeA.getTime();
+        long delta = timeB.getTime() - timeA.getTime();
+        return (delta < 0) ? delta + Utility.MILLISECONDS_PER_DAY : delta;
     }
 
 
     /**
      * Defines this Floor thread's main task: reads and parses
-     * data from the specified input file and sends it to the scheduler. Then
+     * data from the specified input file a row at a time, or takes it
+     * from the trace source if set, and sends it to the scheduler. Then
      * waits for the data to be resent back.
      */
     public void run() {
-        final int SECONDS_PER_MINUTE = 60;
-        int cursorIdx = 1;
+        TraceSource source = this.traceSource;
+        TraceReader reader = null;
+
+        if (source == null) {
+            try {                   // Open input requests
+                reader = new TraceReader(InputReader.getFile(this.inputFilename), this.mappedReads);
+                source = reader;
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+
+        try {
+            if (this.window > 0) {
+                this.submitWindowed(source);
+            } else {
+                this.submitEach(source);
+            }
+        } finally {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+
+        this.logger.log("Sent all simulated requests. Exiting.");
+    }
+
+    /**
+     * Sends the trace's requests one at a time, each after the last is acked,
+     * released as far apart as their times.
+     *
+     * @param source TraceSource, the requests to send in order.
+     */
+    private void submitEach(TraceSource source) {
         boolean success = false;
         JSONObject sendPacket, dataPacket;
         DatagramPacket receivePacket;
         Time previousTime = null, currentTime = null;
 
-
-        try {                       // Load input requests
-            this.loadData();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        while(cursorIdx < inputData.size()){
+        while ((sendPacket = source.next()) != null) {
             success = false;
-            sendPacket = createPacketFromRow(cursorIdx);
-            cursorIdx++;
 
             currentTime = Utility.stringToTime(sendPacket.getString(Config.K_TIME));
 
@@ -162,7 +172,7 @@ public class Floor {
                 previousTime = currentTime;
             }
 
-            long delay = this.deltaTime(previousTime, currentTime) / SECONDS_PER_MINUTE;
+            long delay = ScaledClock.toRealMillis(this.deltaTime(previousTime, currentTime) / Config.TRACE_COMPRESSION);
 
             previousTime = currentTime;
 
@@ -172,10 +182,15 @@ public class Floor {
                 e.printStackTrace();
             }
 
+            boolean resend = true;
+            long giveUps = 0;
             while (!success) {
-                this.logger.log("Sending request");
-                this.logger.log("Request: " + sendPacket);
-                duplexPacket.send(JSONPacket.serialize(sendPacket));
+                if (resend) {
+                    this.logger.log("Sending request");
+                    this.logger.log("Request: " + sendPacket);
+                    giveUps = duplexPacket.getGiveUpCount();
+                    duplexPacket.send(JSONPacket.serialize(sendPacket));
+                }
 
 
                 this.logger.log("Receiving Ack");
@@ -185,19 +200,50 @@ public class Floor {
                     this.logger.log(dataPacket.toString());
                     success = true;
                 } catch (SocketTimeoutException e) {
+                    // A reliable socket is still retransmitting unless it gave up, resending would duplicate the request.
                     this.logger.log("Timed out.");
+                    resend = !duplexPacket.isReliable() || duplexPacket.getGiveUpCount() != giveUps;
                 }
             }
         }
+    }
 
-        this.logger.log("Sent all simulated requests. Exiting.");
+    /**
+     * Sends the trace's requests with up to window of them in flight, released
+     * at the same times as in submitEach.
+     *
+     * @param source TraceSource, the requests to send in order.
+     */
+    private void submitWindowed(TraceSource source) {
+        long startTime = System.currentTimeMillis();
+        Time[] previousTime = {null};
+        long[] elapsed = {0};
+
+        new WindowedSubmitter(this.duplexPacket, this.logger, this.window, Config.FLOOR_BATCH_SIZE).submit(source, request -> {
+            Time time = Utility.stringToTime(request.getString(Config.K_TIME));
+            if (previousTime[0] != null) {
+                elapsed[0] += this.deltaTime(previousTime[0], time);
+            }
+            previousTime[0] = time;
+            return startTime + ScaledClock.toRealMillis(elapsed[0] / Config.TRACE_COMPRESSION);
+        });
     }
 
     /**
      * Floor system entry point.
-     * @param args String[], command line args (unused).
+     * @param args String[], command line args (--codec=json|binary selects the wire format,
+     *             --nio=true reuses socket buffers, --reliable=true acks and retransmits
+     *             in the socket layer, --window=N keeps N requests in flight,
+     *             --time-scale=N runs N times faster than real time,
+     *             --traffic=up-peak|down-peak|interfloor|lunch sends generated calls instead of
+     *             the input file's, --calls=N of them, --interval=MS apart on average, --seed=N,
+     *             --mmap=true maps the input file into memory instead of buffering reads).
      */
     public static void main(String[] args) {
+        JSONPacket.setCodec(Utility.getOption(args, "codec", Config.PACKET_CODEC));
+        DuplexSocket.setNio(Boolean.parseBoolean(Utility.getOption(args, "nio", String.valueOf(Config.NIO_SOCKETS))));
+        DuplexSocket.setReliable(Boolean.parseBoolean(Utility.getOption(args, "reliable", String.valueOf(Config.RELIABLE_SOCKETS))));
+        ScaledClock.setScale(Double.parseDouble(Utility.getOption(args, "time-scale", String.valueOf(Config.TIME_SCALE))));
         final String NAME = "Floor";
         final String DATA_FILE = "data.txt";
 
@@ -211,6 +257,19 @@ public class Floor {
                     Config.ELEVATOR_TIMEOUT * Utility.SECONDS_TO_MILLISECONDS
             );
 
+            floor.setWindow(Integer.parseInt(Utility.getOption(args, "window", String.valueOf(Config.FLOOR_WINDOW))));
+            floor.setMappedReads(Boolean.parseBoolean(Utility.getOption(args, "mmap", String.valueOf(Config.MAPPED_TRACE_READS))));
+
+            String traffic = Utility.getOption(args, "traffic", (String) null);
+            if (traffic != null) {
+                TrafficGenerator generator = new TrafficGenerator(
+                        Config.MAX_FLOOR,
+                        Long.parseLong(Utility.getOption(args, "interval", "15000")),
+                        Long.parseLong(Utility.getOption(args, "seed", "3303")),
+                        TrafficPattern.valueOf(traffic.toUpperCase().replace('-', '_'))
+                );
+                floor.setTraceSource(generator.asTraceSource(Long.parseLong(Utility.getOption(args, "calls", "1000"))));
+            }
             floor.run();
         } catch (UnknownHostException e) {
             e.printStackTrace();
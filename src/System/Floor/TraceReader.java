@@ -0,0 +1,314 @@
+package System.Floor;
+
+import System.Config;
+import System.Util.JSONPacket;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+/**
+ * Reads a trace file in the input file's layout one row at a time,
+ * parsing each row only when it is asked for, so memory stays the
+ * same however long the trace is. Rows are read through a buffered
+ * reader, or from a window of the file mapped into memory. The header
+ * is looked up once for the column of each field.
+ */
+public class TraceReader implements TraceSource, AutoCloseable {
+    /**
+     * Characters read at a time by the buffered reader.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Bytes of the file mapped at a time by default, no row may be longer.
+     */
+    private static final long MAP_SIZE = 1 << 26;
+
+    /**
+     * Separator between a row's fields.
+     */
+    private static final String SEPARATOR = ", ";
+
+    /**
+     * The buffered reader, null when mapped.
+     */
+    private final BufferedReader reader;
+
+    /**
+     * The file's channel, null when buffered.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The mapped window of the file.
+     */
+    private MappedByteBuffer map;
+
+    /**
+     * Offset in the file of the mapped window.
+     */
+    private long mapStart;
+
+    /**
+     * Bytes of the file mapped at a time.
+     */
+    private final long mapSize;
+
+    /**
+     * Bytes of the current row, reused.
+     */
+    private byte[] lineBytes = new byte[256];
+
+    /**
+     * The fields of the current row, reused.
+     */
+    private final String[] fields;
+
+    /**
+     * Column of each field.
+     */
+    private final int timeColumn, floorColumn, floorButtonColumn, carButtonColumn, errorColumn;
+
+    /**
+     * The number of rows read.
+     */
+    private long rowsRead = 0;
+
+    /**
+     * Opens a trace file and reads its header.
+     * @param file File, the trace file.
+     * @param memoryMapped boolean, true to map the file into memory instead of buffering reads.
+     * @throws IOException Exception, if the file can't be read.
+     * @throws IllegalArgumentException if the header is missing a column.
+     */
+    public TraceReader(File file, boolean memoryMapped) throws IOException {
+        this(file, memoryMapped, MAP_SIZE);
+    }
+
+    /**
+     * Opens a trace file and reads its header, mapping a window of a given size.
+     * @param file File, the trace file.
+     * @param memoryMapped boolean, true to map the file into memory instead of buffering reads.
+     * @param mapSize long, bytes of the file mapped at a time, no row may be longer.
+     * @throws IOException Exception, if the file can't be read.
+     * @throws IllegalArgumentException if the header is missing a column.
+     */
+    public TraceReader(File file, boolean memoryMapped, long mapSize) throws IOException {
+        if (mapSize <= 0 || mapSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid map size " + mapSize);
+        }
+        this.mapSize = mapSize;
+
+        if (memoryMapped) {
+            this.reader = null;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            this.mapAt(0);
+        } else {
+            this.reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.channel = null;
+        }
+
+        String header;
+        try {
+            header = this.readLine();
+        } catch (IOException e) {
+            this.close();
+            throw e;
+        }
+        if (header == null) {
+            this.close();
+            throw new IllegalArgumentException("Trace " + file + " has no header");
+        }
+
+        HashMap<String, Integer> headers = new HashMap<>();
+        String[] names = header.split(SEPARATOR);
+        for (int i = 0; i < names.length; i++) {
+            headers.put(names[i].trim().toLowerCase(), i);
+        }
+        this.fields = new String[names.length];
+
+        try {
+            this.timeColumn = getColumn(headers, "time");
+            this.floorColumn = getColumn(headers, "floor");
+            this.floorButtonColumn = getColumn(headers, "floor button");
+            this.carButtonColumn = getColumn(headers, "car button");
+            this.errorColumn = getColumn(headers, "error");
+        } catch (IllegalArgumentException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a column's number.
+     * @param headers HashMap<String, Integer>, column number by header name.
+     * @param name String, the column's header name.
+     * @return int, the column number.
+     */
+    private static int getColumn(HashMap<String, Integer> headers, String name) {
+        Integer column = headers.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Trace has no " + name + " column");
+        }
+        return column;
+    }
+
+    /**
+     * Creates the request packet the floor sends for a row's fields.
+     * @param time String, the time of day.
+     * @param floor String, the pickup floor.
+     * @param floorButton String, the floor button pressed.
+     * @param carButton String, the destination floor.
+     * @param error String, the error to inject.
+     * @return JSONObject, the request packet.
+     */
+    static JSONObject createPacket(String time, String floor, String floorButton, String carButton, String error) {
+        return JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TIME, time);
+            put(Config.K_FLOOR, floor);
+            put(Config.K_FLOOR_BUTTON, floorButton);
+            put(Config.K_DESTINATION_FLOOR, carButton);
+            put(Config.K_ERROR, error.toUpperCase());
+        }});
+    }
+
+    /**
+     * Reads and parses the next row.
+     * @return JSONObject, the row's request packet, or null at the end of the file.
+     * @throws UncheckedIOException if the file can't be read.
+     * @throws IllegalArgumentException if the row has too few fields.
+     */
+    @Override
+    public JSONObject next() {
+        String line;
+        try {
+            do {
+                line = this.readLine();
+            } while (line != null && line.isEmpty());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (line == null) {
+            return null;
+        }
+
+        // Split in place of String.split, which compiles a pattern per call.
+        int numFields = 0, start = 0;
+        while (numFields < this.fields.length - 1) {
+            int end = line.indexOf(SEPARATOR, start);
+            if (end < 0) {
+                break;
+            }
+            this.fields[numFields++] = line.substring(start, end);
+            start = end + SEPARATOR.length();
+        }
+        this.fields[numFields++] = line.substring(start);
+
+        if (numFields < this.fields.length) {
+            throw new IllegalArgumentException("Trace row " + (this.rowsRead + 1) + " has " + numFields
+                    + " fields, expected " + this.fields.length + ": " + line);
+        }
+
+        this.rowsRead++;
+        return createPacket(this.fields[this.timeColumn], this.fields[this.floorColumn],
+                this.fields[this.floorButtonColumn], this.fields[this.carButtonColumn], this.fields[this.errorColumn]);
+    }
+
+    /**
+     * Gets the number of rows read.
+     * @return long, the number of rows read.
+     */
+    public long getRowsRead() {
+        return this.rowsRead;
+    }
+
+    /**
+     * Reads the next line without its line break.
+     * @return String, the line, or null at the end of the file.
+     * @throws IOException Exception, file IO exception.
+     */
+    private String readLine() throws IOException {
+        if (this.reader != null) {
+            return this.reader.readLine();
+        }
+
+        if (!this.map.hasRemaining()) {
+            if (this.mapStart + this.map.limit() >= this.channel.size()) {
+                return null;
+            }
+            this.mapAt(this.mapStart + this.map.limit());
+        }
+
+        // Find the line break, mapping from the line's start if the window ends first.
+        int start = this.map.position();
+        int end = start;
+        while (true) {
+            if (end == this.map.limit()) {
+                long lineStart = this.mapStart + start;
+                if (lineStart + (end - start) >= this.channel.size()) {
+                    break;
+                }
+                if (start == 0) {
+                    throw new IOException("Trace row at byte " + lineStart + " is longer than " + this.mapSize + " bytes");
+                }
+                this.mapAt(lineStart);
+                end -= start;
+                start = 0;
+                continue;
+            }
+            if (this.map.get(end) == '\n') {
+                break;
+            }
+            end++;
+        }
+
+        int length = end - start;
+        if (length > 0 && this.map.get(start + length - 1) == '\r') {
+            length--;
+        }
+
+        if (length > this.lineBytes.length) {
+            this.lineBytes = new byte[Math.max(length, 2 * this.lineBytes.length)];
+        }
+        this.map.position(start);
+        this.map.get(this.lineBytes, 0, length);
+        this.map.position(Math.min(end + 1, this.map.limit()));
+        return new String(this.lineBytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Maps the window of the file starting at an offset.
+     * @param offset long, the offset in the file.
+     * @throws IOException Exception, file IO exception.
+     */
+    private void mapAt(long offset) throws IOException {
+        this.mapStart = offset;
+        this.map = this.channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(this.mapSize, this.channel.size() - offset));
+    }
+
+    /**
+     * Closes the trace file.
+     */
+    @Override
+    public void close() {
+        try {
+            if (this.reader != null) {
+                this.reader.close();
+            } else {
+                this.channel.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package System.Floor;
+
+import org.json.JSONObject;
+
+/**
+ * A stream of floor requests, in the packet layout the floor sends
+ * to the scheduler, produced one at a time so a trace never has to
+ * be held in memory.
+ */
+@FunctionalInterface
+public interface TraceSource {
+    /**
+     * Returns the next request of the trace.
+     * @return JSONObject, the next request, or null once the trace is exhausted.
+     */
+    JSONObject next();
+}
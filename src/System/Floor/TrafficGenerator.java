@@ -0,0 +1,326 @@
+package System.Floor;
+
+import System.Config;
+import System.Util.JSONPacket;
+import System.Util.Utility;
+import Types.TrafficPattern;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Generates seeded synthetic traffic: calls arrive as a Poisson process
+ * and each picks its pickup and destination floors from an
+ * origin/destination matrix, either one of the standard building
+ * patterns or a custom one. Calls are made one at a time, so any number
+ * of them can be streamed into a Floor, a BuildingSimulation or a file
+ * in the input file's layout.
+ */
+public class TrafficGenerator implements Iterator<long[]> {
+    /**
+     * The lobby's floor number.
+     */
+    public static final int LOBBY = 1;
+
+    /**
+     * Share of up-peak calls from the lobby, and of down-peak calls to it.
+     */
+    private static final double PEAK_LOBBY_SHARE = 0.9;
+
+    /**
+     * Share of lunch calls from the lobby, and likewise to it.
+     */
+    private static final double LUNCH_LOBBY_SHARE = 0.45;
+
+    /**
+     * The input file's header row.
+     */
+    public static final String HEADER = "Time, Floor, Floor Button, Car Button, Error";
+
+    /**
+     * The number of floors.
+     */
+    private final int numFloors;
+
+    /**
+     * The random generator calls are drawn from.
+     */
+    private final Random random;
+
+    /**
+     * Mean time in ms between calls.
+     */
+    private long meanIntervalMs;
+
+    /**
+     * Running sums of the origin/destination weights, row by row.
+     */
+    private double[] cumulativeWeights;
+
+    /**
+     * Time in ms of the last call.
+     */
+    private long time = 0;
+
+    /**
+     * Creates a new generator with the specified parameters.
+     * @param numFloors int, the number of floors.
+     * @param meanIntervalMs long, mean time in ms between calls.
+     * @param seed long, the seed, the same seed generates the same calls.
+     * @param pattern TrafficPattern, the traffic pattern calls follow.
+     */
+    public TrafficGenerator(int numFloors, long meanIntervalMs, long seed, TrafficPattern pattern) {
+        if (numFloors < 2) {
+            throw new IllegalArgumentException("Traffic needs at least 2 floors, got " + numFloors);
+        }
+        this.numFloors = numFloors;
+        this.random = new Random(seed);
+        this.setMeanInterval(meanIntervalMs);
+        this.setPattern(pattern);
+    }
+
+    /**
+     * Sets the mean time between calls, from the next call on.
+     * @param meanIntervalMs long, mean time in ms between calls.
+     */
+    public void setMeanInterval(long meanIntervalMs) {
+        if (meanIntervalMs < 0) {
+            throw new IllegalArgumentException("Mean call interval must not be negative, got " + meanIntervalMs);
+        }
+        this.meanIntervalMs = meanIntervalMs;
+    }
+
+    /**
+     * Switches to a standard traffic pattern, from the next call on.
+     * @param pattern TrafficPattern, the traffic pattern.
+     */
+    public void setPattern(TrafficPattern pattern) {
+        this.setMatrix(getMatrix(pattern, this.numFloors));
+    }
+
+    /**
+     * Switches to a custom origin/destination matrix, from the next call on.
+     * @param matrix double[][], relative weights of trips from floor i + 1 to floor j + 1
+     *               (trips to the same floor are never made).
+     */
+    public void setMatrix(double[][] matrix) {
+        if (matrix.length != this.numFloors) {
+            throw new IllegalArgumentException("Matrix has " + matrix.length + " rows for " + this.numFloors + " floors");
+        }
+
+        double[] cumulative = new double[this.numFloors * this.numFloors];
+        double total = 0;
+        for (int origin = 0; origin < this.numFloors; origin++) {
+            if (matrix[origin].length != this.numFloors) {
+                throw new IllegalArgumentException("Matrix row " + origin + " has " + matrix[origin].length
+                        + " columns for " + this.numFloors + " floors");
+            }
+            for (int dest = 0; dest < this.numFloors; dest++) {
+                double weight = matrix[origin][dest];
+                if (weight < 0 || Double.isNaN(weight)) {
+                    throw new IllegalArgumentException("Invalid weight " + weight + " at " + origin + ", " + dest);
+                }
+                if (origin != dest) {
+                    total += weight;
+                }
+                cumulative[origin * this.numFloors + dest] = total;
+            }
+        }
+
+        if (!(total > 0) || Double.isInfinite(total)) {
+            throw new IllegalArgumentException("Matrix has no trips between different floors");
+        }
+        this.cumulativeWeights = cumulative;
+    }
+
+    /**
+     * Returns the origin/destination matrix of a standard traffic pattern:
+     * interfloor trips are uniform, up-peak sends most calls from the lobby
+     * and down-peak most to it, and lunch goes both ways at once.
+     * @param pattern TrafficPattern, the traffic pattern.
+     * @param numFloors int, the number of floors.
+     * @return double[][], the share of trips from floor i + 1 to floor j + 1.
+     */
+    public static double[][] getMatrix(TrafficPattern pattern, int numFloors) {
+        double fromLobby = 0, toLobby = 0;
+        switch (pattern) {
+            case UP_PEAK:
+                fromLobby = PEAK_LOBBY_SHARE;
+                break;
+            case DOWN_PEAK:
+                toLobby = PEAK_LOBBY_SHARE;
+                break;
+            case LUNCH:
+                fromLobby = LUNCH_LOBBY_SHARE;
+                toLobby = LUNCH_LOBBY_SHARE;
+                break;
+            default:
+                break;
+        }
+
+        double[][] matrix = new double[numFloors][numFloors];
+        double interfloor = (1 - fromLobby - toLobby) / (numFloors * (numFloors - 1));
+        for (int origin = 0; origin < numFloors; origin++) {
+            for (int dest = 0; dest < numFloors; dest++) {
+                if (origin != dest) {
+                    matrix[origin][dest] = interfloor;
+                }
+            }
+        }
+        for (int floor = 0; floor < numFloors; floor++) {
+            if (floor != LOBBY - 1) {
+                matrix[LOBBY - 1][floor] += fromLobby / (numFloors - 1);
+                matrix[floor][LOBBY - 1] += toLobby / (numFloors - 1);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Returns whether there is another call, the generator never runs out.
+     * @return boolean, true.
+     */
+    @Override
+    public boolean hasNext() {
+        return true;
+    }
+
+    /**
+     * Generates the next call, an exponentially distributed time after the last.
+     * @return long[], the call as {time in ms, pickup floor, destination floor}.
+     */
+    @Override
+    public long[] next() {
+        this.time += Math.round(-Math.log(1 - this.random.nextDouble()) * this.meanIntervalMs);
+
+        double[] cumulative = this.cumulativeWeights;
+        double target = this.random.nextDouble() * cumulative[cumulative.length - 1];
+
+        // First trip whose running sum passes the target, trips with no weight are skipped over.
+        int low = 0, high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] > target) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        return new long[]{this.time, low / this.numFloors + 1, low % this.numFloors + 1};
+    }
+
+    /**
+     * Returns the first calls as a trace the floor sends row by row.
+     * @param numCalls long, the number of calls.
+     * @return TraceSource, the calls as request packets.
+     */
+    public TraceSource asTraceSource(long numCalls) {
+        long[] remaining = {numCalls};
+        return () -> (remaining[0]-- > 0) ? toPacket(this.next()) : null;
+    }
+
+    /**
+     * Writes the first calls with a header row, in the input file's layout.
+     * @param writer Writer, where to write the calls (flushed, not closed).
+     * @param numCalls long, the number of calls.
+     * @throws IOException Exception, writer IO exception.
+     */
+    public void write(Writer writer, long numCalls) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        writer.write(HEADER);
+        writer.write('\n');
+
+        for (long i = 0; i < numCalls; i++) {
+            line.setLength(0);
+            appendRow(line, this.next());
+            writer.append(line).write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Returns a call as the request packet the floor sends.
+     * @param call long[], the call as {time in ms, pickup floor, destination floor}.
+     * @return JSONObject, the request packet.
+     */
+    public static JSONObject toPacket(long[] call) {
+        return JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TIME, formatTime(call[0]));
+            put(Config.K_FLOOR, String.valueOf(call[1]));
+            put(Config.K_FLOOR_BUTTON, (call[2] > call[1]) ? "Up" : "Down");
+            put(Config.K_DESTINATION_FLOOR, String.valueOf(call[2]));
+            put(Config.K_ERROR, "NO_ERROR");
+        }});
+    }
+
+    /**
+     * Appends a call as a row of the input file.
+     * @param line StringBuilder, the line to append to.
+     * @param call long[], the call as {time in ms, pickup floor, destination floor}.
+     */
+    private static void appendRow(StringBuilder line, long[] call) {
+        line.append(formatTime(call[0])).append(", ")
+                .append(call[1]).append(", ")
+                .append((call[2] > call[1]) ? "Up" : "Down").append(", ")
+                .append(call[2]).append(", no_error");
+    }
+
+    /**
+     * Formats a call time as a trace time of day. Traces are replayed
+     * TRACE_COMPRESSION times faster, so the time is stretched to play
+     * back at the generated rate, wrapping past midnight.
+     * @param timeMs long, the call time in ms.
+     * @return String, the time as HH:mm:ss.S with S in ms.
+     */
+    private static String formatTime(long timeMs) {
+        long time = (timeMs * Config.TRACE_COMPRESSION) % Utility.MILLISECONDS_PER_DAY;
+        long seconds = time / 1000;
+        StringBuilder text = new StringBuilder(12);
+
+        appendTwoDigits(text, seconds / 3600).append(':');
+        appendTwoDigits(text, seconds / 60 % 60).append(':');
+        appendTwoDigits(text, seconds % 60).append('.').append(time % 1000);
+        return text.toString();
+    }
+
+    /**
+     * Appends a value below 100 as two digits.
+     */
+    private static StringBuilder appendTwoDigits(StringBuilder text, long value) {
+        return text.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * Writes synthetic traffic to a file, or to standard output.
+     * @param args String[], command line args (--pattern=up-peak|down-peak|interfloor|lunch,
+     *             --calls=N, --floors=N, --interval=MS mean time between calls, --seed=N,
+     *             --out=PATH the file to write instead of standard output).
+     */
+    public static void main(String[] args) {
+        TrafficPattern pattern = Utility.getOption(args, "pattern", TrafficPattern.INTERFLOOR);
+        long numCalls = Long.parseLong(Utility.getOption(args, "calls", "1000"));
+        int numFloors = Integer.parseInt(Utility.getOption(args, "floors", String.valueOf(Config.MAX_FLOOR)));
+        long interval = Long.parseLong(Utility.getOption(args, "interval", "15000"));
+        long seed = Long.parseLong(Utility.getOption(args, "seed", "3303"));
+        String out = Utility.getOption(args, "out", (String) null);
+
+        TrafficGenerator generator = new TrafficGenerator(numFloors, interval, seed, pattern);
+        try {
+            Writer writer = new BufferedWriter((out == null) ? new OutputStreamWriter(System.out) : new FileWriter(out), 1 << 16);
+            generator.write(writer, numCalls);
+            if (out != null) {
+                writer.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
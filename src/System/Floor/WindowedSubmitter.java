@@ -0,0 +1,167 @@
+package System.Floor;
+
+import System.Config;
+import System.Util.BatchReceiver;
+import System.Util.DuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import org.json.JSONObject;
+
+import java.net.DatagramPacket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sends requests to the scheduler with up to window of them in flight,
+ * several per datagram. Requests are numbered in order and acked
+ * cumulatively by the scheduler; if no ack advances the window for
+ * FLOOR_RETRANSMIT_TIMEOUT, everything from the oldest unacked request
+ * is resent (see BatchReceiver).
+ */
+public class WindowedSubmitter {
+    /**
+     * Time in ms to wait for an ack before checking for due requests again.
+     */
+    private static final int ACK_POLL_TIMEOUT = 10;
+
+    /**
+     * Bytes a batch takes beyond its requests.
+     */
+    private static final int BATCH_OVERHEAD = 96;
+
+    /**
+     * The socket to the scheduler.
+     */
+    private final DuplexSocket socket;
+
+    /**
+     * The floor's logger.
+     */
+    private final Logger logger;
+
+    /**
+     * The most requests in flight.
+     */
+    private final int window;
+
+    /**
+     * The most requests per datagram.
+     */
+    private final int batchSize;
+
+    /**
+     * Creates a new submitter with the specified parameters.
+     * @param socket DuplexSocket, the socket to the scheduler (its timeout is changed).
+     * @param logger Logger, the floor's logger.
+     * @param window int, the most requests in flight.
+     * @param batchSize int, the most requests per datagram.
+     */
+    public WindowedSubmitter(DuplexSocket socket, Logger logger, int window, int batchSize) {
+        this.socket = socket;
+        this.logger = logger;
+        this.window = window;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sends every request no earlier than its due time and returns once all are acked.
+     * @param requests JSONObject[], the requests in order.
+     * @param dueTimes long[], the time in ms each request is released at.
+     */
+    public void submit(JSONObject[] requests, long[] dueTimes) {
+        int[] read = {0};
+        this.submit(() -> (read[0] < requests.length) ? requests[read[0]++] : null, request -> dueTimes[read[0] - 1]);
+    }
+
+    /**
+     * Sends every request of a trace no earlier than its due time and returns
+     * once all are acked. Requests are read only as the window reaches them,
+     * so at most window of them are held at once.
+     * @param source TraceSource, the requests in order.
+     * @param dueTime ToLongFunction<JSONObject>, the time in ms a request is released at,
+     *                applied once to each request as it is read.
+     */
+    public void submit(TraceSource source, ToLongFunction<JSONObject> dueTime) {
+        // Requests from base up to loaded, each in slot sequence % window.
+        JSONObject[] requests = new JSONObject[this.window];
+        long[] dueTimes = new long[this.window];
+        int[] requestSizes = new int[this.window];
+        boolean exhausted = false;
+
+        long session = ThreadLocalRandom.current().nextLong();
+        int base = 0, next = 0, loaded = 0;
+        long baseSentTime = 0;
+        this.socket.setTimeout(ACK_POLL_TIMEOUT);
+
+        while (true) {
+            while (!exhausted && loaded - base < this.window) {
+                JSONObject request = source.next();
+                if (request == null) {
+                    exhausted = true;
+                    break;
+                }
+                int slot = loaded++ % this.window;
+                requests[slot] = request;
+                dueTimes[slot] = dueTime.applyAsLong(request);
+                requestSizes[slot] = request.toString().length() + 1;
+            }
+            if (base == loaded) {
+                break;
+            }
+
+            long now = System.currentTimeMillis();
+
+            if (next > base && now - baseSentTime >= Config.FLOOR_RETRANSMIT_TIMEOUT) {
+                this.logger.log("Timed out. Resending from request " + base);
+                next = base;
+            }
+
+            // Send every due request the window allows, batched.
+            while (next < loaded && dueTimes[next % this.window] <= now) {
+                List<JSONObject> batch = new ArrayList<>();
+                int size = BATCH_OVERHEAD;
+                while (next + batch.size() < loaded && batch.size() < this.batchSize
+                        && dueTimes[(next + batch.size()) % this.window] <= now
+                        && (batch.isEmpty() || size + requestSizes[(next + batch.size()) % this.window] <= Config.MAX_FRAME_SIZE)) {
+                    size += requestSizes[(next + batch.size()) % this.window];
+                    batch.add(requests[(next + batch.size()) % this.window]);
+                }
+
+                this.logger.log("Sending requests " + next + " to " + (next + batch.size() - 1));
+                this.socket.send(JSONPacket.serialize(BatchReceiver.createBatch(session, next, batch)));
+                if (next == base) {
+                    baseSentTime = now;
+                }
+                next += batch.size();
+            }
+
+            if (next == base) {
+                // Nothing in flight, wait for the next request to come due.
+                try {
+                    Thread.sleep(Math.max(0, dueTimes[next % this.window] - now));
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+                continue;
+            }
+
+            try {
+                DatagramPacket receivePacket = this.socket.receive();
+                JSONObject ackPacket = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
+                int acked = ackPacket.optInt(Config.K_SEQUENCE, -1);
+
+                if (ackPacket.optLong(Config.K_SESSION) == session && acked > base) {
+                    this.logger.log("Requests acked up to " + (acked - 1));
+                    base = acked;
+                    next = Math.max(next, base);
+                    baseSentTime = System.currentTimeMillis();
+                }
+            } catch (SocketTimeoutException e) {
+                // Checked for retransmission on the next pass.
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package System.Scheduler;
+
+import System.Config;
+
+/**
+ * A bank of elevators run by its own scheduler. Banks split the
+ * building's elevators and the floors above the lobby into contiguous
+ * ranges; every bank also serves the lobby. A bank owns the hall calls
+ * made from its floors, and lobby calls go to the bank serving the
+ * rider's destination.
+ */
+public class Bank {
+    /**
+     * The lobby floor, served by every bank.
+     */
+    public static final int LOBBY = 1;
+
+    /**
+     * The bank's index.
+     */
+    private final int id;
+
+    /**
+     * The floor range (above the lobby) this bank serves, inclusive.
+     */
+    private final int lowFloor, highFloor;
+
+    /**
+     * The number of elevators in this bank.
+     */
+    private final int numElevators;
+
+    /**
+     * Offset applied to the default ports so banks can run side by side.
+     */
+    private final int portOffset;
+
+    /**
+     * Creates a new bank.
+     * @param id int, the bank's index.
+     * @param lowFloor int, the lowest floor above the lobby served.
+     * @param highFloor int, the highest floor served.
+     * @param numElevators int, the number of elevators in the bank.
+     * @param portOffset int, the offset applied to the default ports.
+     */
+    public Bank(int id, int lowFloor, int highFloor, int numElevators, int portOffset) {
+        this.id = id;
+        this.lowFloor = lowFloor;
+        this.highFloor = highFloor;
+        this.numElevators = numElevators;
+        this.portOffset = portOffset;
+    }
+
+    /**
+     * Splits the building into the specified number of banks. A single
+     * bank keeps the default ports so the unbanked deployment is unchanged;
+     * otherwise bank b is offset by (b + 1) * BANK_PORT_OFFSET, leaving the
+     * default scheduler port to the BankRouter.
+     * @param maxFloor int, the highest floor in the system.
+     * @param numElevators int, the number of elevators in the system.
+     * @param numBanks int, the number of banks.
+     * @return Bank[], the banks, lowest floors first.
+     */
+    public static Bank[] partition(int maxFloor, int numElevators, int numBanks) {
+        if (numBanks < 1 || numBanks > numElevators || numBanks > maxFloor - LOBBY) {
+            throw new IllegalArgumentException("Cannot split " + maxFloor + " floors and " + numElevators
+                    + " elevators into " + numBanks + " banks.");
+        }
+
+        Bank[] banks = new Bank[numBanks];
+        int numFloors = maxFloor - LOBBY;
+        int lowFloor = LOBBY + 1;
+
+        for (int b = 0; b < numBanks; b++) {
+            int floors = numFloors / numBanks + ((b < numFloors % numBanks) ? 1 : 0);
+            int elevators = numElevators / numBanks + ((b < numElevators % numBanks) ? 1 : 0);
+            int portOffset = (numBanks == 1) ? 0 : (b + 1) * Config.BANK_PORT_OFFSET;
+
+            banks[b] = new Bank(b, lowFloor, lowFloor + floors - 1, elevators, portOffset);
+            lowFloor += floors;
+        }
+        return banks;
+    }
+
+    /**
+     * Returns the bank that owns the specified call. A trip between two
+     * banks' floors is not split at the lobby: the whole trip goes to the
+     * pickup floor's bank, whose cars leave their range to carry it.
+     * @param banks Bank[], the banks as returned by partition.
+     * @param pickupFloor int, the floor the call was made from.
+     * @param destFloor int, the rider's destination floor.
+     * @return Bank, the bank to send the call to.
+     */
+    public static Bank route(Bank[] banks, int pickupFloor, int destFloor) {
+        int floor = (pickupFloor == LOBBY) ? destFloor : pickupFloor;
+
+        for (Bank bank : banks) {
+            if (floor <= bank.highFloor) {
+                return bank;
+            }
+        }
+        return banks[banks.length - 1];
+    }
+
+    /**
+     * Returns true if the bank serves the specified floor.
+     * @param floor int, the floor to check.
+     * @return boolean, true if served, false otherwise.
+     */
+    public boolean serves(int floor) {
+        return floor == LOBBY || (floor >= this.lowFloor && floor <= this.highFloor);
+    }
+
+    /**
+     * Returns the bank's index.
+     * @return int, the index.
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Returns the lowest floor above the lobby this bank serves.
+     * @return int, the floor.
+     */
+    public int getLowFloor() {
+        return this.lowFloor;
+    }
+
+    /**
+     * Returns the highest floor this bank serves.
+     * @return int, the floor.
+     */
+    public int getHighFloor() {
+        return this.highFloor;
+    }
+
+    /**
+     * Returns the number of elevators in this bank.
+     * @return int, the elevator count.
+     */
+    public int getNumElevators() {
+        return this.numElevators;
+    }
+
+    /**
+     * Returns the port the bank's scheduler receives floor packets on
+     * (elevator listeners follow at +1, +2, ...).
+     * @return int, the port.
+     */
+    public int getSchedulerPort() {
+        return Config.SCHEDULER_PORT + this.portOffset;
+    }
+
+    /**
+     * Returns the port the bank's scheduler sends floor acks to.
+     * @return int, the port.
+     */
+    public int getFloorPort() {
+        return Config.FLOOR_PORT + this.portOffset;
+    }
+
+    /**
+     * Returns the base port the bank's elevators listen on.
+     * @return int, the port.
+     */
+    public int getElevatorBasePort() {
+        return Config.ELEVATOR_BASE_PORT + this.portOffset;
+    }
+
+    /**
+     * Returns a readable summary of the bank.
+     * @return String, the summary.
+     */
+    @Override
+    public String toString() {
+        return "Bank-" + this.id + " [floors " + LOBBY + ", " + this.lowFloor + "-" + this.highFloor
+                + ", " + this.numElevators + " elevators]";
+    }
+}
@@ -0,0 +1,206 @@
+package System.Scheduler;
+
+import System.Config;
+import System.Util.BatchReceiver;
+import System.Util.DuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import org.json.JSONObject;
+
+import java.net.DatagramPacket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The router's pipelined link to one bank's scheduler. Requests are queued
+ * without blocking and sent on the link's own thread with up to window of
+ * them in flight, batched like a windowed floor's. The bank acks
+ * cumulatively with the next sequence it expects (see BatchReceiver), so
+ * each ack is matched to the requests it covers by sequence; if no ack
+ * advances the window for the retransmit timeout, everything from the
+ * oldest unacked request is resent.
+ */
+class BankLink implements Runnable {
+    /**
+     * Time in ms to wait for an ack, or a new request, before checking again.
+     */
+    private static final int ACK_POLL_TIMEOUT = 10;
+
+    /**
+     * Bytes a batch takes beyond its requests.
+     */
+    private static final int BATCH_OVERHEAD = 96;
+
+    /**
+     * A queued request and what to do once the bank acks it.
+     */
+    private static class Forward {
+        private final JSONObject request;
+        private final int size;
+        private final Runnable onAcked;
+
+        private Forward(JSONObject request, Runnable onAcked) {
+            this.request = request;
+            this.size = request.toString().length() + 1;
+            this.onAcked = onAcked;
+        }
+    }
+
+    /**
+     * The socket to the bank's scheduler.
+     */
+    private final DuplexSocket socket;
+
+    /**
+     * The router's logger.
+     */
+    private final Logger logger;
+
+    /**
+     * The bank's name in logs.
+     */
+    private final String name;
+
+    /**
+     * The most requests in flight, and per datagram.
+     */
+    private final int window;
+    private final int batchSize;
+
+    /**
+     * Time in ms without an ack before the window is resent.
+     */
+    private final int retransmitTimeout;
+
+    /**
+     * Requests waiting to enter the window.
+     */
+    private final BlockingQueue<Forward> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * This link's random session id, so the bank starts its sequence over for a new router.
+     */
+    private final long session = ThreadLocalRandom.current().nextLong();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new link with the specified parameters.
+     * @param socket DuplexSocket, the socket to the bank's scheduler (its timeout is changed).
+     * @param logger Logger, the router's logger.
+     * @param name String, the bank's name in logs.
+     * @param window int, the most requests in flight.
+     * @param batchSize int, the most requests per datagram.
+     * @param retransmitTimeout int, the time in ms without an ack before the window is resent.
+     */
+    BankLink(DuplexSocket socket, Logger logger, String name, int window, int batchSize, int retransmitTimeout) {
+        this.socket = socket;
+        this.logger = logger;
+        this.name = name;
+        this.window = window;
+        this.batchSize = batchSize;
+        this.retransmitTimeout = retransmitTimeout;
+        this.socket.setTimeout(ACK_POLL_TIMEOUT);
+    }
+
+    /**
+     * Queues a request for the bank, returning at once.
+     * @param request JSONObject, the request.
+     * @param onAcked Runnable, run on the link's thread once the bank acks the request.
+     */
+    void forward(JSONObject request, Runnable onAcked) {
+        this.queue.add(new Forward(request, onAcked));
+    }
+
+    /**
+     * Stops the link's thread and closes its socket.
+     */
+    void close() {
+        this.closed = true;
+    }
+
+    /**
+     * Sends queued requests and matches the bank's acks to them until closed.
+     */
+    @Override
+    public void run() {
+        // Requests from base up to loaded, each in slot sequence % window.
+        Forward[] forwards = new Forward[this.window];
+        int base = 0, next = 0, loaded = 0;
+        long baseSentTime = 0;
+
+        while (!this.closed) {
+            try {
+                if (base == loaded) {
+                    // Nothing in flight, wait for a request.
+                    Forward forward = this.queue.poll(ACK_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                    if (forward == null) {
+                        continue;
+                    }
+                    forwards[loaded++ % this.window] = forward;
+                }
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+                break;
+            }
+            while (loaded - base < this.window) {
+                Forward forward = this.queue.poll();
+                if (forward == null) {
+                    break;
+                }
+                forwards[loaded++ % this.window] = forward;
+            }
+
+            long now = System.currentTimeMillis();
+            if (next > base && now - baseSentTime >= this.retransmitTimeout) {
+                this.logger.log("Timed out waiting for [ " + this.name + " ] ack. Resending from request " + base);
+                next = base;
+            }
+
+            // Send everything the window holds, batched.
+            while (next < loaded) {
+                List<JSONObject> batch = new ArrayList<>();
+                int size = BATCH_OVERHEAD;
+                while (next + batch.size() < loaded && batch.size() < this.batchSize
+                        && (batch.isEmpty() || size + forwards[(next + batch.size()) % this.window].size <= Config.MAX_FRAME_SIZE)) {
+                    Forward forward = forwards[(next + batch.size()) % this.window];
+                    size += forward.size;
+                    batch.add(forward.request);
+                }
+
+                this.logger.log("Forwarding requests " + next + " to " + (next + batch.size() - 1) + " to [ " + this.name + " ]");
+                this.socket.send(JSONPacket.serialize(BatchReceiver.createBatch(this.session, next, batch)));
+                if (next == base) {
+                    baseSentTime = now;
+                }
+                next += batch.size();
+            }
+
+            try {
+                DatagramPacket receivePacket = this.socket.receive();
+                JSONObject ackPacket = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
+                int acked = ackPacket.optInt(Config.K_SEQUENCE, -1);
+
+                if (ackPacket.optLong(Config.K_SESSION) == this.session && acked > base && acked <= loaded) {
+                    for (; base < acked; base++) {
+                        forwards[base % this.window].onAcked.run();
+                        forwards[base % this.window] = null;
+                    }
+                    next = Math.max(next, base);
+                    baseSentTime = System.currentTimeMillis();
+                }
+            } catch (SocketTimeoutException e) {
+                // Checked for retransmission on the next pass.
+            } catch (RuntimeException e) {
+                if (!this.closed) { throw e; }
+            }
+        }
+
+        this.socket.close();
+    }
+}
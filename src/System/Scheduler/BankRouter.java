@@ -0,0 +1,249 @@
+package System.Scheduler;
+
+import System.Config;
+import System.Util.BatchReceiver;
+import System.Util.DuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import System.Util.ThreadLauncher;
+import System.Util.Utility;
+import org.json.JSONObject;
+
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * Sits in front of the bank schedulers on the scheduler port and forwards
+ * each floor packet to the bank that owns the call. Forwards never block the
+ * router: each bank has a BankLink keeping a window of requests in flight,
+ * whose acks are matched to requests by sequence. The floor is only acked
+ * once the bank has acked, so a lost forward is retried by the floor or link.
+ * A batch from a windowed floor is acked cumulatively up to its first request
+ * a bank hasn't acked yet.
+ * A trip between two banks is forwarded whole to the pickup floor's bank
+ * rather than routed through a transfer floor.
+ */
+public class BankRouter {
+    /**
+     * The floor duplex socket.
+     */
+    private final DuplexSocket floorSocket;
+
+    /**
+     * Pipelined links to each bank's scheduler, indexed by bank.
+     */
+    private final BankLink[] bankLinks;
+
+    /**
+     * The banks to route to.
+     */
+    private final Bank[] banks;
+
+    /**
+     * This router's logger.
+     */
+    private final Logger logger;
+
+    /**
+     * Orders windowed floor requests.
+     */
+    private final BatchReceiver floorBatches = new BatchReceiver();
+
+    /**
+     * The windowed floor's current session, the sequence of its next new
+     * request, and the sequences of its requests no bank has acked yet.
+     */
+    private long floorSession;
+    private boolean floorStarted;
+    private int floorSequence;
+    private final TreeSet<Integer> floorPending = new TreeSet<>();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new router with the specified parameters.
+     * @param name String, the router's name.
+     * @param banks Bank[], the banks to route to.
+     * @param routerPort int, the port floor packets are received on.
+     * @param floorPort int, the floor listener port.
+     * @param bankTimeout int, the time in ms without a bank's ack before its unacked requests are resent.
+     * @param sendAddress InetAddress, the address to send to.
+     */
+    public BankRouter(String name, Bank[] banks, int routerPort, int floorPort, int bankTimeout, InetAddress sendAddress) {
+        this.banks = banks;
+        this.logger = new Logger(name);
+        this.floorSocket = DuplexSocket.open(routerPort, floorPort, sendAddress, this.logger, 0);
+        this.bankLinks = new BankLink[banks.length];
+
+        for (Bank bank : banks) {
+            DuplexSocket bankSocket = DuplexSocket.open(bank.getFloorPort(), bank.getSchedulerPort(),
+                    sendAddress, this.logger, bankTimeout);
+            this.bankLinks[bank.getId()] = new BankLink(bankSocket, this.logger, "Bank-" + bank.getId(),
+                    Config.BANK_WINDOW, Config.FLOOR_BATCH_SIZE, bankTimeout);
+        }
+    }
+
+    /**
+     * Routes floor packets until the floor socket fails or the router is closed.
+     */
+    public void run() {
+        for (Bank bank : this.banks) {
+            this.logger.log("Routing to " + bank);
+            ThreadLauncher.start(this.bankLinks[bank.getId()], "BankRouter-bank-" + bank.getId());
+        }
+
+        while (!this.closed) {
+            try {
+                this.route();
+            } catch (SocketTimeoutException e) {
+                e.printStackTrace();
+                return;
+            } catch (RuntimeException e) {
+                if (!this.closed) { throw e; }
+            }
+        }
+    }
+
+    /**
+     * Closes the floor socket and bank links, ending the router's threads.
+     */
+    public void close() {
+        this.closed = true;
+        for (BankLink bankLink : this.bankLinks) {
+            bankLink.close();
+        }
+        synchronized (this) {
+            // Floor acks are sent holding the lock, none is sent once closed.
+            this.floorSocket.close();
+        }
+    }
+
+    /**
+     * Queues a single floor packet, or a batch's new requests, on their banks' links.
+     */
+    private void route() throws SocketTimeoutException {
+        this.logger.log("Listening for Floor Packet...");
+        DatagramPacket receivePacket = this.floorSocket.receive();
+        JSONObject jsonPacket = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
+
+        if (BatchReceiver.isBatch(jsonPacket)) {
+            long session = jsonPacket.getLong(Config.K_SESSION);
+            synchronized (this) {
+                if (!this.floorStarted || session != this.floorSession) {
+                    // A new floor session, acks still due for the last one are dropped.
+                    this.floorStarted = true;
+                    this.floorSession = session;
+                    this.floorSequence = 0;
+                    this.floorPending.clear();
+                }
+            }
+
+            this.floorBatches.receive(jsonPacket, request -> {
+                int sequence;
+                synchronized (this) {
+                    sequence = this.floorSequence++;
+                    this.floorPending.add(sequence);
+                }
+                this.forward(request, () -> this.ackFloorRequest(session, sequence));
+                return true;
+            });
+            // Acks the requests before the first one still in flight, resent batches get the same ack.
+            this.sendFloorAck(session);
+            return;
+        }
+
+        // Leave the floor un-acked until the bank acks, it resends the request if that takes too long.
+        this.forward(jsonPacket, this::ackFloor);
+    }
+
+    /**
+     * Queues a single request on its bank's link.
+     * @param jsonPacket JSONObject, the request.
+     * @param onAcked Runnable, run once the bank acks the request.
+     */
+    private void forward(JSONObject jsonPacket, Runnable onAcked) {
+        Bank bank = Bank.route(this.banks, jsonPacket.getInt(Config.K_FLOOR), jsonPacket.getInt(Config.K_DESTINATION_FLOOR));
+        this.logger.log("Forwarding Floor packet to [ Bank-" + bank.getId() + " ]: " + jsonPacket);
+        this.bankLinks[bank.getId()].forward(jsonPacket, onAcked);
+    }
+
+    /**
+     * Acks a single floor request.
+     */
+    private synchronized void ackFloor() {
+        if (this.closed) {
+            return;
+        }
+        this.floorSocket.send(JSONPacket.serialize(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_ACK, true);
+        }})));
+        this.logger.log("Sent ACK Packet to [ Floor ]");
+    }
+
+    /**
+     * Marks a windowed floor request acked by its bank and acks the floor.
+     * @param session long, the request's floor session.
+     * @param sequence int, the request's floor sequence.
+     */
+    private synchronized void ackFloorRequest(long session, int sequence) {
+        if (session != this.floorSession) {
+            return;
+        }
+        this.floorPending.remove(sequence);
+        this.sendFloorAck(session);
+    }
+
+    /**
+     * Acks the windowed floor cumulatively, up to its first request no bank has acked.
+     * @param session long, the floor session to ack.
+     */
+    private synchronized void sendFloorAck(long session) {
+        if (this.closed || session != this.floorSession) {
+            return;
+        }
+        int acked = this.floorPending.isEmpty() ? this.floorSequence : this.floorPending.first();
+        JSONObject ackPacket = JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_ACK, true);
+            put(Config.K_SESSION, session);
+            put(Config.K_SEQUENCE, acked);
+        }});
+        this.floorSocket.send(JSONPacket.serialize(ackPacket));
+        this.logger.log("Sent ACK Packet to [ Floor ]: " + ackPacket);
+    }
+
+    /**
+     * The router's main entrypoint.
+     * @param args String[], command line args (--banks=N the number of banks to route to,
+     *             --nio=true reuses socket buffers,
+     *             --reliable=true acks and retransmits in the socket layer).
+     */
+    public static void main(String[] args) {
+        DuplexSocket.setNio(Boolean.parseBoolean(Utility.getOption(args, "nio", String.valueOf(Config.NIO_SOCKETS))));
+        DuplexSocket.setReliable(Boolean.parseBoolean(Utility.getOption(args, "reliable", String.valueOf(Config.RELIABLE_SOCKETS))));
+        final String NAME = "BankRouter";
+        final int NUM_BANKS = Integer.parseInt(Utility.getOption(args, "banks", String.valueOf(Config.NUMBER_BANKS)));
+        InetAddress HOST;
+
+        try {
+            HOST = InetAddress.getLocalHost();
+        } catch (UnknownHostException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[BANK ROUTER] Couldn't acquire the local host.");
+        }
+
+        BankRouter router = new BankRouter(
+                NAME,
+                Bank.partition(Config.MAX_FLOOR, Config.NUMBER_ELEVATORS, NUM_BANKS),
+                Config.SCHEDULER_PORT,
+                Config.FLOOR_PORT,
+                Config.FLOOR_RETRANSMIT_TIMEOUT,
+                HOST
+        );
+
+        router.run();
+    }
+}
@@ -0,0 +1,16 @@
+package System.Scheduler;
+
+/**
+ * Callback notified when an elevator picks up a queued request.
+ */
+public interface BoardingListener {
+    /**
+     * Called for each request loaded into an elevator on a floor ack.
+     * Invoked while the controller holds the elevator and floor locks,
+     * so implementations must be quick and must not call back into the controller.
+     * @param elevatorID int, the elevator that picked up the request.
+     * @param pickupFloor int, the floor the request was picked up from.
+     * @param destFloor int, the request's destination floor.
+     */
+    void onBoarded(int elevatorID, int pickupFloor, int destFloor);
+}
@@ -0,0 +1,154 @@
+package System.Scheduler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe variant of the word-packed floor set. Single floor
+ * updates are CAS'd into their word so floors sharing a word can be
+ * updated by different threads, and lookups read words without locking.
+ */
+public class ConcurrentFloorBitSet {
+    /**
+     * Floors per packed word.
+     */
+    private static final int WORD_SIZE = 64;
+
+    /**
+     * The packed floor bits, floor f is bit (f - 1).
+     */
+    private final AtomicLongArray words;
+
+    /**
+     * The number of floors this set can hold.
+     */
+    private final int numFloors;
+
+    /**
+     * The number of floors currently in the set.
+     */
+    private final AtomicInteger size;
+
+    /**
+     * Creates a new empty floor set.
+     * @param numFloors int, the number of floors in system.
+     */
+    public ConcurrentFloorBitSet(int numFloors) {
+        this.numFloors = numFloors;
+        this.words = new AtomicLongArray((numFloors + WORD_SIZE - 1) / WORD_SIZE);
+        this.size = new AtomicInteger(0);
+    }
+
+    /**
+     * Returns true if the floor is in the set.
+     * @param floor int, the floor to check.
+     * @return boolean, true if present, false otherwise.
+     */
+    public boolean contains(int floor) {
+        int bit = floor - 1;
+        return (this.words.get(bit / WORD_SIZE) & (1L << bit)) != 0;
+    }
+
+    /**
+     * Adds the floor to the set.
+     * @param floor int, the floor to add.
+     * @return boolean, true if the floor was not already present.
+     */
+    public boolean add(int floor) {
+        int bit = floor - 1;
+        int wordIdx = bit / WORD_SIZE;
+        long mask = 1L << bit;
+
+        while (true) {
+            long word = this.words.get(wordIdx);
+            if ((word & mask) != 0) { return false; }
+
+            if (this.words.compareAndSet(wordIdx, word, word | mask)) {
+                this.size.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the floor from the set.
+     * @param floor int, the floor to remove.
+     * @return boolean, true if the floor was present.
+     */
+    public boolean remove(int floor) {
+        int bit = floor - 1;
+        int wordIdx = bit / WORD_SIZE;
+        long mask = 1L << bit;
+
+        while (true) {
+            long word = this.words.get(wordIdx);
+            if ((word & mask) == 0) { return false; }
+
+            if (this.words.compareAndSet(wordIdx, word, word & ~mask)) {
+                this.size.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of floors in the set.
+     * @return int, the pending floor count.
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * Returns true if no floors are in the set.
+     * @return boolean, true if empty.
+     */
+    public boolean isEmpty() {
+        return this.size.get() == 0;
+    }
+
+    /**
+     * Returns the lowest floor in the set at or above the specified floor.
+     * @param floor int, the floor to start from (inclusive).
+     * @return int, the floor found or -1 if none.
+     */
+    public int nextSetFloor(int floor) {
+        if (floor > this.numFloors) { return -1; }
+        int bit = Math.max(floor, 1) - 1;
+        int wordIdx = bit / WORD_SIZE;
+        int numWords = this.words.length();
+
+        // Mask off the bits below the start floor in the first word.
+        long word = this.words.get(wordIdx) & (-1L << bit);
+
+        while (true) {
+            if (word != 0) {
+                return wordIdx * WORD_SIZE + Long.numberOfTrailingZeros(word) + 1;
+            }
+            if (++wordIdx == numWords) { return -1; }
+            word = this.words.get(wordIdx);
+        }
+    }
+
+    /**
+     * Returns the highest floor in the set at or below the specified floor.
+     * @param floor int, the floor to start from (inclusive).
+     * @return int, the floor found or -1 if none.
+     */
+    public int previousSetFloor(int floor) {
+        if (floor < 1) { return -1; }
+        int bit = Math.min(floor, this.numFloors) - 1;
+        int wordIdx = bit / WORD_SIZE;
+
+        // Mask off the bits above the start floor in the first word.
+        long word = this.words.get(wordIdx) & (-1L >>> (WORD_SIZE - 1 - bit % WORD_SIZE));
+
+        while (true) {
+            if (word != 0) {
+                return wordIdx * WORD_SIZE + (WORD_SIZE - 1 - Long.numberOfLeadingZeros(word)) + 1;
+            }
+            if (--wordIdx < 0) { return -1; }
+            word = this.words.get(wordIdx);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package System.Scheduler;
+
+import System.Util.MotionProfile;
+import Types.ElevatorDirection;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Destination dispatch: every rider is assigned to an elevator when they
+ * call it, using their destination. Riders are grouped so each elevator
+ * makes as few extra stops as possible: a rider costs the elevator's ETA to
+ * their floor plus one stop time, for each new stop they add, per rider
+ * already assigned to it (everyone on board is delayed by a new stop).
+ * Each queued request is tagged with its elevator. An elevator treats its
+ * riders' floors as committed stops and only boards the riders assigned to
+ * it; the rest keep waiting for their own elevator.
+ */
+public class DestinationDispatchStrategy extends LookDispatchStrategy {
+    private static final int UNASSIGNED = -1;
+
+    /**
+     * The number of floors in system.
+     */
+    private final int numFloors;
+
+    /**
+     * The per-elevator arrival time estimates.
+     */
+    private final EtaEstimator estimator;
+
+    /**
+     * Riders waiting for each elevator (index by elevator, then floor - 1).
+     */
+    private final int[][] waiting;
+
+    /**
+     * The floors each elevator has riders waiting at.
+     */
+    private final FloorBitSet[] pickups;
+
+    /**
+     * Riders assigned to each elevator, by destination (index by elevator, then floor - 1).
+     */
+    private final int[][] planned;
+
+    /**
+     * Riders on board each elevator, by destination (index by elevator, then floor - 1).
+     */
+    private final int[][] aboard;
+
+    /**
+     * Riders assigned to each elevator that have not yet alighted.
+     */
+    private final int[] loads;
+
+    /**
+     * Riders whose elevator failed before picking them up (index by floor - 1).
+     */
+    private final int[] unassigned;
+
+    /**
+     * Each elevator's planned stops, rebuilt on the elevator's own thread.
+     */
+    private final FloorBitSet[] stops;
+
+    /**
+     * Creates a new destination dispatch strategy.
+     * @param numFloors int, the number of floors in system.
+     * @param numElevators int, the number of elevators in system.
+     * @param clock LongSupplier, the source of the current time in ms.
+     */
+    public DestinationDispatchStrategy(int numFloors, int numElevators, LongSupplier clock) {
+        this.numFloors = numFloors;
+        this.estimator = new EtaEstimator(numFloors, numElevators, clock);
+        this.waiting = new int[numElevators][numFloors];
+        this.planned = new int[numElevators][numFloors];
+        this.aboard = new int[numElevators][numFloors];
+        this.loads = new int[numElevators];
+        this.unassigned = new int[numFloors];
+        this.pickups = new FloorBitSet[numElevators];
+        this.stops = new FloorBitSet[numElevators];
+
+        for (int i = 0; i < numElevators; i++) {
+            this.pickups[i] = new FloorBitSet(numFloors);
+            this.stops[i] = new FloorBitSet(numFloors);
+        }
+    }
+
+    /**
+     * Fetches the next floor for the specified elevator, refreshing its timeline
+     * before and after committing to its next stop.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator to get floor for.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @return Integer, the next floor or null if no new requests.
+     */
+    @Override
+    public Integer selectNextFloor(SchedulerController controller, int elevatorID, int currentFloor, ElevatorDirection direction) {
+        this.estimator.update(elevatorID, currentFloor, direction, this.getStops(controller, elevatorID), false);
+        Integer nextFloor = super.selectNextFloor(controller, elevatorID, currentFloor, direction);
+
+        if (nextFloor != null && nextFloor != currentFloor) {
+            direction = (nextFloor > currentFloor) ? ElevatorDirection.UP : ElevatorDirection.DOWN;
+        }
+        this.estimator.update(elevatorID, currentFloor, direction, this.getStops(controller, elevatorID), true);
+
+        return nextFloor;
+    }
+
+    /**
+     * Commits a parking elevator's timeline to its trip to the parking floor.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the parking elevator.
+     * @param currentFloor int, the elevator's current floor.
+     * @param parkingFloor int, the floor it is parking at.
+     */
+    @Override
+    public void onParking(SchedulerController controller, int elevatorID, int currentFloor, int parkingFloor) {
+        this.estimator.park(elevatorID, this.getStops(controller, elevatorID), currentFloor, parkingFloor);
+    }
+
+    /**
+     * Assigns a new rider to the elevator with the lowest cost.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param request long, the packed request.
+     * @return long, the request tagged with its elevator.
+     */
+    @Override
+    public synchronized long onRequestAdded(SchedulerController controller, long request) {
+        int pickupFloor = Request.getPickupFloor(request);
+        int destFloor = Request.getDestFloor(request);
+        int best = UNASSIGNED;
+        double bestCost = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < this.loads.length; i++) {
+            int newStops = ((this.waiting[i][pickupFloor - 1] == 0) ? 1 : 0)
+                    + ((this.planned[i][destFloor - 1] == 0) ? 1 : 0);
+            double cost = this.estimator.getEta(i, pickupFloor)
+                    + newStops * MotionProfile.getStopTime() * (1 + this.loads[i]);
+
+            if (cost < bestCost) {
+                best = i;
+                bestCost = cost;
+            }
+        }
+
+        if (best == UNASSIGNED) {
+            this.unassigned[pickupFloor - 1]++;
+            return request;
+        }
+
+        if (this.waiting[best][pickupFloor - 1] == 0) { this.estimator.insertStop(best, pickupFloor); }
+        if (this.planned[best][destFloor - 1] == 0) { this.estimator.insertStop(best, destFloor); }
+
+        this.pickups[best].add(pickupFloor);
+        this.waiting[best][pickupFloor - 1]++;
+        this.planned[best][destFloor - 1]++;
+        this.loads[best]++;
+        return Request.withElevator(request, best);
+    }
+
+    /**
+     * Boards the rider only if they are assigned to this elevator (or to none
+     * still in service). Assignment already accounts for direction, so the
+     * boarding direction is ignored.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator that acked.
+     * @param request long, the packed waiting request.
+     * @param boardingDirection ElevatorDirection, the hall calls the elevator collects (null for all).
+     * @return boolean, true to board the request.
+     */
+    @Override
+    public synchronized boolean shouldBoard(SchedulerController controller, int elevatorID, long request, ElevatorDirection boardingDirection) {
+        int pickupFloor = Request.getPickupFloor(request);
+        int destFloor = Request.getDestFloor(request);
+        int assigned = Request.getElevator(request);
+
+        if (assigned == elevatorID) {
+            this.removeWaiting(elevatorID, pickupFloor);
+        } else if (assigned == UNASSIGNED || this.estimator.isOutOfService(assigned)) {
+            if (this.unassigned[pickupFloor - 1] > 0) { this.unassigned[pickupFloor - 1]--; }
+            this.planned[elevatorID][destFloor - 1]++;
+            this.loads[elevatorID]++;
+        } else {
+            return false;
+        }
+
+        this.aboard[elevatorID][destFloor - 1]++;
+        return true;
+    }
+
+    /**
+     * Lets the elevator's riders for the floor alight.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator that acked.
+     * @param floor int, the floor acked.
+     */
+    @Override
+    public synchronized void onFloorAcked(SchedulerController controller, int elevatorID, int floor) {
+        int alighting = this.aboard[elevatorID][floor - 1];
+
+        this.aboard[elevatorID][floor - 1] = 0;
+        this.planned[elevatorID][floor - 1] -= alighting;
+        this.loads[elevatorID] -= alighting;
+    }
+
+    /**
+     * Removes a failed elevator from consideration and releases its waiting
+     * riders to whichever elevator reaches them first. Its riders no longer
+     * count against it, so it starts empty if it returns to service.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator that failed.
+     */
+    @Override
+    public synchronized void onElevatorError(SchedulerController controller, int elevatorID) {
+        this.estimator.remove(elevatorID);
+
+        for (int floor = 1; floor <= this.numFloors; floor++) {
+            this.unassigned[floor - 1] += this.waiting[elevatorID][floor - 1];
+            this.waiting[elevatorID][floor - 1] = 0;
+        }
+        this.pickups[elevatorID].clear();
+        Arrays.fill(this.planned[elevatorID], 0);
+        Arrays.fill(this.aboard[elevatorID], 0);
+        this.loads[elevatorID] = 0;
+    }
+
+    /**
+     * Fetches the closest destination or assigned pickup floor ahead. Assigned
+     * pickups need no claim: several elevators can be due at the same floor.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator to get floor for.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @return Integer, the closest committed floor or null if none in this direction.
+     */
+    @Override
+    protected Integer getNextDestinationFloor(SchedulerController controller, int elevatorID, int currentFloor, ElevatorDirection direction) {
+        Integer destinationFloor = super.getNextDestinationFloor(controller, elevatorID, currentFloor, direction);
+        int pickupFloor;
+
+        synchronized (this) {
+            FloorBitSet pickups = this.pickups[elevatorID];
+            pickupFloor = (direction == ElevatorDirection.UP)
+                    ? pickups.nextSetFloor(currentFloor) : pickups.previousSetFloor(currentFloor);
+        }
+
+        if (pickupFloor == -1) { return destinationFloor; }
+        if (destinationFloor == null) { return pickupFloor; }
+        return (Math.abs(pickupFloor - currentFloor) < Math.abs(destinationFloor - currentFloor)) ? pickupFloor : destinationFloor;
+    }
+
+    /**
+     * Returns true if riders on the request floor lost their elevator to a failure.
+     * @param elevatorID int, the elevator asking.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @param requestFloor int, the request floor.
+     * @return boolean, true if the elevator should claim the floor.
+     */
+    @Override
+    protected synchronized boolean canClaim(int elevatorID, int currentFloor, ElevatorDirection direction, int requestFloor) {
+        return this.unassigned[requestFloor - 1] > 0;
+    }
+
+    /**
+     * Removes a waiting rider from an elevator's pickups.
+     * @param elevatorID int, the elevator.
+     * @param pickupFloor int, the rider's floor.
+     */
+    private void removeWaiting(int elevatorID, int pickupFloor) {
+        if (--this.waiting[elevatorID][pickupFloor - 1] == 0) {
+            this.pickups[elevatorID].remove(pickupFloor);
+        }
+    }
+
+    /**
+     * Collects an elevator's destinations, claimed floors and the pickup and
+     * destination floors of its assigned riders.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator.
+     * @return FloorBitSet, the elevator's planned stops.
+     */
+    private FloorBitSet getStops(SchedulerController controller, int elevatorID) {
+        FloorBitSet stops = this.stops[elevatorID];
+        FloorBitSet destinations = controller.getElevatorRequests()[elevatorID];
+        FloorBitSet claimed = controller.getClaimedFloors()[elevatorID];
+        stops.clear();
+
+        for (int floor = destinations.nextSetFloor(1); floor != -1; floor = destinations.nextSetFloor(floor + 1)) {
+            stops.add(floor);
+        }
+        for (int floor = claimed.nextSetFloor(1); floor != -1; floor = claimed.nextSetFloor(floor + 1)) {
+            stops.add(floor);
+        }
+        synchronized (this) {
+            for (int floor = 1; floor <= this.numFloors; floor++) {
+                if (this.waiting[elevatorID][floor - 1] > 0 || this.planned[elevatorID][floor - 1] > 0) {
+                    stops.add(floor);
+                }
+            }
+        }
+        return stops;
+    }
+}
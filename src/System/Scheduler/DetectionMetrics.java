@@ -0,0 +1,85 @@
+package System.Scheduler;
+
+import Types.DetectionCause;
+
+/**
+ * Collects how long elevator faults and silences took to detect, by how
+ * they were detected, and how many status checks turned out unnecessary.
+ * A detection's latency is the time from the fault (as reported by the
+ * elevator) or the elevator's last sign of life until it was noticed.
+ */
+public class DetectionMetrics {
+    private final long[] counts = new long[DetectionCause.values().length];
+    private final long[] totalLatencies = new long[DetectionCause.values().length];
+    private final long[] maxLatencies = new long[DetectionCause.values().length];
+    private long falseAlarms;
+
+    /**
+     * Records a detection.
+     * @param cause DetectionCause, how it was detected.
+     * @param latencyMs long, the detection latency in ms.
+     */
+    public synchronized void record(DetectionCause cause, long latencyMs) {
+        int i = cause.ordinal();
+        this.counts[i]++;
+        this.totalLatencies[i] += latencyMs;
+        this.maxLatencies[i] = Math.max(this.maxLatencies[i], latencyMs);
+    }
+
+    /**
+     * Records a status check or suspicion of an elevator that was fine.
+     */
+    public synchronized void recordFalseAlarm() {
+        this.falseAlarms++;
+    }
+
+    /**
+     * Returns the number of detections by the specified cause.
+     * @param cause DetectionCause, the cause.
+     * @return long, the number of detections.
+     */
+    public synchronized long getCount(DetectionCause cause) {
+        return this.counts[cause.ordinal()];
+    }
+
+    /**
+     * Returns the mean detection latency by the specified cause.
+     * @param cause DetectionCause, the cause.
+     * @return double, the mean latency in ms (0 if none).
+     */
+    public synchronized double getMeanLatency(DetectionCause cause) {
+        int i = cause.ordinal();
+        return (this.counts[i] == 0) ? 0 : (double) this.totalLatencies[i] / this.counts[i];
+    }
+
+    /**
+     * Returns the longest detection latency by the specified cause.
+     * @param cause DetectionCause, the cause.
+     * @return long, the longest latency in ms (0 if none).
+     */
+    public synchronized long getMaxLatency(DetectionCause cause) {
+        return this.maxLatencies[cause.ordinal()];
+    }
+
+    /**
+     * Returns the number of unnecessary status checks and suspicions.
+     * @return long, the number of false alarms.
+     */
+    public synchronized long getFalseAlarms() {
+        return this.falseAlarms;
+    }
+
+    /**
+     * Returns a one line summary of the metrics.
+     * @return String, the summary.
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder summary = new StringBuilder("Detections:");
+        for (DetectionCause cause : DetectionCause.values()) {
+            summary.append(String.format(" %s n=%d mean=%.0fms max=%dms;", cause,
+                    this.getCount(cause), this.getMeanLatency(cause), this.getMaxLatency(cause)));
+        }
+        return summary.append(" false alarms=").append(this.falseAlarms).toString();
+    }
+}
@@ -0,0 +1,117 @@
+package System.Scheduler;
+
+import Types.ElevatorDirection;
+
+/**
+ * The original scheduling rule: keep going in the current direction,
+ * choosing between the next destination and the next unclaimed request
+ * floor ahead, and only reverse once nothing is left ahead.
+ */
+public class DirectionalDispatchStrategy implements DispatchStrategy {
+    /**
+     * Fetches the next scheduled floor for the specified elevator.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator to get floor for.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @return Integer, the next floor or null if no new requests.
+     */
+    @Override
+    public Integer selectNextFloor(SchedulerController controller, int elevatorID, int currentFloor, ElevatorDirection direction) {
+        // 2 - Get the closest next floor in the direction you are going.
+        Integer nextFloor = this.getNextFloorInDirection(controller, elevatorID, currentFloor, direction);
+
+        if (nextFloor == null) {
+            direction = controller.getOppositeDirection(direction);
+            nextFloor = this.getNextFloorInDirection(controller, elevatorID, currentFloor, direction);
+        }
+
+        return nextFloor;
+    }
+
+    /**
+     * Fetches the next scheduled floor for the specified elevator
+     * without reversing direction. If another elevator claims a
+     * request floor first (or is better suited to it) the scan continues past it,
+     * as it does past floors whose riders are all going the other way.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator to get floor for.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @return Integer, the next floor or null if none in this direction.
+     */
+    protected Integer getNextFloorInDirection(SchedulerController controller, int elevatorID, int currentFloor, ElevatorDirection direction) {
+        Integer nextElevatorDestinationFloor = this.getNextDestinationFloor(controller, elevatorID, currentFloor, direction);
+        int scanFloor = currentFloor;
+
+        while (true) {
+            Integer nextRequestFloor = controller.getNextRequestFloor(elevatorID, scanFloor, direction);
+
+            if (nextRequestFloor == null) { return nextElevatorDestinationFloor; }
+            if (nextElevatorDestinationFloor != null
+                    && !this.prefersRequest(nextRequestFloor, nextElevatorDestinationFloor, currentFloor)) {
+                return nextElevatorDestinationFloor;
+            }
+            if (this.canClaim(elevatorID, currentFloor, direction, nextRequestFloor)
+                    && !this.isPassingCall(controller, elevatorID, nextRequestFloor, direction)
+                    && controller.claimFloor(elevatorID, nextRequestFloor)) {
+                return nextRequestFloor;
+            }
+
+            scanFloor = (direction == ElevatorDirection.UP) ? nextRequestFloor + 1 : nextRequestFloor - 1;
+        }
+    }
+
+    /**
+     * Fetches the closest floor ahead the elevator is already committed to stop at.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator to get floor for.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @return Integer, the closest committed floor or null if none in this direction.
+     */
+    protected Integer getNextDestinationFloor(SchedulerController controller, int elevatorID, int currentFloor, ElevatorDirection direction) {
+        return controller.getNextElevatorDestinationFloor(elevatorID, currentFloor, direction);
+    }
+
+    /**
+     * Returns true if the request floor should be visited before the destination
+     * floor. Both lie ahead of the elevator in its direction of travel.
+     * @param requestFloor int, the next unclaimed request floor.
+     * @param destinationFloor int, the next destination floor.
+     * @param currentFloor int, the current floor of elevator.
+     * @return boolean, true to visit the request floor first.
+     */
+    protected boolean prefersRequest(int requestFloor, int destinationFloor, int currentFloor) {
+        return requestFloor < destinationFloor;
+    }
+
+    /**
+     * Returns true if every rider on the request floor is going against the
+     * elevator's direction and it has further to go, so they are left for
+     * the way back (or for another elevator).
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator asking.
+     * @param requestFloor int, the unclaimed request floor.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @return boolean, true to pass the floor.
+     */
+    protected boolean isPassingCall(SchedulerController controller, int elevatorID, int requestFloor, ElevatorDirection direction) {
+        return controller.isDirectionalHallCalls()
+                && !controller.getHallCalls(direction).contains(requestFloor)
+                && controller.hasStopBeyond(elevatorID, requestFloor, direction);
+    }
+
+    /**
+     * Returns true if the elevator may claim the request floor. Assignment
+     * strategies override this to leave requests to better placed elevators.
+     * @param elevatorID int, the elevator asking.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @param requestFloor int, the unclaimed request floor.
+     * @return boolean, true if the elevator may claim the floor.
+     */
+    protected boolean canClaim(int elevatorID, int currentFloor, ElevatorDirection direction, int requestFloor) {
+        return true;
+    }
+}
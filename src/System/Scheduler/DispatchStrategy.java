@@ -0,0 +1,124 @@
+package System.Scheduler;
+
+import System.Util.ScaledClock;
+import Types.DispatchStrategyType;
+import Types.ElevatorDirection;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A dispatch algorithm that decides which floor each elevator
+ * visits next. The controller owns the request queue, destinations and
+ * floor claims; strategies read them through the controller and claim
+ * request floors with {@link SchedulerController#claimFloor(int, int)}.
+ */
+public interface DispatchStrategy {
+    /**
+     * Selects the next floor for an elevator. The returned floor must be one of
+     * the elevator's destinations or a request floor the strategy claimed for it.
+     * Called while the controller holds the elevator's lock.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator to get floor for.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @return Integer, the next floor or null if no new requests.
+     */
+    Integer selectNextFloor(SchedulerController controller, int elevatorID, int currentFloor, ElevatorDirection direction);
+
+    /**
+     * Called as a request is queued, while the controller holds its floor's lock.
+     * Strategies may tag the request with an elevator (see {@link Request#withElevator(long, int)}).
+     * @param controller SchedulerController, the controller holding system state.
+     * @param request long, the packed request.
+     * @return long, the request to queue.
+     */
+    default long onRequestAdded(SchedulerController controller, long request) {
+        return request;
+    }
+
+    /**
+     * Returns true if a waiting request should board the elevator that just
+     * acked its floor. Requests left behind stay queued for another elevator.
+     * By default only riders going the boarding direction get on.
+     * Called while the controller holds the elevator's and the floor's locks.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator that acked.
+     * @param request long, the packed waiting request.
+     * @param boardingDirection ElevatorDirection, the hall calls the elevator collects (null for all).
+     * @return boolean, true to board the request.
+     */
+    default boolean shouldBoard(SchedulerController controller, int elevatorID, long request, ElevatorDirection boardingDirection) {
+        return boardingDirection == null || Request.getDirection(request) == boardingDirection;
+    }
+
+    /**
+     * Called after an elevator acks a floor and picks up its requests.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator that acked.
+     * @param floor int, the floor acked.
+     */
+    default void onFloorAcked(SchedulerController controller, int elevatorID, int floor) {}
+
+    /**
+     * Called after an elevator fails and its claims are released.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator that failed.
+     */
+    default void onElevatorError(SchedulerController controller, int elevatorID) {}
+
+    /**
+     * Called when an idle elevator is sent to park at a floor.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the parking elevator.
+     * @param currentFloor int, the elevator's current floor.
+     * @param parkingFloor int, the floor it is parking at.
+     */
+    default void onParking(SchedulerController controller, int elevatorID, int currentFloor, int parkingFloor) {}
+
+    /**
+     * Creates the strategy of the specified type, timing estimates with the scaled clock.
+     * @param type DispatchStrategyType, the algorithm to create.
+     * @param numFloors int, the number of floors in system.
+     * @param numElevators int, the number of elevators in system.
+     * @return DispatchStrategy, the strategy.
+     */
+    static DispatchStrategy create(DispatchStrategyType type, int numFloors, int numElevators) {
+        return create(type, numFloors, numElevators, ScaledClock::currentTimeMillis);
+    }
+
+    /**
+     * Creates the strategy of the specified type, timing estimates with the specified clock.
+     * @param type DispatchStrategyType, the algorithm to create.
+     * @param numFloors int, the number of floors in system.
+     * @param numElevators int, the number of elevators in system.
+     * @param clock LongSupplier, the source of the current time in ms.
+     * @return DispatchStrategy, the strategy.
+     */
+    static DispatchStrategy create(DispatchStrategyType type, int numFloors, int numElevators, LongSupplier clock) {
+        switch (type) {
+            case LOOK: {
+                return new LookDispatchStrategy();
+            }
+
+            case NEAREST: {
+                return new NearestDispatchStrategy();
+            }
+
+            case NEAREST_CAR: {
+                return new NearestCarDispatchStrategy(numFloors, numElevators);
+            }
+
+            case ETA: {
+                return new EtaDispatchStrategy(numFloors, numElevators, clock);
+            }
+
+            case DESTINATION: {
+                return new DestinationDispatchStrategy(numFloors, numElevators, clock);
+            }
+
+            default: {
+                return new DirectionalDispatchStrategy();
+            }
+        }
+    }
+}
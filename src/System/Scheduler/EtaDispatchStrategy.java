@@ -0,0 +1,193 @@
+package System.Scheduler;
+
+import Types.ElevatorDirection;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.LongSupplier;
+
+/**
+ * ETA scheduling: each call is assigned, when it is made, to the elevator
+ * estimated to reach it soonest counting the stops each elevator has already
+ * committed to. Elevators sweep their destinations like LOOK and only claim
+ * request floors assigned to them (or whose elevator has since failed).
+ */
+public class EtaDispatchStrategy extends LookDispatchStrategy {
+    private static final int UNASSIGNED = -1;
+
+    /**
+     * The per-elevator arrival time estimates.
+     */
+    private final EtaEstimator estimator;
+
+    /**
+     * The elevator each request floor is assigned to (index by floor - 1).
+     */
+    private final AtomicIntegerArray assignments;
+
+    /**
+     * Each elevator's committed stops, rebuilt on the elevator's own thread.
+     */
+    private final FloorBitSet[] stops;
+
+    /**
+     * Creates a new ETA strategy.
+     * @param numFloors int, the number of floors in system.
+     * @param numElevators int, the number of elevators in system.
+     * @param clock LongSupplier, the source of the current time in ms.
+     */
+    public EtaDispatchStrategy(int numFloors, int numElevators, LongSupplier clock) {
+        this.estimator = new EtaEstimator(numFloors, numElevators, clock);
+        this.assignments = new AtomicIntegerArray(numFloors);
+        this.stops = new FloorBitSet[numElevators];
+
+        for (int i = 0; i < numFloors; i++) {
+            this.assignments.set(i, UNASSIGNED);
+        }
+        for (int i = 0; i < numElevators; i++) {
+            this.stops[i] = new FloorBitSet(numFloors);
+        }
+    }
+
+    /**
+     * Returns the arrival time estimates.
+     * @return EtaEstimator, the estimator.
+     */
+    public EtaEstimator getEstimator() {
+        return this.estimator;
+    }
+
+    /**
+     * Returns the elevator a request floor is assigned to.
+     * @param floor int, the request floor.
+     * @return int, the elevator's id or -1 if unassigned.
+     */
+    public int getAssignment(int floor) {
+        return this.assignments.get(floor - 1);
+    }
+
+    /**
+     * Fetches the next floor for the specified elevator, rebuilding its timeline
+     * once its next stop is committed.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator to get floor for.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @return Integer, the next floor or null if no new requests.
+     */
+    @Override
+    public Integer selectNextFloor(SchedulerController controller, int elevatorID, int currentFloor, ElevatorDirection direction) {
+        this.estimator.update(elevatorID, currentFloor, direction, this.getStops(controller, elevatorID), false);
+        Integer nextFloor = super.selectNextFloor(controller, elevatorID, currentFloor, direction);
+
+        if (nextFloor != null && nextFloor != currentFloor) {
+            direction = (nextFloor > currentFloor) ? ElevatorDirection.UP : ElevatorDirection.DOWN;
+        }
+        this.estimator.update(elevatorID, currentFloor, direction, this.getStops(controller, elevatorID), true);
+
+        return nextFloor;
+    }
+
+    /**
+     * Commits a parking elevator's timeline to its trip to the parking floor.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the parking elevator.
+     * @param currentFloor int, the elevator's current floor.
+     * @param parkingFloor int, the floor it is parking at.
+     */
+    @Override
+    public void onParking(SchedulerController controller, int elevatorID, int currentFloor, int parkingFloor) {
+        this.estimator.park(elevatorID, this.getStops(controller, elevatorID), currentFloor, parkingFloor);
+    }
+
+    /**
+     * Assigns a new call to the fastest elevator if its floor is not already assigned.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param request long, the packed request.
+     * @return long, the request to queue.
+     */
+    @Override
+    public long onRequestAdded(SchedulerController controller, long request) {
+        int pickupFloor = Request.getPickupFloor(request);
+        int assigned = this.assignments.get(pickupFloor - 1);
+        if (assigned != UNASSIGNED && this.isInService(assigned)) { return request; }
+
+        int fastest = this.estimator.getFastestElevator(pickupFloor);
+        if (fastest != UNASSIGNED && this.assignments.compareAndSet(pickupFloor - 1, assigned, fastest)) {
+            this.estimator.insertStop(fastest, pickupFloor);
+        }
+        return request;
+    }
+
+    /**
+     * Clears the floor's assignment once its requests are picked up.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator that acked.
+     * @param floor int, the floor acked.
+     */
+    @Override
+    public void onFloorAcked(SchedulerController controller, int elevatorID, int floor) {
+        this.assignments.set(floor - 1, UNASSIGNED);
+    }
+
+    /**
+     * Removes a failed elevator from consideration. Its assigned floors become
+     * claimable by any elevator.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator that failed.
+     */
+    @Override
+    public void onElevatorError(SchedulerController controller, int elevatorID) {
+        this.estimator.remove(elevatorID);
+    }
+
+    /**
+     * Returns true if the request floor is assigned to the asking elevator,
+     * or to no elevator that can still serve it.
+     * @param elevatorID int, the elevator asking.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @param requestFloor int, the request floor.
+     * @return boolean, true if the asking elevator should take the request.
+     */
+    @Override
+    protected boolean canClaim(int elevatorID, int currentFloor, ElevatorDirection direction, int requestFloor) {
+        int assigned = this.assignments.get(requestFloor - 1);
+        if (assigned == elevatorID || assigned == UNASSIGNED || !this.isInService(assigned)) { return true; }
+
+        // Take the call over if the assigned elevator has since fallen behind.
+        return this.estimator.getEta(elevatorID, requestFloor) < this.estimator.getEta(assigned, requestFloor);
+    }
+
+    /**
+     * Returns true if the elevator has not failed.
+     * @param elevatorID int, the elevator.
+     * @return boolean, true if in service.
+     */
+    private boolean isInService(int elevatorID) {
+        return !this.estimator.isOutOfService(elevatorID);
+    }
+
+    /**
+     * Collects an elevator's destinations, claimed floors and assigned floors.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator.
+     * @return FloorBitSet, the elevator's committed stops.
+     */
+    private FloorBitSet getStops(SchedulerController controller, int elevatorID) {
+        FloorBitSet stops = this.stops[elevatorID];
+        FloorBitSet destinations = controller.getElevatorRequests()[elevatorID];
+        FloorBitSet claimed = controller.getClaimedFloors()[elevatorID];
+        stops.clear();
+
+        for (int floor = destinations.nextSetFloor(1); floor != -1; floor = destinations.nextSetFloor(floor + 1)) {
+            stops.add(floor);
+        }
+        for (int floor = claimed.nextSetFloor(1); floor != -1; floor = claimed.nextSetFloor(floor + 1)) {
+            stops.add(floor);
+        }
+        for (int floor = 1; floor <= stops.getNumFloors(); floor++) {
+            if (this.assignments.get(floor - 1) == elevatorID) { stops.add(floor); }
+        }
+        return stops;
+    }
+}
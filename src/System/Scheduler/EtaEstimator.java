@@ -0,0 +1,233 @@
+package System.Scheduler;
+
+import System.Config;
+import System.Util.MotionProfile;
+import Types.ElevatorDirection;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Estimates when each elevator could reach each floor using the shared
+ * motion model. Every elevator has a cached timeline (ETA per floor) built
+ * from its committed stops in LOOK order. A timeline is rebuilt by its own
+ * elevator when that elevator reports a new position, and patched in place
+ * when a call is assigned to it, so scoring a call against every elevator
+ * is one array read per elevator.
+ * ETAs are counted down from each elevator's last report to the scheduler.
+ */
+public class EtaEstimator {
+    /**
+     * The time until an idle elevator next polls the scheduler (its socket timeout).
+     */
+    private static final double IDLE_POLL_DELAY = Config.ELEVATOR_TIMEOUT / 2.0;
+
+    /**
+     * The number of floors in system.
+     */
+    private final int numFloors;
+
+    /**
+     * The published timeline of each elevator (index by floor), null if out of service.
+     */
+    private final AtomicReferenceArray<double[]> timelines;
+
+    /**
+     * The time in ms each elevator's timeline was built.
+     */
+    private final AtomicLongArray reportTimes;
+
+    /**
+     * The source of the current time in ms.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Creates a new estimator with every elevator idle at the first floor.
+     * @param numFloors int, the number of floors in system.
+     * @param numElevators int, the number of elevators in system.
+     * @param clock LongSupplier, the source of the current time in ms.
+     */
+    public EtaEstimator(int numFloors, int numElevators, LongSupplier clock) {
+        this.numFloors = numFloors;
+        this.timelines = new AtomicReferenceArray<>(numElevators);
+        this.reportTimes = new AtomicLongArray(numElevators);
+        this.clock = clock;
+
+        FloorBitSet none = new FloorBitSet(numFloors);
+        for (int i = 0; i < numElevators; i++) {
+            this.timelines.set(i, computeTimeline(numFloors, 1, ElevatorDirection.UP, none, true));
+        }
+    }
+
+    /**
+     * Rebuilds and publishes an elevator's timeline. Must be called by the
+     * elevator's own thread while the controller holds its lock.
+     * @param elevatorID int, the elevator to update.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @param stops FloorBitSet, the floors the elevator is committed to stop at.
+     * @param departed boolean, true if the elevator has left the scheduler with its next stop (or none).
+     */
+    public void update(int elevatorID, int currentFloor, ElevatorDirection direction, FloorBitSet stops, boolean departed) {
+        this.reportTimes.set(elevatorID, this.clock.getAsLong());
+        this.timelines.set(elevatorID, computeTimeline(this.numFloors, currentFloor, direction, stops, departed));
+    }
+
+    /**
+     * Commits a parking elevator's timeline to its trip to the parking floor.
+     * Must be called by the elevator's own thread while the controller holds its lock.
+     * @param elevatorID int, the parking elevator.
+     * @param stops FloorBitSet, the floors the elevator is committed to stop at.
+     * @param currentFloor int, the elevator's current floor.
+     * @param parkingFloor int, the floor it is parking at.
+     */
+    public void park(int elevatorID, FloorBitSet stops, int currentFloor, int parkingFloor) {
+        stops.add(parkingFloor);
+        this.update(elevatorID, currentFloor,
+                (parkingFloor > currentFloor) ? ElevatorDirection.UP : ElevatorDirection.DOWN, stops, true);
+    }
+
+    /**
+     * Adds a stop to an elevator's timeline without rebuilding it. The elevator
+     * already passes the floor, so every floor it reaches afterwards is delayed
+     * by one stop.
+     * @param elevatorID int, the elevator to update.
+     * @param floor int, the floor to stop at.
+     */
+    public void insertStop(int elevatorID, int floor) {
+        while (true) {
+            double[] timeline = this.timelines.get(elevatorID);
+            if (timeline == null) { return; }
+
+            double[] updated = timeline.clone();
+            for (int f = 1; f <= this.numFloors; f++) {
+                if (timeline[f] > timeline[floor]) {
+                    updated[f] += MotionProfile.getStopTime();
+                }
+            }
+            if (this.timelines.compareAndSet(elevatorID, timeline, updated)) { return; }
+        }
+    }
+
+    /**
+     * Removes a failed elevator from consideration.
+     * @param elevatorID int, the elevator that failed.
+     */
+    public void remove(int elevatorID) {
+        this.timelines.set(elevatorID, null);
+    }
+
+    /**
+     * Returns the estimated time from now for an elevator to reach a floor.
+     * @param elevatorID int, the elevator.
+     * @param floor int, the floor.
+     * @return double, the ETA in seconds, infinite if out of service.
+     */
+    public double getEta(int elevatorID, int floor) {
+        double[] timeline = this.timelines.get(elevatorID);
+        if (timeline == null) { return Double.POSITIVE_INFINITY; }
+
+        double elapsed = (this.clock.getAsLong() - this.reportTimes.get(elevatorID)) / 1000.0;
+        return Math.max(timeline[floor] - elapsed, 0);
+    }
+
+    /**
+     * Returns true if the elevator has been removed from consideration.
+     * @param elevatorID int, the elevator.
+     * @return boolean, true if out of service.
+     */
+    public boolean isOutOfService(int elevatorID) {
+        return this.timelines.get(elevatorID) == null;
+    }
+
+    /**
+     * Returns the in-service elevator estimated to reach the floor soonest.
+     * @param floor int, the call floor.
+     * @return int, the elevator's id or -1 if every elevator is out of service.
+     */
+    public int getFastestElevator(int floor) {
+        int fastest = -1;
+        double fastestEta = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < this.timelines.length(); i++) {
+            double eta = this.getEta(i, floor);
+            if (eta < fastestEta) {
+                fastest = i;
+                fastestEta = eta;
+            }
+        }
+        return fastest;
+    }
+
+    /**
+     * Builds a timeline: the elevator serves its stops ahead in its direction of
+     * travel, then reverses and serves the rest. A floor's ETA is the time to
+     * finish every stop before it and then travel there from the last one.
+     * An elevator that has departed cannot stop short of its next stop, so the
+     * floors it is passing are only reached on the way back; one left idle
+     * cannot move until it next polls the scheduler, and one sent to stop
+     * where it is serves that floor first. Floors left unreached once the
+     * stops are served are reached from the last stop.
+     * @param numFloors int, the number of floors in system.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @param stops FloorBitSet, the floors the elevator is committed to stop at.
+     * @param departed boolean, true if the elevator has left the scheduler with its next stop (or none).
+     * @return double[], the ETA in seconds of each floor (index 0 unused).
+     */
+    public static double[] computeTimeline(int numFloors, int currentFloor, ElevatorDirection direction,
+                                    FloorBitSet stops, boolean departed) {
+        double[] timeline = new double[numFloors + 1];
+        int step = (direction == ElevatorDirection.UP) ? 1 : -1;
+        boolean idle = stops.isEmpty();
+        boolean stopsHere = departed && stops.contains(currentFloor);
+        Arrays.fill(timeline, Double.NaN);
+
+        // An elevator left idle first has to poll again; otherwise it first closes its doors.
+        double time = (departed && idle) ? IDLE_POLL_DELAY : Config.DOOR_ACTION_TIME;
+        if (!departed || stopsHere) {
+            timeline[currentFloor] = 0;
+        } else if (idle) {
+            timeline[currentFloor] = IDLE_POLL_DELAY;
+        }
+        if (stopsHere) {
+            time = MotionProfile.getStopTime();
+        }
+
+        // Sweep ahead to the turning point.
+        int position = currentFloor;
+        for (int floor = currentFloor + step; floor >= 1 && floor <= numFloors; floor += step) {
+            boolean stop = stops.contains(floor);
+            if (departed && !idle && !stopsHere && position == currentFloor && !stop) { continue; }
+
+            timeline[floor] = time + MotionProfile.getTravelTime(position, floor);
+            if (stop) {
+                time += MotionProfile.getTravelTime(position, floor) + MotionProfile.getStopTime();
+                position = floor;
+            }
+        }
+
+        // Sweep back, serving the stops behind the current floor.
+        int turningPoint = position;
+        for (int floor = turningPoint - step; floor >= 1 && floor <= numFloors; floor -= step) {
+            if (Double.isNaN(timeline[floor])) {
+                timeline[floor] = time + MotionProfile.getTravelTime(position, floor);
+            }
+            if (stops.contains(floor) && (floor - currentFloor) * step < 0) {
+                time += MotionProfile.getTravelTime(position, floor) + MotionProfile.getStopTime();
+                position = floor;
+            }
+        }
+
+        // A departed elevator with no stops ahead reaches its floor and those ahead last.
+        for (int floor = 1; floor <= numFloors; floor++) {
+            if (Double.isNaN(timeline[floor])) {
+                timeline[floor] = time + MotionProfile.getTravelTime(position, floor);
+            }
+        }
+        return timeline;
+    }
+}
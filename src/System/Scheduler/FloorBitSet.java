@@ -0,0 +1,176 @@
+package System.Scheduler;
+
+/**
+ * Word-packed set of floors used to index per-elevator
+ * destinations. Floors are 1-indexed; each floor maps to a
+ * single bit so directional lookups scan 64 floors per word.
+ */
+public class FloorBitSet {
+    /**
+     * Floors per packed word.
+     */
+    private static final int WORD_SIZE = 64;
+
+    /**
+     * The packed floor bits, floor f is bit (f - 1).
+     */
+    private final long[] words;
+
+    /**
+     * The number of floors this set can hold.
+     */
+    private final int numFloors;
+
+    /**
+     * The number of floors currently in the set.
+     */
+    private int size;
+
+    /**
+     * Creates a new empty floor set.
+     * @param numFloors int, the number of floors in system.
+     */
+    public FloorBitSet(int numFloors) {
+        this.numFloors = numFloors;
+        this.words = new long[(numFloors + WORD_SIZE - 1) / WORD_SIZE];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of floors this set can hold.
+     * @return int, the number of floors.
+     */
+    public int getNumFloors() {
+        return this.numFloors;
+    }
+
+    /**
+     * Returns true if the floor is in the set.
+     * @param floor int, the floor to check.
+     * @return boolean, true if present, false otherwise.
+     */
+    public boolean contains(int floor) {
+        int bit = floor - 1;
+        return (this.words[bit / WORD_SIZE] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Adds the floor to the set.
+     * @param floor int, the floor to add.
+     * @return boolean, true if the floor was not already present.
+     */
+    public boolean add(int floor) {
+        int bit = floor - 1;
+        long mask = 1L << bit;
+        long word = this.words[bit / WORD_SIZE];
+
+        if ((word & mask) != 0) { return false; }
+
+        this.words[bit / WORD_SIZE] = word | mask;
+        this.size++;
+        return true;
+    }
+
+    /**
+     * Removes the floor from the set.
+     * @param floor int, the floor to remove.
+     * @return boolean, true if the floor was present.
+     */
+    public boolean remove(int floor) {
+        int bit = floor - 1;
+        long mask = 1L << bit;
+        long word = this.words[bit / WORD_SIZE];
+
+        if ((word & mask) == 0) { return false; }
+
+        this.words[bit / WORD_SIZE] = word & ~mask;
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of floors in the set.
+     * @return int, the pending floor count.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns true if no floors are in the set.
+     * @return boolean, true if empty.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes all floors from the set.
+     */
+    public void clear() {
+        if (this.size == 0) { return; }
+
+        for (int i = 0; i < this.words.length; i++) {
+            this.words[i] = 0;
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Returns the lowest floor in the set at or above the specified floor.
+     * @param floor int, the floor to start from (inclusive).
+     * @return int, the floor found or -1 if none.
+     */
+    public int nextSetFloor(int floor) {
+        if (floor > this.numFloors || this.size == 0) { return -1; }
+        int bit = Math.max(floor, 1) - 1;
+        int wordIdx = bit / WORD_SIZE;
+
+        // Mask off the bits below the start floor in the first word.
+        long word = this.words[wordIdx] & (-1L << bit);
+
+        while (true) {
+            if (word != 0) {
+                return wordIdx * WORD_SIZE + Long.numberOfTrailingZeros(word) + 1;
+            }
+            if (++wordIdx == this.words.length) { return -1; }
+            word = this.words[wordIdx];
+        }
+    }
+
+    /**
+     * Returns the highest floor in the set at or below the specified floor.
+     * @param floor int, the floor to start from (inclusive).
+     * @return int, the floor found or -1 if none.
+     */
+    public int previousSetFloor(int floor) {
+        if (floor < 1 || this.size == 0) { return -1; }
+        int bit = Math.min(floor, this.numFloors) - 1;
+        int wordIdx = bit / WORD_SIZE;
+
+        // Mask off the bits above the start floor in the first word.
+        long word = this.words[wordIdx] & (-1L >>> (WORD_SIZE - 1 - bit % WORD_SIZE));
+
+        while (true) {
+            if (word != 0) {
+                return wordIdx * WORD_SIZE + (WORD_SIZE - 1 - Long.numberOfLeadingZeros(word)) + 1;
+            }
+            if (--wordIdx < 0) { return -1; }
+            word = this.words[wordIdx];
+        }
+    }
+
+    /**
+     * Returns a readable list of the floors in the set.
+     * @return String, the floors.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int floor = this.nextSetFloor(1); floor != -1; floor = this.nextSetFloor(floor + 1)) {
+            if (builder.length() > 1) { builder.append(", "); }
+            builder.append(floor);
+        }
+        return builder.append("]").toString();
+    }
+}
@@ -0,0 +1,218 @@
+package System.Scheduler;
+
+import System.Config;
+import System.Util.DuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import System.Util.RttEstimator;
+import System.Util.ThreadLauncher;
+import Types.DetectionCause;
+import Types.ElevatorState;
+import org.json.JSONObject;
+
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+
+/**
+ * Probes every elevator for liveness on a channel of its own, apart from
+ * command traffic. Each probe is answered with the elevator's state, so a
+ * jammed or stuck elevator is noticed on its next probe, and one that stops
+ * answering is suspected once it misses HEARTBEAT_MISSES probes plus its
+ * retransmission timeout. Probe round trips feed each elevator's RttEstimator,
+ * whose timeout the scheduler also allows for on the command channel.
+ */
+public class HeartbeatMonitor {
+    /**
+     * The heartbeat socket (unreliable on purpose, stale probes are not resent).
+     */
+    private final DuplexSocket socket;
+
+    private final String name;
+    private final Logger logger;
+    private final int numElevators;
+    private final int interval;
+
+    /**
+     * Round trip estimates for each elevator.
+     */
+    private final RttEstimator[] estimators;
+
+    /**
+     * The latest probe sent to each elevator, and when.
+     */
+    private final int[] probeSequences;
+    private final long[] probeTimes;
+
+    /**
+     * When each elevator last answered (0 until it first does).
+     */
+    private final long[] lastHeardTimes;
+
+    /**
+     * Whether each elevator's fault was reported, or its silence suspected, in the current episode.
+     */
+    private final boolean[] faultReported, silenceSuspected;
+
+    /**
+     * Suspicions not yet taken by the scheduler.
+     */
+    private final boolean[] suspicions;
+
+    private final DetectionMetrics metrics;
+    private volatile boolean running;
+
+    /**
+     * Creates a new monitor with the specified parameters.
+     * @param name String, the monitor's name.
+     * @param receivePortNum int, the port replies are received on.
+     * @param sendPortNum int, the elevators' heartbeat port.
+     * @param sendAddress InetAddress, the address to send to.
+     * @param numElevators int, the number of elevators.
+     * @param interval int, the time in ms between probes.
+     * @param metrics DetectionMetrics, records detections.
+     */
+    public HeartbeatMonitor(String name, int receivePortNum, int sendPortNum, InetAddress sendAddress,
+                            int numElevators, int interval, DetectionMetrics metrics) {
+        this.name = name;
+        this.logger = new Logger(name);
+        this.socket = DuplexSocket.openUnreliable(receivePortNum, sendPortNum, sendAddress, this.logger, 0);
+        this.numElevators = numElevators;
+        this.interval = interval;
+        this.metrics = metrics;
+        this.estimators = new RttEstimator[numElevators];
+        this.probeSequences = new int[numElevators];
+        this.probeTimes = new long[numElevators];
+        this.lastHeardTimes = new long[numElevators];
+        this.faultReported = new boolean[numElevators];
+        this.silenceSuspected = new boolean[numElevators];
+        this.suspicions = new boolean[numElevators];
+
+        for (int i = 0; i < numElevators; i++) {
+            this.estimators[i] = new RttEstimator(Config.RTT_INITIAL_TIMEOUT, Config.RTT_MIN_TIMEOUT, Config.RTT_MAX_TIMEOUT);
+        }
+    }
+
+    /**
+     * Starts the probe and reply threads.
+     */
+    public void start() {
+        this.running = true;
+
+        ThreadLauncher.start(() -> {
+            while (this.running) {
+                this.probe();
+                try {
+                    Thread.sleep(this.interval);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, this.name + "-probe");
+
+        ThreadLauncher.start(() -> {
+            while (this.running) {
+                try {
+                    DatagramPacket receivePacket = this.socket.receive();
+                    this.onReply(JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength()));
+                } catch (SocketTimeoutException e) {
+                    // No timeout is set.
+                } catch (RuntimeException e) {
+                    if (this.running) { e.printStackTrace(); }
+                    return;
+                }
+            }
+        }, this.name + "-reply");
+    }
+
+    /**
+     * Stops probing and closes the socket.
+     */
+    public void close() {
+        this.running = false;
+        this.socket.close();
+    }
+
+    /**
+     * Returns and clears whether an elevator was reported faulty or suspected
+     * silent since the last call.
+     * @param elevatorID int, the elevator's id.
+     * @return boolean, true if the elevator needs a status check.
+     */
+    public synchronized boolean takeSuspicion(int elevatorID) {
+        boolean suspicion = this.suspicions[elevatorID];
+        this.suspicions[elevatorID] = false;
+        return suspicion;
+    }
+
+    /**
+     * Returns an elevator's retransmission timeout measured from its probes.
+     * @param elevatorID int, the elevator's id.
+     * @return long, the timeout in ms.
+     */
+    public long getTimeout(int elevatorID) {
+        return this.estimators[elevatorID].getTimeout();
+    }
+
+    /**
+     * Suspects elevators that stopped answering, then probes every elevator.
+     */
+    private synchronized void probe() {
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < this.numElevators; i++) {
+            long silence = now - this.lastHeardTimes[i];
+            long allowed = (long) Config.HEARTBEAT_MISSES * this.interval + this.estimators[i].getTimeout();
+
+            // Elevators never heard from are left to the command timeout.
+            if (this.lastHeardTimes[i] > 0 && !this.silenceSuspected[i] && silence > allowed) {
+                this.silenceSuspected[i] = true;
+                this.suspicions[i] = true;
+                this.metrics.record(DetectionCause.HEARTBEAT_LOSS, silence);
+                this.logger.log("Elevator-" + i + " silent for " + silence + " ms.");
+            }
+
+            final int elevatorID = i;
+            final int sequence = ++this.probeSequences[i];
+            this.probeTimes[i] = now;
+            this.socket.send(JSONPacket.serialize(JSONPacket.createPacket(new HashMap<>(){{
+                put(Config.K_TOPIC, Config.HEARTBEAT_MSG);
+                put(Config.K_ELEVATOR_ID, elevatorID);
+                put(Config.K_SEQUENCE, sequence);
+            }})));
+        }
+    }
+
+    /**
+     * Handles an elevator's probe reply.
+     * @param reply JSONObject, the reply.
+     */
+    private synchronized void onReply(JSONObject reply) {
+        int elevatorID = reply.optInt(Config.K_ELEVATOR_ID, -1);
+        if (elevatorID < 0 || elevatorID >= this.numElevators) { return; }
+
+        long now = System.currentTimeMillis();
+        long rtt = now - this.probeTimes[elevatorID];
+        if (reply.getInt(Config.K_SEQUENCE) == this.probeSequences[elevatorID]) {
+            // Replies to older probes are late, not a round trip of the latest.
+            this.estimators[elevatorID].sample(rtt);
+        }
+
+        this.lastHeardTimes[elevatorID] = now;
+        if (this.silenceSuspected[elevatorID]) {
+            this.silenceSuspected[elevatorID] = false;
+            this.metrics.recordFalseAlarm();
+            this.logger.log("Elevator-" + elevatorID + " answered again.");
+        }
+
+        ElevatorState state = ElevatorState.valueOf(reply.getString(Config.K_STATE));
+        boolean faulty = state == ElevatorState.DOOR_JAM || state == ElevatorState.STUCK_FLOOR;
+        if (faulty && !this.faultReported[elevatorID]) {
+            this.suspicions[elevatorID] = true;
+            this.metrics.record(DetectionCause.FAULT_REPORT, reply.getLong(Config.K_ELAPSED) + rtt / 2);
+            this.logger.log("Elevator-" + elevatorID + " reported " + state + ".");
+        }
+        this.faultReported[elevatorID] = faulty;
+    }
+}
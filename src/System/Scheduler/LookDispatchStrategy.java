@@ -0,0 +1,21 @@
+package System.Scheduler;
+
+/**
+ * LOOK scheduling: sweep in the current direction stopping at whichever
+ * destination or unclaimed request floor is nearest ahead, and reverse
+ * once nothing is left ahead. Unlike the directional rule this stops at
+ * the nearer floor when travelling down as well as up.
+ */
+public class LookDispatchStrategy extends DirectionalDispatchStrategy {
+    /**
+     * Returns true if the request floor is nearer than the destination floor.
+     * @param requestFloor int, the next unclaimed request floor.
+     * @param destinationFloor int, the next destination floor.
+     * @param currentFloor int, the current floor of elevator.
+     * @return boolean, true to visit the request floor first.
+     */
+    @Override
+    protected boolean prefersRequest(int requestFloor, int destinationFloor, int currentFloor) {
+        return Math.abs(requestFloor - currentFloor) < Math.abs(destinationFloor - currentFloor);
+    }
+}
@@ -0,0 +1,131 @@
+package System.Scheduler;
+
+import Types.ElevatorDirection;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Nearest-car scheduling: each elevator sweeps its destinations like LOOK,
+ * but only claims a request floor if no other elevator is better placed to
+ * serve it, scored with the classic figure of suitability (idle and approaching
+ * cars score by proximity, cars travelling away score lowest).
+ */
+public class NearestCarDispatchStrategy extends LookDispatchStrategy {
+    private static final int IDLE = 0;
+    private static final int UP = 1;
+    private static final int DOWN = -1;
+    private static final int OUT_OF_SERVICE = 2;
+
+    /**
+     * The number of floors in system.
+     */
+    private final int numFloors;
+
+    /**
+     * The last reported floor of each elevator.
+     */
+    private final AtomicIntegerArray positions;
+
+    /**
+     * The current heading of each elevator (IDLE, UP, DOWN or OUT_OF_SERVICE).
+     */
+    private final AtomicIntegerArray headings;
+
+    /**
+     * Creates a new nearest-car strategy.
+     * @param numFloors int, the number of floors in system.
+     * @param numElevators int, the number of elevators in system.
+     */
+    public NearestCarDispatchStrategy(int numFloors, int numElevators) {
+        this.numFloors = numFloors;
+        this.positions = new AtomicIntegerArray(numElevators);
+        this.headings = new AtomicIntegerArray(numElevators);
+
+        for (int i = 0; i < numElevators; i++) {
+            this.positions.set(i, 1);
+        }
+    }
+
+    /**
+     * Fetches the next floor for the specified elevator and records its heading.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator to get floor for.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @return Integer, the next floor or null if no new requests.
+     */
+    @Override
+    public Integer selectNextFloor(SchedulerController controller, int elevatorID, int currentFloor, ElevatorDirection direction) {
+        this.positions.set(elevatorID, currentFloor);
+        Integer nextFloor = super.selectNextFloor(controller, elevatorID, currentFloor, direction);
+
+        if (nextFloor == null) {
+            this.headings.set(elevatorID, IDLE);
+        } else if (nextFloor != currentFloor) {
+            this.headings.set(elevatorID, (nextFloor > currentFloor) ? UP : DOWN);
+        }
+
+        return nextFloor;
+    }
+
+    /**
+     * Marks a failed elevator out of service so it no longer competes for requests.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator that failed.
+     */
+    @Override
+    public void onElevatorError(SchedulerController controller, int elevatorID) {
+        this.headings.set(elevatorID, OUT_OF_SERVICE);
+    }
+
+    /**
+     * Returns true if no other elevator has a higher figure of suitability for the request floor.
+     * @param elevatorID int, the elevator asking.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @param requestFloor int, the request floor to score.
+     * @return boolean, true if the asking elevator should take the request.
+     */
+    @Override
+    protected boolean canClaim(int elevatorID, int currentFloor, ElevatorDirection direction, int requestFloor) {
+        int heading = (direction == ElevatorDirection.UP) ? UP : DOWN;
+        int suitability = this.getSuitability(currentFloor, heading, requestFloor);
+
+        for (int i = 0; i < this.positions.length(); i++) {
+            if (i == elevatorID) { continue; }
+            if (this.getSuitability(this.positions.get(i), this.headings.get(i), requestFloor) > suitability) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes an elevator's figure of suitability for a request floor.
+     * @param carFloor int, the elevator's floor.
+     * @param heading int, the elevator's heading.
+     * @param requestFloor int, the request floor.
+     * @return int, the suitability (higher is better).
+     */
+    private int getSuitability(int carFloor, int heading, int requestFloor) {
+        int distance = Math.abs(requestFloor - carFloor);
+
+        switch (heading) {
+            case IDLE: {
+                return this.numFloors + 1 - distance;
+            }
+
+            case UP: {
+                return (requestFloor >= carFloor) ? this.numFloors + 2 - distance : 1;
+            }
+
+            case DOWN: {
+                return (requestFloor <= carFloor) ? this.numFloors + 2 - distance : 1;
+            }
+
+            default: {
+                return Integer.MIN_VALUE;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package System.Scheduler;
+
+import Types.ElevatorDirection;
+
+/**
+ * Shortest-seek-first scheduling: always visit the nearest destination
+ * or unclaimed request floor, in either direction. Ties go to the floor
+ * in the current direction of travel.
+ */
+public class NearestDispatchStrategy implements DispatchStrategy {
+    /**
+     * Fetches the nearest floor for the specified elevator.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator to get floor for.
+     * @param currentFloor int, the current floor of elevator.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @return Integer, the next floor or null if no new requests.
+     */
+    @Override
+    public Integer selectNextFloor(SchedulerController controller, int elevatorID, int currentFloor, ElevatorDirection direction) {
+        ElevatorDirection opposite = controller.getOppositeDirection(direction);
+        Integer destination = nearest(currentFloor,
+                controller.getNextElevatorDestinationFloor(elevatorID, currentFloor, direction),
+                controller.getNextElevatorDestinationFloor(elevatorID, currentFloor, opposite));
+        int step = (direction == ElevatorDirection.UP) ? 1 : -1;
+        int aheadFloor = currentFloor;
+        int behindFloor = currentFloor;
+
+        while (true) {
+            Integer ahead = controller.getNextRequestFloor(elevatorID, aheadFloor, direction);
+            Integer behind = controller.getNextRequestFloor(elevatorID, behindFloor, opposite);
+            Integer request = nearest(currentFloor, ahead, behind);
+
+            if (request == null) { return destination; }
+            if (destination != null && Math.abs(destination - currentFloor) <= Math.abs(request - currentFloor)) {
+                return destination;
+            }
+            if (controller.claimFloor(elevatorID, request)) { return request; }
+
+            // Lost the floor to another elevator, move that side's scan past it.
+            if (request.equals(ahead)) { aheadFloor = request + step; }
+            if (request.equals(behind)) { behindFloor = request - step; }
+        }
+    }
+
+    /**
+     * Returns the floor nearest to the current floor, preferring the first on ties.
+     * @param currentFloor int, the current floor of elevator.
+     * @param first Integer, the first candidate (may be null).
+     * @param second Integer, the second candidate (may be null).
+     * @return Integer, the nearest candidate or null if both are null.
+     */
+    private static Integer nearest(int currentFloor, Integer first, Integer second) {
+        if (first == null) { return second; }
+        if (second == null) { return first; }
+        return (Math.abs(second - currentFloor) < Math.abs(first - currentFloor)) ? second : first;
+    }
+
+    /**
+     * Boards every waiting rider; this strategy does not sweep by direction.
+     * @param controller SchedulerController, the controller holding system state.
+     * @param elevatorID int, the elevator that acked.
+     * @param request long, the packed waiting request.
+     * @param boardingDirection ElevatorDirection, the hall calls the elevator collects (null for all).
+     * @return boolean, always true.
+     */
+    @Override
+    public boolean shouldBoard(SchedulerController controller, int elevatorID, long request, ElevatorDirection boardingDirection) {
+        return true;
+    }
+}
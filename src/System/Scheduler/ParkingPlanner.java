@@ -0,0 +1,189 @@
+package System.Scheduler;
+
+import System.Config;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses where idle elevators wait. Hall calls are counted per floor
+ * and time of day slot, and an idle elevator is sent to the floor that
+ * minimizes the expected distance to the next call given where the other
+ * idle elevators are parked (so the lobby gets a car in the morning and
+ * later cars spread out over the busy floors). Older calls are halved
+ * away so the rates follow changes in traffic.
+ */
+public class ParkingPlanner {
+    /**
+     * Milliseconds in a day.
+     */
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    /**
+     * The smallest saving in expected distance (floors) worth moving an idle car for.
+     */
+    private static final double MIN_GAIN_FLOORS = 1.0;
+
+    /**
+     * The number of floors in system.
+     */
+    private final int numFloors;
+
+    /**
+     * The length of a time of day slot in ms.
+     */
+    private final long slotMs;
+
+    /**
+     * Call counts per slot (index by floor - 1), the last entry holds the slot total.
+     */
+    private final double[][] slotCalls;
+
+    /**
+     * Call counts over the whole day, used until a slot has calls of its own.
+     */
+    private final double[] dayCalls;
+
+    /**
+     * The floor each elevator is parked at (or heading to park at), -1 if busy.
+     */
+    private final int[] parkedFloors;
+
+    /**
+     * The source of the current time of day in ms.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Creates a new planner with the configured slot length.
+     * @param numFloors int, the number of floors in system.
+     * @param numElevators int, the number of elevators in system.
+     * @param clock LongSupplier, the source of the current time of day in ms.
+     */
+    public ParkingPlanner(int numFloors, int numElevators, LongSupplier clock) {
+        this(numFloors, numElevators, Config.PARKING_SLOT_MINUTES * 60_000L, clock);
+    }
+
+    /**
+     * Creates a new planner.
+     * @param numFloors int, the number of floors in system.
+     * @param numElevators int, the number of elevators in system.
+     * @param slotMs long, the length of a time of day slot in ms.
+     * @param clock LongSupplier, the source of the current time of day in ms.
+     */
+    public ParkingPlanner(int numFloors, int numElevators, long slotMs, LongSupplier clock) {
+        this.numFloors = numFloors;
+        this.slotMs = slotMs;
+        this.slotCalls = new double[(int) Math.max(1, DAY_MS / slotMs)][numFloors + 1];
+        this.dayCalls = new double[numFloors + 1];
+        this.parkedFloors = new int[numElevators];
+        this.clock = clock;
+
+        Arrays.fill(this.parkedFloors, -1);
+    }
+
+    /**
+     * Records a hall call made from the specified floor now.
+     * @param floor int, the floor the call was made from.
+     */
+    public synchronized void recordCall(int floor) {
+        record(this.slotCalls[this.getSlot()], floor);
+        record(this.dayCalls, floor);
+    }
+
+    /**
+     * Counts a call in a row of call counts, halving the row once it
+     * holds more than the configured history.
+     */
+    private void record(double[] calls, int floor) {
+        calls[floor - 1]++;
+        calls[this.numFloors]++;
+
+        if (calls[this.numFloors] > Config.PARKING_HISTORY) {
+            for (int i = 0; i <= this.numFloors; i++) {
+                calls[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Returns the floor an idle elevator should move to, or null if it
+     * should stay where it is. The elevator is considered parked at the
+     * returned floor (or its current floor) until released.
+     * @param elevatorID int, the idle elevator.
+     * @param currentFloor int, the elevator's current floor.
+     * @return Integer, the floor to park at or null to stay.
+     */
+    public synchronized Integer getParkingFloor(int elevatorID, int currentFloor) {
+        double[] calls = this.slotCalls[this.getSlot()];
+        if (calls[this.numFloors] == 0) { calls = this.dayCalls; }
+
+        this.parkedFloors[elevatorID] = currentFloor;
+        if (calls[this.numFloors] == 0) { return null; }
+
+        // Distance from each floor to the nearest other parked elevator.
+        int[] covered = new int[this.numFloors];
+        Arrays.fill(covered, Integer.MAX_VALUE);
+        for (int id = 0; id < this.parkedFloors.length; id++) {
+            int parked = this.parkedFloors[id];
+            if (id == elevatorID || parked == -1) { continue; }
+
+            for (int floor = 1; floor <= this.numFloors; floor++) {
+                covered[floor - 1] = Math.min(covered[floor - 1], Math.abs(floor - parked));
+            }
+        }
+
+        double stayCost = this.getCost(calls, covered, currentFloor);
+        double bestCost = stayCost;
+        int bestFloor = currentFloor;
+        for (int floor = 1; floor <= this.numFloors; floor++) {
+            double cost = this.getCost(calls, covered, floor);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestFloor = floor;
+            }
+        }
+
+        if ((stayCost - bestCost) / calls[this.numFloors] < MIN_GAIN_FLOORS) { return null; }
+
+        this.parkedFloors[elevatorID] = bestFloor;
+        return bestFloor;
+    }
+
+    /**
+     * Returns the call weighted distance from each floor to the nearest
+     * parked elevator if an elevator parks at the specified floor.
+     */
+    private double getCost(double[] calls, int[] covered, int parkFloor) {
+        double cost = 0;
+        for (int floor = 1; floor <= this.numFloors; floor++) {
+            if (calls[floor - 1] == 0) { continue; }
+            cost += calls[floor - 1] * Math.min(covered[floor - 1], Math.abs(floor - parkFloor));
+        }
+        return cost;
+    }
+
+    /**
+     * Marks the elevator as no longer parked (it has work or is out of service).
+     * @param elevatorID int, the elevator to release.
+     */
+    public synchronized void release(int elevatorID) {
+        this.parkedFloors[elevatorID] = -1;
+    }
+
+    /**
+     * Returns the floor the elevator is parked at.
+     * @param elevatorID int, the elevator to check.
+     * @return int, the parked floor or -1 if not parked.
+     */
+    public synchronized int getParkedFloor(int elevatorID) {
+        return this.parkedFloors[elevatorID];
+    }
+
+    /**
+     * Returns the time of day slot for the current time.
+     */
+    private int getSlot() {
+        return (int) (Math.floorMod(this.clock.getAsLong(), DAY_MS) / this.slotMs) % this.slotCalls.length;
+    }
+}
@@ -1,73 +1,119 @@
 package System.Scheduler;
 
+import Types.ElevatorDirection;
 import Types.ElevatorState;
 
 /**
- * A scheduler stored/queued request.
+ * A scheduler stored/queued request, packed into a single long so
+ * queuing a hall call allocates nothing. Layout (low to high bits):
+ * pickup floor (16), destination floor (16), error (4), direction (1)
+ * and the elevator the request is assigned to, plus one (16).
  * @author Yousef Yassin
  */
-public class Request {
-    private int pickupFloor;
-    private int destFloor;
-    private ElevatorState error;
+public final class Request {
+    private static final int FLOOR_BITS = 16;
+    private static final long FLOOR_MASK = (1L << FLOOR_BITS) - 1;
+    private static final int DEST_SHIFT = FLOOR_BITS;
+    private static final int ERROR_SHIFT = DEST_SHIFT + FLOOR_BITS;
+    private static final long ERROR_MASK = 0xF;
+    private static final int DIRECTION_SHIFT = ERROR_SHIFT + 4;
+    private static final int ELEVATOR_SHIFT = DIRECTION_SHIFT + 1;
+    private static final long ELEVATOR_MASK = (1L << 16) - 1;
 
     /**
-     * Creates a new request with the specified parameters.
+     * Cached error values (values() copies the array on every call).
+     */
+    private static final ElevatorState[] ERRORS = ElevatorState.values();
+
+    private Request() {}
+
+    /**
+     * Packs a new unassigned request with the specified parameters.
      * @param pickupFloor int, the floor to pick up from.
      * @param destFloor int, the floor to drop off at.
+     * @param direction ElevatorDirection, the hall call button pressed (UP or DOWN).
      * @param error ElevatorState, the associated error with the request.
+     * @return long, the packed request.
      */
-    public Request (int pickupFloor, int destFloor, ElevatorState error) {
-        this.pickupFloor = pickupFloor;
-        this.destFloor = destFloor;
-        this.error = error;
+    public static long pack(int pickupFloor, int destFloor, ElevatorDirection direction, ElevatorState error) {
+        return (pickupFloor & FLOOR_MASK)
+                | ((destFloor & FLOOR_MASK) << DEST_SHIFT)
+                | ((long) error.ordinal() << ERROR_SHIFT)
+                | ((direction == ElevatorDirection.DOWN) ? 1L << DIRECTION_SHIFT : 0);
     }
 
     /**
      * Returns the pickup floor.
+     * @param request long, the packed request.
      * @return int, the pickup floor.
      */
-    public int getPickupFloor() {
-        return pickupFloor;
-    }
-
-    /**
-     * Sets the pickup floor to the specified floor.
-     * @param pickupFloor int, the floor to set.
-     */
-    public void setPickupFloor(int pickupFloor) {
-        this.pickupFloor = pickupFloor;
+    public static int getPickupFloor(long request) {
+        return (int) (request & FLOOR_MASK);
     }
 
     /**
      * Returns the destination floor.
+     * @param request long, the packed request.
      * @return int, the destination floor.
      */
-    public int getDestFloor() {
-        return destFloor;
+    public static int getDestFloor(long request) {
+        return (int) ((request >>> DEST_SHIFT) & FLOOR_MASK);
     }
 
     /**
-     * Sets the destination floor.
-     * @param destFloor int, the destination floor to set.
+     * Returns the hall call direction.
+     * @param request long, the packed request.
+     * @return ElevatorDirection, the direction the rider is going.
      */
-    public void setDestFloor(int destFloor) {
-        this.destFloor = destFloor;
+    public static ElevatorDirection getDirection(long request) {
+        return (((request >>> DIRECTION_SHIFT) & 1) != 0) ? ElevatorDirection.DOWN : ElevatorDirection.UP;
     }
 
     /**
      * Returns the error associated with the request.
-     * @return Elevatorstate, the error.
+     * @param request long, the packed request.
+     * @return ElevatorState, the error.
      */
-    public ElevatorState getError() {
-        return error;
+    public static ElevatorState getError(long request) {
+        return ERRORS[(int) ((request >>> ERROR_SHIFT) & ERROR_MASK)];
     }
 
     /**
-     * Sets this request's error.
+     * Returns the request with its error replaced.
+     * @param request long, the packed request.
      * @param error ElevatorState, the error to set.
+     * @return long, the updated request.
+     */
+    public static long withError(long request, ElevatorState error) {
+        return (request & ~(ERROR_MASK << ERROR_SHIFT)) | ((long) error.ordinal() << ERROR_SHIFT);
+    }
+
+    /**
+     * Returns the elevator the request is assigned to.
+     * @param request long, the packed request.
+     * @return int, the elevator's id or -1 if unassigned.
+     */
+    public static int getElevator(long request) {
+        return (int) ((request >>> ELEVATOR_SHIFT) & ELEVATOR_MASK) - 1;
+    }
+
+    /**
+     * Returns the request assigned to the specified elevator.
+     * @param request long, the packed request.
+     * @param elevatorID int, the elevator's id or -1 for none.
+     * @return long, the updated request.
+     */
+    public static long withElevator(long request, int elevatorID) {
+        return (request & ~(ELEVATOR_MASK << ELEVATOR_SHIFT)) | ((long) (elevatorID + 1) << ELEVATOR_SHIFT);
+    }
+
+    /**
+     * Returns a readable form of the request.
+     * @param request long, the packed request.
+     * @return String, the request's fields.
      */
-    public void setError(ElevatorState error) {
-        this.error = error;
+    public static String toString(long request) {
+        return "Request{" + getPickupFloor(request) + " -> " + getDestFloor(request)
+                + ", " + getDirection(request) + ", " + getError(request) + ", elevator " + getElevator(request) + "}";
     }
 }
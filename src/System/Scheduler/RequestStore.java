@@ -0,0 +1,119 @@
+package System.Scheduler;
+
+import Types.ElevatorState;
+
+/**
+ * Per-floor queues of packed requests held in growable long arrays, so
+ * queuing and draining hall calls allocates nothing once each floor's
+ * array has grown to its peak. Order within a floor is not preserved.
+ * Not thread-safe: the controller guards each floor with its floor lock.
+ */
+public class RequestStore {
+    /**
+     * The initial capacity of each floor's array.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * The packed requests waiting on each floor (index by floor - 1).
+     */
+    private final long[][] requests;
+
+    /**
+     * The number of requests waiting on each floor (index by floor - 1).
+     */
+    private final int[] sizes;
+
+    /**
+     * Creates a new empty store.
+     * @param numFloors int, the number of floors in system.
+     */
+    public RequestStore(int numFloors) {
+        this.requests = new long[numFloors][INITIAL_CAPACITY];
+        this.sizes = new int[numFloors];
+    }
+
+    /**
+     * Queues a request on its pickup floor.
+     * @param request long, the packed request.
+     */
+    public void add(long request) {
+        int idx = Request.getPickupFloor(request) - 1;
+        long[] floorRequests = this.requests[idx];
+
+        if (this.sizes[idx] == floorRequests.length) {
+            long[] grown = new long[floorRequests.length * 2];
+            System.arraycopy(floorRequests, 0, grown, 0, floorRequests.length);
+            this.requests[idx] = floorRequests = grown;
+        }
+        floorRequests[this.sizes[idx]++] = request;
+    }
+
+    /**
+     * Returns the number of requests waiting on a floor.
+     * @param floor int, the floor.
+     * @return int, the number of requests.
+     */
+    public int size(int floor) {
+        return this.sizes[floor - 1];
+    }
+
+    /**
+     * Returns true if no requests are waiting on a floor.
+     * @param floor int, the floor.
+     * @return boolean, true if empty.
+     */
+    public boolean isEmpty(int floor) {
+        return this.sizes[floor - 1] == 0;
+    }
+
+    /**
+     * Returns a waiting request.
+     * @param floor int, the floor.
+     * @param index int, the request's index on the floor.
+     * @return long, the packed request.
+     */
+    public long get(int floor, int index) {
+        return this.requests[floor - 1][index];
+    }
+
+    /**
+     * Replaces a waiting request.
+     * @param floor int, the floor.
+     * @param index int, the request's index on the floor.
+     * @param request long, the packed request.
+     */
+    public void set(int floor, int index, long request) {
+        this.requests[floor - 1][index] = request;
+    }
+
+    /**
+     * Removes a waiting request by moving the floor's last request into its
+     * place. Iterate backwards to remove while draining.
+     * @param floor int, the floor.
+     * @param index int, the request's index on the floor.
+     */
+    public void remove(int floor, int index) {
+        long[] floorRequests = this.requests[floor - 1];
+        floorRequests[index] = floorRequests[--this.sizes[floor - 1]];
+    }
+
+    /**
+     * Removes every request waiting on a floor.
+     * @param floor int, the floor.
+     */
+    public void clear(int floor) {
+        this.sizes[floor - 1] = 0;
+    }
+
+    /**
+     * Clears the error of every request waiting on a floor.
+     * @param floor int, the floor.
+     */
+    public void resetErrors(int floor) {
+        long[] floorRequests = this.requests[floor - 1];
+        for (int i = 0; i < this.sizes[floor - 1]; i++) {
+            floorRequests[i] = Request.withError(floorRequests[i], ElevatorState.NO_ERROR);
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package System.Scheduler;
 
 import GUI.SystemGUI;
+import System.Util.BatchReceiver;
 import System.Util.DuplexSocket;
+import System.Util.EventLoop;
+import System.Util.EventLoopSocket;
 import System.Util.JSONPacket;
 import System.Util.Logger;
+import System.Util.MessageSender;
+import System.Util.MotionProfile;
+import System.Util.ScaledClock;
+import System.Util.ThreadLauncher;
 import System.Config;
 import System.Util.Utility;
+import Types.DetectionCause;
+import Types.DispatchStrategyType;
 import Types.ElevatorDirection;
 import Types.ElevatorState;
 import Types.SchedulerState;
@@ -15,7 +24,11 @@ import java.net.DatagramPacket;
 import java.net.InetAddress;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.TimeZone;
 
 /**
  * The system scheduler to accept and queue 
@@ -35,6 +48,11 @@ public class Scheduler {
      */
     private final int FLOOR_PORT, BASE_ELEVATOR_PORT;
 
+    /**
+     * The port the first elevator listens on.
+     */
+    private final int ELEVATOR_LISTEN_PORT;
+
     /**
      * The number of elevators to schedule.
      */
@@ -63,7 +81,7 @@ public class Scheduler {
     /**
      * Listener socket ports for all elevators.
      */
-    private final DuplexSocket[] elevatorListenerSockets;
+    private final MessageSender[] elevatorListenerSockets;
     
     /**
      * Scheduling states for all elevators.
@@ -91,6 +109,82 @@ public class Scheduler {
      */
     private final boolean testing;
 
+    /**
+     * Orders and acks windowed floor requests.
+     */
+    private final BatchReceiver floorBatches = new BatchReceiver();
+
+    /**
+     * The number of event loops servicing the elevators (0 for a blocking thread per elevator).
+     */
+    private int numEventLoops;
+
+    /**
+     * True if every elevator sends to one shared port, false for a port each.
+     */
+    private boolean sharedElevatorPort;
+
+    /**
+     * Records how long elevator faults took to detect.
+     */
+    private final DetectionMetrics detectionMetrics = new DetectionMetrics();
+
+    /**
+     * Probes the elevators for liveness (null when heartbeats are off).
+     */
+    private HeartbeatMonitor heartbeatMonitor;
+
+    /**
+     * The event loops servicing the elevators (empty for a thread each).
+     */
+    private final List<EventLoop> eventLoops = new ArrayList<>();
+
+    /**
+     * Set once the scheduler is closed, so its listeners stop quietly.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Time in ms between heartbeat probes (0 for none).
+     */
+    private int heartbeatInterval;
+
+    /**
+     * When each elevator last sent a packet, and how long in ms it may
+     * then stay quiet given the command it is carrying out.
+     */
+    private final long[] lastPacketTimes, quietAllowances;
+
+    /**
+     * Whether each elevator is carrying out a command, and whether its
+     * status request only checks on an idle elevator's silence (a healthy
+     * reply to which is no false alarm).
+     */
+    private final boolean[] commandsOutstanding, idleChecks;
+
+    /**
+     * When each elevator was last sent a status request, and how many
+     * were sent since it last replied (each doubles the wait).
+     */
+    private final long[] statusRequestTimes;
+    private final int[] statusRequests;
+
+    /**
+     * The newest floor update sequence from each elevator.
+     */
+    private final int[] floorUpdateSequences;
+
+    /**
+     * Time in ms to let a terminated elevator stop before showing it as terminated.
+     */
+    private static final int TERMINATE_DELAY = 2000;
+
+    /**
+     * Receive buffer bytes per elevator on a shared port, so that a frame
+     * from every elevator at once is not dropped.
+     */
+    private static final int SHARED_PORT_BUFFER_PER_ELEVATOR = 4096;
+
     /**
      * Creates a new scheduler with the specified parameters.
      * @param name String, the scheduler's name.
@@ -105,28 +199,87 @@ public class Scheduler {
      * @param testing boolean, true if this is a dut.
      */
     public Scheduler(String name, int maxFloor, int elevatorTimeout, int floorPort, int baseElevatorPort, int numElevators, InetAddress sendAddress, SystemGUI gui, boolean testing) {
+        this(name, maxFloor, elevatorTimeout, floorPort, baseElevatorPort, numElevators, sendAddress, gui, testing, Config.DISPATCH_STRATEGY);
+    }
+
+    /**
+     * Creates a new scheduler with the specified parameters and dispatch algorithm.
+     * @param name String, the scheduler's name.
+     * @param maxFloor int, the highest floor in the system.
+     * @param elevatorTimeout int, the time in ms to wait before timing
+     * 		  out on socket receive.
+     * @param floorPort int, the floor listener port.
+     * @param baseElevatorPort int, the elevator base listening port.
+     * @param numElevators int, the number of elevators in the system.
+     * @param sendAddress InetAddress, the address to send to.
+     * @param gui SystemGUI, the system gui.
+     * @param testing boolean, true if this is a dut.
+     * @param dispatchStrategy DispatchStrategyType, the dispatch algorithm to schedule with.
+     */
+    public Scheduler(String name, int maxFloor, int elevatorTimeout, int floorPort, int baseElevatorPort, int numElevators, InetAddress sendAddress, SystemGUI gui, boolean testing, DispatchStrategyType dispatchStrategy) {
+        this(name, maxFloor, elevatorTimeout, floorPort, baseElevatorPort, Config.ELEVATOR_BASE_PORT, numElevators, sendAddress, gui, testing, dispatchStrategy);
+    }
+
+    /**
+     * Creates a new scheduler with the specified parameters, dispatch algorithm
+     * and elevator ports (used to run several banks side by side).
+     * @param name String, the scheduler's name.
+     * @param maxFloor int, the highest floor in the system.
+     * @param elevatorTimeout int, the time in ms to wait before timing
+     * 		  out on socket receive.
+     * @param floorPort int, the floor listener port.
+     * @param baseElevatorPort int, the elevator base listening port.
+     * @param elevatorListenPort int, the port the first elevator listens on.
+     * @param numElevators int, the number of elevators in the system.
+     * @param sendAddress InetAddress, the address to send to.
+     * @param gui SystemGUI, the system gui.
+     * @param testing boolean, true if this is a dut.
+     * @param dispatchStrategy DispatchStrategyType, the dispatch algorithm to schedule with.
+     */
+    public Scheduler(String name, int maxFloor, int elevatorTimeout, int floorPort, int baseElevatorPort, int elevatorListenPort, int numElevators, InetAddress sendAddress, SystemGUI gui, boolean testing, DispatchStrategyType dispatchStrategy) {
         this.FLOOR_PORT = floorPort;
+        this.ELEVATOR_LISTEN_PORT = elevatorListenPort;
         this.BASE_ELEVATOR_PORT = baseElevatorPort;
         this.NUM_ELEVATORS = numElevators;
         this.NAME = name;
         this.ELEVATOR_TIMEOUT = elevatorTimeout;
-        this.schedulerController = new SchedulerController(maxFloor, numElevators);
+        this.schedulerController = new SchedulerController(maxFloor, numElevators,
+                DispatchStrategy.create(dispatchStrategy, maxFloor, numElevators));
         this.testing = testing;
+        this.numEventLoops = Config.ELEVATOR_EVENT_LOOPS;
+        this.sharedElevatorPort = Config.SHARED_ELEVATOR_PORT;
+        this.heartbeatInterval = Config.HEARTBEAT_INTERVAL;
 
         this.sendAddress = sendAddress;
         this.logger = new Logger(NAME);
+
+        if (!this.testing && Config.IDLE_PARKING) {
+            // Learn call rates against the local time of day, as simulated.
+            this.schedulerController.setParkingPlanner(new ParkingPlanner(maxFloor, numElevators, () -> {
+                long now = ScaledClock.currentTimeMillis();
+                return now + TimeZone.getDefault().getOffset(now);
+            }));
+        }
         this.gui = gui;
 
         if (!this.testing) {
         	
         }
-        this.elevatorListenerSockets = new DuplexSocket[numElevators];
+        this.elevatorListenerSockets = new MessageSender[numElevators];
         this.schedulerElevatorState = new SchedulerState[numElevators];
         this.elevatorTerminationFloors = new int[numElevators];
+        this.lastPacketTimes = new long[numElevators];
+        this.quietAllowances = new long[numElevators];
+        this.commandsOutstanding = new boolean[numElevators];
+        this.idleChecks = new boolean[numElevators];
+        this.statusRequestTimes = new long[numElevators];
+        this.statusRequests = new int[numElevators];
+        this.floorUpdateSequences = new int[numElevators];
+        Arrays.fill(this.quietAllowances, elevatorTimeout);
 
         // Create the floor duplex socket
         if (!this.testing) {
-        	this.floorSocket = new DuplexSocket(Config.SCHEDULER_PORT, Config.FLOOR_PORT, this.sendAddress, this.logger);
+        	this.floorSocket = DuplexSocket.open(this.BASE_ELEVATOR_PORT, this.FLOOR_PORT, this.sendAddress, this.logger, 0);
         } else {
         	this.floorSocket = null;
         }
@@ -137,7 +290,47 @@ public class Scheduler {
      * Displays the system's gui.
      */
     public void display() {
-        this.gui.display();
+        if (this.gui != null) this.gui.display();
+    }
+
+    /**
+     * Sets how many event loops service the elevators, must be called before start.
+     * @param numEventLoops int, the number of loops (0 for a blocking thread per elevator).
+     */
+    public void setEventLoops(int numEventLoops) {
+        this.numEventLoops = numEventLoops;
+    }
+
+    /**
+     * Sets whether every elevator sends to one shared port, must be called before start.
+     * @param sharedElevatorPort boolean, true to share baseElevatorPort + 1, false for a port each.
+     */
+    public void setSharedElevatorPort(boolean sharedElevatorPort) {
+        this.sharedElevatorPort = sharedElevatorPort;
+    }
+
+    /**
+     * Sets the time between heartbeat probes, must be called before start.
+     * @param heartbeatInterval int, the interval in ms (0 for no heartbeats).
+     */
+    public void setHeartbeatInterval(int heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    /**
+     * Returns the fault detection metrics.
+     * @return DetectionMetrics, the metrics.
+     */
+    public DetectionMetrics getDetectionMetrics() {
+        return this.detectionMetrics;
+    }
+
+    /**
+     * Returns the controller holding the requests and elevator destinations.
+     * @return SchedulerController, the controller.
+     */
+    public SchedulerController getSchedulerController() {
+        return this.schedulerController;
     }
 
     /**
@@ -150,10 +343,40 @@ public class Scheduler {
 
     /**
      * Starts the scheduler's socket threads.
+     * @throws IllegalArgumentException if in memory sockets are to be serviced by event loops or a shared port.
      */
     public void start() {
+        if (DuplexSocket.isInMemory() && (this.sharedElevatorPort || this.numEventLoops > 0)) {
+            // Event loops select on UDP channels, in memory sockets are serviced by a thread each.
+            throw new IllegalArgumentException("In memory sockets need a thread per elevator: "
+                    + "no event loops and no shared elevator port.");
+        }
+
+        Arrays.fill(this.lastPacketTimes, System.currentTimeMillis());
         this.startFloorListener();
         this.startElevatorListener();
+
+        if (!this.testing && this.heartbeatInterval > 0) {
+            this.heartbeatMonitor = new HeartbeatMonitor(NAME + "-heartbeat",
+                    this.BASE_ELEVATOR_PORT + this.NUM_ELEVATORS + 1, this.ELEVATOR_LISTEN_PORT - 1,
+                    this.sendAddress, this.NUM_ELEVATORS, this.heartbeatInterval, this.detectionMetrics);
+            this.heartbeatMonitor.start();
+        }
+    }
+
+    /**
+     * Closes the scheduler's sockets and event loops, ending its threads.
+     */
+    public void close() {
+        this.closed = true;
+        if (this.heartbeatMonitor != null) this.heartbeatMonitor.close();
+        for (EventLoop eventLoop : this.eventLoops) {
+            eventLoop.close();
+        }
+        for (MessageSender elevatorSocket : this.elevatorListenerSockets) {
+            if (elevatorSocket != null) elevatorSocket.close();
+        }
+        if (this.floorSocket != null) this.floorSocket.close();
     }
 
     /* --- FLOOR HANDLER ----------------------------------------------------------------------- */
@@ -165,20 +388,21 @@ public class Scheduler {
         Runnable listener = new Runnable() {
             @Override
             public void run() {
-                while (true) {
+                while (!closed) {
                     try {
                         floorHandler();
                     } catch (SocketTimeoutException e) {
                         e.printStackTrace();
                         return;
+                    } catch (RuntimeException e) {
+                        if (!closed) { throw e; }
                     }
                 }
             }
         };
 
         this.logger.log("Starting floor listener thread...");
-        Thread runnableThread = new Thread(listener);
-        runnableThread.start();
+        ThreadLauncher.start(listener, NAME + "-floor-listener");
     }
 
     /**
@@ -194,6 +418,17 @@ public class Scheduler {
         jsonPacket = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
         this.logger.log("Received Floor packet: " + jsonPacket);
 
+        if (BatchReceiver.isBatch(jsonPacket)) {
+            // Queue the batch's new requests, then ack them all at once.
+            JSONObject ackPacket = this.floorBatches.receive(jsonPacket, request -> {
+                this.addFloorRequest(request);
+                return true;
+            });
+            floorSocket.send(JSONPacket.serialize(ackPacket));
+            this.logger.log("Sent ACK Packet to [ Floor ]: " + ackPacket);
+            return;
+        }
+
         // Send ack
         JSONObject ackPacket = JSONPacket.createPacket(new HashMap<>(){{
             put(Config.K_ACK, true);
@@ -201,12 +436,20 @@ public class Scheduler {
         floorSocket.send(JSONPacket.serialize(ackPacket));
 
         this.logger.log("Sent ACK Packet to [ Floor ]");
+        this.addFloorRequest(jsonPacket);
+    }
 
+    /**
+     * Adds a floor request to the scheduler controller.
+     * @param jsonPacket JSONObject, the request.
+     */
+    private void addFloorRequest(JSONObject jsonPacket) {
         int pickupFloor = jsonPacket.getInt(Config.K_FLOOR);
         int destFloor = jsonPacket.getInt(Config.K_DESTINATION_FLOOR);
+        ElevatorDirection direction = ElevatorDirection.valueOf(jsonPacket.getString(Config.K_FLOOR_BUTTON).toUpperCase());
         ElevatorState error = ElevatorState.valueOf(jsonPacket.getString(Config.K_ERROR));
         // Add request to queue
-        this.schedulerController.addRequest(pickupFloor, destFloor, error);
+        this.schedulerController.addRequest(pickupFloor, destFloor, direction, error);
     }
 
 
@@ -215,21 +458,28 @@ public class Scheduler {
      * Starts elevator listener threads.
      */
     private void startElevatorListener() {
-        Thread runnableThread;
+        if (this.sharedElevatorPort) {
+            this.startSharedElevatorListener();
+            return;
+        }
+        if (this.numEventLoops > 0) {
+            this.startElevatorEventLoops();
+            return;
+        }
 
         for (int i = 0; i < this.NUM_ELEVATORS; i++) {
-            int sendingPortNum = Config.ELEVATOR_BASE_PORT + i * Config.ELEVATOR_INCREMENT; // The port the elevator listens to
+            int sendingPortNum = this.ELEVATOR_LISTEN_PORT + i * Config.ELEVATOR_INCREMENT; // The port the elevator listens to
             final int elevatorID = i;
 
             Logger logger = new Logger("Scheduler-elev-port-" + (i));
 
             // Init sockets
-            final DuplexSocket elevatorSocket = new DuplexSocket(
-                    Config.SCHEDULER_PORT + i + 1,
+            final DuplexSocket elevatorSocket = DuplexSocket.open(
+                    this.BASE_ELEVATOR_PORT + i + 1,
                     sendingPortNum,
                     this.sendAddress,
                     logger,
-                    ELEVATOR_TIMEOUT
+                    Config.ELEVATOR_CHECK_INTERVAL
             );
             this.elevatorListenerSockets[elevatorID] = elevatorSocket;
 
@@ -240,15 +490,201 @@ public class Scheduler {
                 @Override
                 public void run() {
                     boolean run = true;
-                    while (run) {
-                        run = elevatorHandler(elevatorID, elevatorSocket, logger);
+                    while (run && !closed) {
+                        try {
+                            run = elevatorHandler(elevatorID, elevatorSocket, logger);
+                        } catch (RuntimeException e) {
+                            if (!closed) { throw e; }
+                        }
                     }
                 }
             };
 
             this.logger.log("Starting elevator-" + (i) + " listener thread...");
-            runnableThread = new Thread(listener);
-            runnableThread.start();
+            ThreadLauncher.start(listener, NAME + "-elevator-" + i + "-listener");
+        }
+    }
+
+    /**
+     * Services every elevator from a small pool of event loops instead of a
+     * thread each. Elevators are spread over the loops round robin, so each
+     * elevator's state machine only ever runs on its loop's thread.
+     */
+    private void startElevatorEventLoops() {
+        EventLoop[] eventLoops = new EventLoop[this.numEventLoops];
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new EventLoop("Scheduler-event-loop-" + i);
+            this.eventLoops.add(eventLoops[i]);
+        }
+
+        for (int i = 0; i < this.NUM_ELEVATORS; i++) {
+            final int elevatorID = i;
+            final EventLoop eventLoop = eventLoops[i % eventLoops.length];
+            final Logger logger = new Logger("Scheduler-elev-port-" + (i));
+            final EventLoopSocket elevatorSocket = new EventLoopSocket(
+                    this.BASE_ELEVATOR_PORT + i + 1,
+                    this.ELEVATOR_LISTEN_PORT + i * Config.ELEVATOR_INCREMENT,
+                    this.sendAddress,
+                    logger
+            );
+            this.elevatorListenerSockets[elevatorID] = elevatorSocket;
+            this.schedulerElevatorState[elevatorID] = SchedulerState.WAIT;
+
+            elevatorSocket.register(eventLoop, new EventLoop.Handler() {
+                @Override
+                public boolean onPacket(byte[] data, int length) {
+                    return onElevatorPacket(elevatorID, elevatorSocket, logger, eventLoop,
+                            JSONPacket.deserialize(data, length));
+                }
+
+                @Override
+                public boolean onTimeout() {
+                    return onElevatorTimeout(elevatorID, elevatorSocket, logger, eventLoop);
+                }
+            }, Config.ELEVATOR_CHECK_INTERVAL);
+        }
+
+        for (EventLoop eventLoop : eventLoops) {
+            this.logger.log("Starting elevator event loop...");
+            eventLoop.start();
+        }
+    }
+
+    /**
+     * Services every elevator through one port on a single event loop. Each
+     * frame carries its elevator's id, which selects the state machine to
+     * run, and each elevator keeps its own timeout. Replies still go to the
+     * port each elevator listens on.
+     */
+    private void startSharedElevatorListener() {
+        final EventLoop eventLoop = new EventLoop("Scheduler-event-loop");
+        this.eventLoops.add(eventLoop);
+        final EventLoopSocket sharedSocket = new EventLoopSocket(
+                this.BASE_ELEVATOR_PORT + 1,
+                this.ELEVATOR_LISTEN_PORT,
+                this.sendAddress,
+                this.logger
+        );
+        sharedSocket.setReceiveBufferSize(this.NUM_ELEVATORS * SHARED_PORT_BUFFER_PER_ELEVATOR);
+        final Logger[] loggers = new Logger[this.NUM_ELEVATORS];
+        final EventLoop.Watchdog[] watchdogs = new EventLoop.Watchdog[this.NUM_ELEVATORS];
+
+        for (int i = 0; i < this.NUM_ELEVATORS; i++) {
+            final int elevatorID = i;
+            final Logger logger = new Logger("Scheduler-elev-port-" + (i));
+            final EventLoopSocket elevatorSocket = new EventLoopSocket(
+                    sharedSocket,
+                    this.ELEVATOR_LISTEN_PORT + i * Config.ELEVATOR_INCREMENT,
+                    this.sendAddress,
+                    logger
+            );
+            loggers[elevatorID] = logger;
+            this.elevatorListenerSockets[elevatorID] = elevatorSocket;
+            this.schedulerElevatorState[elevatorID] = SchedulerState.WAIT;
+            watchdogs[elevatorID] = eventLoop.watch(Config.ELEVATOR_CHECK_INTERVAL,
+                    () -> onElevatorTimeout(elevatorID, elevatorSocket, logger, eventLoop));
+        }
+
+        sharedSocket.register(eventLoop, new EventLoop.Handler() {
+            @Override
+            public boolean onPacket(byte[] data, int length) {
+                JSONObject jsonPacket = JSONPacket.deserialize(data, length);
+                int elevatorID = jsonPacket.optInt(Config.K_ELEVATOR_ID, -1);
+
+                if (elevatorID < 0 || elevatorID >= NUM_ELEVATORS) {
+                    logger.log("Dropped elevator packet without a valid elevator id: " + jsonPacket);
+                    return true;
+                }
+
+                watchdogs[elevatorID].reset();
+                if (!onElevatorPacket(elevatorID, elevatorListenerSockets[elevatorID], loggers[elevatorID], eventLoop, jsonPacket)) {
+                    watchdogs[elevatorID].cancel();
+                }
+                return true;
+            }
+
+            @Override
+            public boolean onTimeout() {
+                return true;
+            }
+        }, 0);
+
+        this.logger.log("Starting shared elevator event loop...");
+        eventLoop.start();
+    }
+
+    /**
+     * Handles a packet from an elevator serviced by an event loop.
+     * @param elevatorID int, id of the elevator to handle.
+     * @param elevatorSocket MessageSender, the elevator to handle's socket.
+     * @param elevatorLogger Logger, the elevator to handle's logger.
+     * @param eventLoop EventLoop, the loop servicing the elevator.
+     * @param jsonPacket JSONObject, the packet received.
+     * @return boolean, true to keep servicing the elevator, false once terminated.
+     */
+    private boolean onElevatorPacket(int elevatorID, MessageSender elevatorSocket, Logger elevatorLogger, EventLoop eventLoop, JSONObject jsonPacket) {
+        SchedulerState state = this.schedulerElevatorState[elevatorID];
+        this.lastPacketTimes[elevatorID] = System.currentTimeMillis();
+        elevatorLogger.log("Received elevator packet: " + jsonPacket);
+
+        if (state == SchedulerState.LISTEN_FOR_STATUS_REPLY) {
+            this.processStatusReply(elevatorID, jsonPacket);
+        } else if (state == SchedulerState.RECEIVE || state == SchedulerState.WAIT) {
+            this.controller(state, jsonPacket, elevatorID, elevatorSocket, elevatorLogger);
+        }
+
+        return this.runErrorStates(elevatorID, elevatorSocket, elevatorLogger, eventLoop);
+    }
+
+    /**
+     * Handles an elevator serviced by an event loop going quiet for a check interval.
+     * @param elevatorID int, id of the elevator to handle.
+     * @param elevatorSocket MessageSender, the elevator to handle's socket.
+     * @param elevatorLogger Logger, the elevator to handle's logger.
+     * @param eventLoop EventLoop, the loop servicing the elevator.
+     * @return boolean, true to keep servicing the elevator, false once terminated.
+     */
+    private boolean onElevatorTimeout(int elevatorID, MessageSender elevatorSocket, Logger elevatorLogger, EventLoop eventLoop) {
+        SchedulerState state = this.schedulerElevatorState[elevatorID];
+        if (state == SchedulerState.TERMINATED) { return false; }
+        if (!this.isOverdue(elevatorID, elevatorLogger)) { return true; }
+
+        elevatorLogger.log("Timed out. Proceeding to send status request state");
+        this.schedulerElevatorState[elevatorID] = SchedulerState.SEND_STATUS_REQ;
+        return this.runErrorStates(elevatorID, elevatorSocket, elevatorLogger, eventLoop);
+    }
+
+    /**
+     * Runs the error states that send to the elevator until it is waiting on
+     * a reply again. Termination is shown on the gui from a timer rather than
+     * by sleeping on the loop.
+     * @return boolean, true to keep servicing the elevator, false once terminated.
+     */
+    private boolean runErrorStates(int elevatorID, MessageSender elevatorSocket, Logger elevatorLogger, EventLoop eventLoop) {
+        while (true) {
+            SchedulerState state = this.schedulerElevatorState[elevatorID];
+
+            switch (state) {
+                case SEND_STATUS_REQ: {}   // Cascade
+                case SEND_UNLOCK_DOORS: {
+                    this.sendErrorCommand(state, elevatorID, elevatorSocket, elevatorLogger);
+                    break;
+                }
+
+                case SEND_TERMINATE: {
+                    this.sendTerminate(elevatorID, elevatorSocket, elevatorLogger);
+                    eventLoop.schedule(TERMINATE_DELAY, () -> this.showTerminated(elevatorID));
+                    return false;
+                }
+
+                case TERMINATED: {
+                    return false;
+                }
+
+                default: {
+                    return true;
+                }
+            }
         }
     }
 
@@ -287,11 +723,14 @@ public class Scheduler {
         try {
             receivePacket = elevatorSocket.receive();
         } catch (SocketTimeoutException e) {
+            if (!this.isOverdue(elevatorID, elevatorLogger)) { return true; }
+
             elevatorLogger.log("Timed out. Proceeding to send status request state");
             this.schedulerElevatorState[elevatorID] = SchedulerState.SEND_STATUS_REQ;
             return true;
         }
 
+        this.lastPacketTimes[elevatorID] = System.currentTimeMillis();
         jsonPacket = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
         elevatorLogger.log("Received elevator packet: " + jsonPacket);
 
@@ -299,6 +738,63 @@ public class Scheduler {
         return this.controller(state, jsonPacket, elevatorID, elevatorSocket, elevatorLogger);
     }
 
+    /**
+     * Sends an elevator a status request or an unlock door command, the error
+     * states that only send.
+     * @param state SchedulerState, SEND_STATUS_REQ or SEND_UNLOCK_DOORS.
+     * @param elevatorID int, the elevator to handle's id.
+     * @param elevatorSocket MessageSender, the socket of the elevator to handle.
+     * @param elevatorLogger Logger, the elevator to handle's logger.
+     * @return boolean, true.
+     */
+    private boolean sendErrorCommand(SchedulerState state, int elevatorID, MessageSender elevatorSocket, Logger elevatorLogger) {
+        switch (state) {
+            case SEND_STATUS_REQ: {
+                this.schedulerElevatorState[elevatorID] = SchedulerState.LISTEN_FOR_STATUS_REPLY;
+                this.statusRequestTimes[elevatorID] = System.currentTimeMillis();
+                this.statusRequests[elevatorID]++;
+
+                if (this.testing) return true;
+
+                // This request answers any suspicion raised meanwhile.
+                if (this.heartbeatMonitor != null) this.heartbeatMonitor.takeSuspicion(elevatorID);
+
+                JSONObject ackPacket = JSONPacket.createPacket(new HashMap<>(){{
+                    put(Config.K_ACK, true);
+                }});
+
+                elevatorSocket.send(JSONPacket.serialize(ackPacket));
+                elevatorLogger.log("Sent Status request to elevator.");
+                elevatorLogger.log(ackPacket.toString());
+
+                return true;
+            }
+
+            case SEND_UNLOCK_DOORS: {
+                this.schedulerElevatorState[elevatorID] = SchedulerState.RECEIVE;
+                this.lastPacketTimes[elevatorID] = System.currentTimeMillis();
+                this.quietAllowances[elevatorID] = this.ELEVATOR_TIMEOUT;
+                this.commandsOutstanding[elevatorID] = true;
+                if (this.testing) return true;
+
+                JSONObject ackPacket = JSONPacket.createPacket(new HashMap<>(){{
+                    put(Config.K_TOPIC, Config.COMMAND_MSG);
+                    put(Config.K_COMMAND, Config.UNLOCK_DOOR_COMMAND);
+                }});
+
+                elevatorSocket.send(JSONPacket.serialize(ackPacket));
+                elevatorLogger.log("Sent unlock door command to elevator.");
+                elevatorLogger.log(ackPacket.toString());
+
+                return true;
+            }
+
+            default: {
+                throw new IllegalArgumentException("Not a sending error state: " + state);
+            }
+        }
+    }
+
     /**
      * Handle's elevator error.
      * @param state SchedulerState, the elevator to handle's scheduling state.
@@ -322,20 +818,9 @@ public class Scheduler {
      */
     public boolean handleErrors(SchedulerState state, int elevatorID, DuplexSocket elevatorSocket, Logger elevatorLogger, String testParam) {
         switch (state) {
-            case SEND_STATUS_REQ: {
-                this.schedulerElevatorState[elevatorID] = SchedulerState.LISTEN_FOR_STATUS_REPLY;
-
-                if (this.testing) return true;
-
-                JSONObject ackPacket = JSONPacket.createPacket(new HashMap<>(){{
-                    put(Config.K_ACK, true);
-                }});
-
-                elevatorSocket.send(JSONPacket.serialize(ackPacket));
-                elevatorLogger.log("Sent Status request to elevator.");
-                elevatorLogger.log(ackPacket.toString());
-
-                return true;
+            case SEND_STATUS_REQ: {}   // Cascade
+            case SEND_UNLOCK_DOORS: {
+                return this.sendErrorCommand(state, elevatorID, elevatorSocket, elevatorLogger);
             }
 
             case LISTEN_FOR_STATUS_REPLY: {
@@ -364,51 +849,18 @@ public class Scheduler {
                 try {
                     receivePacket = elevatorSocket.receive();
                 } catch (SocketTimeoutException e) {
+                    if (!this.isOverdue(elevatorID, elevatorLogger)) { return true; }
+
                     elevatorLogger.log("Timed out. Proceeding to send status request state");
                     this.schedulerElevatorState[elevatorID] = SchedulerState.SEND_STATUS_REQ;
                     return true;
                 }
+                this.lastPacketTimes[elevatorID] = System.currentTimeMillis();
 
                 jsonPacket = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
                 elevatorLogger.log("Received elevator status reply: " + jsonPacket);
 
-                ElevatorState error = ElevatorState.valueOf(jsonPacket.getString(Config.K_ERROR));
-                int floor = jsonPacket.getInt(Config.K_FLOOR);
-
-                switch (error) {
-                    case DOOR_JAM: {
-                        this.schedulerElevatorState[elevatorID] = SchedulerState.SEND_UNLOCK_DOORS;
-                        this.gui.setElevatorError(elevatorID, floor, ElevatorState.DOOR_JAM);
-                        return true;
-                    }
-
-                    case STUCK_FLOOR: {
-                        this.schedulerElevatorState[elevatorID] = SchedulerState.SEND_TERMINATE;
-                        this.elevatorTerminationFloors[elevatorID] = floor;
-                        this.gui.setElevatorError(elevatorID, floor, ElevatorState.STUCK_FLOOR);
-                        return true;
-                    }
-
-                    default: {
-                        this.schedulerElevatorState[elevatorID] = SchedulerState.RECEIVE;
-                        return true;
-                    }
-                }
-            }
-
-            case SEND_UNLOCK_DOORS: {
-                this.schedulerElevatorState[elevatorID] = SchedulerState.RECEIVE;
-                if (this.testing) return true;
-
-                JSONObject ackPacket = JSONPacket.createPacket(new HashMap<>(){{
-                    put(Config.K_TOPIC, Config.COMMAND_MSG);
-                    put(Config.K_COMMAND, Config.UNLOCK_DOOR_COMMAND);
-                }});
-
-                elevatorSocket.send(JSONPacket.serialize(ackPacket));
-                elevatorLogger.log("Sent unlock door command to elevator.");
-                elevatorLogger.log(ackPacket.toString());
-
+                this.processStatusReply(elevatorID, jsonPacket);
                 return true;
             }
 
@@ -416,24 +868,15 @@ public class Scheduler {
                 this.schedulerElevatorState[elevatorID] = SchedulerState.TERMINATED;
                 if (this.testing) return false;
 
-                JSONObject ackPacket = JSONPacket.createPacket(new HashMap<>(){{
-                    put(Config.K_TOPIC, Config.COMMAND_MSG);
-                    put(Config.K_COMMAND, Config.TERMINATE_COMMAND);
-                }});
-
-                elevatorSocket.send(JSONPacket.serialize(ackPacket));
-                elevatorLogger.log("Sent terminate command to elevator.");
-                elevatorLogger.log(ackPacket.toString());
-
-                this.schedulerController.processError(elevatorID);
+                this.sendTerminate(elevatorID, elevatorSocket, elevatorLogger);
 
                 try {
-                    Thread.sleep(2000);
+                    Thread.sleep(TERMINATE_DELAY);
                 } catch (InterruptedException e) {
                     e.printStackTrace();
                 }
 
-                this.gui.setElevatorError(elevatorID, this.elevatorTerminationFloors[elevatorID], ElevatorState.TERMINATED);
+                this.showTerminated(elevatorID);
                 return false;
             }
 
@@ -443,16 +886,117 @@ public class Scheduler {
         }
     }
 
+    /**
+     * Moves an elevator to the next error state from its status reply.
+     * @param elevatorID int, the elevator to handle's id.
+     * @param jsonPacket JSONObject, the status reply.
+     */
+    private void processStatusReply(int elevatorID, JSONObject jsonPacket) {
+        ElevatorState error = ElevatorState.valueOf(jsonPacket.getString(Config.K_ERROR));
+        int floor = jsonPacket.getInt(Config.K_FLOOR);
+        boolean idleCheck = this.idleChecks[elevatorID];
+        this.statusRequests[elevatorID] = 0;
+        this.idleChecks[elevatorID] = false;
+
+        switch (error) {
+            case DOOR_JAM: {
+                this.schedulerElevatorState[elevatorID] = SchedulerState.SEND_UNLOCK_DOORS;
+                if (this.gui != null) this.gui.setElevatorError(elevatorID, floor, ElevatorState.DOOR_JAM);
+                break;
+            }
+
+            case STUCK_FLOOR: {
+                this.schedulerElevatorState[elevatorID] = SchedulerState.SEND_TERMINATE;
+                this.elevatorTerminationFloors[elevatorID] = floor;
+                if (this.gui != null) this.gui.setElevatorError(elevatorID, floor, ElevatorState.STUCK_FLOOR);
+                break;
+            }
+
+            default: {
+                if (!idleCheck) this.detectionMetrics.recordFalseAlarm();
+                this.schedulerElevatorState[elevatorID] = SchedulerState.RECEIVE;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns true if a quiet elevator needs a status request: the heartbeat
+     * monitor suspects it, it has been quiet longer than its command allows
+     * plus its retransmission timeout, or its status request went unanswered
+     * for that timeout (doubled for each request in a row). Only silence
+     * during a command is recorded as a detection; an idle elevator's is
+     * just checked on.
+     * @param elevatorID int, the elevator to check's id.
+     * @param elevatorLogger Logger, the elevator to check's logger.
+     * @return boolean, true if overdue.
+     */
+    private boolean isOverdue(int elevatorID, Logger elevatorLogger) {
+        long now = System.currentTimeMillis();
+        long timeout = (this.heartbeatMonitor != null) ?
+                this.heartbeatMonitor.getTimeout(elevatorID) : Config.RTT_INITIAL_TIMEOUT;
+
+        if (this.schedulerElevatorState[elevatorID] == SchedulerState.LISTEN_FOR_STATUS_REPLY) {
+            long wait = Math.min(timeout << Math.min(this.statusRequests[elevatorID] - 1, 10), this.ELEVATOR_TIMEOUT);
+            return now - this.statusRequestTimes[elevatorID] > wait;
+        }
+
+        if (this.heartbeatMonitor != null && this.heartbeatMonitor.takeSuspicion(elevatorID)) {
+            elevatorLogger.log("Heartbeat monitor suspects a fault.");
+            return true;
+        }
+
+        long overdue = now - this.lastPacketTimes[elevatorID] - this.quietAllowances[elevatorID];
+        if (overdue > timeout) {
+            if (this.commandsOutstanding[elevatorID]) {
+                this.detectionMetrics.record(DetectionCause.COMMAND_TIMEOUT, overdue);
+            } else {
+                this.idleChecks[elevatorID] = true;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sends the terminate command to an elevator and releases its requests.
+     * @param elevatorID int, the elevator to handle's id.
+     * @param elevatorSocket MessageSender, the socket of the elevator to handle.
+     * @param elevatorLogger Logger, the elevator to handle's logger.
+     */
+    private void sendTerminate(int elevatorID, MessageSender elevatorSocket, Logger elevatorLogger) {
+        this.schedulerElevatorState[elevatorID] = SchedulerState.TERMINATED;
+
+        JSONObject ackPacket = JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.COMMAND_MSG);
+            put(Config.K_COMMAND, Config.TERMINATE_COMMAND);
+        }});
+
+        elevatorSocket.send(JSONPacket.serialize(ackPacket));
+        elevatorLogger.log("Sent terminate command to elevator.");
+        elevatorLogger.log(ackPacket.toString());
+
+        this.schedulerController.processError(elevatorID);
+    }
+
+    /**
+     * Shows an elevator as terminated on the gui.
+     * @param elevatorID int, the terminated elevator's id.
+     */
+    private void showTerminated(int elevatorID) {
+        if (this.gui != null) this.gui.setElevatorError(elevatorID, this.elevatorTerminationFloors[elevatorID], ElevatorState.TERMINATED);
+    }
+
     /**
      * Primary elevator handler (non-error).
      * @param state Scheduler, the state of elevator to handle.
      * @param json JSONObject, the message received to handle.
      * @param elevatorID int, the id of elevator to handle.
-     * @param elevatorSocket DuplexSocket, the socket of elevator to handle.
+     * @param elevatorSocket MessageSender, the socket of elevator to handle.
      * @param elevatorLogger Logger, the logger of elevator to handle.
      * @return boolean, true if handle success, false otherwise.
      */
-    public boolean controller(SchedulerState state, JSONObject json, int elevatorID, DuplexSocket elevatorSocket, Logger elevatorLogger) {
+    public boolean controller(SchedulerState state, JSONObject json, int elevatorID, MessageSender elevatorSocket, Logger elevatorLogger) {
         switch(state) {
             case WAIT: {}   // Cascade
             case RECEIVE: {
@@ -474,11 +1018,11 @@ public class Scheduler {
      * @param state Scheduler, the state of elevator to handle.
      * @param json JSONObject, the message received to handle.
      * @param elevatorID int, the id of elevator to handle.
-     * @param elevatorSocket DuplexSocket, the socket of elevator to handle.
+     * @param elevatorSocket MessageSender, the socket of elevator to handle.
      * @param elevatorLogger Logger, the logger of elevator to handle.
      * @return boolean, true if handle success, false otherwise.
      */
-    public boolean handlePacket(SchedulerState state, JSONObject json, int elevatorID, DuplexSocket elevatorSocket, Logger elevatorLogger) {
+    public boolean handlePacket(SchedulerState state, JSONObject json, int elevatorID, MessageSender elevatorSocket, Logger elevatorLogger) {
         String topic = json.getString(Config.K_TOPIC);
 
 
@@ -495,10 +1039,28 @@ public class Scheduler {
                     previousFloor = floor + 1;
                 }
 
-                this.gui.deactivateElevator(elevatorID, previousFloor);
-                this.gui.updateElevatorPosition(elevatorID, floor);
+                // Numbered updates are telemetry: one resent or overtaken is acked but not shown again.
+                int sequence = json.optInt(Config.K_SEQUENCE, -1);
+                if (sequence < 0 || sequence > this.floorUpdateSequences[elevatorID]) {
+                    this.floorUpdateSequences[elevatorID] = Math.max(sequence, this.floorUpdateSequences[elevatorID]);
+                    if (this.gui != null) {
+                        this.gui.deactivateElevator(elevatorID, previousFloor);
+                        this.gui.updateElevatorPosition(elevatorID, floor);
+                    }
+                }
 
-                this.sendElevatorAck(elevatorID, elevatorSocket, elevatorLogger);
+                if (sequence < 0) {
+                    this.sendElevatorAck(elevatorID, elevatorSocket, elevatorLogger);
+                    return true;
+                }
+
+                JSONObject ackPacket = JSONPacket.createPacket(new HashMap<>(){{
+                    put(Config.K_ACK, true);
+                    put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+                    put(Config.K_SEQUENCE, sequence);
+                }});
+                elevatorSocket.send(JSONPacket.serialize(ackPacket));
+                elevatorLogger.log("Sent floor update ACK to elevator.");
                 return true;
             }
 
@@ -514,9 +1076,14 @@ public class Scheduler {
                     previousFloor = floor + 1;
                 }
 
-                this.gui.deactivateElevator(elevatorID, previousFloor);
-                this.gui.activateElevator(elevatorID, floor, direction);
+                if (this.gui != null) {
+                    this.gui.deactivateElevator(elevatorID, previousFloor);
+                    this.gui.activateElevator(elevatorID, floor, direction);
+                }
 
+                // Next comes the floor request after boarding.
+                this.quietAllowances[elevatorID] = ScaledClock.toRealMillis((long) Config.BOARDING_TIME * Utility.SECONDS_TO_MILLISECONDS);
+                this.commandsOutstanding[elevatorID] = true;
                 this.sendElevatorAck(elevatorID, elevatorSocket, elevatorLogger);
                 return true;
             }
@@ -539,12 +1106,12 @@ public class Scheduler {
      * Handles and elevator send request ack by fetching the next request.
      * @param state Scheduler, the state of elevator to handle.
      * @param elevatorID int, the id of elevator to handle.
-     * @param elevatorSocket DuplexSocket, the socket of elevator to handle.
+     * @param elevatorSocket MessageSender, the socket of elevator to handle.
      * @param elevatorLogger Logger, the logger of elevator to handle.
      * @param currentFloor int, the elevator's current floor.
      * @param direction ElevatorDirection, the elevator's direction.
      */
-    public void handleElevatorFloorAck(SchedulerState state, int elevatorID, DuplexSocket elevatorSocket, Logger elevatorLogger, int currentFloor, ElevatorDirection direction) {
+    public void handleElevatorFloorAck(SchedulerState state, int elevatorID, MessageSender elevatorSocket, Logger elevatorLogger, int currentFloor, ElevatorDirection direction) {
         boolean success;
 
         switch (state) {
@@ -552,7 +1119,7 @@ public class Scheduler {
                 success = this.sendNextFloor(elevatorID, elevatorSocket, elevatorLogger, currentFloor, direction);
 
                 if (!success) {
-                    this.gui.activateElevator(elevatorID, currentFloor, ElevatorDirection.INACTIVE);
+                    if (this.gui != null) this.gui.activateElevator(elevatorID, currentFloor, ElevatorDirection.INACTIVE);
                 }
 
                 break;
@@ -562,11 +1129,11 @@ public class Scheduler {
                 elevatorLogger.log("ACK Floor:" + currentFloor);
 
                 // Ack floor then send next floor
-                this.schedulerController.ackFloor(elevatorID, currentFloor);
+                this.schedulerController.ackFloor(elevatorID, currentFloor, direction);
                 success = this.sendNextFloor(elevatorID, elevatorSocket, elevatorLogger, currentFloor, direction);
 
                 if (!success) {
-                    this.gui.activateElevator(elevatorID, currentFloor, ElevatorDirection.INACTIVE);
+                    if (this.gui != null) this.gui.activateElevator(elevatorID, currentFloor, ElevatorDirection.INACTIVE);
                 }
 
                 break;
@@ -578,18 +1145,25 @@ public class Scheduler {
     /**
      * Sends the next floor message to elevator.
      * @param elevatorID int, id of elevator to handle.
-     * @param elevatorSocket DuplexSocket, socket of elevator to handle.
+     * @param elevatorSocket MessageSender, socket of elevator to handle.
      * @param elevatorLogger Logger, logger of elevator to handle.
      * @param currentFloor int, the elevator's current floor.
      * @param direction ElevatorDirection, the elevator's direction.
      * @return boolean, true if got next floor, false otherwise.
      */
-    public boolean sendNextFloor(int elevatorID, DuplexSocket elevatorSocket, Logger elevatorLogger, int currentFloor, ElevatorDirection direction) {
+    public boolean sendNextFloor(int elevatorID, MessageSender elevatorSocket, Logger elevatorLogger, int currentFloor, ElevatorDirection direction) {
         Integer nextFloor = this.schedulerController.getNextFloor(elevatorID, currentFloor, direction);
 
         if (nextFloor == null) {
+            this.quietAllowances[elevatorID] = this.ELEVATOR_TIMEOUT;
+            this.commandsOutstanding[elevatorID] = false;
             return false;
         }
+        this.commandsOutstanding[elevatorID] = true;
+
+        // The trip's floor updates and door notification each come within the whole trip's time.
+        this.quietAllowances[elevatorID] = ScaledClock.toRealMillis(2 * Config.DOOR_ACTION_TIME
+                + MotionProfile.getTravelTime(currentFloor, nextFloor));
 
         ElevatorState error = this.schedulerController.getNextError(elevatorID, nextFloor);
 
@@ -605,7 +1179,7 @@ public class Scheduler {
         return true;
     }
 
-    public void sendElevatorAck(int elevatorID, DuplexSocket elevatorSocket, Logger elevatorLogger) {
+    public void sendElevatorAck(int elevatorID, MessageSender elevatorSocket, Logger elevatorLogger) {
         JSONObject ackPacket = JSONPacket.createPacket(new HashMap<>(){{
             put(Config.K_ACK, true);
         }});
@@ -616,10 +1190,24 @@ public class Scheduler {
 
     /**
      * The scheduler's main entrypoint.
-     * @param args String[], command line args.
+     * @param args String[], command line args (--dispatch=NAME selects the dispatch algorithm,
+     *             --banks=N --bank=B runs bank B of N; see BankRouter, --threads=platform|virtual
+     *             --event-loops=N and --shared-port=true select how elevators are serviced,
+     *             --codec=json|binary selects the wire format, --nio=true reuses socket buffers,
+     *             --reliable=true acks and retransmits in the socket layer,
+     *             --time-scale=N runs N times faster than real time).
      */
     public static void main(String[] args) {
-        final String NAME = "Scheduler";
+        JSONPacket.setCodec(Utility.getOption(args, "codec", Config.PACKET_CODEC));
+        DuplexSocket.setNio(Boolean.parseBoolean(Utility.getOption(args, "nio", String.valueOf(Config.NIO_SOCKETS))));
+        DuplexSocket.setReliable(Boolean.parseBoolean(Utility.getOption(args, "reliable", String.valueOf(Config.RELIABLE_SOCKETS))));
+        ThreadLauncher.setMode(Utility.getOption(args, "threads", Config.THREAD_MODE));
+        ScaledClock.setScale(Double.parseDouble(Utility.getOption(args, "time-scale", String.valueOf(Config.TIME_SCALE))));
+        final DispatchStrategyType DISPATCH_STRATEGY = Utility.getOption(args, "dispatch", Config.DISPATCH_STRATEGY);
+        final int NUM_BANKS = Integer.parseInt(Utility.getOption(args, "banks", String.valueOf(Config.NUMBER_BANKS)));
+        final Bank BANK = Bank.partition(Config.MAX_FLOOR, Config.NUMBER_ELEVATORS, NUM_BANKS)[
+                Integer.parseInt(Utility.getOption(args, "bank", "0"))];
+        final String NAME = (NUM_BANKS == 1) ? "Scheduler" : "Scheduler-bank-" + BANK.getId();
         InetAddress HOST;
 
         try {
@@ -629,19 +1217,25 @@ public class Scheduler {
             throw new RuntimeException("[SCHEDULER] Couldn't acquire the local host.");
         }
 
-        SystemGUI gui = new SystemGUI(Config.MAX_FLOOR, Config.NUMBER_ELEVATORS);
+        SystemGUI gui = new SystemGUI(Config.MAX_FLOOR, BANK.getNumElevators());
         Scheduler scheduler = new Scheduler(
                 NAME,
                 Config.MAX_FLOOR,
-                Config.ELEVATOR_TIMEOUT * Utility.SECONDS_TO_MILLISECONDS,
-                Config.FLOOR_PORT,
-                Config.SCHEDULER_PORT,
-                Config.NUMBER_ELEVATORS,
+                ScaledClock.toRealTimeout(Config.ELEVATOR_TIMEOUT * Utility.SECONDS_TO_MILLISECONDS),
+                BANK.getFloorPort(),
+                BANK.getSchedulerPort(),
+                BANK.getElevatorBasePort(),
+                BANK.getNumElevators(),
                 HOST,
                 gui,
-                false
+                false,
+                DISPATCH_STRATEGY
         );
 
+        scheduler.setEventLoops(Integer.parseInt(
+                Utility.getOption(args, "event-loops", String.valueOf(Config.ELEVATOR_EVENT_LOOPS))));
+        scheduler.setSharedElevatorPort(Boolean.parseBoolean(
+                Utility.getOption(args, "shared-port", String.valueOf(Config.SHARED_ELEVATOR_PORT))));
         scheduler.display();
         scheduler.start();
     }
@@ -1,36 +1,147 @@
 package System.Scheduler;
 
+import System.Config;
 import Types.ElevatorDirection;
 import Types.ElevatorState;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 
 /**
  * Implements scheduling algorithm and
  * controls scheduler sent requests.
+ *
+ * Locking is striped so the floor and elevator listener threads don't
+ * serialize on one monitor: each floor's queue and claim are guarded by
+ * that floor's lock and each elevator's destinations and claims by that
+ * elevator's lock. Elevator locks are always taken before floor locks.
+ *
+ * Up and down hall calls are indexed separately per floor so an elevator
+ * only collects riders going its way, unless it is about to reverse.
  * @author Yousef Yassin
  */
 public class SchedulerController {
-    private ArrayList<HashSet<Request>> requestQueue;
-    private boolean[][] elevatorRequests;
+    private RequestStore requestQueue;
+    private FloorBitSet[] elevatorRequests;
+    private FloorBitSet[] claimedFloors;
+    private ConcurrentFloorBitSet unclaimedFloors;
+    private ConcurrentFloorBitSet upHallCalls;
+    private ConcurrentFloorBitSet downHallCalls;
+    private int[] upCallCounts;
+    private int[] downCallCounts;
+    private boolean directionalHallCalls;
     private int[] valid;
+    private final Object[] floorLocks;
+    private final Object[] elevatorLocks;
+    private final DispatchStrategy strategy;
+    private BoardingListener boardingListener;
+    private ParkingPlanner parkingPlanner;
 
     /**
-     * Creates a new scheduler controller with the specified parameters.
+     * Creates a new scheduler controller using the default dispatch strategy.
      * @param numFloors int, the number of floors in system.
      * @param numElevators int, the number of elevators in system.
      */
     public SchedulerController(int numFloors, int numElevators) {
-        this.requestQueue = new ArrayList<>();
-        this.elevatorRequests = new boolean[numElevators][numFloors];
+        this(numFloors, numElevators, DispatchStrategy.create(Config.DISPATCH_STRATEGY, numFloors, numElevators));
+    }
+
+    /**
+     * Creates a new scheduler controller with the specified parameters.
+     * @param numFloors int, the number of floors in system.
+     * @param numElevators int, the number of elevators in system.
+     * @param strategy DispatchStrategy, the algorithm used to pick each elevator's next floor.
+     */
+    public SchedulerController(int numFloors, int numElevators, DispatchStrategy strategy) {
+        this.strategy = strategy;
+        this.requestQueue = new RequestStore(numFloors);
+        this.elevatorRequests = new FloorBitSet[numElevators];
+        this.claimedFloors = new FloorBitSet[numElevators];
+        this.unclaimedFloors = new ConcurrentFloorBitSet(numFloors);
+        this.upHallCalls = new ConcurrentFloorBitSet(numFloors);
+        this.downHallCalls = new ConcurrentFloorBitSet(numFloors);
+        this.upCallCounts = new int[numFloors];
+        this.downCallCounts = new int[numFloors];
+        this.directionalHallCalls = Config.DIRECTIONAL_HALL_CALLS;
         this.valid = new int[numFloors];
-        initRequestQueue(numFloors);
+        this.floorLocks = new Object[numFloors];
+        this.elevatorLocks = new Object[numElevators];
+        initLocks();
+        initElevatorRequests(numFloors);
         initValid();
     }
 
+    /**
+     * Returns the dispatch strategy in use.
+     * @return DispatchStrategy, the strategy.
+     */
+    public DispatchStrategy getStrategy() {
+        return this.strategy;
+    }
+
+    /**
+     * Returns the number of floors in system.
+     * @return int, the number of floors.
+     */
+    public int getNumFloors() {
+        return this.valid.length;
+    }
+
+    /**
+     * Returns the number of elevators in system.
+     * @return int, the number of elevators.
+     */
+    public int getNumElevators() {
+        return this.elevatorRequests.length;
+    }
+
+    /**
+     * Sets the listener notified of each request an elevator picks up.
+     * @param boardingListener BoardingListener, the listener (null for none).
+     */
+    public void setBoardingListener(BoardingListener boardingListener) {
+        this.boardingListener = boardingListener;
+    }
+
+    /**
+     * Sets the planner that picks where idle elevators wait.
+     * @param parkingPlanner ParkingPlanner, the planner (null to leave idle elevators where they stop).
+     */
+    public void setParkingPlanner(ParkingPlanner parkingPlanner) {
+        this.parkingPlanner = parkingPlanner;
+    }
+
+    /**
+     * Returns the planner that picks where idle elevators wait.
+     * @return ParkingPlanner, the planner or null if none.
+     */
+    public ParkingPlanner getParkingPlanner() {
+        return this.parkingPlanner;
+    }
+
+    /**
+     * Sets whether elevators only collect hall calls going their way.
+     * @param directionalHallCalls boolean, true to board by direction, false to board everyone.
+     */
+    public void setDirectionalHallCalls(boolean directionalHallCalls) {
+        this.directionalHallCalls = directionalHallCalls;
+    }
+
+    /**
+     * Returns true if elevators only collect hall calls going their way.
+     * @return boolean, true if boarding by direction.
+     */
+    public boolean isDirectionalHallCalls() {
+        return this.directionalHallCalls;
+    }
+
+    /**
+     * Returns the floors with riders waiting to go in the specified direction.
+     * @param direction ElevatorDirection, the hall call direction (UP or DOWN).
+     * @return ConcurrentFloorBitSet, the hall call floors.
+     */
+    public ConcurrentFloorBitSet getHallCalls(ElevatorDirection direction) {
+        return (direction == ElevatorDirection.UP) ? this.upHallCalls : this.downHallCalls;
+    }
+
     /**
      * Returns this scheduler's unclaimed floors.
      * @return int[], the unclaimed floors bitmap.
@@ -41,27 +152,56 @@ public class SchedulerController {
 
     /**
      * Return's this controller's requests.
-     * @return boolean[][], the requests.
+     * @return FloorBitSet[], the destination floors of each elevator.
      */
-    public boolean[][] getElevatorRequests() {
+    public FloorBitSet[] getElevatorRequests() {
         return this.elevatorRequests;
     }
 
+    /**
+     * Returns the floors with pending requests that no elevator has claimed.
+     * @return ConcurrentFloorBitSet, the unclaimed request floors.
+     */
+    public ConcurrentFloorBitSet getUnclaimedFloors() {
+        return this.unclaimedFloors;
+    }
+
+    /**
+     * Returns the request floors each elevator has claimed.
+     * @return FloorBitSet[], the claimed floors of each elevator.
+     */
+    public FloorBitSet[] getClaimedFloors() {
+        return this.claimedFloors;
+    }
+
     /**
      * Return's this elevator's request queue.
-     * @return ArrayList<HashSet<Request>>, the request queue.
+     * @return RequestStore, the packed requests waiting on each floor.
      */
-    public ArrayList<HashSet<Request>> getRequestQueue() {
+    public RequestStore getRequestQueue() {
         return this.requestQueue;
     }
 
     /**
-     * Initializes this controller's request queue.
+     * Initializes the floor and elevator lock stripes.
+     */
+    private void initLocks() {
+        for (int i = 0; i < this.floorLocks.length; i++) {
+            this.floorLocks[i] = new Object();
+        }
+        for (int i = 0; i < this.elevatorLocks.length; i++) {
+            this.elevatorLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Initializes each elevator's destination floor set.
      * @param numFloors int, number of floors in system.
      */
-    private void initRequestQueue(int numFloors) {
-        for (int i = 0; i < numFloors; i++) {
-            requestQueue.add(new HashSet<>());
+    private void initElevatorRequests(int numFloors) {
+        for (int i = 0; i < this.elevatorRequests.length; i++) {
+            this.elevatorRequests[i] = new FloorBitSet(numFloors);
+            this.claimedFloors[i] = new FloorBitSet(numFloors);
         }
     }
 
@@ -74,53 +214,186 @@ public class SchedulerController {
         }
     }
 
+    /**
+     * Adds a request to this controller, inferring its hall call direction.
+     * @param pickupFloor int, the floor to pickup elevator form.
+     * @param destFloor int, the floor to drop off elevator.
+     * @param error ElevatorState, the associated error with request.
+     */
+    public void addRequest(int pickupFloor, int destFloor, ElevatorState error) {
+        this.addRequest(pickupFloor, destFloor,
+                (destFloor >= pickupFloor) ? ElevatorDirection.UP : ElevatorDirection.DOWN, error);
+    }
+
     /**
      * Adds a request to this controller.
      * @param pickupFloor int, the floor to pickup elevator form.
      * @param destFloor int, the floor to drop off elevator.
+     * @param direction ElevatorDirection, the hall call button pressed (UP or DOWN).
      * @param error ElevatorState, the associated error with request.
      */
-    public synchronized void addRequest(int pickupFloor, int destFloor, ElevatorState error) {
-        Request newRequest = new Request(pickupFloor, destFloor, error);
-        this.requestQueue.get(pickupFloor - 1).add(newRequest);
+    public void addRequest(int pickupFloor, int destFloor, ElevatorDirection direction, ElevatorState error) {
+        long newRequest = Request.pack(pickupFloor, destFloor, direction, error);
+        ParkingPlanner parkingPlanner = this.parkingPlanner;
+
+        if (parkingPlanner != null) {
+            parkingPlanner.recordCall(pickupFloor);
+        }
+
+        synchronized (this.floorLocks[pickupFloor - 1]) {
+            newRequest = this.strategy.onRequestAdded(this, newRequest);
+            this.requestQueue.add(newRequest);
+            this.addHallCall(newRequest);
+
+            if (this.valid[pickupFloor - 1] == -1) {
+                this.unclaimedFloors.add(pickupFloor);
+            }
+        }
     }
 
     /**
      * Processes an error for elevator.
      * @param elevatorID int, the elevator with the error.
      */
-    public synchronized void processError(int elevatorID) {
-        for (int i = 0; i < this.valid.length; i++) {
-            if (this.valid[i] == elevatorID) {
-                this.valid[i] = -1;
-                HashSet<Request> requests = this.requestQueue.get(i);
-
-                Iterator<Request> iter = requests.iterator();
-                while(iter.hasNext()) {
-                    iter.next().setError(ElevatorState.NO_ERROR);
+    public void processError(int elevatorID) {
+        synchronized (this.elevatorLocks[elevatorID]) {
+            FloorBitSet claimed = this.claimedFloors[elevatorID];
+
+            // Release every floor the elevator claimed back to the other elevators.
+            for (int floor = claimed.nextSetFloor(1); floor != -1; floor = claimed.nextSetFloor(floor + 1)) {
+                synchronized (this.floorLocks[floor - 1]) {
+                    this.valid[floor - 1] = -1;
+                    this.requestQueue.resetErrors(floor);
+
+                    if (!this.requestQueue.isEmpty(floor)) {
+                        this.unclaimedFloors.add(floor);
+                    }
                 }
             }
+            claimed.clear();
+            this.strategy.onElevatorError(this, elevatorID);
+
+            if (this.parkingPlanner != null) {
+                this.parkingPlanner.release(elevatorID);
+            }
         }
     }
 
     /**
-     * Acks a floor for the specified elevator.
+     * Acks a floor for the specified elevator, picking up every waiting request.
      * @param elevatorID int, the elevator to ack for.
      * @param floor int, the floor to ack for.
      */
-    public synchronized void ackFloor(int elevatorID, int floor) {
-        this.elevatorRequests[elevatorID][floor - 1] = false;
+    public void ackFloor(int elevatorID, int floor) {
+        this.ackFloor(elevatorID, floor, ElevatorDirection.INACTIVE);
+    }
+
+    /**
+     * Acks a floor for the specified elevator, picking up the waiting requests
+     * going its way (or going the other way if it is about to reverse).
+     * @param elevatorID int, the elevator to ack for.
+     * @param floor int, the floor to ack for.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     */
+    public void ackFloor(int elevatorID, int floor, ElevatorDirection direction) {
+        synchronized (this.elevatorLocks[elevatorID]) {
+            FloorBitSet elevatorDestinations = this.elevatorRequests[elevatorID];
+            elevatorDestinations.remove(floor);
+
+            synchronized (this.floorLocks[floor - 1]) {
+                // 1 - Pickup all request on the floor you arrive to (that the strategy boards)
+                ElevatorDirection boardingDirection = this.getBoardingDirection(elevatorID, floor, direction);
+
+                for (int i = this.requestQueue.size(floor) - 1; i >= 0; i--) {
+                    long request = this.requestQueue.get(floor, i);
+                    if (!this.strategy.shouldBoard(this, elevatorID, request, boardingDirection)) { continue; }
+
+                    elevatorDestinations.add(Request.getDestFloor(request));
+                    this.requestQueue.remove(floor, i);
+                    this.removeHallCall(request);
+
+                    if (this.boardingListener != null) {
+                        this.boardingListener.onBoarded(elevatorID, floor, Request.getDestFloor(request));
+                    }
+                }
+
+                if (this.valid[floor - 1] == elevatorID) {
+                    this.valid[floor - 1] = -1;
+                    this.claimedFloors[elevatorID].remove(floor);
+                }
+
+                // Riders left waiting for another elevator keep the floor open.
+                if (this.requestQueue.isEmpty(floor)) {
+                    this.unclaimedFloors.remove(floor);
+                } else if (this.valid[floor - 1] == -1) {
+                    this.unclaimedFloors.add(floor);
+                }
+            }
+
+            this.strategy.onFloorAcked(this, elevatorID, floor);
+        }
+    }
+
+    /**
+     * Returns the hall call direction an elevator collects at a floor: its own
+     * direction, or the opposite one if nobody is going its way and it has
+     * nothing left ahead. Caller must hold the elevator's and floor's locks.
+     * @param elevatorID int, the elevator.
+     * @param floor int, the floor acked.
+     * @param direction ElevatorDirection, the direction the elevator is travelling in.
+     * @return ElevatorDirection, the direction to board or null to board everyone.
+     */
+    private ElevatorDirection getBoardingDirection(int elevatorID, int floor, ElevatorDirection direction) {
+        if (!this.directionalHallCalls || direction == ElevatorDirection.INACTIVE) { return null; }
+
+        if (this.getHallCalls(direction).contains(floor) || this.hasStopBeyond(elevatorID, floor, direction)) {
+            return direction;
+        }
+        return this.getOppositeDirection(direction);
+    }
+
+    /**
+     * Returns true if the elevator has a destination or an unclaimed
+     * request floor strictly beyond the specified floor.
+     * @param elevatorID int, the elevator.
+     * @param floor int, the floor to look beyond.
+     * @param direction ElevatorDirection, the direction to look in.
+     * @return boolean, true if the elevator has a reason to keep going.
+     */
+    public boolean hasStopBeyond(int elevatorID, int floor, ElevatorDirection direction) {
+        if (direction == ElevatorDirection.UP) {
+            return this.elevatorRequests[elevatorID].nextSetFloor(floor + 1) != -1
+                    || this.unclaimedFloors.nextSetFloor(floor + 1) != -1;
+        }
+        return this.elevatorRequests[elevatorID].previousSetFloor(floor - 1) != -1
+                || this.unclaimedFloors.previousSetFloor(floor - 1) != -1;
+    }
 
-        // 1 - Pickup all request on the floor you arrive to
-        HashSet<Request> requests = this.requestQueue.get(floor - 1);
+    /**
+     * Indexes a queued request's hall call. Caller must hold the floor's lock.
+     * @param request long, the packed request.
+     */
+    private void addHallCall(long request) {
+        int floor = Request.getPickupFloor(request);
 
-        for (Request request : requests) {
-            this.elevatorRequests[elevatorID][request.getDestFloor() - 1] = true;
+        if (Request.getDirection(request) == ElevatorDirection.UP) {
+            if (this.upCallCounts[floor - 1]++ == 0) { this.upHallCalls.add(floor); }
+        } else {
+            if (this.downCallCounts[floor - 1]++ == 0) { this.downHallCalls.add(floor); }
         }
+    }
+
+    /**
+     * Removes a boarded request's hall call. Caller must hold the floor's lock.
+     * @param request long, the packed request.
+     */
+    private void removeHallCall(long request) {
+        int floor = Request.getPickupFloor(request);
 
-        this.requestQueue.get(floor - 1).clear();
-        if (this.valid[floor - 1] == elevatorID) {
-            this.valid[floor - 1] = -1;
+        if (Request.getDirection(request) == ElevatorDirection.UP) {
+            if (--this.upCallCounts[floor - 1] == 0) { this.upHallCalls.remove(floor); }
+        } else {
+            if (--this.downCallCounts[floor - 1] == 0) { this.downHallCalls.remove(floor); }
         }
     }
 
@@ -130,24 +403,25 @@ public class SchedulerController {
      * @param nextFloor int, the next request for the elevator.
      * @return ElevatorState, the error.
      */
-    public synchronized  ElevatorState getNextError(int elevatorID, int nextFloor) {
+    public ElevatorState getNextError(int elevatorID, int nextFloor) {
         ElevatorState error = ElevatorState.NO_ERROR;
 
-        if (this.valid[nextFloor - 1] == elevatorID) {
-            HashSet<Request> requests = this.requestQueue.get(nextFloor - 1);
-            for (Request request : requests) {
-                switch (request.getError()) {
-                    case DOOR_JAM: {
-                        error = ElevatorState.DOOR_JAM;
-                        break;
-                    }
-
-                    case STUCK_FLOOR: {
-                        error = ElevatorState.STUCK_FLOOR;
-                        return error;
+        synchronized (this.floorLocks[nextFloor - 1]) {
+            if (this.valid[nextFloor - 1] == elevatorID) {
+                for (int i = 0; i < this.requestQueue.size(nextFloor); i++) {
+                    switch (Request.getError(this.requestQueue.get(nextFloor, i))) {
+                        case DOOR_JAM: {
+                            error = ElevatorState.DOOR_JAM;
+                            break;
+                        }
+
+                        case STUCK_FLOOR: {
+                            error = ElevatorState.STUCK_FLOOR;
+                            return error;
+                        }
+
+                        default:  { break; }
                     }
-
-                    default:  { break; }
                 }
             }
         }
@@ -156,37 +430,52 @@ public class SchedulerController {
     }
 
     /**
-     * Fetches the next scheduled floor for the specified elevator.
+     * Fetches the next scheduled floor for the specified elevator. When there
+     * are no requests and a parking planner is set, the elevator may instead
+     * be sent to park at the floor most likely to call next.
      * @param elevatorID int, the elevator to get floor for.
      * @param currentFloor int, the current floor of elevator.
      * @param direction ElevatorDirection, the direction the elevator is travelling in.
      * @return Integer, the next floor or null if no new requests.
      */
-    public synchronized Integer getNextFloor(int elevatorID, int currentFloor, ElevatorDirection direction) {
-        // 2 - Get the closest next floor in the direction you are going.
-
-        Integer nextElevatorDestinationFloor = this.getNextElevatorDestinationFloor(elevatorID, currentFloor, direction);
-        Integer nextRequestFloor = this.getNextRequestFloor(elevatorID, currentFloor, direction);
+    public Integer getNextFloor(int elevatorID, int currentFloor, ElevatorDirection direction) {
+        synchronized (this.elevatorLocks[elevatorID]) {
+            Integer nextFloor = this.strategy.selectNextFloor(this, elevatorID, currentFloor, direction);
+            ParkingPlanner parkingPlanner = this.parkingPlanner;
 
-        if (nextRequestFloor == null && nextElevatorDestinationFloor == null) {
-            direction = this.getOppositeDirection(direction);
-            nextElevatorDestinationFloor = this.getNextElevatorDestinationFloor(elevatorID, currentFloor, direction);
-            nextRequestFloor = this.getNextRequestFloor(elevatorID, currentFloor, direction);
+            if (parkingPlanner == null) {
+                return nextFloor;
+            }
+            if (nextFloor != null) {
+                parkingPlanner.release(elevatorID);
+                return nextFloor;
+            }
 
-            if (nextRequestFloor == null && nextElevatorDestinationFloor == null) { return null; }
+            nextFloor = parkingPlanner.getParkingFloor(elevatorID, currentFloor);
+            if (nextFloor != null) {
+                this.strategy.onParking(this, elevatorID, currentFloor, nextFloor);
+            }
+            return nextFloor;
         }
+    }
 
-        if (nextElevatorDestinationFloor == null) {
-            this.valid[nextRequestFloor - 1] = elevatorID;
-            return nextRequestFloor;
-        }
-        if (nextRequestFloor == null) { return nextElevatorDestinationFloor; }
+    /**
+     * Claims a request floor for the specified elevator so
+     * no other elevator is dispatched to it.
+     * @param elevatorID int, the elevator claiming the floor.
+     * @param floor int, the request floor to claim.
+     * @return boolean, true if claimed, false if the floor was taken or served first.
+     */
+    public boolean claimFloor(int elevatorID, int floor) {
+        synchronized (this.floorLocks[floor - 1]) {
+            if (this.valid[floor - 1] != -1 || this.requestQueue.isEmpty(floor)) {
+                return false;
+            }
 
-        if (nextRequestFloor < nextElevatorDestinationFloor) {
-            this.valid[nextRequestFloor - 1] = elevatorID;
-            return nextRequestFloor;
-        } else {
-            return nextElevatorDestinationFloor;
+            this.valid[floor - 1] = elevatorID;
+            this.unclaimedFloors.remove(floor);
+            this.claimedFloors[elevatorID].add(floor);
+            return true;
         }
     }
 
@@ -197,50 +486,36 @@ public class SchedulerController {
      * @param direction ElevatorDirection, the direction the elevator is travelling in.
      * @return Integer, the closest destination floor or null if no are left.
      */
-    private Integer getNextElevatorDestinationFloor(int elevatorID, int currentFloor, ElevatorDirection direction) {
-        // Optimization (add counter)
-        int increment;
-        boolean[] elevatorDestinations = this.elevatorRequests[elevatorID];
+    public Integer getNextElevatorDestinationFloor(int elevatorID, int currentFloor, ElevatorDirection direction) {
+        int floor;
+        FloorBitSet elevatorDestinations = this.elevatorRequests[elevatorID];
 
         if (direction == ElevatorDirection.UP) {
-            increment = 1;
+            floor = elevatorDestinations.nextSetFloor(currentFloor);
         } else {
-            increment = -1;
+            floor = elevatorDestinations.previousSetFloor(currentFloor);
         }
 
-        for (int i = currentFloor - 1; i < elevatorDestinations.length && i >= 0; i+=increment) {
-            if (elevatorDestinations[i]) {
-                return (i + 1);
-            }
-        }
-        return null;
+        return (floor == -1) ? null : floor;
     }
 
     /**
-     * Fetches the closest request floor for an elevator.
+     * Fetches the closest unclaimed request floor for an elevator.
      * @param elevatorID int, the elevator to get floor for.
      * @param currentFloor int, the current floor of elevator.
      * @param direction ElevatorDirection, the direction the elevator is travelling in.
      * @return Integer, the next floor or null if no new requests.
      */
-    private Integer getNextRequestFloor(int elevatorID, int currentFloor, ElevatorDirection direction) {
-        // Optimization (add counter)
-        int increment;
-        ElevatorState error;
+    public Integer getNextRequestFloor(int elevatorID, int currentFloor, ElevatorDirection direction) {
+        int floor;
 
         if (direction == ElevatorDirection.UP) {
-            increment = 1;
+            floor = this.unclaimedFloors.nextSetFloor(currentFloor);
         } else {
-            increment = -1;
-        }
-
-        for (int i = currentFloor - 1; i < this.requestQueue.size() && i >= 0; i+=increment) {
-            if (!this.requestQueue.get(i).isEmpty() && this.valid[i] == -1) {
-                return (i + 1);
-            }
+            floor = this.unclaimedFloors.previousSetFloor(currentFloor);
         }
 
-        return null;
+        return (floor == -1) ? null : floor;
     }
 
     /**
@@ -248,7 +523,7 @@ public class SchedulerController {
      * @param direction ElevatorDirection, direction to invert.
      * @return ElevatorDirection, the opposite direction.
      */
-    private ElevatorDirection getOppositeDirection(ElevatorDirection direction) {
+    public ElevatorDirection getOppositeDirection(ElevatorDirection direction) {
         if (direction == ElevatorDirection.UP) {
             return ElevatorDirection.DOWN;
         } else {
@@ -0,0 +1,439 @@
+package System.Simulation;
+
+import System.Config;
+import System.ElevatorSystem.Elevator;
+import System.Scheduler.DispatchStrategy;
+import System.Scheduler.ParkingPlanner;
+import System.Scheduler.SchedulerController;
+import System.Util.DuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import System.Util.Utility;
+import Types.DispatchStrategyType;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+import org.json.JSONObject;
+
+import java.net.DatagramPacket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * Replays a passenger trace through a SchedulerController and the system's
+ * own Elevators on a virtual clock, so a day of traffic runs in seconds and
+ * the same trace always gives the same results. Each elevator's state
+ * machine sleeps on a VirtualElevatorClock, and its messages go straight to
+ * a stand-in for the Scheduler's elevator handling. Calls are read from the
+ * trace one at a time as they come due. Riders board when the controller
+ * loads their request and alight when their car acks their floor, as the
+ * scheduler sees it.
+ */
+public class BuildingSimulation {
+    /**
+     * Time an idle elevator waits before re-sending its ack (the elevator socket timeout).
+     */
+    static final long IDLE_POLL_MS = Config.ELEVATOR_TIMEOUT * Utility.SECONDS_TO_MILLISECONDS / 2;
+
+    /**
+     * Time for the scheduler to notice a faulted elevator and request its
+     * status: its next heartbeat probe, or the idle timeout without heartbeats.
+     */
+    static final long DETECTION_MS = (Config.HEARTBEAT_INTERVAL > 0) ? Config.HEARTBEAT_INTERVAL
+            : Config.ELEVATOR_TIMEOUT * Utility.SECONDS_TO_MILLISECONDS;
+
+    /**
+     * A simulated passenger.
+     */
+    static final class Rider {
+        final long callTime;
+        final int pickupFloor, destFloor;
+        long boardTime = -1;
+
+        Rider(long callTime, int pickupFloor, int destFloor) {
+            this.callTime = callTime;
+            this.pickupFloor = pickupFloor;
+            this.destFloor = destFloor;
+        }
+    }
+
+    /**
+     * Carries an elevator's messages straight to the building's stand-in
+     * for the scheduler, which hands replies back with deliver. Nothing is
+     * lost, so the elevator never resends.
+     */
+    private final class SchedulerLink extends DuplexSocket {
+        private final int elevatorID;
+
+        SchedulerLink(int elevatorID) {
+            super(0, null, Logger.silent("SchedulerLink-" + elevatorID));
+            this.elevatorID = elevatorID;
+        }
+
+        @Override
+        public void send(byte[] msg) {
+            onElevatorMessage(this.elevatorID, JSONPacket.deserialize(msg, msg.length));
+        }
+
+        @Override
+        public void sendTo(byte[] msg, int portNum) {
+            this.send(msg);
+        }
+
+        @Override
+        public boolean isReliable() {
+            return true;
+        }
+
+        @Override
+        public DatagramPacket receive() {
+            throw new IllegalStateException("Replies are delivered to the elevator directly.");
+        }
+
+        @Override
+        public void setTimeout(int timeout) {}
+
+        @Override
+        public void close() {}
+    }
+
+    private final Simulator simulator = new Simulator();
+    private final SchedulerController controller;
+    private final Elevator[] elevators;
+    private final VirtualElevatorClock[] clocks;
+    private final ArrayList<ArrayDeque<Rider>> waiting = new ArrayList<>();
+
+    /**
+     * Per elevator: the riders on board, whether the scheduler stand-in has
+     * had its first floor request (later ones ack the floor), and the floor
+     * and direction of its last stop.
+     */
+    private final ArrayList<ArrayList<Rider>> onBoard = new ArrayList<>();
+    private final boolean[] requested;
+    private final int[] stopFloors;
+    private final ElevatorDirection[] travelDirections;
+
+    /**
+     * The served riders' timings in ms, in the order they alighted.
+     */
+    private long[] waits = new long[16], journeys = new long[16], rides = new long[16];
+    private int served;
+    private int called;
+    private int stranded;
+    private int terminated;
+    private int stops;
+    private int reversals;
+    private long makespan;
+    private Iterator<long[]> trace;
+
+    /**
+     * Creates a new building with every elevator idle at the first floor.
+     * @param numFloors int, the number of floors.
+     * @param numElevators int, the number of elevators.
+     * @param strategyType DispatchStrategyType, the dispatch strategy.
+     * @param directionalHallCalls boolean, true if cars only collect riders going their way.
+     * @param parking boolean, true to park idle cars where calls are expected.
+     */
+    public BuildingSimulation(int numFloors, int numElevators, DispatchStrategyType strategyType,
+                              boolean directionalHallCalls, boolean parking) {
+        this.controller = new SchedulerController(numFloors, numElevators,
+                DispatchStrategy.create(strategyType, numFloors, numElevators, this.simulator::now));
+        this.controller.setDirectionalHallCalls(directionalHallCalls);
+        if (parking) {
+            this.controller.setParkingPlanner(new ParkingPlanner(numFloors, numElevators, this.simulator::now));
+        }
+
+        for (int i = 0; i < numFloors; i++) {
+            this.waiting.add(new ArrayDeque<>());
+        }
+        this.elevators = new Elevator[numElevators];
+        this.clocks = new VirtualElevatorClock[numElevators];
+        this.requested = new boolean[numElevators];
+        this.stopFloors = new int[numElevators];
+        this.travelDirections = new ElevatorDirection[numElevators];
+        for (int i = 0; i < numElevators; i++) {
+            this.clocks[i] = new VirtualElevatorClock(this.simulator);
+            this.elevators[i] = new Elevator(new SchedulerLink(i), i, (int) IDLE_POLL_MS, this.clocks[i],
+                    Logger.silent("Elevator-" + i));
+            this.onBoard.add(new ArrayList<>());
+            this.stopFloors[i] = 1;
+            this.travelDirections[i] = ElevatorDirection.UP;
+        }
+
+        // Board the matching waiting rider whenever the controller loads a request.
+        this.controller.setBoardingListener((elevatorID, pickupFloor, destFloor) -> {
+            Iterator<Rider> iter = this.waiting.get(pickupFloor - 1).iterator();
+            while (iter.hasNext()) {
+                Rider rider = iter.next();
+                if (rider.destFloor == destFloor) {
+                    iter.remove();
+                    rider.boardTime = this.simulator.now();
+                    this.onBoard.get(elevatorID).add(rider);
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * Replays a trace until every rider has arrived, or no elevator is left to carry them.
+     * @param trace Iterator<long[]>, rows of {callTimeMs, pickupFloor, destFloor} in call
+     *              order, optionally followed by the ElevatorState ordinal of the call's error.
+     */
+    public void run(Iterator<long[]> trace) {
+        this.trace = trace;
+        this.scheduleNextCall();
+        for (int i = 0; i < this.elevators.length; i++) {
+            this.clocks[i].start(this.elevators[i], "Simulated-Elevator-" + i);
+        }
+
+        this.simulator.runWhile(() -> this.served + this.stranded < this.called);
+        for (VirtualElevatorClock clock : this.clocks) {
+            clock.stop();
+        }
+    }
+
+    /**
+     * Schedules the trace's next call, if any.
+     */
+    private void scheduleNextCall() {
+        if (!this.trace.hasNext()) {
+            return;
+        }
+
+        long[] row = this.trace.next();
+        ElevatorState error = (row.length > 3) ? ElevatorState.values()[(int) row[3]] : ElevatorState.NO_ERROR;
+        Rider rider = new Rider(row[0], (int) row[1], (int) row[2]);
+        this.called++;
+
+        this.simulator.scheduleAt(rider.callTime, () -> {
+            this.waiting.get(rider.pickupFloor - 1).add(rider);
+            this.controller.addRequest(rider.pickupFloor, rider.destFloor, error);
+            this.scheduleNextCall();
+        });
+    }
+
+    /**
+     * Handles an elevator's message as the Scheduler does: acks the floor
+     * of each floor request after the first and replies with the next floor,
+     * acks floor updates and door openings, and answers a fault report with
+     * the command to unjam or terminate.
+     * @param elevatorID int, the elevator's id.
+     * @param json JSONObject, the message.
+     */
+    private void onElevatorMessage(int elevatorID, JSONObject json) {
+        switch (json.getString(Config.K_TOPIC)) {
+            case Config.REQUEST_FLOOR_MSG: {
+                this.requestFloor(elevatorID, json.getInt(Config.K_FLOOR),
+                        ElevatorDirection.valueOf(json.getString(Config.K_FLOOR_BUTTON)));
+                break;
+            }
+
+            case Config.UPDATE_FLOOR_MSG: {
+                int sequence = json.getInt(Config.K_SEQUENCE);
+                this.reply(elevatorID, JSONPacket.createPacket(new HashMap<>(){{
+                    put(Config.K_ACK, true);
+                    put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+                    put(Config.K_SEQUENCE, sequence);
+                }}));
+                break;
+            }
+
+            case Config.OPENING_DOORS_MSG: {
+                this.stop(elevatorID, json.getInt(Config.K_FLOOR));
+                this.reply(elevatorID, JSONPacket.createPacket(new HashMap<>(){{
+                    put(Config.K_ACK, true);
+                }}));
+                break;
+            }
+
+            case Config.ERROR_TYPE_MSG: {
+                boolean stuck = ElevatorState.valueOf(json.getString(Config.K_ERROR)) == ElevatorState.STUCK_FLOOR;
+                this.reply(elevatorID, JSONPacket.createPacket(new HashMap<>(){{
+                    put(Config.K_TOPIC, Config.COMMAND_MSG);
+                    put(Config.K_COMMAND, stuck ? Config.TERMINATE_COMMAND : Config.UNLOCK_DOOR_COMMAND);
+                }}));
+
+                if (stuck) {
+                    this.controller.processError(elevatorID);
+                    this.terminated++;
+                    this.stranded += this.onBoard.get(elevatorID).size();
+                    this.onBoard.get(elevatorID).clear();
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Drops off riders and acks an elevator's floor, then sends its next
+     * floor, if any. Without one the elevator times out and asks again.
+     * @param elevatorID int, the elevator's id.
+     * @param floor int, the elevator's floor.
+     * @param direction ElevatorDirection, the elevator's direction.
+     */
+    private void requestFloor(int elevatorID, int floor, ElevatorDirection direction) {
+        if (this.requested[elevatorID]) {
+            Iterator<Rider> iter = this.onBoard.get(elevatorID).iterator();
+            while (iter.hasNext()) {
+                Rider rider = iter.next();
+                if (rider.destFloor == floor) {
+                    iter.remove();
+                    this.alight(rider);
+                }
+            }
+            this.controller.ackFloor(elevatorID, floor, direction);
+        }
+        this.requested[elevatorID] = true;
+
+        Integer nextFloor = this.controller.getNextFloor(elevatorID, floor, direction);
+        if (nextFloor == null) {
+            return;
+        }
+
+        ElevatorState error = this.controller.getNextError(elevatorID, nextFloor);
+        this.reply(elevatorID, JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_ACK, true);
+            put(Config.K_DESTINATION_FLOOR, nextFloor);
+            put(Config.K_ERROR, error);
+        }}));
+
+        // The fault shows at once for jammed doors, once the doors close when stuck.
+        if (error != ElevatorState.NO_ERROR) {
+            long faultDelay = (error == ElevatorState.STUCK_FLOOR) ? Config.DOOR_ACTION_TIME * Utility.SECONDS_TO_MILLISECONDS : 0;
+            this.simulator.schedule(faultDelay + DETECTION_MS, () -> this.reply(elevatorID,
+                    JSONPacket.createPacket(new HashMap<>(){{
+                        put(Config.K_ACK, true);
+                    }})));
+        }
+    }
+
+    /**
+     * Records an elevator stopping at a floor.
+     * @param elevatorID int, the elevator's id.
+     * @param floor int, the floor.
+     */
+    private void stop(int elevatorID, int floor) {
+        int previousFloor = this.stopFloors[elevatorID];
+
+        if (floor != previousFloor) {
+            ElevatorDirection direction = (floor > previousFloor) ? ElevatorDirection.UP : ElevatorDirection.DOWN;
+            if (direction != this.travelDirections[elevatorID]) {
+                this.reversals++;
+            }
+            this.travelDirections[elevatorID] = direction;
+        }
+        this.stopFloors[elevatorID] = floor;
+        this.stops++;
+    }
+
+    /**
+     * Sends an elevator a message, as it would receive it off the wire.
+     * @param elevatorID int, the elevator's id.
+     * @param packet JSONObject, the message.
+     */
+    private void reply(int elevatorID, JSONObject packet) {
+        byte[] msg = JSONPacket.serialize(packet);
+        this.elevators[elevatorID].deliver(JSONPacket.deserialize(msg, msg.length));
+        this.clocks[elevatorID].notifyDelivered();
+    }
+
+    /**
+     * Records a rider arriving at their floor.
+     * @param rider Rider, the rider.
+     */
+    private void alight(Rider rider) {
+        long now = this.simulator.now();
+
+        if (this.served == this.waits.length) {
+            this.waits = Arrays.copyOf(this.waits, 2 * this.served);
+            this.journeys = Arrays.copyOf(this.journeys, 2 * this.served);
+            this.rides = Arrays.copyOf(this.rides, 2 * this.served);
+        }
+        this.waits[this.served] = rider.boardTime - rider.callTime;
+        this.journeys[this.served] = now - rider.callTime;
+        this.rides[this.served] = now - rider.boardTime;
+        this.served++;
+        this.makespan = Math.max(this.makespan, now);
+    }
+
+    /**
+     * Returns the simulator driving this building.
+     * @return Simulator, the simulator.
+     */
+    public Simulator getSimulator() { return this.simulator; }
+
+    /**
+     * Returns the controller dispatching this building's elevators.
+     * @return SchedulerController, the controller.
+     */
+    public SchedulerController getController() { return this.controller; }
+
+    /**
+     * Returns this building's elevators.
+     * @return Elevator[], the elevators by id.
+     */
+    public Elevator[] getElevators() { return this.elevators; }
+
+    /**
+     * Returns each served rider's time from calling to boarding.
+     * @return long[], the waits in ms.
+     */
+    public long[] getWaits() { return Arrays.copyOf(this.waits, this.served); }
+
+    /**
+     * Returns each served rider's time from calling to arriving.
+     * @return long[], the journeys in ms.
+     */
+    public long[] getJourneys() { return Arrays.copyOf(this.journeys, this.served); }
+
+    /**
+     * Returns each served rider's time on board.
+     * @return long[], the rides in ms.
+     */
+    public long[] getRides() { return Arrays.copyOf(this.rides, this.served); }
+
+    /**
+     * Returns the number of riders who arrived.
+     * @return int, the number served.
+     */
+    public int getServedCount() { return this.served; }
+
+    /**
+     * Returns the number of riders read from the trace.
+     * @return int, the number of calls.
+     */
+    public int getCalledCount() { return this.called; }
+
+    /**
+     * Returns the number of riders left in terminated elevators.
+     * @return int, the number stranded.
+     */
+    public int getStrandedCount() { return this.stranded; }
+
+    /**
+     * Returns the number of elevators terminated after getting stuck.
+     * @return int, the number terminated.
+     */
+    public int getTerminatedCount() { return this.terminated; }
+
+    /**
+     * Returns when the last rider arrived.
+     * @return long, the time in ms.
+     */
+    public long getMakespan() { return this.makespan; }
+
+    /**
+     * Returns the total number of stops made.
+     * @return int, the number of stops.
+     */
+    public int getStops() { return this.stops; }
+
+    /**
+     * Returns the total number of direction changes.
+     * @return int, the number of reversals.
+     */
+    public int getReversals() { return this.reversals; }
+}
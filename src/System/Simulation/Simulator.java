@@ -0,0 +1,129 @@
+package System.Simulation;
+
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Discrete-event engine on a virtual clock. Actions are scheduled at a time
+ * and run in time order, the clock jumping straight to each one, so waiting
+ * costs nothing. Actions due at the same time run in the order they were
+ * scheduled, which makes every run of the same inputs identical.
+ */
+public class Simulator {
+    /**
+     * A scheduled action.
+     */
+    private static final class Event implements Comparable<Event> {
+        final long time;
+        final long sequence;
+        final Runnable action;
+
+        Event(long time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int order = Long.compare(this.time, other.time);
+            return (order != 0) ? order : Long.compare(this.sequence, other.sequence);
+        }
+    }
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+    private long processed;
+
+    /**
+     * Returns the current virtual time.
+     * @return long, the time in ms.
+     */
+    public long now() {
+        return this.now;
+    }
+
+    /**
+     * Schedules an action after a delay.
+     * @param delayMs long, the delay in ms from now.
+     * @param action Runnable, the action.
+     */
+    public void schedule(long delayMs, Runnable action) {
+        this.scheduleAt(this.now + delayMs, action);
+    }
+
+    /**
+     * Schedules an action at a time.
+     * @param time long, the time in ms, not before now.
+     * @param action Runnable, the action.
+     */
+    public void scheduleAt(long time, Runnable action) {
+        if (time < this.now) {
+            throw new IllegalArgumentException("Can't schedule at " + time + " ms, the time is " + this.now + " ms.");
+        }
+        this.events.add(new Event(time, this.sequence++, action));
+    }
+
+    /**
+     * Advances the clock to the next action and runs it.
+     * @return boolean, false if nothing was scheduled.
+     */
+    public boolean step() {
+        Event event = this.events.poll();
+        if (event == null) {
+            return false;
+        }
+
+        this.now = event.time;
+        this.processed++;
+        event.action.run();
+        return true;
+    }
+
+    /**
+     * Runs actions until none are left.
+     */
+    public void run() {
+        while (this.step()) {
+            // Step.
+        }
+    }
+
+    /**
+     * Runs actions while a condition holds and any are left.
+     * @param condition BooleanSupplier, checked before each action.
+     */
+    public void runWhile(BooleanSupplier condition) {
+        while (condition.getAsBoolean() && this.step()) {
+            // Step.
+        }
+    }
+
+    /**
+     * Runs the actions due up to a time, then advances the clock to it.
+     * @param time long, the time in ms.
+     */
+    public void runUntil(long time) {
+        while (!this.events.isEmpty() && this.events.peek().time <= time) {
+            this.step();
+        }
+        this.now = Math.max(this.now, time);
+    }
+
+    /**
+     * Returns the number of actions scheduled and not yet run.
+     * @return int, the number of pending actions.
+     */
+    public int getPendingCount() {
+        return this.events.size();
+    }
+
+    /**
+     * Returns the number of actions run so far.
+     * @return long, the number of actions run.
+     */
+    public long getProcessedCount() {
+        return this.processed;
+    }
+}
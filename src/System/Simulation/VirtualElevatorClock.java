@@ -0,0 +1,139 @@
+package System.Simulation;
+
+import System.ElevatorSystem.ElevatorClock;
+import org.json.JSONObject;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs an Elevator's own state machine on a simulator's virtual clock. The
+ * elevator runs on a thread of its own, but only when the simulator hands it
+ * the turn: each sleep, or wait for a message, schedules its wakeup on the
+ * simulator and hands the turn back. Exactly one thread runs at a time, so
+ * every run of the same inputs is identical.
+ */
+class VirtualElevatorClock implements ElevatorClock {
+    private final Simulator simulator;
+    private final Semaphore elevatorTurn = new Semaphore(0);
+    private final Semaphore simulatorTurn = new Semaphore(0);
+
+    /**
+     * The number of the wait for a message in progress (0 for none),
+     * so a timeout doesn't wake a later wait.
+     */
+    private long waiting;
+    private long waits;
+
+    private boolean stopped;
+    private boolean finished;
+
+    /**
+     * Creates a new clock.
+     * @param simulator Simulator, the simulator to run on.
+     */
+    VirtualElevatorClock(Simulator simulator) {
+        this.simulator = simulator;
+    }
+
+    /**
+     * Starts an elevator's loop on its own thread, taking its first turn now.
+     * @param elevator Runnable, the elevator's loop.
+     * @param name String, the thread's name.
+     */
+    void start(Runnable elevator, String name) {
+        Thread thread = new Thread(() -> {
+            this.elevatorTurn.acquireUninterruptibly();
+            try {
+                if (!this.stopped) elevator.run();
+            } catch (CancellationException e) {
+                // Stopped.
+            } finally {
+                this.finished = true;
+                this.simulatorTurn.release();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        this.simulator.schedule(0, this::resume);
+    }
+
+    /**
+     * Ends a running elevator's loop at its current sleep or wait.
+     */
+    void stop() {
+        if (!this.finished) {
+            this.stopped = true;
+            this.resume();
+        }
+    }
+
+    /**
+     * Wakes the elevator if it is waiting for a message, one having been delivered.
+     */
+    void notifyDelivered() {
+        final long wait = this.waiting;
+        if (wait != 0) {
+            this.simulator.schedule(0, () -> this.wake(wait));
+        }
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return this.simulator.now();
+    }
+
+    @Override
+    public void sleep(long simulatedMs) {
+        this.simulator.schedule(simulatedMs, this::resume);
+        this.yieldTurn();
+    }
+
+    @Override
+    public JSONObject poll(BlockingQueue<JSONObject> inbox, long timeout) {
+        JSONObject json = inbox.poll();
+        if (json != null) {
+            return json;
+        }
+
+        final long wait = ++this.waits;
+        this.waiting = wait;
+        if (timeout > 0) {
+            this.simulator.schedule(timeout, () -> this.wake(wait));
+        }
+        this.yieldTurn();
+        return inbox.poll();
+    }
+
+    /**
+     * Ends a wait for a message, unless it already ended.
+     * @param wait long, the wait's number.
+     */
+    private void wake(long wait) {
+        if (this.waiting == wait) {
+            this.waiting = 0;
+            this.resume();
+        }
+    }
+
+    /**
+     * Gives the elevator the turn, from the simulator, until it sleeps, waits or ends.
+     */
+    private void resume() {
+        this.elevatorTurn.release();
+        this.simulatorTurn.acquireUninterruptibly();
+    }
+
+    /**
+     * Gives the simulator the turn, from the elevator, until resumed.
+     */
+    private void yieldTurn() {
+        this.simulatorTurn.release();
+        this.elevatorTurn.acquireUninterruptibly();
+
+        if (this.stopped) {
+            throw new CancellationException();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package System.Util;
+
+import System.Config;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Receive side of windowed floor submission. The floor numbers its
+ * requests and sends several per batch, each batch carrying the sequence
+ * of its first request. Requests are delivered in order exactly once and
+ * acked cumulatively with the next sequence expected; anything past a gap
+ * is dropped and left for the floor to resend (go-back-N). Each floor
+ * submission picks a random session id, and a batch from any other session
+ * than the current one starts the sequence over, so a restarted floor is
+ * never ignored.
+ */
+public class BatchReceiver {
+    /**
+     * Handles each new request in a batch.
+     */
+    public interface RequestHandler {
+        /**
+         * Called with each new request, in sequence order.
+         * @param request JSONObject, the request.
+         * @return boolean, true if accepted, false to stop and leave the rest unacked.
+         */
+        boolean onRequest(JSONObject request);
+    }
+
+    /**
+     * The current floor session, and whether one has been seen.
+     */
+    private long session;
+    private boolean started;
+
+    /**
+     * Sequence of the next request expected.
+     */
+    private int nextSequence;
+
+    /**
+     * Returns true if the packet is a batch of requests.
+     * @param json JSONObject, the packet.
+     * @return boolean, true if a batch.
+     */
+    public static boolean isBatch(JSONObject json) {
+        return Config.BATCH_MSG.equals(json.optString(Config.K_TOPIC));
+    }
+
+    /**
+     * Creates a batch of requests.
+     * @param session long, the sending floor's random session id.
+     * @param firstSequence int, the sequence of the first request.
+     * @param requests List<JSONObject>, the requests in sequence order.
+     * @return JSONObject, the batch packet.
+     */
+    public static JSONObject createBatch(long session, int firstSequence, List<JSONObject> requests) {
+        return JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.BATCH_MSG);
+            put(Config.K_SESSION, session);
+            put(Config.K_SEQUENCE, firstSequence);
+            put(Config.K_REQUESTS, new JSONArray(requests));
+        }});
+    }
+
+    /**
+     * Delivers the new requests in a batch and returns its cumulative ack.
+     * @param batch JSONObject, the batch packet.
+     * @param handler RequestHandler, called with each new request in order.
+     * @return JSONObject, the ack carrying the next sequence expected.
+     */
+    public synchronized JSONObject receive(JSONObject batch, RequestHandler handler) {
+        long batchSession = batch.getLong(Config.K_SESSION);
+        if (!this.started || batchSession != this.session) {
+            this.started = true;
+            this.session = batchSession;
+            this.nextSequence = 0;
+        }
+
+        int sequence = batch.getInt(Config.K_SEQUENCE);
+        JSONArray requests = batch.getJSONArray(Config.K_REQUESTS);
+        for (int i = 0; i < requests.length() && sequence <= this.nextSequence; i++, sequence++) {
+            if (sequence < this.nextSequence) { continue; }    // Already delivered.
+            if (!handler.onRequest(requests.getJSONObject(i))) { break; }
+            this.nextSequence++;
+        }
+
+        return JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_ACK, true);
+            put(Config.K_SESSION, batchSession);
+            put(Config.K_SEQUENCE, nextSequence);
+        }});
+    }
+}
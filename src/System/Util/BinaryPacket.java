@@ -0,0 +1,337 @@
+package System.Util;
+
+import System.Config;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+import org.json.JSONObject;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed layout binary encoding of the system's packets. Every frame starts
+ * with a magic byte (never '{', so JSON frames can be told apart) and a
+ * message type, followed by that type's fields:
+ *
+ *   ack              (none)
+ *   destination ack  destinationFloor:short error:byte
+ *   floor request    time:int floor:short floorButton:byte destinationFloor:short error:byte
+ *   update-floor,
+ *   request-floor,
+ *   open-door        elevator:short floor:short floorButton:byte error:byte
+ *   numbered
+ *   update-floor     elevator:short floor:short floorButton:byte error:byte sequence:int
+ *   update-floor ack sequence:int
+ *   error-type       elevator:short error:byte floor:short
+ *   command          command:byte
+ *
+ * Enums are sent as their ordinals, time as milliseconds of the day and an
+ * absent elevator id as -1. Decoding gives back the same JSONObject fields
+ * the JSON path does, so handlers are unchanged.
+ */
+public class BinaryPacket {
+    /**
+     * First byte of every binary frame.
+     */
+    public static final byte MAGIC = (byte) 0xB1;
+
+    /**
+     * Message types.
+     */
+    private static final byte ACK = 0, DESTINATION_ACK = 1, FLOOR_REQUEST = 2, UPDATE_FLOOR = 3,
+            REQUEST_FLOOR = 4, OPENING_DOORS = 5, ERROR_TYPE = 6, COMMAND = 7,
+            NUMBERED_UPDATE_FLOOR = 8, UPDATE_FLOOR_ACK = 9;
+
+    /**
+     * Elevator topics by message type, offset by UPDATE_FLOOR.
+     */
+    private static final String[] ELEVATOR_TOPICS = {
+            Config.UPDATE_FLOOR_MSG, Config.REQUEST_FLOOR_MSG, Config.OPENING_DOORS_MSG
+    };
+
+    /**
+     * Commands by code.
+     */
+    private static final String[] COMMANDS = {Config.UNLOCK_DOOR_COMMAND, Config.TERMINATE_COMMAND};
+
+    /**
+     * Largest frame this codec produces.
+     */
+    public static final int MAX_SIZE = 12;
+
+    private static final ElevatorDirection[] DIRECTIONS = ElevatorDirection.values();
+    private static final ElevatorState[] STATES = ElevatorState.values();
+
+    /**
+     * Encodes a packet in its fixed layout.
+     * @param json JSONObject, the packet to encode.
+     * @return byte[], the frame, or null if the packet has no binary layout.
+     */
+    public static byte[] encode(JSONObject json) {
+        ByteBuffer frame = ByteBuffer.allocate(MAX_SIZE);
+        frame.put(MAGIC);
+
+        try {
+            if (json.has(Config.K_TOPIC)) {
+                if (!encodeTopic(json, frame)) { return null; }
+            } else if (json.has(Config.K_TIME)) {
+                if (json.length() != 5) { return null; }
+                frame.put(FLOOR_REQUEST);
+                frame.putInt(timeToMillis(json.getString(Config.K_TIME)));
+                frame.putShort((short) Integer.parseInt(json.get(Config.K_FLOOR).toString().trim()));
+                frame.put(direction(json));
+                frame.putShort((short) Integer.parseInt(json.get(Config.K_DESTINATION_FLOOR).toString().trim()));
+                frame.put(error(json));
+            } else if (json.has(Config.K_ACK)) {
+                if (!json.getBoolean(Config.K_ACK)) { return null; }
+                if (json.length() == 1) {
+                    frame.put(ACK);
+                } else if (json.length() == 3) {
+                    frame.put(DESTINATION_ACK);
+                    frame.putShort((short) json.getInt(Config.K_DESTINATION_FLOOR));
+                    frame.put(error(json));
+                } else {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        } catch (RuntimeException e) {
+            // Missing or malformed field, leave the packet to JSON.
+            return null;
+        }
+
+        byte[] encoded = new byte[frame.position()];
+        frame.flip();
+        frame.get(encoded);
+        return encoded;
+    }
+
+    /**
+     * Encodes a packet with a topic.
+     * @return boolean, true if the topic has a binary layout.
+     */
+    private static boolean encodeTopic(JSONObject json, ByteBuffer frame) {
+        String topic = json.getString(Config.K_TOPIC);
+        int elevatorID = json.optInt(Config.K_ELEVATOR_ID, -1);
+
+        switch (topic) {
+            case Config.UPDATE_FLOOR_MSG: {
+                if (json.has(Config.K_ACK)) {
+                    if (!json.getBoolean(Config.K_ACK) || json.length() != 3) { return false; }
+                    frame.put(UPDATE_FLOOR_ACK);
+                    frame.putInt(json.getInt(Config.K_SEQUENCE));
+                    return true;
+                }
+                if (json.has(Config.K_SEQUENCE)) {
+                    if (json.length() != ((elevatorID < 0) ? 5 : 6)) { return false; }
+                    frame.put(NUMBERED_UPDATE_FLOOR);
+                    frame.putShort((short) elevatorID);
+                    frame.putShort((short) json.getInt(Config.K_FLOOR));
+                    frame.put(direction(json));
+                    frame.put(error(json));
+                    frame.putInt(json.getInt(Config.K_SEQUENCE));
+                    return true;
+                }
+            }                                   // Cascade
+            case Config.REQUEST_FLOOR_MSG: {}   // Cascade
+            case Config.OPENING_DOORS_MSG: {
+                if (json.length() != ((elevatorID < 0) ? 4 : 5)) { return false; }
+                frame.put((byte) (UPDATE_FLOOR + indexOf(ELEVATOR_TOPICS, topic)));
+                frame.putShort((short) elevatorID);
+                frame.putShort((short) json.getInt(Config.K_FLOOR));
+                frame.put(direction(json));
+                frame.put(error(json));
+                return true;
+            }
+
+            case Config.ERROR_TYPE_MSG: {
+                if (json.length() != ((elevatorID < 0) ? 3 : 4)) { return false; }
+                frame.put(ERROR_TYPE);
+                frame.putShort((short) elevatorID);
+                frame.put(error(json));
+                frame.putShort((short) json.getInt(Config.K_FLOOR));
+                return true;
+            }
+
+            case Config.COMMAND_MSG: {
+                int command = indexOf(COMMANDS, json.getString(Config.K_COMMAND));
+                if (command < 0 || json.length() != 2) { return false; }
+                frame.put(COMMAND);
+                frame.put((byte) command);
+                return true;
+            }
+
+            default: {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the data holds a binary frame.
+     * @param data byte[], the received data.
+     * @param length int, the data length.
+     * @return boolean, true if binary.
+     */
+    public static boolean isBinary(byte[] data, int length) {
+        return length >= 2 && data[0] == MAGIC;
+    }
+
+    /**
+     * Decodes a binary frame.
+     * @param data byte[], the received data.
+     * @param length int, the data length.
+     * @return JSONObject, the packet.
+     */
+    public static JSONObject decode(byte[] data, int length) {
+        ByteBuffer frame = ByteBuffer.wrap(data, 0, length);
+        JSONObject json = new JSONObject();
+
+        if (frame.get() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary packet.");
+        }
+
+        try {
+            byte type = frame.get();
+            switch (type) {
+                case ACK: {
+                    json.put(Config.K_ACK, true);
+                    break;
+                }
+
+                case DESTINATION_ACK: {
+                    json.put(Config.K_ACK, true);
+                    json.put(Config.K_DESTINATION_FLOOR, frame.getShort());
+                    json.put(Config.K_ERROR, STATES[frame.get()].name());
+                    break;
+                }
+
+                case FLOOR_REQUEST: {
+                    json.put(Config.K_TIME, millisToTime(frame.getInt()));
+                    json.put(Config.K_FLOOR, frame.getShort());
+                    json.put(Config.K_FLOOR_BUTTON, DIRECTIONS[frame.get()].name());
+                    json.put(Config.K_DESTINATION_FLOOR, frame.getShort());
+                    json.put(Config.K_ERROR, STATES[frame.get()].name());
+                    break;
+                }
+
+                case UPDATE_FLOOR: {}   // Cascade
+                case REQUEST_FLOOR: {}  // Cascade
+                case OPENING_DOORS: {
+                    json.put(Config.K_TOPIC, ELEVATOR_TOPICS[type - UPDATE_FLOOR]);
+                    putElevatorID(json, frame.getShort());
+                    json.put(Config.K_FLOOR, frame.getShort());
+                    json.put(Config.K_FLOOR_BUTTON, DIRECTIONS[frame.get()].name());
+                    json.put(Config.K_ERROR, STATES[frame.get()].name());
+                    break;
+                }
+
+                case NUMBERED_UPDATE_FLOOR: {
+                    json.put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+                    putElevatorID(json, frame.getShort());
+                    json.put(Config.K_FLOOR, frame.getShort());
+                    json.put(Config.K_FLOOR_BUTTON, DIRECTIONS[frame.get()].name());
+                    json.put(Config.K_ERROR, STATES[frame.get()].name());
+                    json.put(Config.K_SEQUENCE, frame.getInt());
+                    break;
+                }
+
+                case UPDATE_FLOOR_ACK: {
+                    json.put(Config.K_ACK, true);
+                    json.put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+                    json.put(Config.K_SEQUENCE, frame.getInt());
+                    break;
+                }
+
+                case ERROR_TYPE: {
+                    json.put(Config.K_TOPIC, Config.ERROR_TYPE_MSG);
+                    putElevatorID(json, frame.getShort());
+                    json.put(Config.K_ERROR, STATES[frame.get()].name());
+                    json.put(Config.K_FLOOR, frame.getShort());
+                    break;
+                }
+
+                case COMMAND: {
+                    json.put(Config.K_TOPIC, Config.COMMAND_MSG);
+                    json.put(Config.K_COMMAND, COMMANDS[frame.get()]);
+                    break;
+                }
+
+                default: {
+                    throw new IllegalArgumentException("Unknown binary packet type " + type + ".");
+                }
+            }
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed binary packet.", e);
+        }
+
+        return json;
+    }
+
+    /**
+     * Puts the elevator id if the frame carries one.
+     */
+    private static void putElevatorID(JSONObject json, short elevatorID) {
+        if (elevatorID >= 0) { json.put(Config.K_ELEVATOR_ID, elevatorID); }
+    }
+
+    /**
+     * Returns a packet's direction ordinal (the floor sends directions in any case).
+     */
+    private static byte direction(JSONObject json) {
+        return (byte) ElevatorDirection.valueOf(json.get(Config.K_FLOOR_BUTTON).toString().trim().toUpperCase()).ordinal();
+    }
+
+    /**
+     * Returns a packet's error ordinal.
+     */
+    private static byte error(JSONObject json) {
+        return (byte) ElevatorState.valueOf(json.get(Config.K_ERROR).toString().trim().toUpperCase()).ordinal();
+    }
+
+    /**
+     * Returns the index of value in values, -1 if absent.
+     */
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) { return i; }
+        }
+        return -1;
+    }
+
+    /**
+     * Converts an HH:mm:ss.S time to milliseconds of the day, throwing
+     * if it would not decode back to the same string.
+     */
+    private static int timeToMillis(String time) {
+        if (time.length() < 10 || time.charAt(2) != ':' || time.charAt(5) != ':' || time.charAt(8) != '.') {
+            throw new IllegalArgumentException("Unexpected time " + time + ".");
+        }
+        int millis = ((Integer.parseInt(time, 0, 2, 10) * 60 + Integer.parseInt(time, 3, 5, 10)) * 60
+                + Integer.parseInt(time, 6, 8, 10)) * 1000 + Integer.parseInt(time, 9, time.length(), 10);
+        if (!millisToTime(millis).equals(time)) {
+            throw new IllegalArgumentException("Unexpected time " + time + ".");
+        }
+        return millis;
+    }
+
+    /**
+     * Converts milliseconds of the day back to an HH:mm:ss.S time.
+     */
+    private static String millisToTime(int millis) {
+        int seconds = millis / 1000;
+        StringBuilder time = new StringBuilder(12);
+        appendTwoDigits(time, seconds / 3600).append(':');
+        appendTwoDigits(time, (seconds / 60) % 60).append(':');
+        appendTwoDigits(time, seconds % 60).append('.');
+        return time.append(millis % 1000).toString();
+    }
+
+    /**
+     * Appends a zero padded two digit value.
+     */
+    private static StringBuilder appendTwoDigits(StringBuilder builder, int value) {
+        return builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
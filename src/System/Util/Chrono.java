@@ -65,6 +65,11 @@ public class Chrono {
     private void initLogger() {
         FileHandler fh;
         SimpleFormatter formatter = new SimpleFormatter();
+
+        // Chronos of the same name share a logger, which already has the file.
+        if (this.logger.getHandlers().length > 0) {
+            return;
+        }
         File file = new File(ABSOLUTE_PATH + "\\src\\Measurements\\" + LOG_FILE + "-" + NAME + ".txt");
         try {
             file.getParentFile().mkdirs();
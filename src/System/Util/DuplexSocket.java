@@ -1,5 +1,7 @@
 package System.Util;
 
+import System.Config;
+
 import java.io.IOException;
 import java.net.*;
 
@@ -7,11 +9,11 @@ import java.net.*;
  * Implements a duplex socket to abstract send and receive.
  * @author Abdalla Abdelhadi
  */
-public class DuplexSocket {
+public class DuplexSocket implements MessageSender {
     /**
-     * The send and receive packets.
+     * The receive packet.
      */
-    private DatagramPacket sendPacket, receivePacket;
+    private DatagramPacket receivePacket;
 
     /**
      * The send and receive sockets.
@@ -33,6 +35,113 @@ public class DuplexSocket {
      */
     private Logger logger;
 
+    /**
+     * True if open creates NioDuplexSockets.
+     */
+    private static volatile boolean nio = Config.NIO_SOCKETS;
+
+    /**
+     * Sets whether open creates buffer reusing NioDuplexSockets.
+     * @param useNio boolean, true for NIO sockets.
+     */
+    public static void setNio(boolean useNio) {
+        nio = useNio;
+    }
+
+    /**
+     * True if open creates InMemoryDuplexSockets.
+     */
+    private static volatile boolean inMemory = Config.IN_MEMORY_SOCKETS;
+
+    /**
+     * Sets whether open creates sockets between threads of this JVM instead of UDP sockets.
+     * @param useInMemory boolean, true for in memory sockets.
+     */
+    public static void setInMemory(boolean useInMemory) {
+        inMemory = useInMemory;
+    }
+
+    /**
+     * Returns whether open creates in memory sockets.
+     * @return boolean, true for in memory sockets.
+     */
+    public static boolean isInMemory() {
+        return inMemory;
+    }
+
+    /**
+     * True if open and event loop sockets add a ReliableLink.
+     */
+    private static volatile boolean reliable = Config.RELIABLE_SOCKETS;
+
+    /**
+     * Sets whether sockets ack and retransmit their own messages.
+     * @param useReliable boolean, true for reliable sockets.
+     */
+    public static void setReliable(boolean useReliable) {
+        reliable = useReliable;
+    }
+
+    /**
+     * Returns whether new sockets ack and retransmit their own messages.
+     * @return boolean, true for reliable sockets.
+     */
+    static boolean isReliableEnabled() {
+        return reliable;
+    }
+
+    /**
+     * Opens a duplex socket in memory or reusing NIO buffers, and adding a ReliableLink, if selected.
+     * @param receivePortNum int, the port to receive on.
+     * @param sendPortNum int, the port to send on.
+     * @param hostAddress InetAddress, the address to send to.
+     * @param logger Logger, the middleware logger.
+     * @param timeout int, the receive timeout in ms (0 for none).
+     * @return DuplexSocket, the socket.
+     */
+    public static DuplexSocket open(int receivePortNum, int sendPortNum, InetAddress hostAddress, Logger logger, int timeout) {
+        DuplexSocket socket = inMemory
+                ? new InMemoryDuplexSocket(receivePortNum, sendPortNum, hostAddress, logger, timeout)
+                : nio
+                ? new NioDuplexSocket(receivePortNum, sendPortNum, hostAddress, logger, timeout)
+                : new DuplexSocket(receivePortNum, sendPortNum, hostAddress, logger, timeout);
+
+        if (reliable) {
+            return new ReliableDuplexSocket(socket, receivePortNum, sendPortNum, hostAddress, logger);
+        }
+        return socket;
+    }
+
+    /**
+     * Opens a duplex socket that never retransmits, for traffic where a late
+     * message is worthless (such as heartbeats): in memory if selected,
+     * otherwise reusing NIO buffers.
+     * @param receivePortNum int, the port to receive on.
+     * @param sendPortNum int, the port to send on.
+     * @param hostAddress InetAddress, the address to send to.
+     * @param logger Logger, the middleware logger.
+     * @param timeout int, the receive timeout in ms (0 for none).
+     * @return DuplexSocket, the socket.
+     */
+    public static DuplexSocket openUnreliable(int receivePortNum, int sendPortNum, InetAddress hostAddress, Logger logger, int timeout) {
+        return inMemory
+                ? new InMemoryDuplexSocket(receivePortNum, sendPortNum, hostAddress, logger, timeout)
+                : new NioDuplexSocket(receivePortNum, sendPortNum, hostAddress, logger, timeout);
+    }
+
+    /**
+     * Creates a duplex socket without opening any sockets, for
+     * subclasses that provide their own transport.
+     * @param sendPortNum int, the port to send on.
+     * @param hostAddress InetAddress, the address to send to.
+     * @param logger Logger, the middleware logger.
+     */
+    protected DuplexSocket (int sendPortNum, InetAddress hostAddress, Logger logger) {
+        this.sendPortNum = sendPortNum;
+        this.hostAddress = hostAddress;
+        this.logger = logger;
+    }
+
     /**
      * Creates a new duplex packet with the specified parameters.
      * @param receivePortNum int, the port to receive on.
@@ -71,22 +180,50 @@ public class DuplexSocket {
      * @param msg byte[], the message to send.
      */
     public void send(byte[] msg){
-        this.sendPacket = new DatagramPacket(msg, msg.length, this.hostAddress, this.sendPortNum);
+        this.sendTo(msg, this.sendPortNum);
+    }
+
+    /**
+     * Sends the specified serialized message to another port on the same host.
+     * @param msg byte[], the message to send.
+     * @param portNum int, the port to send to.
+     */
+    public void sendTo(byte[] msg, int portNum) {
+        DatagramPacket sendPacket = new DatagramPacket(msg, msg.length, this.hostAddress, portNum);
 
         try {
-            this.sendSocket.send(this.sendPacket); //send packet
+            this.sendSocket.send(sendPacket); //send packet
         } catch (IOException e) {
             e.printStackTrace();
             System.exit(1);
         }
     }
 
+    /**
+     * Returns true if this socket acks and retransmits its own messages, in which
+     * case callers wait out receive timeouts instead of resending.
+     * @return boolean, true if reliable.
+     */
+    public boolean isReliable() {
+        return false;
+    }
+
+    /**
+     * Returns the number of messages this socket stopped retransmitting
+     * unacked. A caller waiting out a reliable socket's timeouts resends
+     * once this has risen since it sent.
+     * @return long, the number of messages given up on (always 0 unless reliable).
+     */
+    public long getGiveUpCount() {
+        return 0;
+    }
+
     /**
      * Receives a message on the receive socket.
      * @return DatagramPacket, the received packet.
      */
     public DatagramPacket receive() throws SocketTimeoutException {
-        byte[] msg = new byte[100];
+        byte[] msg = new byte[Config.MAX_FRAME_SIZE];
         this.receivePacket = new DatagramPacket(msg, msg.length);
 
         try {
@@ -99,6 +236,10 @@ public class DuplexSocket {
             if(e instanceof SocketTimeoutException) {
                 throw new SocketTimeoutException();
             }
+            // Closed while waiting, reported as an in memory socket does.
+            if (this.receiveSocket.isClosed()) {
+                throw new IllegalStateException("Socket is closed.");
+            }
             e.printStackTrace();
             System.exit(1);
         }
@@ -106,6 +247,18 @@ public class DuplexSocket {
         return this.receivePacket;
     }
     
+    /**
+     * Sets the receive timeout.
+     * @param timeout int, the timeout in ms (0 for none).
+     */
+    public void setTimeout(int timeout) {
+        try {
+            this.receiveSocket.setSoTimeout(timeout);
+        } catch (SocketException e) {
+            e.printStackTrace();
+        }
+    }
+
     public void close() {
     	this.sendSocket.close();
     	this.receiveSocket.close();
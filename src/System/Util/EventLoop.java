@@ -0,0 +1,412 @@
+package System.Util;
+
+import System.Config;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Single threaded selector loop that services many datagram channels
+ * without blocking. Each registered channel has a handler called with
+ * every packet it receives, and a receive timeout that is delivered as
+ * a timer event (rather than a SocketTimeoutException) once the channel
+ * has been quiet for that long. Watchdogs give the same timeout to peers
+ * that share a channel. Handlers always run on the loop thread; one that
+ * throws is logged and the loop carries on, so a bad packet can't stop
+ * every other channel on it.
+ */
+public class EventLoop implements Runnable {
+    /**
+     * Size of the receive buffer, a byte over the largest frame so that
+     * oversized frames are detected instead of silently truncated.
+     */
+    private static final int RECEIVE_BUFFER_SIZE = Config.MAX_FRAME_SIZE + 1;
+
+    /**
+     * Receives the events of a registered channel.
+     */
+    public interface Handler {
+        /**
+         * Called with each packet received on the channel.
+         * @param data byte[], the packet data (only valid during the call).
+         * @param length int, the packet length.
+         * @return boolean, true to stay registered, false to cancel.
+         */
+        boolean onPacket(byte[] data, int length);
+
+        /**
+         * Called when no packet was received within the timeout.
+         * @return boolean, true to stay registered, false to cancel.
+         */
+        boolean onTimeout();
+    }
+
+    /**
+     * A timeout that fires once it has gone timeoutMs without being reset.
+     * Only reset or cancel it from the loop thread.
+     */
+    public static final class Watchdog {
+        private final long timeoutMs;
+        private final BooleanSupplier onTimeout;
+        private long deadline;
+        private boolean cancelled;
+
+        private Watchdog(long timeoutMs, BooleanSupplier onTimeout) {
+            this.timeoutMs = timeoutMs;
+            this.onTimeout = onTimeout;
+        }
+
+        /**
+         * Pushes the timeout back to timeoutMs from now.
+         */
+        public void reset() {
+            this.deadline = System.currentTimeMillis() + this.timeoutMs;
+        }
+
+        /**
+         * Stops the watchdog for good.
+         */
+        public void cancel() {
+            this.cancelled = true;
+        }
+    }
+
+    /**
+     * A channel registered with the loop.
+     */
+    private static final class Registration {
+        final DatagramChannel channel;
+        final Handler handler;
+        Watchdog watchdog;
+        SelectionKey key;
+
+        Registration(DatagramChannel channel, Handler handler) {
+            this.channel = channel;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * A pending timer, either a watchdog or a scheduled task.
+     */
+    private static final class Timer implements Comparable<Timer> {
+        final long deadline;
+        final long sequence;
+        final Watchdog watchdog;
+        final Runnable task;
+
+        Timer(long deadline, long sequence, Watchdog watchdog, Runnable task) {
+            this.deadline = deadline;
+            this.sequence = sequence;
+            this.watchdog = watchdog;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Timer other) {
+            int order = Long.compare(this.deadline, other.deadline);
+            return (order != 0) ? order : Long.compare(this.sequence, other.sequence);
+        }
+    }
+
+    /**
+     * The loop's name (and thread name).
+     */
+    private final String name;
+
+    /**
+     * The loop's logger.
+     */
+    private final Logger logger;
+
+    /**
+     * The selector all channels are registered with.
+     */
+    private final Selector selector;
+
+    /**
+     * Work handed to the loop by other threads.
+     */
+    private final ConcurrentLinkedQueue<Runnable> tasks;
+
+    /**
+     * Pending timers, only touched by the loop thread.
+     */
+    private final PriorityQueue<Timer> timers;
+
+    /**
+     * The buffer packets are received into, only touched by the loop thread.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Tie breaker for timers with the same deadline.
+     */
+    private long sequence;
+
+    /**
+     * Creates a new event loop.
+     * @param name String, the loop's name.
+     */
+    public EventLoop(String name) {
+        this.name = name;
+        this.logger = new Logger(name);
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.timers = new PriorityQueue<>();
+        this.buffer = ByteBuffer.allocate(RECEIVE_BUFFER_SIZE);
+
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("[" + name + "] Couldn't open a selector.");
+        }
+    }
+
+    /**
+     * Starts the loop on its own thread.
+     * @return Thread, the loop thread.
+     */
+    public Thread start() {
+        Thread thread = new Thread(this, this.name);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Registers a channel with the loop. The channel is switched to
+     * non-blocking mode; the handler's timeout fires whenever timeoutMs
+     * passes without a packet (0 for no timeout).
+     * @param channel DatagramChannel, the bound channel to service.
+     * @param handler Handler, the channel's event handler.
+     * @param timeoutMs long, the receive timeout in ms.
+     */
+    public void register(DatagramChannel channel, Handler handler, long timeoutMs) {
+        Registration registration = new Registration(channel, handler);
+
+        this.execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                registration.key = channel.register(this.selector, SelectionKey.OP_READ, registration);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            if (timeoutMs > 0) {
+                registration.watchdog = new Watchdog(timeoutMs, () -> this.onTimeout(registration));
+                this.arm(registration.watchdog);
+            }
+        });
+    }
+
+    /**
+     * Creates a watchdog on the loop. It fires onTimeout whenever timeoutMs
+     * passes without a reset, and stops once onTimeout returns false.
+     * @param timeoutMs long, the timeout in ms.
+     * @param onTimeout BooleanSupplier, called on the loop thread, returns true to keep watching.
+     * @return Watchdog, the new watchdog.
+     */
+    public Watchdog watch(long timeoutMs, BooleanSupplier onTimeout) {
+        Watchdog watchdog = new Watchdog(timeoutMs, onTimeout);
+        this.execute(() -> this.arm(watchdog));
+        return watchdog;
+    }
+
+    /**
+     * Runs the task on the loop thread after the specified delay.
+     * @param delayMs long, the delay in ms.
+     * @param task Runnable, the task to run.
+     */
+    public void schedule(long delayMs, Runnable task) {
+        this.execute(() -> this.timers.add(new Timer(System.currentTimeMillis() + delayMs, this.sequence++, null, task)));
+    }
+
+    /**
+     * Runs the task on the loop thread as soon as possible.
+     * @param task Runnable, the task to run.
+     */
+    public void execute(Runnable task) {
+        this.tasks.add(task);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Services channels, timers and tasks until the selector is closed.
+     */
+    @Override
+    public void run() {
+        while (this.selector.isOpen()) {
+            try {
+                this.selector.select(this.getSelectTimeout());
+                this.runTasks();
+                this.receivePackets();
+                this.fireTimers();
+            } catch (ClosedSelectorException e) {
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs the tasks handed over by other threads.
+     */
+    private void runTasks() {
+        Runnable task;
+        while ((task = this.tasks.poll()) != null) {
+            this.runTask(task);
+        }
+    }
+
+    /**
+     * Drains every readable channel and hands its packets to the handler.
+     */
+    private void receivePackets() {
+        Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            Registration registration = (Registration) key.attachment();
+
+            while (key.isValid()) {
+                SocketAddress source;
+                this.buffer.clear();
+                try {
+                    source = registration.channel.receive(this.buffer);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    this.cancel(registration);
+                    break;
+                }
+                if (source == null) { break; }
+                if (this.buffer.position() > Config.MAX_FRAME_SIZE) {
+                    this.logger.log("Dropped a frame: " + new FrameSizeException(this.buffer.position(), Config.MAX_FRAME_SIZE).getMessage());
+                    continue;
+                }
+
+                if (registration.watchdog != null) { registration.watchdog.reset(); }
+                boolean stay = true;
+                try {
+                    stay = registration.handler.onPacket(this.buffer.array(), this.buffer.position());
+                } catch (RuntimeException e) {
+                    this.logger.log("Packet handler failed, dropped the packet: " + e);
+                    e.printStackTrace();
+                }
+                if (!stay) {
+                    this.cancel(registration);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fires every timer that is due. A watchdog's timer is re-armed lazily:
+     * resets only push its deadline back, and the timer is moved when it
+     * comes due early.
+     */
+    private void fireTimers() {
+        long now = System.currentTimeMillis();
+
+        while (!this.timers.isEmpty() && this.timers.peek().deadline <= now) {
+            Timer timer = this.timers.poll();
+            Watchdog watchdog = timer.watchdog;
+
+            if (watchdog == null) {
+                this.runTask(timer.task);
+                continue;
+            }
+            if (watchdog.cancelled) { continue; }
+
+            if (watchdog.deadline > now) {
+                this.timers.add(new Timer(watchdog.deadline, this.sequence++, watchdog, null));
+                continue;
+            }
+            boolean keep = true;
+            try {
+                keep = watchdog.onTimeout.getAsBoolean();
+            } catch (RuntimeException e) {
+                this.logger.log("Timeout handler failed: " + e);
+                e.printStackTrace();
+            }
+            if (keep) {
+                this.arm(watchdog);
+            } else {
+                watchdog.cancel();
+            }
+        }
+    }
+
+    /**
+     * Runs a task, logging it if it throws.
+     */
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            this.logger.log("Task failed: " + e);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Arms a watchdog from now.
+     */
+    private void arm(Watchdog watchdog) {
+        if (watchdog.timeoutMs <= 0) { return; }
+
+        watchdog.reset();
+        this.timers.add(new Timer(watchdog.deadline, this.sequence++, watchdog, null));
+    }
+
+    /**
+     * Delivers a registration's timeout to its handler.
+     * @return boolean, true to keep the timeout armed.
+     */
+    private boolean onTimeout(Registration registration) {
+        if (!registration.key.isValid()) { return false; }
+
+        if (registration.handler.onTimeout()) { return true; }
+        this.cancel(registration);
+        return false;
+    }
+
+    /**
+     * Stops servicing a registration's channel.
+     */
+    private void cancel(Registration registration) {
+        registration.key.cancel();
+        if (registration.watchdog != null) { registration.watchdog.cancel(); }
+    }
+
+    /**
+     * Returns how long the selector may block before the next timer is due.
+     */
+    private long getSelectTimeout() {
+        if (!this.tasks.isEmpty()) { return 1; }
+        if (this.timers.isEmpty()) { return 0; }
+        return Math.max(1, this.timers.peek().deadline - System.currentTimeMillis());
+    }
+
+    /**
+     * Stops the loop and closes its selector (channels stay open).
+     */
+    public void close() {
+        try {
+            this.selector.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package System.Util;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Socket whose receive side is serviced by an EventLoop. Packets are
+ * delivered to the registered handler, as there is no blocking receive,
+ * and sends go straight out on the same non-blocking channel. If reliable
+ * sockets are selected, messages go through a ReliableLink shared by every
+ * socket on the channel, and only new messages reach the handler.
+ */
+public class EventLoopSocket implements MessageSender {
+    /**
+     * The channel bound to the receive port.
+     */
+    private final DatagramChannel channel;
+
+    /**
+     * The address packets are sent to.
+     */
+    private final InetSocketAddress sendAddress;
+
+    /**
+     * Numbers, acks and retransmits messages on the channel, null if unreliable.
+     */
+    private final ReliableLink link;
+
+    /**
+     * Creates a new event loop socket with the specified parameters.
+     * @param receivePortNum int, the port to receive on.
+     * @param sendPortNum int, the port to send on.
+     * @param hostAddress InetAddress, the address to send to.
+     * @param logger Logger, the middleware logger.
+     */
+    public EventLoopSocket(int receivePortNum, int sendPortNum, InetAddress hostAddress, Logger logger) {
+        this.sendAddress = new InetSocketAddress(hostAddress, sendPortNum);
+
+        try {
+            this.channel = DatagramChannel.open();
+            this.channel.bind(new InetSocketAddress(receivePortNum));
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Couldn't bind port " + receivePortNum + ".");
+        }
+
+        this.link = DuplexSocket.isReliableEnabled() ? new ReliableLink(this::sendFrame, receivePortNum, logger) : null;
+    }
+
+    /**
+     * Creates a socket that sends to its own port through another socket's
+     * channel, for peers that share one receive port. Closing either closes
+     * the shared channel.
+     * @param shared EventLoopSocket, the socket whose channel is shared.
+     * @param sendPortNum int, the port to send on.
+     * @param hostAddress InetAddress, the address to send to.
+     * @param logger Logger, the middleware logger.
+     */
+    public EventLoopSocket(EventLoopSocket shared, int sendPortNum, InetAddress hostAddress, Logger logger) {
+        this.sendAddress = new InetSocketAddress(hostAddress, sendPortNum);
+        this.channel = shared.channel;
+        this.link = shared.link;
+    }
+
+    /**
+     * Requests a larger receive buffer, for a port many peers send to at once.
+     * @param bytes int, the buffer size (capped by the OS).
+     */
+    public void setReceiveBufferSize(int bytes) {
+        try {
+            this.channel.setOption(StandardSocketOptions.SO_RCVBUF, bytes);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Services this socket's receive side on the specified loop.
+     * @param eventLoop EventLoop, the loop to register with.
+     * @param handler EventLoop.Handler, receives packets and timeouts.
+     * @param timeoutMs long, the time in ms without a packet before timing out.
+     */
+    public void register(EventLoop eventLoop, EventLoop.Handler handler, long timeoutMs) {
+        if (this.link == null) {
+            eventLoop.register(this.channel, handler, timeoutMs);
+            return;
+        }
+
+        eventLoop.register(this.channel, new EventLoop.Handler() {
+            @Override
+            public boolean onPacket(byte[] data, int length) {
+                byte[] msg = link.accept(data, length);
+                return msg == null || handler.onPacket(msg, msg.length);
+            }
+
+            @Override
+            public boolean onTimeout() {
+                return handler.onTimeout();
+            }
+        }, timeoutMs);
+    }
+
+    /**
+     * Sends the specified serialized message without blocking.
+     * @param msg byte[], the message to send.
+     */
+    @Override
+    public void send(byte[] msg) {
+        this.sendTo(msg, this.sendAddress.getPort());
+    }
+
+    /**
+     * Sends the specified serialized message to another port on the same host.
+     * @param msg byte[], the message to send.
+     * @param portNum int, the port to send to.
+     */
+    @Override
+    public void sendTo(byte[] msg, int portNum) {
+        if (this.link != null) {
+            this.link.send(msg, portNum);
+            return;
+        }
+        this.sendFrame(msg, portNum);
+    }
+
+    /**
+     * Sends a frame as is without blocking.
+     * @param frame byte[], the frame to send.
+     * @param portNum int, the port to send to.
+     */
+    private void sendFrame(byte[] frame, int portNum) {
+        try {
+            InetSocketAddress address = (portNum == this.sendAddress.getPort())
+                    ? this.sendAddress
+                    : new InetSocketAddress(this.sendAddress.getAddress(), portNum);
+            this.channel.send(ByteBuffer.wrap(frame), address);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns true if messages go through a ReliableLink.
+     * @return boolean, true if reliable.
+     */
+    @Override
+    public boolean isReliable() {
+        return this.link != null;
+    }
+
+    /**
+     * Closes the channel.
+     */
+    @Override
+    public void close() {
+        if (this.link != null) {
+            this.link.close();
+        }
+
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package System.Util;
+
+/**
+ * Thrown when a frame is larger than the socket's maximum frame
+ * size, instead of silently truncating it.
+ */
+public class FrameSizeException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new frame size exception.
+     * @param length int, the frame's length (or a lower bound if truncated on receive).
+     * @param maxFrameSize int, the largest frame allowed.
+     */
+    public FrameSizeException(int length, int maxFrameSize) {
+        super("Frame of " + length + " bytes exceeds the " + maxFrameSize + " byte maximum.");
+    }
+}
@@ -0,0 +1,138 @@
+package System.Util;
+
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Duplex socket between threads of one JVM, binding no real ports. Each
+ * socket registers a lock-free mailbox under its receive port, and sends
+ * copy the message into the mailbox bound to the destination port. As with
+ * UDP, messages to an unbound port are dropped and the host is ignored
+ * (every socket is on the local host). This lets the floor, scheduler and
+ * elevators run their real code in one process at memory speed.
+ */
+public class InMemoryDuplexSocket extends DuplexSocket {
+    /**
+     * Every open socket by receive port.
+     */
+    private static final Map<Integer, InMemoryDuplexSocket> PORTS = new ConcurrentHashMap<>();
+
+    /**
+     * Wakes a receiver blocked on a closed socket.
+     */
+    private static final DatagramPacket CLOSED = new DatagramPacket(new byte[0], 0);
+
+    /**
+     * Messages received and not yet taken.
+     */
+    private final LinkedTransferQueue<DatagramPacket> mailbox = new LinkedTransferQueue<>();
+
+    private final int receivePortNum;
+    private final InetAddress hostAddress;
+
+    /**
+     * The receive timeout in ms (0 for none).
+     */
+    private volatile int timeout;
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new socket with the specified parameters.
+     * @param receivePortNum int, the port to receive on.
+     * @param sendPortNum int, the port to send on.
+     * @param hostAddress InetAddress, the address to send to (ignored, all sockets are local).
+     * @param logger Logger, the middleware logger.
+     * @param timeout int, the receive timeout in ms (0 for none).
+     */
+    public InMemoryDuplexSocket(int receivePortNum, int sendPortNum, InetAddress hostAddress, Logger logger, int timeout) {
+        super(sendPortNum, hostAddress, logger);
+        this.receivePortNum = receivePortNum;
+        this.hostAddress = hostAddress;
+        this.timeout = timeout;
+
+        if (PORTS.putIfAbsent(receivePortNum, this) != null) {
+            throw new RuntimeException("Couldn't bind port " + receivePortNum + ".");
+        }
+    }
+
+    /**
+     * Returns true if a socket is bound to the port.
+     * @param portNum int, the port.
+     * @return boolean, true if bound.
+     */
+    public static boolean isBound(int portNum) {
+        return PORTS.containsKey(portNum);
+    }
+
+    /**
+     * Sends the specified serialized message to another port.
+     * @param msg byte[], the message to send.
+     * @param portNum int, the port to send to.
+     */
+    @Override
+    public void sendTo(byte[] msg, int portNum) {
+        InMemoryDuplexSocket destination = PORTS.get(portNum);
+        if (destination == null) {
+            return;
+        }
+
+        // Copied, senders may reuse their buffers.
+        destination.mailbox.offer(new DatagramPacket(Arrays.copyOf(msg, msg.length), msg.length,
+                this.hostAddress, this.receivePortNum));
+    }
+
+    /**
+     * Receives the next message.
+     * @return DatagramPacket, the received packet.
+     * @throws SocketTimeoutException if none arrives within the timeout.
+     */
+    @Override
+    public DatagramPacket receive() throws SocketTimeoutException {
+        DatagramPacket packet = null;
+
+        if (this.closed) {
+            throw new IllegalStateException("Socket on port " + this.receivePortNum + " is closed.");
+        }
+
+        try {
+            int timeout = this.timeout;
+            packet = (timeout > 0) ? this.mailbox.poll(timeout, TimeUnit.MILLISECONDS) : this.mailbox.take();
+        } catch (InterruptedException e) {
+            // Treated as a timeout.
+        }
+
+        if (packet == CLOSED || this.closed) {
+            throw new IllegalStateException("Socket on port " + this.receivePortNum + " is closed.");
+        }
+        if (packet == null) {
+            throw new SocketTimeoutException();
+        }
+        return packet;
+    }
+
+    /**
+     * Sets the receive timeout.
+     * @param timeout int, the timeout in ms (0 for none).
+     */
+    @Override
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Unbinds the port, waking any blocked receiver.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        PORTS.remove(this.receivePortNum, this);
+        this.mailbox.offer(CLOSED);
+    }
+}
@@ -17,6 +17,16 @@ public class InputReader {
     private static final String ABSOLUTE_PATH = new File("").getAbsolutePath();
     private ArrayList<ArrayList<String>> fileData = new ArrayList<>();  // Buffer to store read data.
 
+    /**
+     * Returns the specified file, assumed to be in /src.
+     *
+     * @param fileName String, the name of the file.
+     * @return File, the file.
+     */
+    public static File getFile(String fileName) {
+        return new File(ABSOLUTE_PATH + "\\src\\" + fileName);
+    }
+
     /**
      * Load data from specified textfile.
      *
@@ -24,9 +34,8 @@ public class InputReader {
      * @throws IOException Exception, filreader IO exception.
      */
     public void loadData(String fileName) throws IOException {
-        // File path is passed as parameter, assumed to be in /src.
-        System.out.println(ABSOLUTE_PATH + "\\src\\" + fileName);
-        File file = new File(ABSOLUTE_PATH + "\\src\\" + fileName);
+        File file = getFile(fileName);
+        System.out.println(file);
 
         // Open file under buffered reader.
         BufferedReader br = new BufferedReader(new FileReader(file));
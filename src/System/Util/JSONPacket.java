@@ -1,5 +1,7 @@
 package System.Util;
 
+import System.Config;
+import Types.PacketCodec;
 import org.json.JSONObject;
 
 import java.nio.charset.StandardCharsets;
@@ -11,6 +13,27 @@ import java.util.Map;
  * @author Zakariyya Almalki, Yousef Yassin
  */
 public class JSONPacket {
+    /**
+     * The wire format packets are serialized in. Either format is deserialized.
+     */
+    private static volatile PacketCodec codec = Config.PACKET_CODEC;
+
+    /**
+     * Sets the wire format packets are serialized in.
+     * @param packetCodec PacketCodec, the format to send.
+     */
+    public static void setCodec(PacketCodec packetCodec) {
+        codec = packetCodec;
+    }
+
+    /**
+     * Returns the wire format packets are serialized in.
+     * @return PacketCodec, the format.
+     */
+    public static PacketCodec getCodec() {
+        return codec;
+    }
+
 	/**
      * Create json packet.
      *
@@ -31,23 +54,31 @@ public class JSONPacket {
     }
     
     /**
-     * Converts a Jason packet into an array of bytes for it be sent using UDP
+     * Converts a Jason packet into an array of bytes for it be sent using UDP,
+     * in the binary layout if selected and the packet has one
      *
      * @param json, the json packet
      * @return the byte [ ], the array byte representation of the jason packet
      */
     public static byte[] serialize(JSONObject json) {
+        if (codec == PacketCodec.BINARY) {
+            byte[] encoded = BinaryPacket.encode(json);
+            if (encoded != null) return encoded;
+        }
         return json.toString().getBytes(StandardCharsets.UTF_8);
     }
 
     /**
-     * Converts a byte array back to a jason packet for interperatation
+     * Converts a byte array back to a jason packet for interperatation,
+     * from either the JSON or the binary layout
      *
      * @param serialized, the byte array that need to be deserialized
      * @param length,     the length of the byte array
      * @return the json object
      */
     public static JSONObject deserialize(byte[] serialized, int length) {
+        if (BinaryPacket.isBinary(serialized, length)) return BinaryPacket.decode(serialized, length);
+
         String serializedString = new String(serialized, 0, length);
         return new JSONObject(serializedString);
     }
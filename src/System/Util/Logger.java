@@ -11,6 +11,7 @@ import java.util.Date;
 public class Logger {
     SimpleDateFormat formatter = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
     private String NAME;
+    private boolean silent;
 
     /**
      * Creates a new logger with the specified name.
@@ -20,6 +21,18 @@ public class Logger {
         this.NAME = name;
     }
 
+    /**
+     * Returns a logger that drops every message, for code run
+     * many times over, such as simulated elevators.
+     * @param name String, the logger's source name.
+     * @return Logger, the logger.
+     */
+    public static Logger silent(String name) {
+        Logger logger = new Logger(name);
+        logger.silent = true;
+        return logger;
+    }
+
     /**
      * Returns a log prefix consisting of the current
      * date and time along with the logger's name.
@@ -36,6 +49,7 @@ public class Logger {
      * @param msg String, the message to log.
      */
     public void log(String msg) {
+        if (this.silent) return;
         System.out.println(getPrefix() + " " + msg);
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package System.Util;
+
+/**
+ * Sends serialized messages to a peer. Implemented by every DuplexSocket,
+ * and by sockets whose receive side is serviced elsewhere, such as
+ * EventLoopSockets, so code that only replies can take either.
+ */
+public interface MessageSender {
+    /**
+     * Sends the specified serialized message.
+     * @param msg byte[], the message to send.
+     */
+    void send(byte[] msg);
+
+    /**
+     * Sends the specified serialized message to another port on the same host.
+     * @param msg byte[], the message to send.
+     * @param portNum int, the port to send to.
+     */
+    void sendTo(byte[] msg, int portNum);
+
+    /**
+     * Returns true if messages are acked and retransmitted below the caller.
+     * @return boolean, true if reliable.
+     */
+    boolean isReliable();
+
+    /**
+     * Stops sending and releases the sender's resources.
+     */
+    void close();
+}
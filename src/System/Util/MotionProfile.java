@@ -0,0 +1,96 @@
+package System.Util;
+
+import System.Config;
+
+import static java.lang.Math.abs;
+
+/**
+ * Elevator motion model shared by the elevator simulation and the
+ * scheduler: accelerate at ACCELERATION up to TOP_SPEED, cruise, then
+ * decelerate (or accelerate half way and decelerate for short trips).
+ */
+public class MotionProfile {
+    /**
+     * Returns the time to travel between two floors from rest to rest,
+     * following the same motion as getCrossingTimes.
+     * @param fromFloor int, the starting floor.
+     * @param toFloor int, the destination floor.
+     * @return double, the travel time in seconds.
+     */
+    public static double getTravelTime(int fromFloor, int toFloor) {
+        double distance = abs(toFloor - fromFloor) * Config.DISTANCE_BETWEEN_FLOOR;
+        double accelerationTime = getAccelerationTime(distance);
+
+        // t = t_a * 2 + (Δd - Δd_a * 2) / v_top
+        return 2 * accelerationTime + (distance - 2 * getDistance(accelerationTime)) / Config.TOP_SPEED;
+    }
+
+    /**
+     * Returns how long a trip over a distance accelerates for: until top
+     * speed, or until half way for short trips that never reach it.
+     * @param distance double, the trip distance in meters.
+     * @return double, the acceleration time in seconds.
+     */
+    private static double getAccelerationTime(double distance) {
+        double accelerationTime = Config.TOP_SPEED / Config.ACCELERATION;
+
+        if (distance < 2 * getDistance(accelerationTime)) {
+            // d / 2 = 1/2 at^2
+            return Math.sqrt(distance / Config.ACCELERATION);
+        }
+        return accelerationTime;
+    }
+
+    /**
+     * Returns the distance covered accelerating from rest.
+     * @param accelerationTime double, the time spent accelerating in seconds.
+     * @return double, the distance in meters.
+     */
+    private static double getDistance(double accelerationTime) {
+        return 0.5 * Config.ACCELERATION * accelerationTime * accelerationTime;
+    }
+
+    /**
+     * Returns when an elevator travelling between two floors from rest to rest
+     * reaches each floor on the way, from the exact position of its motion:
+     * accelerating at ACCELERATION up to TOP_SPEED, cruising, then decelerating
+     * (or accelerating half way and decelerating for short trips). The last
+     * time is the arrival, getTravelTime.
+     * @param fromFloor int, the starting floor.
+     * @param toFloor int, the destination floor.
+     * @return double[], the time in seconds each floor past the start is reached, in travel order.
+     */
+    public static double[] getCrossingTimes(int fromFloor, int toFloor) {
+        int floors = abs(toFloor - fromFloor);
+        double distance = floors * Config.DISTANCE_BETWEEN_FLOOR;
+        double accelerationTime = getAccelerationTime(distance);
+        double accelerationDistance = getDistance(accelerationTime);
+        double travelTime = getTravelTime(fromFloor, toFloor);
+        double[] crossingTimes = new double[floors];
+
+        for (int floor = 1; floor <= floors; floor++) {
+            double x = floor * Config.DISTANCE_BETWEEN_FLOOR;
+
+            if (x <= accelerationDistance) {
+                // x = 1/2 at^2
+                crossingTimes[floor - 1] = Math.sqrt(2 * x / Config.ACCELERATION);
+            } else if (x <= distance - accelerationDistance) {
+                // x = d_a + v_top (t - t_a)
+                crossingTimes[floor - 1] = accelerationTime + (x - accelerationDistance) / Config.TOP_SPEED;
+            } else {
+                // Δd - x = 1/2 a (t_total - t)^2
+                crossingTimes[floor - 1] = travelTime - Math.sqrt(2 * (distance - x) / Config.ACCELERATION);
+            }
+        }
+        return crossingTimes;
+    }
+
+    /**
+     * Returns the time an elevator spends at a stop: closing its doors before
+     * leaving, then opening them and letting passengers board on arrival.
+     * @return double, the stop time in seconds.
+     */
+    public static double getStopTime() {
+        return Config.DOOR_ACTION_TIME * 2 + Config.BOARDING_TIME;
+    }
+}
@@ -0,0 +1,241 @@
+package System.Util;
+
+import System.Config;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.function.Consumer;
+
+/**
+ * Duplex socket that reuses its buffers instead of allocating per message.
+ * Sends are copied into one direct buffer and receives land in another,
+ * so a steady stream of messages creates no garbage. Frames larger than
+ * maxFrameSize are never truncated: sending one raises a
+ * FrameSizeException, and a received one is logged and dropped. The
+ * receive timeout is served by a selector, since channels ignore the
+ * socket timeout.
+ */
+public class NioDuplexSocket extends DuplexSocket {
+    /**
+     * The channel bound to the receive port.
+     */
+    private final DatagramChannel channel;
+
+    /**
+     * Waits for the channel to be readable.
+     */
+    private final Selector selector;
+
+    /**
+     * Called by the selector for each ready key (nothing to do, the channel is read after).
+     */
+    private final Consumer<SelectionKey> onSelect;
+
+    /**
+     * The reused send and receive buffers. The receive buffer has a byte
+     * of headroom so that oversized frames can be detected.
+     */
+    private final ByteBuffer sendBuffer, receiveBuffer;
+
+    /**
+     * The reused packet handed out by receive, and its data.
+     */
+    private final DatagramPacket receivePacket;
+    private final byte[] receiveData;
+
+    /**
+     * The address packets are sent to.
+     */
+    private final InetSocketAddress sendAddress;
+
+    /**
+     * The largest frame sent or received.
+     */
+    private final int maxFrameSize;
+
+    /**
+     * The receive timeout in ms (0 for none).
+     */
+    private volatile int timeout;
+
+    /**
+     * The middleware logger.
+     */
+    private final Logger logger;
+
+    /**
+     * Creates a new socket with the specified parameters and Config.MAX_FRAME_SIZE.
+     * @param receivePortNum int, the port to receive on.
+     * @param sendPortNum int, the port to send on.
+     * @param hostAddress InetAddress, the address to send to.
+     * @param logger Logger, the middleware logger.
+     * @param timeout int, the receive timeout in ms (0 for none).
+     */
+    public NioDuplexSocket(int receivePortNum, int sendPortNum, InetAddress hostAddress, Logger logger, int timeout) {
+        this(receivePortNum, sendPortNum, hostAddress, logger, timeout, Config.MAX_FRAME_SIZE);
+    }
+
+    /**
+     * Creates a new socket with the specified parameters.
+     * @param receivePortNum int, the port to receive on.
+     * @param sendPortNum int, the port to send on.
+     * @param hostAddress InetAddress, the address to send to.
+     * @param logger Logger, the middleware logger.
+     * @param timeout int, the receive timeout in ms (0 for none).
+     * @param maxFrameSize int, the largest frame sent or received.
+     */
+    public NioDuplexSocket(int receivePortNum, int sendPortNum, InetAddress hostAddress, Logger logger, int timeout, int maxFrameSize) {
+        super(sendPortNum, hostAddress, logger);
+        this.sendAddress = new InetSocketAddress(hostAddress, sendPortNum);
+        this.maxFrameSize = maxFrameSize;
+        this.timeout = timeout;
+        this.logger = logger;
+        this.sendBuffer = ByteBuffer.allocateDirect(maxFrameSize);
+        this.receiveBuffer = ByteBuffer.allocateDirect(maxFrameSize + 1);
+        this.receiveData = new byte[maxFrameSize];
+        this.receivePacket = new DatagramPacket(this.receiveData, maxFrameSize);
+        this.onSelect = key -> {};
+
+        try {
+            this.channel = DatagramChannel.open();
+            this.channel.bind(new InetSocketAddress(receivePortNum));
+            this.channel.configureBlocking(false);
+            this.selector = Selector.open();
+            this.channel.register(this.selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Couldn't bind port " + receivePortNum + ".");
+        }
+    }
+
+    /**
+     * Sends the specified serialized message.
+     * @param msg byte[], the message to send.
+     */
+    @Override
+    public void send(byte[] msg) {
+        this.send(msg, 0, msg.length);
+    }
+
+    /**
+     * Sends part of the specified serialized message.
+     * @param msg byte[], the buffer holding the message.
+     * @param offset int, the message's offset in the buffer.
+     * @param length int, the message's length.
+     */
+    public void send(byte[] msg, int offset, int length) {
+        this.send(msg, offset, length, this.sendAddress);
+    }
+
+    /**
+     * Sends the specified serialized message to another port on the same host.
+     * @param msg byte[], the message to send.
+     * @param portNum int, the port to send to.
+     */
+    @Override
+    public void sendTo(byte[] msg, int portNum) {
+        this.send(msg, 0, msg.length, new InetSocketAddress(this.sendAddress.getAddress(), portNum));
+    }
+
+    /**
+     * Sends part of the specified serialized message through the reused buffer.
+     * @param msg byte[], the buffer holding the message.
+     * @param offset int, the message's offset in the buffer.
+     * @param length int, the message's length.
+     * @param address InetSocketAddress, the address to send to.
+     */
+    private synchronized void send(byte[] msg, int offset, int length, InetSocketAddress address) {
+        if (length > this.maxFrameSize) {
+            throw new FrameSizeException(length, this.maxFrameSize);
+        }
+
+        this.sendBuffer.clear();
+        this.sendBuffer.put(msg, offset, length);
+        this.sendBuffer.flip();
+        try {
+            this.channel.send(this.sendBuffer, address);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Receives a message into the reused packet, which is only valid
+     * until the next receive.
+     * @return DatagramPacket, the received packet.
+     */
+    @Override
+    public DatagramPacket receive() throws SocketTimeoutException {
+        ByteBuffer frame = this.receiveFrame();
+        int length = frame.remaining();
+
+        frame.get(this.receiveData, 0, length);
+        this.receivePacket.setData(this.receiveData, 0, length);
+        return this.receivePacket;
+    }
+
+    /**
+     * Receives a message into the reused buffer, which is only valid
+     * until the next receive. Oversized frames are dropped.
+     * @return ByteBuffer, the received frame (position to limit).
+     */
+    public ByteBuffer receiveFrame() throws SocketTimeoutException {
+        long deadline = System.nanoTime() + this.timeout * 1_000_000L;
+
+        try {
+            while (true) {
+                this.receiveBuffer.clear();
+                if (this.channel.receive(this.receiveBuffer) != null) {
+                    this.receiveBuffer.flip();
+                    if (this.receiveBuffer.remaining() <= this.maxFrameSize) { break; }
+                    this.logger.log("Dropped a frame: " + new FrameSizeException(this.receiveBuffer.remaining(), this.maxFrameSize).getMessage());
+                    continue;
+                }
+
+                long waitMs = 0;
+                if (this.timeout > 0) {
+                    long remainingNs = deadline - System.nanoTime();
+                    if (remainingNs <= 0) { throw new SocketTimeoutException(); }
+                    waitMs = Math.max(1, remainingNs / 1_000_000);
+                }
+                this.selector.select(this.onSelect, waitMs);
+            }
+        } catch (SocketTimeoutException e) {
+            throw e;
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Couldn't receive a frame.");
+        }
+
+        return this.receiveBuffer;
+    }
+
+    /**
+     * Sets the receive timeout.
+     * @param timeout int, the timeout in ms (0 for none).
+     */
+    @Override
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Closes the channel and selector.
+     */
+    @Override
+    public void close() {
+        try {
+            this.selector.close();
+            this.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package System.Util;
+
+import System.Config;
+
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+
+/**
+ * Duplex socket that sends through another over a ReliableLink. Messages
+ * are acked and retransmitted by the link's timers, so a caller sends each
+ * message once and waits out receive timeouts, unless the link gives the
+ * message up (see getGiveUpCount); retransmitted duplicates are
+ * dropped before receive returns. Acks are consumed while receiving, so the
+ * socket should be received on regularly.
+ */
+public class ReliableDuplexSocket extends DuplexSocket {
+    /**
+     * The socket frames are sent and received on.
+     */
+    private final DuplexSocket transport;
+
+    /**
+     * Numbers, acks and retransmits this socket's messages.
+     */
+    private final ReliableLink link;
+
+    /**
+     * The port to send on.
+     */
+    private final int sendPortNum;
+
+    /**
+     * Creates a new reliable socket over the specified socket.
+     * @param transport DuplexSocket, the socket to send and receive frames on.
+     * @param receivePortNum int, the port the transport receives on.
+     * @param sendPortNum int, the port to send on.
+     * @param hostAddress InetAddress, the address to send to.
+     * @param logger Logger, the middleware logger.
+     */
+    public ReliableDuplexSocket(DuplexSocket transport, int receivePortNum, int sendPortNum, InetAddress hostAddress, Logger logger) {
+        this(transport, receivePortNum, sendPortNum, hostAddress, Config.RELIABLE_RETRANSMIT_TIMEOUT, Config.RELIABLE_MAX_RETRIES, logger);
+    }
+
+    /**
+     * Creates a new reliable socket over the specified socket with the specified retransmission settings.
+     * @param transport DuplexSocket, the socket to send and receive frames on.
+     * @param receivePortNum int, the port the transport receives on.
+     * @param sendPortNum int, the port to send on.
+     * @param hostAddress InetAddress, the address to send to.
+     * @param retransmitTimeout int, the time in ms before the first retransmission.
+     * @param maxRetries int, retransmissions before a message is given up on.
+     * @param logger Logger, the middleware logger.
+     */
+    public ReliableDuplexSocket(DuplexSocket transport, int receivePortNum, int sendPortNum, InetAddress hostAddress,
+                                int retransmitTimeout, int maxRetries, Logger logger) {
+        super(sendPortNum, hostAddress, logger);
+        this.transport = transport;
+        this.sendPortNum = sendPortNum;
+        this.link = new ReliableLink(transport::sendTo, receivePortNum, retransmitTimeout, maxRetries, logger);
+    }
+
+    /**
+     * Sends the specified serialized message, retransmitting it until acked.
+     * @param msg byte[], the message to send.
+     */
+    @Override
+    public void send(byte[] msg) {
+        this.link.send(msg, this.sendPortNum);
+    }
+
+    /**
+     * Sends the specified serialized message to another port, retransmitting it until acked.
+     * @param msg byte[], the message to send.
+     * @param portNum int, the port to send to.
+     */
+    @Override
+    public void sendTo(byte[] msg, int portNum) {
+        this.link.send(msg, portNum);
+    }
+
+    /**
+     * Receives the next new message, handling acks and dropping duplicates.
+     * @return DatagramPacket, the received packet.
+     */
+    @Override
+    public DatagramPacket receive() throws SocketTimeoutException {
+        while (true) {
+            DatagramPacket receivePacket = this.transport.receive();
+            byte[] data = receivePacket.getData();
+            int length = receivePacket.getLength();
+            if (receivePacket.getOffset() != 0) {
+                data = Arrays.copyOfRange(data, receivePacket.getOffset(), receivePacket.getOffset() + length);
+            }
+
+            byte[] msg = this.link.accept(data, length);
+
+            if (msg != null) {
+                return new DatagramPacket(msg, msg.length);
+            }
+        }
+    }
+
+    /**
+     * Returns true, messages are retransmitted by the link.
+     * @return boolean, true.
+     */
+    @Override
+    public boolean isReliable() {
+        return true;
+    }
+
+    /**
+     * Returns the number of messages waiting for acks.
+     * @return int, the number of unacked messages.
+     */
+    public int getPendingCount() {
+        return this.link.getPendingCount();
+    }
+
+    /**
+     * Returns the number of messages the link gave up on unacked.
+     * @return long, the number of messages given up on.
+     */
+    @Override
+    public long getGiveUpCount() {
+        return this.link.getGiveUpCount();
+    }
+
+    /**
+     * Sets the transport's receive timeout.
+     * @param timeout int, the timeout in ms (0 for none).
+     */
+    @Override
+    public void setTimeout(int timeout) {
+        this.transport.setTimeout(timeout);
+    }
+
+    /**
+     * Stops retransmitting and closes the transport.
+     */
+    @Override
+    public void close() {
+        this.link.close();
+        this.transport.close();
+    }
+}
@@ -0,0 +1,332 @@
+package System.Util;
+
+import System.Config;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reliability layer under a socket's messages. Every message is framed with
+ * the sender's session, a sequence number counted per destination port and
+ * the port acks go back to. The receiver acks each frame and drops any it
+ * has already delivered, tracked per sending session up to DUPLICATE_WINDOW
+ * sequences past the oldest gap; the sender retransmits from a timer,
+ * backing off, until acked or maxRetries is reached. Frames given up on are
+ * counted, so a sender waiting on a reply knows to send again. Messages may
+ * still arrive out of order, but never twice. Frames without the header pass
+ * through as is.
+ *
+ * Frame layout: magic (0xA7), type, session (8 bytes), sequence (4 bytes),
+ * reply port (2 bytes), then the message.
+ */
+public class ReliableLink {
+    /**
+     * Bytes the header adds to each message.
+     */
+    public static final int HEADER_SIZE = 16;
+
+    /**
+     * Sequences behind the newest a missing frame is still waited for.
+     */
+    public static final int DUPLICATE_WINDOW = 1024;
+
+    private static final byte MAGIC = (byte) 0xA7;
+    private static final byte DATA = 0, ACK = 1;
+
+    /**
+     * Most times the retransmit timeout is doubled while backing off.
+     */
+    private static final int MAX_BACKOFF_DOUBLINGS = 3;
+
+    /**
+     * Runs the retransmission timers of every link.
+     */
+    private static final ScheduledExecutorService TIMERS = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reliable-link-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Sends frames for the link.
+     */
+    public interface Transport {
+        /**
+         * Sends a frame to the specified port on the peer's host.
+         * @param frame byte[], the frame.
+         * @param portNum int, the port to send to.
+         */
+        void sendTo(byte[] frame, int portNum);
+    }
+
+    /**
+     * A sent frame waiting for its ack.
+     */
+    private static final class Pending {
+        private final byte[] frame;
+        private final int portNum;
+        private int attempts;
+        private ScheduledFuture<?> timer;
+
+        private Pending(byte[] frame, int portNum) {
+            this.frame = frame;
+            this.portNum = portNum;
+        }
+    }
+
+    /**
+     * The sequences received from one session: every one below next, and
+     * those ahead of it. Gaps more than DUPLICATE_WINDOW behind the newest
+     * are given up on, as the sender will have.
+     */
+    private static final class DuplicateWindow {
+        private int next;
+        private final Set<Integer> ahead = new HashSet<>();
+
+        /**
+         * Marks a sequence received.
+         * @param sequence int, the sequence.
+         * @return boolean, true if new, false if a duplicate or given up on.
+         */
+        private boolean accept(int sequence) {
+            if (sequence < this.next || !this.ahead.add(sequence)) {
+                return false;
+            }
+
+            while (this.ahead.remove(this.next)) {
+                this.next++;
+            }
+            while (sequence - this.next >= DUPLICATE_WINDOW) {
+                this.next++;
+                while (this.ahead.remove(this.next)) {
+                    this.next++;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final Transport transport;
+    private final int replyPortNum;
+    private final int retransmitTimeout;
+    private final int maxRetries;
+    private final Logger logger;
+
+    /**
+     * This link's session, so peers don't mistake a restarted link's frames for duplicates.
+     */
+    private final long session = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * The next sequence for each destination port.
+     */
+    private final Map<Integer, Integer> nextSequences = new HashMap<>();
+
+    /**
+     * Frames waiting for acks, keyed by destination port and sequence.
+     */
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Received sequences for each peer session.
+     */
+    private final Map<Long, DuplicateWindow> windows = new HashMap<>();
+
+    /**
+     * The number of frames given up on.
+     */
+    private final AtomicLong giveUpCount = new AtomicLong();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new link with the Config retransmission settings.
+     * @param transport Transport, sends this link's frames.
+     * @param replyPortNum int, the port this link receives on.
+     * @param logger Logger, the middleware logger.
+     */
+    public ReliableLink(Transport transport, int replyPortNum, Logger logger) {
+        this(transport, replyPortNum, Config.RELIABLE_RETRANSMIT_TIMEOUT, Config.RELIABLE_MAX_RETRIES, logger);
+    }
+
+    /**
+     * Creates a new link with the specified parameters.
+     * @param transport Transport, sends this link's frames.
+     * @param replyPortNum int, the port this link receives on.
+     * @param retransmitTimeout int, the time in ms before the first retransmission.
+     * @param maxRetries int, retransmissions before a frame is given up on.
+     * @param logger Logger, the middleware logger.
+     */
+    public ReliableLink(Transport transport, int replyPortNum, int retransmitTimeout, int maxRetries, Logger logger) {
+        this.transport = transport;
+        this.replyPortNum = replyPortNum;
+        this.retransmitTimeout = retransmitTimeout;
+        this.maxRetries = maxRetries;
+        this.logger = logger;
+    }
+
+    /**
+     * Returns true if the data starts with a link header.
+     * @param data byte[], the received data.
+     * @param length int, the data's length.
+     * @return boolean, true if a link frame.
+     */
+    public static boolean isFrame(byte[] data, int length) {
+        return length >= HEADER_SIZE && data[0] == MAGIC;
+    }
+
+    /**
+     * Sends a message, retransmitting it until acked.
+     * @param msg byte[], the message to send.
+     * @param portNum int, the port to send to.
+     */
+    public void send(byte[] msg, int portNum) {
+        int sequence;
+        synchronized (this.nextSequences) {
+            sequence = this.nextSequences.getOrDefault(portNum, 0);
+            this.nextSequences.put(portNum, sequence + 1);
+        }
+
+        byte[] frame = ByteBuffer.allocate(HEADER_SIZE + msg.length)
+                .put(MAGIC).put(DATA).putLong(this.session).putInt(sequence).putShort((short) this.replyPortNum)
+                .put(msg)
+                .array();
+        Pending entry = new Pending(frame, portNum);
+        long key = key(portNum, sequence);
+
+        this.pending.put(key, entry);
+        this.transport.sendTo(frame, portNum);
+        this.schedule(key, entry);
+    }
+
+    /**
+     * Handles a received frame: acks are consumed, data is acked and
+     * delivered unless already seen, and anything else passes through.
+     * @param data byte[], the received data.
+     * @param length int, the data's length.
+     * @return byte[], the message to deliver, null if there is none.
+     */
+    public byte[] accept(byte[] data, int length) {
+        if (!isFrame(data, length)) {
+            return Arrays.copyOf(data, length);
+        }
+
+        ByteBuffer header = ByteBuffer.wrap(data, 2, HEADER_SIZE - 2);
+        long frameSession = header.getLong();
+        int sequence = header.getInt();
+        int portNum = header.getShort() & 0xFFFF;
+
+        if (data[1] == ACK) {
+            // The peer's port identifies which of our sequence spaces it acks.
+            if (frameSession == this.session) {
+                Pending entry = this.pending.remove(key(portNum, sequence));
+                if (entry != null && entry.timer != null) {
+                    entry.timer.cancel(false);
+                }
+            }
+            return null;
+        }
+
+        // Ack even duplicates, the first ack may have been lost.
+        byte[] ack = ByteBuffer.allocate(HEADER_SIZE)
+                .put(MAGIC).put(ACK).putLong(frameSession).putInt(sequence).putShort((short) this.replyPortNum)
+                .array();
+        this.transport.sendTo(ack, portNum);
+
+        boolean isNew;
+        synchronized (this.windows) {
+            isNew = this.windows.computeIfAbsent(frameSession, s -> new DuplicateWindow()).accept(sequence);
+        }
+        if (!isNew) {
+            this.logger.log("Dropped duplicate frame " + sequence + ".");
+            return null;
+        }
+        return Arrays.copyOfRange(data, HEADER_SIZE, length);
+    }
+
+    /**
+     * Returns the number of frames waiting for acks.
+     * @return int, the number of unacked frames.
+     */
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    /**
+     * Returns the number of frames given up on unacked. A sender waiting on
+     * a reply to a message sends it again once this has risen since it sent.
+     * @return long, the number of frames given up on.
+     */
+    public long getGiveUpCount() {
+        return this.giveUpCount.get();
+    }
+
+    /**
+     * Stops retransmitting.
+     */
+    public void close() {
+        this.closed = true;
+        for (Pending entry : this.pending.values()) {
+            if (entry.timer != null) {
+                entry.timer.cancel(false);
+            }
+        }
+        this.pending.clear();
+    }
+
+    /**
+     * Schedules a frame's next retransmission, backing off with each attempt.
+     * @param key long, the frame's key.
+     * @param entry Pending, the frame.
+     */
+    private void schedule(long key, Pending entry) {
+        if (this.closed) {
+            return;
+        }
+
+        long delay = (long) this.retransmitTimeout << Math.min(entry.attempts, MAX_BACKOFF_DOUBLINGS);
+        entry.timer = TIMERS.schedule(() -> this.retransmit(key, entry), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Resends a frame that is still unacked.
+     * @param key long, the frame's key.
+     * @param entry Pending, the frame.
+     */
+    private void retransmit(long key, Pending entry) {
+        if (this.closed || this.pending.get(key) != entry) {
+            return;
+        }
+
+        if (entry.attempts++ >= this.maxRetries) {
+            this.pending.remove(key);
+            this.giveUpCount.incrementAndGet();
+            this.logger.log("Gave up on frame " + (int) key + " to port " + entry.portNum + ".");
+            return;
+        }
+
+        this.transport.sendTo(entry.frame, entry.portNum);
+        this.schedule(key, entry);
+    }
+
+    /**
+     * Combines a destination port and sequence into a pending key.
+     * @param portNum int, the destination port.
+     * @param sequence int, the sequence.
+     * @return long, the key.
+     */
+    private static long key(int portNum, int sequence) {
+        return ((long) portNum << Integer.SIZE) | (sequence & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,78 @@
+package System.Util;
+
+/**
+ * Estimates a retransmission timeout from measured round trips (Jacobson
+ * and Karels, as in RFC 6298): a smoothed round trip and its mean deviation
+ * are tracked, and the timeout is the smoothed round trip plus four
+ * deviations, clamped to [minTimeout, maxTimeout]. Only sample round trips
+ * of messages that were not retransmitted, since their ack is ambiguous.
+ */
+public class RttEstimator {
+    /**
+     * Gains of the smoothed round trip and deviation.
+     */
+    private static final double ALPHA = 1.0 / 8, BETA = 1.0 / 4;
+
+    /**
+     * Deviations the timeout allows beyond the smoothed round trip.
+     */
+    private static final int K = 4;
+
+    private final long minTimeout, maxTimeout;
+    private double smoothedRtt, rttDeviation;
+    private boolean sampled;
+    private long timeout;
+
+    /**
+     * Creates a new estimator with the specified parameters.
+     * @param initialTimeout long, the timeout in ms before the first sample.
+     * @param minTimeout long, the smallest timeout in ms.
+     * @param maxTimeout long, the largest timeout in ms.
+     */
+    public RttEstimator(long initialTimeout, long minTimeout, long maxTimeout) {
+        this.minTimeout = minTimeout;
+        this.maxTimeout = maxTimeout;
+        this.timeout = initialTimeout;
+    }
+
+    /**
+     * Adds a measured round trip and updates the timeout.
+     * @param rtt double, the round trip in ms.
+     */
+    public synchronized void sample(double rtt) {
+        if (!this.sampled) {
+            this.smoothedRtt = rtt;
+            this.rttDeviation = rtt / 2;
+            this.sampled = true;
+        } else {
+            this.rttDeviation = (1 - BETA) * this.rttDeviation + BETA * Math.abs(this.smoothedRtt - rtt);
+            this.smoothedRtt = (1 - ALPHA) * this.smoothedRtt + ALPHA * rtt;
+        }
+
+        long estimate = (long) Math.ceil(this.smoothedRtt + K * this.rttDeviation);
+        this.timeout = Math.max(this.minTimeout, Math.min(this.maxTimeout, estimate));
+    }
+
+    /**
+     * Doubles the timeout after it expired, up to maxTimeout.
+     */
+    public synchronized void backoff() {
+        this.timeout = Math.min(this.maxTimeout, this.timeout * 2);
+    }
+
+    /**
+     * Returns the current retransmission timeout.
+     * @return long, the timeout in ms.
+     */
+    public synchronized long getTimeout() {
+        return this.timeout;
+    }
+
+    /**
+     * Returns the smoothed round trip.
+     * @return double, the smoothed round trip in ms (0 before any sample).
+     */
+    public synchronized double getSmoothedRtt() {
+        return this.smoothedRtt;
+    }
+}
@@ -0,0 +1,92 @@
+package System.Util;
+
+import System.Config;
+
+/**
+ * Converts simulated durations to real ones by the process wide time scale,
+ * so every subsystem compresses time the same way. Durations of the modelled
+ * building (trace gaps, doors, boarding, unjamming, travel, and the timeouts
+ * derived from them) go through here; measured network round trips don't,
+ * packets take the same real time at any scale.
+ */
+public class ScaledClock {
+    /**
+     * Simulated seconds per real second.
+     */
+    private static volatile double scale = Config.TIME_SCALE;
+
+    /**
+     * The real and simulated times the clock last changed scale at.
+     */
+    private static long realOrigin = System.currentTimeMillis();
+    private static long simulatedOrigin = realOrigin;
+
+    /**
+     * Sets the time scale. The simulated clock carries on from where it is.
+     * @param timeScale double, simulated seconds per real second, from 1 up to Config.MAX_TIME_SCALE.
+     */
+    public static synchronized void setScale(double timeScale) {
+        if (!(timeScale >= 1 && timeScale <= Config.MAX_TIME_SCALE)) {
+            throw new IllegalArgumentException("Time scale " + timeScale + " is outside 1 to "
+                    + Config.MAX_TIME_SCALE + ".");
+        }
+
+        simulatedOrigin = currentTimeMillis();
+        realOrigin = System.currentTimeMillis();
+        scale = timeScale;
+    }
+
+    /**
+     * Returns the time scale.
+     * @return double, simulated seconds per real second.
+     */
+    public static double getScale() {
+        return scale;
+    }
+
+    /**
+     * Returns the simulated time, running scale times faster than real time.
+     * @return long, the simulated time in ms.
+     */
+    public static synchronized long currentTimeMillis() {
+        return simulatedOrigin + Math.round((System.currentTimeMillis() - realOrigin) * scale);
+    }
+
+    /**
+     * Converts a simulated duration to real time. Positive durations
+     * stay at least 1 ms, a zero socket timeout would never expire.
+     * @param simulatedMs long, the simulated duration in ms.
+     * @return long, the real duration in ms.
+     */
+    public static long toRealMillis(long simulatedMs) {
+        long realMs = Math.round(simulatedMs / scale);
+        return (simulatedMs > 0) ? Math.max(1, realMs) : realMs;
+    }
+
+    /**
+     * Converts a simulated duration in seconds to real time.
+     * @param simulatedSeconds double, the simulated duration in seconds.
+     * @return long, the real duration in ms.
+     */
+    public static long toRealMillis(double simulatedSeconds) {
+        return toRealMillis(Math.round(simulatedSeconds * Utility.SECONDS_TO_MILLISECONDS));
+    }
+
+    /**
+     * Converts a simulated timeout to a real socket timeout.
+     * @param simulatedMs int, the simulated timeout in ms (0 for none).
+     * @return int, the real timeout in ms (0 for none).
+     */
+    public static int toRealTimeout(int simulatedMs) {
+        return (int) toRealMillis((long) simulatedMs);
+    }
+
+    /**
+     * Sleeps for a simulated duration.
+     * @param simulatedMs long, the simulated duration in ms.
+     * @throws InterruptedException if interrupted while sleeping.
+     */
+    public static void sleep(long simulatedMs) throws InterruptedException {
+        Thread.sleep(toRealMillis(simulatedMs));
+    }
+}
@@ -0,0 +1,104 @@
+package System.Util;
+
+import System.Config;
+import Types.ThreadMode;
+
+import java.lang.reflect.Method;
+
+/**
+ * Starts the system's listener and elevator threads as either platform
+ * or virtual threads. Virtual threads are created reflectively so the
+ * system still builds for Java 11; on a runtime without them every thread
+ * falls back to a platform thread.
+ */
+public class ThreadLauncher {
+    /**
+     * Thread.ofVirtual(), Thread.Builder.name(String) and Thread.Builder.unstarted(Runnable),
+     * null if the runtime has no virtual threads.
+     */
+    private static final Method OF_VIRTUAL, NAME, UNSTARTED;
+
+    /**
+     * The mode new threads are started in.
+     */
+    private static volatile ThreadMode mode = Config.THREAD_MODE;
+
+    static {
+        Method ofVirtual = null, name = null, unstarted = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class);
+            unstarted = builder.getMethod("unstarted", Runnable.class);
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        UNSTARTED = unstarted;
+    }
+
+    /**
+     * Returns true if this runtime supports virtual threads.
+     * @return boolean, true if supported.
+     */
+    public static boolean isVirtualSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Sets the mode new threads are started in, falling back to
+     * platform threads if virtual threads are not supported.
+     * @param threadMode ThreadMode, the mode to use.
+     */
+    public static void setMode(ThreadMode threadMode) {
+        if (threadMode == ThreadMode.VIRTUAL && !isVirtualSupported()) {
+            new Logger("ThreadLauncher").log("Virtual threads need Java 21+, using platform threads.");
+            threadMode = ThreadMode.PLATFORM;
+        }
+        mode = threadMode;
+    }
+
+    /**
+     * Returns the mode new threads are started in.
+     * @return ThreadMode, the mode.
+     */
+    public static ThreadMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Starts a thread in the current mode.
+     * @param task Runnable, the thread's work.
+     * @param name String, the thread's name.
+     * @return Thread, the started thread.
+     */
+    public static Thread start(Runnable task, String name) {
+        return start(task, name, mode);
+    }
+
+    /**
+     * Starts a thread in the specified mode.
+     * @param task Runnable, the thread's work.
+     * @param name String, the thread's name.
+     * @param threadMode ThreadMode, the kind of thread to start.
+     * @return Thread, the started thread.
+     */
+    public static Thread start(Runnable task, String name, ThreadMode threadMode) {
+        Thread thread = null;
+
+        if (threadMode == ThreadMode.VIRTUAL && isVirtualSupported()) {
+            try {
+                thread = (Thread) UNSTARTED.invoke(NAME.invoke(OF_VIRTUAL.invoke(null), name), task);
+            } catch (ReflectiveOperationException e) {
+                e.printStackTrace();
+            }
+        }
+        if (thread == null) {
+            thread = new Thread(task, name);
+        }
+
+        thread.start();
+        return thread;
+    }
+}
@@ -12,6 +12,11 @@ import java.util.Date;
 public class Utility {
     public static final int SECONDS_TO_MILLISECONDS = 1000;
 
+    /**
+     * Milliseconds in a day.
+     */
+    public static final long MILLISECONDS_PER_DAY = 24 * 60 * 60 * 1000L;
+
     /**
      * Time formatter.
      */
@@ -32,4 +37,40 @@ public class Utility {
 
         return null;
     }
+
+    /**
+     * Returns the value of a --name=value command line option.
+     * @param args String[], the command line args.
+     * @param name String, the option name.
+     * @param defaultValue String, the value to use if the option is absent.
+     * @return String, the option value.
+     */
+    public static String getOption(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+
+        return defaultValue;
+    }
+
+    /**
+     * Returns the enum constant named by a --name=value command line option.
+     * Values are case-insensitive and may use dashes in place of underscores.
+     * @param args String[], the command line args.
+     * @param name String, the option name.
+     * @param defaultValue T, the value to use if the option is absent.
+     * @return T, the option value.
+     */
+    public static <T extends Enum<T>> T getOption(String[] args, String name, T defaultValue) {
+        String value = getOption(args, name, (String) null);
+
+        if (value == null) {
+            return defaultValue;
+        }
+        return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase().replace('-', '_'));
+    }
 }
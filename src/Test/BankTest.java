@@ -0,0 +1,125 @@
+package Test;
+
+import System.Config;
+import System.Floor.Floor;
+import System.Floor.TrafficGenerator;
+import System.Scheduler.Bank;
+import System.Scheduler.BankRouter;
+import System.Scheduler.RequestStore;
+import System.Scheduler.Scheduler;
+import System.Util.DuplexSocket;
+import System.Util.ThreadLauncher;
+import System.Util.Utility;
+import Types.DispatchStrategyType;
+import Types.TrafficPattern;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetAddress;
+
+/**
+ * Tests splitting the building into banks
+ * and routing calls to them.
+ */
+public class BankTest {
+    private static final int ROUTER_PORT = 15200;
+    private static final int FLOOR_PORT = 15201;
+    private static final int MAX_FLOOR = 22;
+    private static final int NUM_CALLS = 60;
+    private static final long SEED = 3303;
+    /**
+     * Tests that banks cover every floor above the lobby
+     * and every elevator exactly once.
+     */
+    @Test
+    public void testPartition() {
+        Bank[] banks = Bank.partition(22, 5, 2);
+
+        assertEquals(2, banks[0].getLowFloor());
+        assertEquals(12, banks[0].getHighFloor());
+        assertEquals(13, banks[1].getLowFloor());
+        assertEquals(22, banks[1].getHighFloor());
+        assertEquals(3, banks[0].getNumElevators());
+        assertEquals(2, banks[1].getNumElevators());
+
+        assertTrue(banks[1].serves(Bank.LOBBY));
+        assertFalse(banks[1].serves(12));
+        assertNotEquals(banks[0].getSchedulerPort(), banks[1].getSchedulerPort());
+        assertNotEquals(Config.SCHEDULER_PORT, banks[0].getSchedulerPort());
+
+        Bank single = Bank.partition(22, 4, 1)[0];
+        assertEquals(Config.SCHEDULER_PORT, single.getSchedulerPort());
+        assertEquals(Config.ELEVATOR_BASE_PORT, single.getElevatorBasePort());
+
+        assertThrows(IllegalArgumentException.class, () -> Bank.partition(22, 2, 3));
+    }
+
+    /**
+     * Tests that calls go to the pickup floor's bank,
+     * and lobby calls to the destination's bank.
+     */
+    @Test
+    public void testRoute() {
+        Bank[] banks = Bank.partition(22, 4, 2);
+
+        assertEquals(0, Bank.route(banks, 5, 20).getId());
+        assertEquals(1, Bank.route(banks, 20, 1).getId());
+        assertEquals(0, Bank.route(banks, Bank.LOBBY, 12).getId());
+        assertEquals(1, Bank.route(banks, Bank.LOBBY, 13).getId());
+    }
+
+    /**
+     * Tests that a windowed floor's calls all reach their banks' schedulers
+     * through the router, and that the floor is acked once they have.
+     */
+    @Test
+    public void testRouter() {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        DuplexSocket.setInMemory(true);
+        Bank[] banks = Bank.partition(MAX_FLOOR, 4, 2);
+        Scheduler[] schedulers = new Scheduler[banks.length];
+        BankRouter router = null;
+
+        try {
+            for (Bank bank : banks) {
+                Scheduler scheduler = new Scheduler("Scheduler-bank-" + bank.getId(), MAX_FLOOR,
+                        60 * Utility.SECONDS_TO_MILLISECONDS, bank.getFloorPort(), bank.getSchedulerPort(),
+                        bank.getElevatorBasePort(), bank.getNumElevators(), host, null, false, DispatchStrategyType.LOOK);
+                scheduler.setEventLoops(0);
+                scheduler.setHeartbeatInterval(0);
+                scheduler.start();
+                schedulers[bank.getId()] = scheduler;
+            }
+            router = new BankRouter("BankRouter", banks, ROUTER_PORT, FLOOR_PORT, Config.FLOOR_RETRANSMIT_TIMEOUT, host);
+            ThreadLauncher.start(router::run, "BankRouter");
+
+            Floor floor = new Floor("Floor", null, FLOOR_PORT, ROUTER_PORT, host, 1000);
+            floor.setWindow(16);
+            floor.setTraceSource(new TrafficGenerator(MAX_FLOOR, 0, SEED, TrafficPattern.INTERFLOOR).asTraceSource(NUM_CALLS));
+            floor.run();
+
+            // The floor is only acked once the banks have queued every call.
+            int[] expected = new int[banks.length];
+            TrafficGenerator generator = new TrafficGenerator(MAX_FLOOR, 0, SEED, TrafficPattern.INTERFLOOR);
+            for (int i = 0; i < NUM_CALLS; i++) {
+                long[] call = generator.next();
+                expected[Bank.route(banks, (int) call[1], (int) call[2]).getId()]++;
+            }
+            for (Bank bank : banks) {
+                RequestStore requests = schedulers[bank.getId()].getSchedulerController().getRequestQueue();
+                int queued = 0;
+                for (int floorNum = 1; floorNum <= MAX_FLOOR; floorNum++) {
+                    queued += requests.size(floorNum);
+                }
+                assertEquals(expected[bank.getId()], queued);
+            }
+            assertTrue(expected[0] > 0 && expected[1] > 0);
+        } finally {
+            if (router != null) router.close();
+            for (Scheduler scheduler : schedulers) {
+                if (scheduler != null) scheduler.close();
+            }
+            DuplexSocket.setInMemory(false);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package Test;
+
+import System.Config;
+import System.Util.BatchReceiver;
+import System.Util.JSONPacket;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Tests ordering and acking of windowed
+ * floor request batches.
+ */
+public class BatchReceiverTest {
+    private static final long SESSION = 7;
+    private static BatchReceiver receiver;
+    private static List<Integer> delivered;
+
+    /**
+     * Initializes test harness state
+     * before each unit test.
+     */
+    @BeforeEach
+    public void init() {
+        receiver = new BatchReceiver();
+        delivered = new ArrayList<>();
+    }
+
+    /**
+     * Creates a batch of requests numbered from first to last.
+     * @param session long, the floor session.
+     * @param first int, the first request's sequence.
+     * @param last int, the last request's sequence.
+     * @return JSONObject, the batch.
+     */
+    private static JSONObject createBatch(long session, int first, int last) {
+        List<JSONObject> requests = new ArrayList<>();
+        for (int i = first; i <= last; i++) {
+            final int floor = i;
+            requests.add(JSONPacket.createPacket(new HashMap<>(){{
+                put(Config.K_FLOOR, floor);
+            }}));
+        }
+
+        // Round trip to check the batch survives serialization.
+        byte[] serialized = JSONPacket.serialize(BatchReceiver.createBatch(session, first, requests));
+        return JSONPacket.deserialize(serialized, serialized.length);
+    }
+
+    /**
+     * Receives a batch, recording the delivered requests.
+     * @return int, the cumulative ack.
+     */
+    private static int receive(JSONObject batch) {
+        JSONObject ack = receiver.receive(batch, request -> delivered.add(request.getInt(Config.K_FLOOR)));
+        assertTrue(ack.getBoolean(Config.K_ACK));
+        return ack.getInt(Config.K_SEQUENCE);
+    }
+
+    /**
+     * Tests that requests are delivered once and in
+     * order through duplicates, gaps and overlaps.
+     */
+    @Test
+    public void testInOrderOnce() {
+        assertTrue(BatchReceiver.isBatch(createBatch(SESSION, 0, 0)));
+
+        assertEquals(3, receive(createBatch(SESSION, 0, 2)));
+        assertEquals(3, receive(createBatch(SESSION, 0, 2)));   // Duplicate
+        assertEquals(3, receive(createBatch(SESSION, 5, 7)));   // Past a gap
+        assertEquals(6, receive(createBatch(SESSION, 2, 5)));   // Overlap
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), delivered);
+    }
+
+    /**
+     * Tests that a refused request stops the batch,
+     * and that a new session starts over.
+     */
+    @Test
+    public void testRefusalAndNewSession() {
+        JSONObject ack = receiver.receive(createBatch(SESSION, 0, 3),
+                request -> request.getInt(Config.K_FLOOR) < 2 && delivered.add(request.getInt(Config.K_FLOOR)));
+        assertEquals(2, ack.getInt(Config.K_SEQUENCE));
+        assertEquals(SESSION, ack.getLong(Config.K_SESSION));
+
+        assertEquals(1, receive(createBatch(SESSION + 1, 0, 0)));
+        assertEquals(List.of(0, 1, 0), delivered);
+    }
+
+    /**
+     * Tests that a restarted floor starts over whatever its
+     * random session id, even one below the current session's.
+     */
+    @Test
+    public void testRestartedSession() {
+        assertEquals(3, receive(createBatch(SESSION, 0, 2)));
+        assertEquals(2, receive(createBatch(SESSION - 1, 0, 1)));
+        assertEquals(List.of(0, 1, 2, 0, 1), delivered);
+    }
+}
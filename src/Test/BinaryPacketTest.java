@@ -0,0 +1,147 @@
+package Test;
+
+import System.Config;
+import System.Util.BinaryPacket;
+import System.Util.JSONPacket;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+import Types.PacketCodec;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Tests the binary packet layout against
+ * the JSON packets it replaces.
+ */
+public class BinaryPacketTest {
+    /**
+     * Returns one packet of every kind the system sends.
+     * @return List<JSONObject>, the packets.
+     */
+    private static List<JSONObject> getPackets() {
+        List<JSONObject> packets = new ArrayList<>();
+
+        packets.add(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TIME, "14:05:15.0");
+            put(Config.K_FLOOR, "2");
+            put(Config.K_FLOOR_BUTTON, "Up");
+            put(Config.K_DESTINATION_FLOOR, "22");
+            put(Config.K_ERROR, "DOOR_JAM");
+        }}));
+        for (String topic : new String[]{Config.UPDATE_FLOOR_MSG, Config.REQUEST_FLOOR_MSG, Config.OPENING_DOORS_MSG}) {
+            packets.add(JSONPacket.createPacket(new HashMap<>(){{
+                put(Config.K_TOPIC, topic);
+                put(Config.K_ELEVATOR_ID, 299);
+                put(Config.K_FLOOR, 17);
+                put(Config.K_FLOOR_BUTTON, ElevatorDirection.DOWN);
+                put(Config.K_ERROR, ElevatorState.NO_ERROR);
+            }}));
+        }
+        packets.add(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+            put(Config.K_FLOOR, 3);
+            put(Config.K_FLOOR_BUTTON, ElevatorDirection.UP);
+            put(Config.K_ERROR, ElevatorState.NO_ERROR);
+        }}));
+        packets.add(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+            put(Config.K_ELEVATOR_ID, 4);
+            put(Config.K_FLOOR, 21);
+            put(Config.K_FLOOR_BUTTON, ElevatorDirection.UP);
+            put(Config.K_ERROR, ElevatorState.NO_ERROR);
+            put(Config.K_SEQUENCE, 70000);
+        }}));
+        packets.add(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_ACK, true);
+            put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+            put(Config.K_SEQUENCE, 70000);
+        }}));
+        packets.add(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.ERROR_TYPE_MSG);
+            put(Config.K_ELEVATOR_ID, 3);
+            put(Config.K_ERROR, ElevatorState.STUCK_FLOOR);
+            put(Config.K_FLOOR, 9);
+        }}));
+        packets.add(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.COMMAND_MSG);
+            put(Config.K_COMMAND, Config.UNLOCK_DOOR_COMMAND);
+        }}));
+        packets.add(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.COMMAND_MSG);
+            put(Config.K_COMMAND, Config.TERMINATE_COMMAND);
+        }}));
+        packets.add(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_ACK, true);
+        }}));
+        packets.add(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_ACK, true);
+            put(Config.K_DESTINATION_FLOOR, 12);
+            put(Config.K_ERROR, ElevatorState.DOOR_JAM);
+        }}));
+
+        return packets;
+    }
+
+    /**
+     * Tests that every packet decodes from its binary
+     * layout to the same fields as from JSON.
+     */
+    @Test
+    public void testRoundTrip() {
+        for (JSONObject packet : getPackets()) {
+            byte[] json = packet.toString().getBytes();
+            byte[] binary = BinaryPacket.encode(packet);
+
+            assertNotNull(binary, packet.toString());
+            assertTrue(binary.length <= BinaryPacket.MAX_SIZE);
+            assertTrue(binary.length < json.length);
+
+            JSONObject expected = JSONPacket.deserialize(json, json.length);
+            JSONObject decoded = JSONPacket.deserialize(binary, binary.length);
+            assertEquals(expected.keySet(), decoded.keySet());
+            for (String key : expected.keySet()) {
+                assertEquals(expected.get(key).toString().toUpperCase(), decoded.get(key).toString().toUpperCase());
+            }
+        }
+    }
+
+    /**
+     * Tests that packets without a binary layout
+     * are still sent as JSON with the binary codec,
+     * and that malformed frames are rejected.
+     */
+    @Test
+    public void testFallback() {
+        JSONObject unknown = JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, "unknown");
+            put(Config.K_FLOOR, 1);
+        }});
+        JSONObject extraField = JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_ACK, true);
+            put(Config.K_FLOOR, 1);
+        }});
+        assertNull(BinaryPacket.encode(unknown));
+        assertNull(BinaryPacket.encode(extraField));
+
+        PacketCodec codec = JSONPacket.getCodec();
+        try {
+            JSONPacket.setCodec(PacketCodec.BINARY);
+            byte[] serialized = JSONPacket.serialize(unknown);
+            assertEquals('{', serialized[0]);
+            assertEquals(1, JSONPacket.deserialize(serialized, serialized.length).getInt(Config.K_FLOOR));
+
+            serialized = JSONPacket.serialize(extraField);
+            assertEquals('{', serialized[0]);
+        } finally {
+            JSONPacket.setCodec(codec);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryPacket.decode(new byte[]{BinaryPacket.MAGIC, 3, 0}, 3));
+        assertThrows(IllegalArgumentException.class, () -> BinaryPacket.decode(new byte[]{BinaryPacket.MAGIC, 42}, 2));
+    }
+}
@@ -0,0 +1,127 @@
+package Test;
+
+import System.Config;
+import System.Scheduler.DispatchStrategy;
+import System.Scheduler.SchedulerController;
+import Types.DispatchStrategyType;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the pluggable dispatch strategies.
+ */
+public class DispatchStrategyTest {
+    /**
+     * Creates a controller running the specified strategy.
+     * @param type DispatchStrategyType, the strategy.
+     * @return SchedulerController, the controller.
+     */
+    private static SchedulerController create(DispatchStrategyType type) {
+        return new SchedulerController(Config.MAX_FLOOR, Config.NUMBER_ELEVATORS,
+                DispatchStrategy.create(type, Config.MAX_FLOOR, Config.NUMBER_ELEVATORS));
+    }
+
+    /**
+     * Tests that LOOK stops at the nearer floor when travelling down.
+     */
+    @Test
+    public void testLookNearestAhead() {
+        SchedulerController controller = create(DispatchStrategyType.LOOK);
+        controller.addRequest(15, 2, ElevatorState.NO_ERROR);
+        controller.ackFloor(0, 15);
+        controller.addRequest(10, 1, ElevatorState.NO_ERROR);
+
+        // Destination 2 and request 10 are both below; LOOK stops at 10 first.
+        assertEquals(10, controller.getNextFloor(0, 15, ElevatorDirection.DOWN));
+
+        SchedulerController directional = create(DispatchStrategyType.DIRECTIONAL);
+        directional.addRequest(15, 2, ElevatorState.NO_ERROR);
+        directional.ackFloor(0, 15);
+        directional.addRequest(10, 1, ElevatorState.NO_ERROR);
+        assertEquals(2, directional.getNextFloor(0, 15, ElevatorDirection.DOWN));
+    }
+
+    /**
+     * Tests that the nearest strategy ignores direction.
+     */
+    @Test
+    public void testNearestIgnoresDirection() {
+        SchedulerController controller = create(DispatchStrategyType.NEAREST);
+        controller.addRequest(20, 1, ElevatorState.NO_ERROR);
+        controller.addRequest(8, 1, ElevatorState.NO_ERROR);
+
+        assertEquals(8, controller.getNextFloor(0, 10, ElevatorDirection.UP));
+        assertEquals(20, controller.getNextFloor(0, 10, ElevatorDirection.UP));
+        assertNull(controller.getNextFloor(0, 10, ElevatorDirection.UP));
+    }
+
+    /**
+     * Tests that nearest-car leaves a request to a better placed elevator.
+     */
+    @Test
+    public void testNearestCarDefers() {
+        SchedulerController controller = create(DispatchStrategyType.NEAREST_CAR);
+
+        // Elevator 1 reports in on floor 18 first.
+        assertNull(controller.getNextFloor(1, 18, ElevatorDirection.UP));
+        controller.addRequest(17, 1, ElevatorState.NO_ERROR);
+
+        // Elevator 0 on floor 1 is further away, so it leaves floor 17 alone.
+        assertNull(controller.getNextFloor(0, 1, ElevatorDirection.UP));
+        assertEquals(17, controller.getNextFloor(1, 18, ElevatorDirection.UP));
+
+        // Once elevator 1 is out of service elevator 0 takes over.
+        controller.processError(1);
+        assertEquals(17, controller.getNextFloor(0, 1, ElevatorDirection.UP));
+    }
+
+    /**
+     * Tests that ETA assigns a call to the elevator that will arrive first.
+     */
+    @Test
+    public void testEtaAssignsFastest() {
+        SchedulerController controller = new SchedulerController(Config.MAX_FLOOR, Config.NUMBER_ELEVATORS,
+                DispatchStrategy.create(DispatchStrategyType.ETA, Config.MAX_FLOOR, Config.NUMBER_ELEVATORS, () -> 0L));
+
+        // Elevator 1 reports in idle on floor 20 first.
+        assertNull(controller.getNextFloor(1, 20, ElevatorDirection.DOWN));
+        controller.addRequest(18, 1, ElevatorState.NO_ERROR);
+
+        // Elevator 0 on floor 1 would arrive later, so it leaves floor 18 alone.
+        assertNull(controller.getNextFloor(0, 1, ElevatorDirection.UP));
+        assertEquals(18, controller.getNextFloor(1, 20, ElevatorDirection.DOWN));
+
+        // Once elevator 1 is out of service elevator 0 takes over.
+        controller.processError(1);
+        assertEquals(18, controller.getNextFloor(0, 1, ElevatorDirection.UP));
+    }
+
+    /**
+     * Tests that destination dispatch groups riders by destination and only
+     * boards the riders assigned to the arriving elevator.
+     */
+    @Test
+    public void testDestinationGroupsRiders() {
+        SchedulerController controller = new SchedulerController(Config.MAX_FLOOR, Config.NUMBER_ELEVATORS,
+                DispatchStrategy.create(DispatchStrategyType.DESTINATION, Config.MAX_FLOOR, Config.NUMBER_ELEVATORS, () -> 0L));
+
+        // Both riders for floor 10 share a car; the rider for floor 20 gets another.
+        controller.addRequest(1, 10, ElevatorState.NO_ERROR);
+        controller.addRequest(1, 10, ElevatorState.NO_ERROR);
+        controller.addRequest(1, 20, ElevatorState.NO_ERROR);
+
+        assertEquals(1, controller.getNextFloor(0, 1, ElevatorDirection.UP));
+        controller.ackFloor(0, 1);
+        assertTrue(controller.getElevatorRequests()[0].contains(10));
+        assertFalse(controller.getElevatorRequests()[0].contains(20));
+        assertEquals(1, controller.getRequestQueue().size(1));
+        assertEquals(10, controller.getNextFloor(0, 1, ElevatorDirection.UP));
+
+        assertEquals(1, controller.getNextFloor(1, 1, ElevatorDirection.UP));
+        controller.ackFloor(1, 1);
+        assertTrue(controller.getRequestQueue().isEmpty(1));
+        assertEquals(20, controller.getNextFloor(1, 1, ElevatorDirection.UP));
+    }
+}
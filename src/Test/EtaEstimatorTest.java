@@ -0,0 +1,122 @@
+package Test;
+
+import System.Config;
+import System.Scheduler.EtaEstimator;
+import System.Scheduler.FloorBitSet;
+import System.Util.MotionProfile;
+import Types.ElevatorDirection;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the per-elevator arrival time estimates.
+ */
+public class EtaEstimatorTest {
+    private static final int NUM_FLOORS = 22;
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Tests that committed stops delay every floor reached after them.
+     */
+    @Test
+    public void testTimelineCountsStops() {
+        FloorBitSet stops = new FloorBitSet(NUM_FLOORS);
+        stops.add(10);
+        stops.add(3);
+
+        double[] timeline = EtaEstimator.computeTimeline(NUM_FLOORS, 5, ElevatorDirection.UP, stops, false);
+        double close = Config.DOOR_ACTION_TIME;
+
+        assertEquals(0, timeline[5], EPSILON);
+        assertEquals(close + MotionProfile.getTravelTime(5, 8), timeline[8], EPSILON);
+
+        // Floors past the turning point wait for the stop at 10.
+        double afterTen = close + MotionProfile.getTravelTime(5, 10) + MotionProfile.getStopTime();
+        assertEquals(afterTen + MotionProfile.getTravelTime(10, 12), timeline[12], EPSILON);
+
+        // Floors behind the elevator are reached on the way back.
+        assertEquals(afterTen + MotionProfile.getTravelTime(10, 4), timeline[4], EPSILON);
+        double afterThree = afterTen + MotionProfile.getTravelTime(10, 3) + MotionProfile.getStopTime();
+        assertEquals(afterThree + MotionProfile.getTravelTime(3, 1), timeline[1], EPSILON);
+    }
+
+    /**
+     * Tests that a departed elevator cannot stop short of its next stop,
+     * and that an idle one waits for its next poll.
+     */
+    @Test
+    public void testDepartedAndIdle() {
+        FloorBitSet stops = new FloorBitSet(NUM_FLOORS);
+        stops.add(10);
+
+        double[] timeline = EtaEstimator.computeTimeline(NUM_FLOORS, 5, ElevatorDirection.UP, stops, true);
+        double afterTen = Config.DOOR_ACTION_TIME + MotionProfile.getTravelTime(5, 10) + MotionProfile.getStopTime();
+        assertEquals(afterTen + MotionProfile.getTravelTime(10, 8), timeline[8], EPSILON);
+
+        stops.clear();
+        double[] idle = EtaEstimator.computeTimeline(NUM_FLOORS, 5, ElevatorDirection.UP, stops, true);
+        assertTrue(idle[5] > 0);
+        assertEquals(idle[5] + MotionProfile.getTravelTime(5, 8), idle[8], EPSILON);
+    }
+
+    /**
+     * Tests that a departed elevator whose next stop is its current floor,
+     * or whose stops are all behind it, still has an ETA for every floor.
+     */
+    @Test
+    public void testDepartedWithoutStopsAhead() {
+        FloorBitSet stops = new FloorBitSet(NUM_FLOORS);
+        stops.add(5);
+        stops.add(2);
+
+        double[] here = EtaEstimator.computeTimeline(NUM_FLOORS, 5, ElevatorDirection.UP, stops, true);
+        double afterFive = MotionProfile.getStopTime();
+        assertEquals(0, here[5], EPSILON);
+        assertEquals(afterFive + MotionProfile.getTravelTime(5, 8), here[8], EPSILON);
+        assertEquals(afterFive + MotionProfile.getTravelTime(5, 3), here[3], EPSILON);
+
+        stops.remove(5);
+        double[] behind = EtaEstimator.computeTimeline(NUM_FLOORS, 5, ElevatorDirection.UP, stops, true);
+        double afterTwo = Config.DOOR_ACTION_TIME + MotionProfile.getTravelTime(5, 2) + MotionProfile.getStopTime();
+        assertEquals(afterTwo + MotionProfile.getTravelTime(2, 5), behind[5], EPSILON);
+        assertEquals(afterTwo + MotionProfile.getTravelTime(2, 8), behind[8], EPSILON);
+        for (int floor = 1; floor <= NUM_FLOORS; floor++) {
+            assertFalse(Double.isNaN(here[floor]) || Double.isNaN(behind[floor]));
+        }
+
+        // Neither is skipped when scoring.
+        EtaEstimator estimator = new EtaEstimator(NUM_FLOORS, 1, () -> 0);
+        estimator.update(0, 5, ElevatorDirection.UP, stops, true);
+        assertEquals(0, estimator.getFastestElevator(8));
+    }
+
+    /**
+     * Tests scoring, ageing with the clock and incremental stop insertion.
+     */
+    @Test
+    public void testFastestElevator() {
+        long[] now = new long[]{0};
+        EtaEstimator estimator = new EtaEstimator(NUM_FLOORS, 2, () -> now[0]);
+        FloorBitSet stops = new FloorBitSet(NUM_FLOORS);
+        stops.add(20);
+
+        estimator.update(0, 1, ElevatorDirection.UP, stops, true);
+        estimator.update(1, 12, ElevatorDirection.UP, new FloorBitSet(NUM_FLOORS), true);
+        assertEquals(1, estimator.getFastestElevator(15));
+
+        // Inserting a stop delays only the floors reached after it.
+        double before = estimator.getEta(1, 16);
+        double stop = estimator.getEta(1, 14);
+        estimator.insertStop(1, 14);
+        assertEquals(stop, estimator.getEta(1, 14), EPSILON);
+        assertEquals(before + MotionProfile.getStopTime(), estimator.getEta(1, 16), EPSILON);
+
+        // Estimates count down as time passes.
+        now[0] = 2000;
+        assertEquals(before + MotionProfile.getStopTime() - 2, estimator.getEta(1, 16), EPSILON);
+
+        estimator.remove(1);
+        assertTrue(estimator.isOutOfService(1));
+        assertEquals(0, estimator.getFastestElevator(15));
+    }
+}
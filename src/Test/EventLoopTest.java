@@ -0,0 +1,108 @@
+package Test;
+
+import System.Config;
+import System.Util.EventLoop;
+import System.Util.EventLoopSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests that the event loop keeps servicing its channels
+ * when a handler throws.
+ */
+public class EventLoopTest {
+    private static final int LOOP_PORT = 14660;
+    private static final int PEER_PORT = 14661;
+    private static final int TIMEOUT = 50;
+
+    /**
+     * Waits up to a second for a condition.
+     */
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Tests that an oversized or malformed datagram, a throwing timeout
+     * handler and a throwing task are logged and dropped, while packets,
+     * timeouts and tasks after them are still handled and replies still go out.
+     */
+    @Test
+    public void testHandlerExceptions() throws Exception {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        EventLoop eventLoop = new EventLoop("EventLoopTest");
+        EventLoopSocket socket = new EventLoopSocket(LOOP_PORT, PEER_PORT, host, new Logger("EventLoopTest"));
+        DatagramSocket peer = new DatagramSocket(PEER_PORT, host);
+        peer.setSoTimeout(1000);
+        List<String> received = new CopyOnWriteArrayList<>();
+        AtomicInteger timeouts = new AtomicInteger();
+        AtomicInteger tasks = new AtomicInteger();
+        AtomicInteger packets = new AtomicInteger();
+
+        socket.register(eventLoop, new EventLoop.Handler() {
+            @Override
+            public boolean onPacket(byte[] data, int length) {
+                packets.incrementAndGet();
+                JSONObject json = JSONPacket.deserialize(data, length);
+                received.add(json.getString(Config.K_TOPIC));
+                socket.send(JSONPacket.serialize(json));
+                return true;
+            }
+
+            @Override
+            public boolean onTimeout() {
+                timeouts.incrementAndGet();
+                throw new IllegalStateException("timeout handler failed");
+            }
+        }, TIMEOUT);
+        Thread thread = eventLoop.start();
+
+        try {
+            byte[] malformed = "{not json".getBytes(StandardCharsets.UTF_8);
+            byte[] valid = JSONPacket.serialize(JSONPacket.createPacket(new HashMap<>(){{
+                put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+            }}));
+            byte[] oversized = new byte[Config.MAX_FRAME_SIZE * 2];
+            peer.send(new DatagramPacket(oversized, oversized.length, host, LOOP_PORT));
+            peer.send(new DatagramPacket(malformed, malformed.length, host, LOOP_PORT));
+            peer.send(new DatagramPacket(valid, valid.length, host, LOOP_PORT));
+
+            // The valid packet is still handled and answered.
+            DatagramPacket reply = new DatagramPacket(new byte[Config.MAX_FRAME_SIZE], Config.MAX_FRAME_SIZE);
+            peer.receive(reply);
+            assertEquals(Config.UPDATE_FLOOR_MSG, JSONPacket.deserialize(reply.getData(), reply.getLength()).getString(Config.K_TOPIC));
+            assertEquals(List.of(Config.UPDATE_FLOOR_MSG), received);
+            assertEquals(2, packets.get());     // The oversized datagram never reaches the handler.
+
+            // The timeout stays armed after throwing.
+            await(() -> timeouts.get() >= 3);
+            assertTrue(timeouts.get() >= 3);
+
+            eventLoop.execute(() -> { throw new IllegalStateException("task failed"); });
+            eventLoop.schedule(1, tasks::incrementAndGet);
+            await(() -> tasks.get() == 1);
+            assertEquals(1, tasks.get());
+            assertTrue(thread.isAlive());
+        } finally {
+            eventLoop.close();
+            socket.close();
+            peer.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package Test;
+
+import System.Scheduler.FloorBitSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the word-packed floor set used
+ * to index elevator destinations.
+ */
+public class FloorBitSetTest {
+    private static final int NUM_FLOORS = 200;
+    private static FloorBitSet floors;
+
+    /**
+     * Initializes test harness state
+     * before each unit test.
+     */
+    @BeforeEach
+    public void init() {
+        floors = new FloorBitSet(NUM_FLOORS);
+    }
+
+    /**
+     * Tests that adding and removing floors
+     * maintains the pending count.
+     */
+    @Test
+    public void testAddRemoveCount() {
+        assertTrue(floors.isEmpty());
+
+        assertTrue(floors.add(1));
+        assertTrue(floors.add(64));
+        assertTrue(floors.add(65));
+        assertFalse(floors.add(65));
+        assertEquals(3, floors.size());
+
+        assertTrue(floors.contains(64));
+        assertTrue(floors.remove(64));
+        assertFalse(floors.remove(64));
+        assertFalse(floors.contains(64));
+        assertEquals(2, floors.size());
+
+        floors.clear();
+        assertTrue(floors.isEmpty());
+        assertFalse(floors.contains(1));
+        assertFalse(floors.contains(65));
+    }
+
+    /**
+     * Tests next-above lookups, inclusive of the
+     * start floor and across word boundaries.
+     */
+    @Test
+    public void testNextSetFloor() {
+        floors.add(3);
+        floors.add(130);
+        floors.add(NUM_FLOORS);
+
+        assertEquals(3, floors.nextSetFloor(1));
+        assertEquals(3, floors.nextSetFloor(3));
+        assertEquals(130, floors.nextSetFloor(4));
+        assertEquals(NUM_FLOORS, floors.nextSetFloor(131));
+        assertEquals(-1, floors.nextSetFloor(NUM_FLOORS + 1));
+    }
+
+    /**
+     * Tests next-below lookups, inclusive of the
+     * start floor and across word boundaries.
+     */
+    @Test
+    public void testPreviousSetFloor() {
+        floors.add(1);
+        floors.add(64);
+        floors.add(190);
+
+        assertEquals(190, floors.previousSetFloor(NUM_FLOORS));
+        assertEquals(190, floors.previousSetFloor(190));
+        assertEquals(64, floors.previousSetFloor(189));
+        assertEquals(64, floors.previousSetFloor(64));
+        assertEquals(1, floors.previousSetFloor(63));
+        assertEquals(-1, floors.previousSetFloor(0));
+
+        floors.remove(1);
+        assertEquals(-1, floors.previousSetFloor(63));
+    }
+}
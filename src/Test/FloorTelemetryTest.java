@@ -0,0 +1,129 @@
+package Test;
+
+import System.Config;
+import System.ElevatorSystem.Elevator;
+import System.Util.JSONPacket;
+import System.Util.MotionProfile;
+import System.Util.Utility;
+import Types.ElevatorState;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests that an elevator's motion is not held
+ * up by slow floor update acks.
+ */
+public class FloorTelemetryTest {
+    private static final int ELEVATOR_PORT = 14600;
+    private static final int SCHEDULER_PORT = 14601;
+    private static final int DESTINATION_FLOOR = 3;
+
+    /**
+     * Longer than the elevator's initial retransmission timeout, so each update is also resent.
+     */
+    private static final int ACK_DELAY = 2500;
+
+    /**
+     * Allowed difference in ms between the move's duration and its
+     * simulated travel time, for the threads' scheduling.
+     */
+    private static final int SLACK = 100;
+
+    /**
+     * Tests that a move takes its simulated travel time while every floor
+     * update's ack is delayed, and that the updates are numbered and resent.
+     */
+    @Test
+    public void testDelayedAcksDontStallMotion() throws Exception {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        DatagramSocket scheduler = new DatagramSocket(SCHEDULER_PORT, host);
+        ScheduledExecutorService delayedAcks = Executors.newSingleThreadScheduledExecutor();
+        List<Integer> sequences = new ArrayList<>();
+
+        // Stands in for the scheduler: sends the elevator to its destination, then acks updates late.
+        Thread schedulerThread = new Thread(() -> {
+            byte[] buffer = new byte[Config.MAX_FRAME_SIZE];
+            try {
+                while (true) {
+                    DatagramPacket receivePacket = new DatagramPacket(buffer, buffer.length);
+                    scheduler.receive(receivePacket);
+                    JSONObject json = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
+                    JSONObject reply;
+
+                    if (json.getString(Config.K_TOPIC).equals(Config.REQUEST_FLOOR_MSG)) {
+                        reply = JSONPacket.createPacket(new HashMap<>(){{
+                            put(Config.K_ACK, true);
+                            put(Config.K_DESTINATION_FLOOR, DESTINATION_FLOOR);
+                            put(Config.K_ERROR, ElevatorState.NO_ERROR);
+                        }});
+                    } else {
+                        int sequence = json.getInt(Config.K_SEQUENCE);
+                        synchronized (sequences) {
+                            sequences.add(sequence);
+                        }
+                        reply = JSONPacket.createPacket(new HashMap<>(){{
+                            put(Config.K_ACK, true);
+                            put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+                            put(Config.K_SEQUENCE, sequence);
+                        }});
+                    }
+
+                    byte[] msg = JSONPacket.serialize(reply);
+                    DatagramPacket sendPacket = new DatagramPacket(msg, msg.length, host, ELEVATOR_PORT);
+                    delayedAcks.schedule(() -> {
+                        try {
+                            scheduler.send(sendPacket);
+                        } catch (IOException e) {
+                            // Closed.
+                        }
+                    }, json.has(Config.K_SEQUENCE) ? ACK_DELAY : 0, TimeUnit.MILLISECONDS);
+                }
+            } catch (IOException e) {
+                // Closed.
+            }
+        });
+        schedulerThread.setDaemon(true);
+        schedulerThread.start();
+
+        Elevator elevator = new Elevator(ELEVATOR_PORT, SCHEDULER_PORT, host, 0, false, 200);
+        try {
+            elevator.execute();
+            assertEquals(ElevatorState.DOOR_CLOSE, elevator.getState());
+
+            // Skip the door's sleep, only the motion is timed.
+            elevator.setState(ElevatorState.MOVE);
+            long start = System.currentTimeMillis();
+            elevator.execute();
+            long elapsed = System.currentTimeMillis() - start;
+
+            long travelTime = Math.round(MotionProfile.getTravelTime(1, DESTINATION_FLOOR) * Utility.SECONDS_TO_MILLISECONDS);
+            assertEquals(ElevatorState.DOOR_OPEN, elevator.getState());
+            assertTrue(elapsed >= travelTime - SLACK && elapsed <= travelTime + SLACK,
+                    "move took " + elapsed + " ms for " + travelTime + " ms of travel");
+
+            // Unacked updates were resent under the same numbers.
+            Thread.sleep(ACK_DELAY);
+            synchronized (sequences) {
+                assertFalse(sequences.isEmpty());
+                assertEquals(1, (int) sequences.get(0));
+                assertTrue(sequences.stream().distinct().count() < sequences.size());
+            }
+        } finally {
+            elevator.setState(ElevatorState.TERMINATED);
+            delayedAcks.shutdownNow();
+            scheduler.close();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package Test;
+
+import System.Config;
+import System.Scheduler.DetectionMetrics;
+import System.Scheduler.HeartbeatMonitor;
+import System.Util.JSONPacket;
+import System.Util.RttEstimator;
+import Types.DetectionCause;
+import Types.ElevatorState;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.util.HashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests round trip estimation and heartbeat
+ * fault and silence detection.
+ */
+public class HeartbeatMonitorTest {
+    private static final int MONITOR_PORT = 14500;
+    private static final int ELEVATOR_PORT = 14499;
+    private static final int INTERVAL = 50;
+    private static final int WAIT_TIMEOUT = 5000;
+
+    /**
+     * Answers probes for one elevator until closed.
+     */
+    private static class FakeResponder implements Runnable {
+        private final DatagramSocket socket;
+        private volatile ElevatorState state = ElevatorState.MOVE;
+        private volatile long stateTime = System.currentTimeMillis();
+        private volatile boolean silent;
+
+        private FakeResponder() throws SocketException {
+            this.socket = new DatagramSocket(ELEVATOR_PORT, InetAddress.getLoopbackAddress());
+        }
+
+        private void setState(ElevatorState state) {
+            this.state = state;
+            this.stateTime = System.currentTimeMillis();
+        }
+
+        @Override
+        public void run() {
+            byte[] buffer = new byte[Config.MAX_FRAME_SIZE];
+            try {
+                while (true) {
+                    DatagramPacket receivePacket = new DatagramPacket(buffer, buffer.length);
+                    this.socket.receive(receivePacket);
+                    if (this.silent) { continue; }
+
+                    JSONObject probe = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
+                    byte[] reply = JSONPacket.serialize(JSONPacket.createPacket(new HashMap<>(){{
+                        put(Config.K_TOPIC, Config.HEARTBEAT_MSG);
+                        put(Config.K_ELEVATOR_ID, probe.getInt(Config.K_ELEVATOR_ID));
+                        put(Config.K_SEQUENCE, probe.getInt(Config.K_SEQUENCE));
+                        put(Config.K_STATE, state);
+                        put(Config.K_ELAPSED, System.currentTimeMillis() - stateTime);
+                    }}));
+                    this.socket.send(new DatagramPacket(reply, reply.length, InetAddress.getLoopbackAddress(), MONITOR_PORT));
+                }
+            } catch (IOException e) {
+                // Closed.
+            }
+        }
+    }
+
+    /**
+     * Waits for a condition to hold.
+     * @param condition BooleanSupplier, the condition.
+     * @return boolean, true if it held before WAIT_TIMEOUT.
+     */
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) { return true; }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    /**
+     * Tests that the timeout follows the smoothed round trip and
+     * its deviation, backs off, and stays within its bounds.
+     */
+    @Test
+    public void testRttEstimator() {
+        RttEstimator estimator = new RttEstimator(1000, 10, 5000);
+        assertEquals(1000, estimator.getTimeout());
+
+        estimator.sample(100);
+        assertEquals(100, estimator.getSmoothedRtt(), 1e-9);
+        assertEquals(300, estimator.getTimeout());      // 100 + 4 * 50
+
+        estimator.sample(100);
+        assertEquals(250, estimator.getTimeout());      // 100 + 4 * 37.5
+
+        estimator.backoff();
+        assertEquals(500, estimator.getTimeout());
+        for (int i = 0; i < 10; i++) {
+            estimator.backoff();
+        }
+        assertEquals(5000, estimator.getTimeout());
+
+        for (int i = 0; i < 100; i++) {
+            estimator.sample(1);
+        }
+        assertEquals(10, estimator.getTimeout());
+    }
+
+    /**
+     * Tests that a reported fault is noticed within a few probes, that
+     * silence is suspected after the allowed misses, and that answering
+     * again counts the silence as a false alarm.
+     */
+    @Test
+    public void testFaultAndSilenceDetection() throws Exception {
+        FakeResponder responder = new FakeResponder();
+        Thread responderThread = new Thread(responder);
+        responderThread.setDaemon(true);
+        responderThread.start();
+
+        DetectionMetrics metrics = new DetectionMetrics();
+        HeartbeatMonitor monitor = new HeartbeatMonitor("Heartbeat", MONITOR_PORT, ELEVATOR_PORT,
+                InetAddress.getLoopbackAddress(), 1, INTERVAL, metrics);
+        monitor.start();
+
+        try {
+            Thread.sleep(5 * INTERVAL);
+            assertFalse(monitor.takeSuspicion(0));
+            assertTrue(monitor.getTimeout(0) >= Config.RTT_MIN_TIMEOUT);
+
+            responder.setState(ElevatorState.DOOR_JAM);
+            assertTrue(await(() -> monitor.takeSuspicion(0)));
+            assertEquals(1, metrics.getCount(DetectionCause.FAULT_REPORT));
+            assertTrue(metrics.getMaxLatency(DetectionCause.FAULT_REPORT) < 10 * INTERVAL);
+
+            // Reported once per episode.
+            Thread.sleep(5 * INTERVAL);
+            assertFalse(monitor.takeSuspicion(0));
+
+            responder.silent = true;
+            assertTrue(await(() -> monitor.takeSuspicion(0)));
+            assertEquals(1, metrics.getCount(DetectionCause.HEARTBEAT_LOSS));
+            assertTrue(metrics.getMaxLatency(DetectionCause.HEARTBEAT_LOSS)
+                    > Config.HEARTBEAT_MISSES * INTERVAL + Config.RTT_MIN_TIMEOUT);
+
+            responder.silent = false;
+            assertTrue(await(() -> metrics.getFalseAlarms() == 1));
+        } finally {
+            monitor.close();
+            responder.socket.close();
+        }
+    }
+}
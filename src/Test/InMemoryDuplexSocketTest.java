@@ -0,0 +1,137 @@
+package Test;
+
+import System.Config;
+import System.Scheduler.Scheduler;
+import System.Util.DuplexSocket;
+import System.Util.InMemoryDuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import System.Util.Utility;
+import Types.DispatchStrategyType;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+
+/**
+ * Tests sockets between threads of one JVM, and
+ * the scheduler running over them.
+ */
+public class InMemoryDuplexSocketTest {
+    private static final int PORT = 14700;
+    private static final int FLOOR_PORT = 14799;
+    private static final int SCHEDULER_PORT = 14800;
+    private static final int ELEVATOR_PORT = 14900;
+    private static final Logger logger = new Logger("InMemoryDuplexSocketTest");
+
+    /**
+     * Tests delivery, timeouts, unbound ports, binding
+     * twice and waking a receiver by closing.
+     */
+    @Test
+    public void testSendReceive() throws Exception {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        InMemoryDuplexSocket a = new InMemoryDuplexSocket(PORT, PORT + 1, host, logger, 100);
+        InMemoryDuplexSocket b = new InMemoryDuplexSocket(PORT + 1, PORT, host, logger, 100);
+
+        try {
+            byte[] msg = {1, 2, 3};
+            a.send(msg);
+            msg[0] = 9;     // Sent messages are copies.
+            DatagramPacket received = b.receive();
+            assertArrayEquals(new byte[]{1, 2, 3}, received.getData());
+            assertEquals(PORT, received.getPort());
+            assertThrows(SocketTimeoutException.class, b::receive);
+
+            // Unbound ports drop, bound ones can't be bound again.
+            a.sendTo(msg, PORT + 2);
+            assertThrows(RuntimeException.class, () -> new InMemoryDuplexSocket(PORT, PORT + 1, host, logger, 0));
+
+            b.setTimeout(0);
+            Thread closer = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    // Close now.
+                }
+                b.close();
+            });
+            closer.start();
+            assertThrows(IllegalStateException.class, b::receive);
+            assertFalse(InMemoryDuplexSocket.isBound(PORT + 1));
+        } finally {
+            a.close();
+            b.close();
+        }
+    }
+
+    /**
+     * Tests that a floor request reaches an elevator through
+     * the scheduler without binding any of its ports.
+     */
+    @Test
+    public void testSchedulerInMemory() throws Exception {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        DuplexSocket.setInMemory(true);
+        Scheduler scheduler = new Scheduler("Scheduler", Config.MAX_FLOOR, 60 * Utility.SECONDS_TO_MILLISECONDS,
+                FLOOR_PORT, SCHEDULER_PORT, ELEVATOR_PORT, 1, host, null, false, DispatchStrategyType.DIRECTIONAL);
+
+        // Event loops can't service in memory sockets.
+        assertThrows(IllegalArgumentException.class, scheduler::start);
+        scheduler.setEventLoops(0);
+        scheduler.start();
+        DuplexSocket floor = DuplexSocket.open(FLOOR_PORT, SCHEDULER_PORT, host, logger, 1000);
+        DuplexSocket elevator = DuplexSocket.open(ELEVATOR_PORT, SCHEDULER_PORT + 1, host, logger, 500);
+
+        try {
+            assertTrue(floor instanceof InMemoryDuplexSocket);
+
+            floor.send(JSONPacket.serialize(JSONPacket.createPacket(new HashMap<>(){{
+                put(Config.K_TIME, "14:05:15.0");
+                put(Config.K_FLOOR, "1");
+                put(Config.K_FLOOR_BUTTON, "Up");
+                put(Config.K_DESTINATION_FLOOR, "3");
+                put(Config.K_ERROR, "NO_ERROR");
+            }})));
+            DatagramPacket ack = floor.receive();
+            assertTrue(JSONPacket.deserialize(ack.getData(), ack.getLength()).getBoolean(Config.K_ACK));
+
+            // The request is queued just after the ack, so ask until it is assigned.
+            JSONObject reply = null;
+            for (int attempt = 0; attempt < 10 && reply == null; attempt++) {
+                elevator.send(JSONPacket.serialize(JSONPacket.createPacket(new HashMap<>(){{
+                    put(Config.K_TOPIC, Config.REQUEST_FLOOR_MSG);
+                    put(Config.K_ELEVATOR_ID, 0);
+                    put(Config.K_FLOOR, 1);
+                    put(Config.K_FLOOR_BUTTON, ElevatorDirection.UP);
+                    put(Config.K_ERROR, ElevatorState.NO_ERROR);
+                }})));
+                try {
+                    DatagramPacket received = elevator.receive();
+                    reply = JSONPacket.deserialize(received.getData(), received.getLength());
+                } catch (SocketTimeoutException e) {
+                    // Ask again.
+                }
+            }
+
+            assertNotNull(reply);
+            assertTrue(reply.has(Config.K_DESTINATION_FLOOR));
+
+            // No real ports were bound.
+            new DatagramSocket(SCHEDULER_PORT, host).close();
+            new DatagramSocket(SCHEDULER_PORT + 1, host).close();
+        } finally {
+            scheduler.close();
+            floor.close();
+            elevator.close();
+            DuplexSocket.setInMemory(false);
+        }
+    }
+}
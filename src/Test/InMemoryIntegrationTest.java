@@ -0,0 +1,99 @@
+package Test;
+
+import System.Config;
+import System.ElevatorSystem.ElevatorSystem;
+import System.Floor.Floor;
+import System.Floor.TrafficGenerator;
+import System.Scheduler.FloorBitSet;
+import System.Scheduler.Scheduler;
+import System.Scheduler.SchedulerController;
+import System.Util.DuplexSocket;
+import System.Util.ScaledClock;
+import Types.DispatchStrategyType;
+import Types.TrafficPattern;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the floor, scheduler and elevator subsystems together
+ * over in memory sockets.
+ */
+public class InMemoryIntegrationTest {
+    private static final int NUM_FLOORS = 10;
+    private static final int NUM_ELEVATORS = 2;
+    private static final int NUM_CALLS = 8;
+    private static final long MEAN_INTERVAL_MS = 2000;
+    private static final long SEED = 3303;
+    private static final int FLOOR_PORT = 15000;
+    private static final int SCHEDULER_PORT = 15010;
+    private static final int ELEVATOR_PORT = 15100;
+    private static final double SCALE = 100;
+
+    /**
+     * Tests that every call of a small generated trace is picked up
+     * and delivered to its destination.
+     */
+    @Test
+    public void testTraceServed() throws Exception {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        DuplexSocket.setInMemory(true);
+        ScaledClock.setScale(SCALE);
+
+        Scheduler scheduler = new Scheduler("Scheduler", NUM_FLOORS,
+                ScaledClock.toRealTimeout(Config.ELEVATOR_TIMEOUT * 1000), FLOOR_PORT, SCHEDULER_PORT,
+                ELEVATOR_PORT, NUM_ELEVATORS, host, null, false, DispatchStrategyType.ETA);
+        scheduler.setEventLoops(0);
+        scheduler.setHeartbeatInterval(0);
+        SchedulerController controller = scheduler.getSchedulerController();
+        List<String> boarded = new CopyOnWriteArrayList<>();
+        controller.setBoardingListener((elevatorID, pickupFloor, destFloor) ->
+                boarded.add(pickupFloor + "-" + destFloor));
+
+        ElevatorSystem elevatorSystem = new ElevatorSystem(ELEVATOR_PORT, Config.ELEVATOR_INCREMENT,
+                SCHEDULER_PORT, host, NUM_ELEVATORS, ScaledClock.toRealTimeout(Config.ELEVATOR_TIMEOUT * 1000 / 2));
+
+        try {
+            scheduler.start();
+            elevatorSystem.start();
+
+            Floor floor = new Floor("Floor", null, FLOOR_PORT, SCHEDULER_PORT, host, 1000);
+            floor.setTraceSource(new TrafficGenerator(NUM_FLOORS, MEAN_INTERVAL_MS, SEED, TrafficPattern.INTERFLOOR)
+                    .asTraceSource(NUM_CALLS));
+            floor.run();
+
+            // Every call is acked, wait until each is picked up and dropped off.
+            long deadline = System.currentTimeMillis() + 30000;
+            while (System.currentTimeMillis() < deadline
+                    && !(boarded.size() == NUM_CALLS && Arrays.stream(controller.getElevatorRequests()).allMatch(FloorBitSet::isEmpty))) {
+                Thread.sleep(20);
+            }
+
+            TrafficGenerator generator = new TrafficGenerator(NUM_FLOORS, MEAN_INTERVAL_MS, SEED, TrafficPattern.INTERFLOOR);
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < NUM_CALLS; i++) {
+                long[] call = generator.next();
+                expected.add(call[1] + "-" + call[2]);
+            }
+            List<String> actual = new ArrayList<>(boarded);
+            Collections.sort(expected);
+            Collections.sort(actual);
+            assertEquals(expected, actual);
+            for (int i = 0; i < NUM_ELEVATORS; i++) {
+                assertTrue(controller.getElevatorRequests()[i].isEmpty());
+            }
+        } finally {
+            scheduler.close();
+            elevatorSystem.close();
+            DuplexSocket.setInMemory(false);
+            ScaledClock.setScale(Config.TIME_SCALE);
+        }
+    }
+}
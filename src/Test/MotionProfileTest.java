@@ -0,0 +1,159 @@
+package Test;
+
+import System.Config;
+import System.ElevatorSystem.Elevator;
+import System.ElevatorSystem.ElevatorClock;
+import System.Util.DuplexSocket;
+import System.Util.InMemoryDuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import System.Util.MotionProfile;
+import System.Util.Utility;
+import Types.ElevatorState;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Tests the closed-form floor crossing schedule against a finely
+ * stepped simulation of the motion, and an elevator moving by it.
+ */
+public class MotionProfileTest {
+    /**
+     * Step of the reference simulation in seconds.
+     */
+    private static final double DT = 1e-5;
+
+    /**
+     * Allowed difference in seconds from the reference simulation.
+     */
+    private static final double TOLERANCE = 1e-3;
+
+    private static final int ELEVATOR_PORT = 14680;
+    private static final int SCHEDULER_PORT = 14681;
+    private static final int DESTINATION_FLOOR = 12;
+
+    /**
+     * Clock that records each wakeup of an elevator sleeping on it, advancing
+     * straight to the wakeup instead of sleeping.
+     */
+    private static final class CountingClock implements ElevatorClock {
+        final List<Long> wakeups = new ArrayList<>();
+        long now;
+
+        @Override
+        public long currentTimeMillis() {
+            return this.now;
+        }
+
+        @Override
+        public void sleep(long simulatedMs) {
+            this.now += simulatedMs;
+            this.wakeups.add(this.now);
+        }
+
+        @Override
+        public JSONObject poll(BlockingQueue<JSONObject> inbox, long timeout) {
+            return inbox.poll();
+        }
+    }
+
+    /**
+     * Steps an elevator over a trip, accelerating up to top speed and
+     * braking as late as it can, recording when each floor is passed and
+     * when it stops.
+     * @param floors int, the number of floors travelled.
+     * @return double[], the time in seconds each floor is reached.
+     */
+    private static double[] simulateCrossings(int floors) {
+        double distance = floors * Config.DISTANCE_BETWEEN_FLOOR;
+        double[] crossingTimes = new double[floors];
+        double position = 0, velocity = 0, time = 0;
+        int floor = 0;
+
+        do {
+            double brakingDistance = velocity * velocity / (2 * Config.ACCELERATION);
+            double acceleration = (distance - position <= brakingDistance) ? -Config.ACCELERATION
+                    : (velocity < Config.TOP_SPEED) ? Config.ACCELERATION : 0;
+            double next = Math.max(0, Math.min(Config.TOP_SPEED, velocity + acceleration * DT));
+
+            position += (velocity + next) / 2 * DT;
+            velocity = next;
+            time += DT;
+
+            while (floor < floors - 1 && position >= (floor + 1) * Config.DISTANCE_BETWEEN_FLOOR) {
+                crossingTimes[floor++] = time;
+            }
+        } while (velocity > 0);
+
+        // Arrives when it stops, the position creeps up to the destination too slowly to time it by.
+        crossingTimes[floors - 1] = time;
+        return crossingTimes;
+    }
+
+    /**
+     * Tests that every crossing time of short and long trips, up and
+     * down, matches the stepped motion, and that arrival agrees with
+     * the travel time the scheduler plans with.
+     */
+    @Test
+    public void testCrossingTimesMatchMotion() {
+        for (int floors = 1; floors < Config.MAX_FLOOR; floors++) {
+            double[] expected = simulateCrossings(floors);
+            double[] up = MotionProfile.getCrossingTimes(1, 1 + floors);
+            double[] down = MotionProfile.getCrossingTimes(1 + floors, 1);
+
+            assertEquals(floors, up.length);
+            for (int i = 0; i < floors; i++) {
+                assertEquals(expected[i], up[i], TOLERANCE, floors + " floor trip, floor " + (i + 1));
+                assertEquals(up[i], down[i]);
+                if (i > 0) { assertTrue(up[i] > up[i - 1]); }
+            }
+            assertEquals(MotionProfile.getTravelTime(1, 1 + floors), up[floors - 1], TOLERANCE);
+        }
+        assertEquals(0, MotionProfile.getCrossingTimes(3, 3).length);
+    }
+
+    /**
+     * Tests that an elevator's move wakes once per floor, at that
+     * floor's crossing time, and arrives at the travel time.
+     */
+    @Test
+    public void testWakeups() {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        Logger logger = new Logger("MotionProfileTest");
+        DuplexSocket socket = new InMemoryDuplexSocket(ELEVATOR_PORT, SCHEDULER_PORT, host, logger, 0);
+        CountingClock clock = new CountingClock();
+        Elevator elevator = new Elevator(socket, 0, 0, clock, logger);
+
+        try {
+            elevator.deliver(JSONPacket.createPacket(new HashMap<>(){{
+                put(Config.K_ACK, true);
+                put(Config.K_DESTINATION_FLOOR, DESTINATION_FLOOR);
+                put(Config.K_ERROR, ElevatorState.NO_ERROR.name());
+            }}));
+            elevator.execute();
+            assertEquals(ElevatorState.DOOR_CLOSE, elevator.getState());
+
+            // Skip the door's sleep, only the motion is counted.
+            elevator.setState(ElevatorState.MOVE);
+            elevator.execute();
+            assertEquals(ElevatorState.DOOR_OPEN, elevator.getState());
+
+            double[] crossingTimes = MotionProfile.getCrossingTimes(1, DESTINATION_FLOOR);
+            assertEquals(DESTINATION_FLOOR - 1, clock.wakeups.size());
+            for (int i = 0; i < crossingTimes.length; i++) {
+                assertEquals(Math.round(crossingTimes[i] * Utility.SECONDS_TO_MILLISECONDS), (long) clock.wakeups.get(i));
+            }
+            assertEquals(Math.round(MotionProfile.getTravelTime(1, DESTINATION_FLOOR) * Utility.SECONDS_TO_MILLISECONDS), clock.now);
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package Test;
+
+import System.Util.FrameSizeException;
+import System.Util.Logger;
+import System.Util.NioDuplexSocket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests the buffer reusing duplex socket.
+ */
+public class NioDuplexSocketTest {
+    private static final int PORT = 12100;
+    private static final int MAX_FRAME_SIZE = 64;
+    private static final int TIMEOUT = 200;
+    private static NioDuplexSocket a, b;
+
+    /**
+     * Initializes test harness state
+     * before each unit test.
+     */
+    @BeforeEach
+    public void init() {
+        Logger logger = new Logger("NioDuplexSocketTest");
+        InetAddress host = InetAddress.getLoopbackAddress();
+        a = new NioDuplexSocket(PORT, PORT + 1, host, logger, TIMEOUT, MAX_FRAME_SIZE);
+        b = new NioDuplexSocket(PORT + 1, PORT, host, logger, TIMEOUT, MAX_FRAME_SIZE);
+    }
+
+    /**
+     * Closes the sockets after each unit test.
+     */
+    @AfterEach
+    public void close() {
+        a.close();
+        b.close();
+    }
+
+    /**
+     * Tests sending and receiving through the reused buffers.
+     */
+    @Test
+    public void testSendReceive() throws SocketTimeoutException {
+        a.send("first".getBytes(StandardCharsets.UTF_8));
+        DatagramPacket first = b.receive();
+        assertEquals("first", new String(first.getData(), first.getOffset(), first.getLength(), StandardCharsets.UTF_8));
+
+        a.send("2nd".getBytes(StandardCharsets.UTF_8));
+        DatagramPacket second = b.receive();
+        assertSame(first, second);
+        assertEquals("2nd", new String(second.getData(), second.getOffset(), second.getLength(), StandardCharsets.UTF_8));
+
+        b.send(new byte[MAX_FRAME_SIZE]);
+        assertEquals(MAX_FRAME_SIZE, a.receiveFrame().remaining());
+    }
+
+    /**
+     * Tests that oversized frames are refused on send and dropped
+     * on receive instead of being truncated, and that receive times out.
+     */
+    @Test
+    public void testFrameSizeAndTimeout() throws Exception {
+        assertThrows(FrameSizeException.class, () -> a.send(new byte[MAX_FRAME_SIZE + 1]));
+
+        try (DatagramSocket sender = new DatagramSocket()) {
+            byte[] oversized = new byte[MAX_FRAME_SIZE * 2];
+            sender.send(new DatagramPacket(oversized, oversized.length, InetAddress.getLoopbackAddress(), PORT + 1));
+        }
+        a.send("after".getBytes(StandardCharsets.UTF_8));
+        DatagramPacket after = b.receive();
+        assertEquals("after", new String(after.getData(), after.getOffset(), after.getLength(), StandardCharsets.UTF_8));
+
+        long start = System.currentTimeMillis();
+        assertThrows(SocketTimeoutException.class, () -> b.receive());
+        assertTrue(System.currentTimeMillis() - start >= TIMEOUT - 10);
+    }
+}
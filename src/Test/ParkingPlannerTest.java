@@ -0,0 +1,67 @@
+package Test;
+
+import System.Scheduler.ParkingPlanner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests choosing where idle elevators park
+ * from learned hall call rates.
+ */
+public class ParkingPlannerTest {
+    private static final int NUM_FLOORS = 22;
+    private static final long SLOT_MS = 60_000;
+    private static long[] now;
+    private static ParkingPlanner planner;
+
+    /**
+     * Initializes test harness state
+     * before each unit test.
+     */
+    @BeforeEach
+    public void init() {
+        now = new long[]{0};
+        planner = new ParkingPlanner(NUM_FLOORS, 2, SLOT_MS, () -> now[0]);
+    }
+
+    /**
+     * Tests that idle elevators go to the busiest floor,
+     * and the next one covers the remaining calls.
+     */
+    @Test
+    public void testParksAtBusyFloors() {
+        assertNull(planner.getParkingFloor(0, 10));
+
+        for (int i = 0; i < 10; i++) { planner.recordCall(1); }
+        for (int i = 0; i < 5; i++) { planner.recordCall(20); }
+
+        assertEquals(1, planner.getParkingFloor(0, 10));
+        assertEquals(20, planner.getParkingFloor(1, 10));
+
+        // Already parked where it is needed.
+        assertNull(planner.getParkingFloor(1, 20));
+        assertEquals(20, planner.getParkedFloor(1));
+
+        planner.release(1);
+        assertEquals(-1, planner.getParkedFloor(1));
+    }
+
+    /**
+     * Tests that rates are learned per time of day slot,
+     * falling back to the whole day for an unseen slot.
+     */
+    @Test
+    public void testTimeOfDaySlots() {
+        for (int i = 0; i < 10; i++) { planner.recordCall(1); }
+
+        now[0] = 5 * SLOT_MS;
+        assertEquals(1, planner.getParkingFloor(0, 15));
+
+        for (int i = 0; i < 10; i++) { planner.recordCall(15); }
+        assertEquals(15, planner.getParkingFloor(0, 1));
+
+        now[0] = 0;
+        assertEquals(1, planner.getParkingFloor(0, 15));
+    }
+}
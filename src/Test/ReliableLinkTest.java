@@ -0,0 +1,295 @@
+package Test;
+
+import System.Util.DuplexSocket;
+import System.Util.Logger;
+import System.Util.ReliableDuplexSocket;
+import System.Util.ReliableLink;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests acking, retransmission and duplicate
+ * suppression of the reliability layer.
+ */
+public class ReliableLinkTest {
+    private static final int PORT_A = 1, PORT_B = 2;
+    private static final Logger logger = new Logger("ReliableLinkTest");
+
+    /**
+     * Stands in for loopback between two ports, dropping, duplicating and
+     * reordering (by holding a frame back until the next) at random.
+     */
+    private static class LossyLoopback implements ReliableLink.Transport {
+        private final BlockingQueue<byte[]> inboxA = new LinkedBlockingQueue<>();
+        private final BlockingQueue<byte[]> inboxB = new LinkedBlockingQueue<>();
+        private final Random random = new Random(17);
+        private final double lossRate;
+        private byte[] held;
+        private int heldPort, reordered;
+
+        private LossyLoopback(double lossRate) {
+            this.lossRate = lossRate;
+        }
+
+        @Override
+        public synchronized void sendTo(byte[] frame, int portNum) {
+            double roll = this.random.nextDouble();
+            if (roll < this.lossRate) {
+                return;
+            }
+
+            if (this.held == null && roll < this.lossRate + 0.2) {
+                this.held = frame;
+                this.heldPort = portNum;
+                return;
+            }
+
+            this.deliver(frame, portNum);
+            if (roll > 0.9) {
+                this.deliver(frame, portNum);
+            }
+            if (this.held != null) {
+                this.deliver(this.held, this.heldPort);
+                this.held = null;
+                this.reordered++;
+            }
+        }
+
+        private void deliver(byte[] frame, int portNum) {
+            ((portNum == PORT_A) ? this.inboxA : this.inboxB).add(frame);
+        }
+    }
+
+    /**
+     * Captures sent frames instead of delivering them.
+     */
+    private static class Capture implements ReliableLink.Transport {
+        private final List<byte[]> frames = new ArrayList<>();
+
+        @Override
+        public synchronized void sendTo(byte[] frame, int portNum) {
+            this.frames.add(frame);
+        }
+    }
+
+    /**
+     * Stands in for a peer that is unreachable until revived, then acks
+     * through its own link and answers every message with "ack".
+     */
+    private static class UnreachablePeer extends DuplexSocket {
+        private final BlockingQueue<byte[]> inbox = new LinkedBlockingQueue<>();
+        private final ReliableLink peer = new ReliableLink((frame, portNum) -> this.inbox.add(frame), PORT_B, 60_000, 0, logger);
+        private volatile boolean reachable = false;
+        private int timeout;
+
+        private UnreachablePeer() {
+            super(PORT_B, InetAddress.getLoopbackAddress(), logger);
+        }
+
+        @Override
+        public void sendTo(byte[] frame, int portNum) {
+            if (this.reachable && this.peer.accept(frame, frame.length) != null) {
+                this.peer.send("ack".getBytes(StandardCharsets.UTF_8), PORT_A);
+            }
+        }
+
+        @Override
+        public DatagramPacket receive() throws SocketTimeoutException {
+            try {
+                byte[] frame = this.inbox.poll(this.timeout, TimeUnit.MILLISECONDS);
+                if (frame == null) {
+                    throw new SocketTimeoutException();
+                }
+                return new DatagramPacket(frame, frame.length);
+            } catch (InterruptedException e) {
+                throw new SocketTimeoutException();
+            }
+        }
+
+        @Override
+        public void setTimeout(int timeout) {
+            this.timeout = timeout;
+        }
+
+        @Override
+        public void close() {
+            this.peer.close();
+        }
+    }
+
+    /**
+     * Feeds an inbox to a link until interrupted.
+     * @param inbox BlockingQueue<byte[]>, the frames received.
+     * @param link ReliableLink, the receiving link.
+     * @param delivered List<String>, collects the delivered messages.
+     * @return Thread, the started pump.
+     */
+    private static Thread pump(BlockingQueue<byte[]> inbox, ReliableLink link, List<String> delivered) {
+        Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    byte[] frame = inbox.take();
+                    byte[] msg = link.accept(frame, frame.length);
+                    if (msg != null) {
+                        synchronized (delivered) {
+                            delivered.add(new String(msg, StandardCharsets.UTF_8));
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Done.
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Tests that every message is delivered exactly once over a
+     * link that drops, duplicates and reorders frames.
+     */
+    @Test
+    public void testLossAndReordering() throws InterruptedException {
+        final int numMessages = 300;
+        LossyLoopback loopback = new LossyLoopback(0.3);
+        ReliableLink a = new ReliableLink(loopback, PORT_A, 5, 100, logger);
+        ReliableLink b = new ReliableLink(loopback, PORT_B, 5, 100, logger);
+        List<String> delivered = new ArrayList<>();
+        Thread pumpA = pump(loopback.inboxA, a, new ArrayList<>());
+        Thread pumpB = pump(loopback.inboxB, b, delivered);
+
+        for (int i = 0; i < numMessages; i++) {
+            a.send(String.valueOf(i).getBytes(StandardCharsets.UTF_8), PORT_B);
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(20);
+        while (a.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        pumpA.interrupt();
+        pumpB.interrupt();
+        a.close();
+        b.close();
+
+        assertEquals(0, a.getPendingCount());
+        assertTrue(loopback.reordered > 0);
+        synchronized (delivered) {
+            TreeSet<Integer> unique = new TreeSet<>();
+            delivered.forEach(msg -> unique.add(Integer.parseInt(msg)));
+            assertEquals(numMessages, delivered.size());
+            assertEquals(numMessages, unique.size());
+            assertEquals(numMessages - 1, unique.last());
+        }
+    }
+
+    /**
+     * Tests the duplicate window against replayed, late and restarted
+     * sessions' frames, and that acks clear pending frames.
+     */
+    @Test
+    public void testDuplicateWindow() {
+        Capture fromA = new Capture(), fromB = new Capture();
+        ReliableLink a = new ReliableLink(fromA, PORT_A, 60_000, 0, logger);
+        ReliableLink b = new ReliableLink(fromB, PORT_B, 60_000, 0, logger);
+
+        final int numFrames = ReliableLink.DUPLICATE_WINDOW + 8;
+        for (int i = 0; i < numFrames; i++) {
+            a.send(new byte[]{(byte) i}, PORT_B);
+        }
+        byte[] first = fromA.frames.get(0), second = fromA.frames.get(1);
+
+        assertArrayEquals(new byte[]{1}, b.accept(second, second.length));
+        assertNull(b.accept(second, second.length));
+        assertArrayEquals(new byte[]{0}, b.accept(first, first.length));   // Late but new.
+        assertNull(b.accept(first, first.length));
+
+        byte[] last = fromA.frames.get(numFrames - 1), third = fromA.frames.get(2);
+        assertNotNull(b.accept(last, last.length));
+        assertNull(b.accept(third, third.length));    // Given up on.
+
+        // Every data frame was acked, and acks clear the sender's frames.
+        assertEquals(6, fromB.frames.size());
+        assertEquals(numFrames, a.getPendingCount());
+        for (byte[] ack : fromB.frames) {
+            assertNull(a.accept(ack, ack.length));
+        }
+        assertEquals(numFrames - 4, a.getPendingCount());
+
+        // A restarted sender starts a new session.
+        Capture fromRestarted = new Capture();
+        new ReliableLink(fromRestarted, PORT_A, 60_000, 0, logger).send(new byte[]{0}, PORT_B);
+        byte[] restarted = fromRestarted.frames.get(0);
+        assertArrayEquals(new byte[]{0}, b.accept(restarted, restarted.length));
+
+        // Unframed packets pass through.
+        byte[] plain = "{}".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(plain, b.accept(plain, plain.length));
+        a.close();
+        b.close();
+    }
+
+    /**
+     * Tests that a frame dropped past the retry limit is given up on
+     * after exactly maxRetries retransmissions and counted, so a sender
+     * waiting on a reply resends it once the peer can be reached.
+     */
+    @Test
+    public void testGiveUp() throws Exception {
+        Capture dropped = new Capture();
+        ReliableLink link = new ReliableLink(dropped, PORT_A, 5, 3, logger);
+        link.send(new byte[]{0}, PORT_B);
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (link.getGiveUpCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, link.getGiveUpCount());
+        assertEquals(0, link.getPendingCount());
+        assertEquals(4, dropped.frames.size());
+        link.close();
+
+        // Waits on the reply as the floor and elevators do, resending only once the link gives up.
+        UnreachablePeer transport = new UnreachablePeer();
+        ReliableDuplexSocket socket = new ReliableDuplexSocket(transport, PORT_A, PORT_B,
+                InetAddress.getLoopbackAddress(), 5, 3, logger);
+        socket.setTimeout(20);
+        byte[] msg = "request".getBytes(StandardCharsets.UTF_8);
+        int sends = 0;
+        boolean resend = true;
+        long giveUps = 0;
+        DatagramPacket reply = null;
+
+        while (reply == null && sends < 10) {
+            if (resend) {
+                giveUps = socket.getGiveUpCount();
+                socket.send(msg);
+                sends++;
+            }
+            try {
+                reply = socket.receive();
+            } catch (SocketTimeoutException e) {
+                resend = socket.getGiveUpCount() != giveUps;
+                transport.reachable |= resend;
+            }
+        }
+
+        assertNotNull(reply);
+        assertEquals("ack", new String(reply.getData(), 0, reply.getLength(), StandardCharsets.UTF_8));
+        assertEquals(2, sends);
+        assertEquals(1, socket.getGiveUpCount());
+        socket.close();
+    }
+}
@@ -0,0 +1,81 @@
+package Test;
+
+import System.Scheduler.Request;
+import System.Scheduler.RequestStore;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the packed request format and
+ * the primitive per-floor request store.
+ */
+public class RequestStoreTest {
+    private static final int NUM_FLOORS = 22;
+    private static RequestStore store;
+
+    /**
+     * Initializes test harness state
+     * before each unit test.
+     */
+    @BeforeEach
+    public void init() {
+        store = new RequestStore(NUM_FLOORS);
+    }
+
+    /**
+     * Tests that every field survives packing.
+     */
+    @Test
+    public void testPackUnpack() {
+        long request = Request.pack(NUM_FLOORS, 1, ElevatorDirection.DOWN, ElevatorState.STUCK_FLOOR);
+
+        assertEquals(NUM_FLOORS, Request.getPickupFloor(request));
+        assertEquals(1, Request.getDestFloor(request));
+        assertEquals(ElevatorDirection.DOWN, Request.getDirection(request));
+        assertEquals(ElevatorState.STUCK_FLOOR, Request.getError(request));
+        assertEquals(-1, Request.getElevator(request));
+
+        request = Request.withElevator(Request.withError(request, ElevatorState.NO_ERROR), 3);
+        assertEquals(ElevatorState.NO_ERROR, Request.getError(request));
+        assertEquals(3, Request.getElevator(request));
+        assertEquals(NUM_FLOORS, Request.getPickupFloor(request));
+        assertEquals(1, Request.getDestFloor(request));
+    }
+
+    /**
+     * Tests adding past the initial capacity, draining
+     * backwards and resetting errors.
+     */
+    @Test
+    public void testAddDrainReset() {
+        for (int dest = 2; dest <= 11; dest++) {
+            store.add(Request.pack(1, dest, ElevatorDirection.UP, ElevatorState.DOOR_JAM));
+        }
+        assertEquals(10, store.size(1));
+        assertTrue(store.isEmpty(2));
+
+        store.resetErrors(1);
+        int destSum = 0;
+        for (int i = store.size(1) - 1; i >= 0; i--) {
+            long request = store.get(1, i);
+            assertEquals(ElevatorState.NO_ERROR, Request.getError(request));
+
+            if (Request.getDestFloor(request) % 2 == 0) {
+                destSum += Request.getDestFloor(request);
+                store.remove(1, i);
+            }
+        }
+
+        assertEquals(2 + 4 + 6 + 8 + 10, destSum);
+        assertEquals(5, store.size(1));
+        for (int i = 0; i < store.size(1); i++) {
+            assertTrue(Request.getDestFloor(store.get(1, i)) % 2 == 1);
+        }
+
+        store.clear(1);
+        assertTrue(store.isEmpty(1));
+    }
+}
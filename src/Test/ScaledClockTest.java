@@ -0,0 +1,124 @@
+package Test;
+
+import System.Config;
+import System.ElevatorSystem.Elevator;
+import System.Util.JSONPacket;
+import System.Util.MotionProfile;
+import System.Util.ScaledClock;
+import System.Util.Utility;
+import Types.ElevatorState;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.HashMap;
+
+/**
+ * Tests time compression of simulated durations,
+ * and an elevator's stop running compressed.
+ */
+public class ScaledClockTest {
+    private static final int ELEVATOR_PORT = 14620;
+    private static final int SCHEDULER_PORT = 14621;
+    private static final int DESTINATION_FLOOR = 6;
+    private static final double SCALE = 50;
+
+    /**
+     * Allowed difference in ms between real and expected durations.
+     */
+    private static final int SLACK = 150;
+
+    /**
+     * Tests conversions of durations and timeouts, the scale's
+     * bounds, and that the clock runs scale times faster.
+     */
+    @Test
+    public void testConversions() throws Exception {
+        try {
+            ScaledClock.setScale(100);
+            assertEquals(30, ScaledClock.toRealMillis(3000L));
+            assertEquals(30, ScaledClock.toRealMillis(3.0));
+            assertEquals(1, ScaledClock.toRealMillis(1L));
+            assertEquals(0, ScaledClock.toRealMillis(0L));
+            assertEquals(0, ScaledClock.toRealTimeout(0));
+            assertEquals(200, ScaledClock.toRealTimeout(20000));
+            assertThrows(IllegalArgumentException.class, () -> ScaledClock.setScale(0.5));
+            assertThrows(IllegalArgumentException.class, () -> ScaledClock.setScale(Config.MAX_TIME_SCALE + 1));
+            assertEquals(100, ScaledClock.getScale(), 0);
+
+            long simulatedStart = ScaledClock.currentTimeMillis();
+            long realStart = System.currentTimeMillis();
+            Thread.sleep(200);
+            long simulated = ScaledClock.currentTimeMillis() - simulatedStart;
+            long real = System.currentTimeMillis() - realStart;
+            assertEquals(100 * real, simulated, 100 * 5);
+        } finally {
+            ScaledClock.setScale(1);
+        }
+    }
+
+    /**
+     * Tests that an elevator's door, travel and boarding times
+     * together take their simulated time divided by the scale.
+     */
+    @Test
+    public void testElevatorStopCompressed() throws Exception {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        DatagramSocket scheduler = new DatagramSocket(SCHEDULER_PORT, host);
+
+        // Stands in for the scheduler: sends the elevator to its destination and acks everything else.
+        Thread schedulerThread = new Thread(() -> {
+            byte[] buffer = new byte[Config.MAX_FRAME_SIZE];
+            try {
+                while (true) {
+                    DatagramPacket receivePacket = new DatagramPacket(buffer, buffer.length);
+                    scheduler.receive(receivePacket);
+                    JSONObject json = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
+                    JSONObject reply = JSONPacket.createPacket(new HashMap<>(){{
+                        put(Config.K_ACK, true);
+                    }});
+
+                    if (json.getString(Config.K_TOPIC).equals(Config.REQUEST_FLOOR_MSG)) {
+                        reply.put(Config.K_DESTINATION_FLOOR, DESTINATION_FLOOR);
+                        reply.put(Config.K_ERROR, ElevatorState.NO_ERROR);
+                    } else if (json.has(Config.K_SEQUENCE)) {
+                        reply.put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+                        reply.put(Config.K_SEQUENCE, json.getInt(Config.K_SEQUENCE));
+                    }
+
+                    byte[] msg = JSONPacket.serialize(reply);
+                    scheduler.send(new DatagramPacket(msg, msg.length, host, ELEVATOR_PORT));
+                }
+            } catch (IOException e) {
+                // Closed.
+            }
+        });
+        schedulerThread.setDaemon(true);
+        schedulerThread.start();
+
+        ScaledClock.setScale(SCALE);
+        Elevator elevator = new Elevator(ELEVATOR_PORT, SCHEDULER_PORT, host, 0, false, 1000);
+        try {
+            elevator.execute();
+            assertEquals(ElevatorState.DOOR_CLOSE, elevator.getState());
+
+            long start = System.currentTimeMillis();
+            while (elevator.getState() != ElevatorState.SEND_ACK) {
+                elevator.execute();
+            }
+            long elapsed = System.currentTimeMillis() - start;
+
+            long expected = Math.round((MotionProfile.getStopTime() + MotionProfile.getTravelTime(1, DESTINATION_FLOOR))
+                    * Utility.SECONDS_TO_MILLISECONDS / SCALE);
+            assertTrue(Math.abs(elapsed - expected) <= SLACK, "stop took " + elapsed + " ms, expected " + expected + " ms");
+        } finally {
+            ScaledClock.setScale(1);
+            elevator.setState(ElevatorState.TERMINATED);
+            scheduler.close();
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Random;
+
 /**
  * Tests the scheduling algorithm and
  * logic of the scheduler controller.
@@ -124,12 +126,12 @@ public class SchedulerControllerTest {
         assertTrue(nextFloor == 4);
         assertTrue(error.equals(ElevatorState.DOOR_JAM));
         assertTrue(schedulerController.getValid()[nextFloor - 1] == id);
-        assertTrue(!schedulerController.getRequestQueue().get(nextFloor - 1).isEmpty());
-        assertTrue(!schedulerController.getElevatorRequests()[id][nextFloor - 1]);
+        assertTrue(!schedulerController.getRequestQueue().isEmpty(nextFloor));
+        assertTrue(!schedulerController.getElevatorRequests()[id].contains(nextFloor));
 
         schedulerController.ackFloor(id, nextFloor);
-        assertTrue(schedulerController.getRequestQueue().get(nextFloor - 1).isEmpty());
-        assertTrue(schedulerController.getElevatorRequests()[id][9 - 1]);
+        assertTrue(schedulerController.getRequestQueue().isEmpty(nextFloor));
+        assertTrue(schedulerController.getElevatorRequests()[id].contains(9));
         assertTrue(schedulerController.getValid()[nextFloor - 1] == -1);
 
         nextFloor = schedulerController.getNextFloor(id, nextFloor, ElevatorDirection.UP);
@@ -194,4 +196,123 @@ public class SchedulerControllerTest {
             assertTrue(error.equals(ElevatorState.NO_ERROR));
         }
     }
+
+    /**
+     * Tests that the unclaimed request floor index follows
+     * claims, errors and acks.
+     */
+    @Test
+    public void testUnclaimedFloorIndex() {
+        schedulerController.addRequest(4, 9, ElevatorState.NO_ERROR);
+        schedulerController.addRequest(12, 2, ElevatorState.NO_ERROR);
+        assertTrue(schedulerController.getUnclaimedFloors().contains(4));
+        assertTrue(schedulerController.getUnclaimedFloors().contains(12));
+
+        int id = 0;
+        Integer nextFloor = schedulerController.getNextFloor(id, 1, ElevatorDirection.UP);
+        assertTrue(nextFloor == 4);
+        assertFalse(schedulerController.getUnclaimedFloors().contains(4));
+        assertTrue(schedulerController.getClaimedFloors()[id].contains(4));
+
+        // A second elevator skips the claimed floor.
+        nextFloor = schedulerController.getNextFloor(1, 1, ElevatorDirection.UP);
+        assertTrue(nextFloor == 12);
+
+        // Releasing elevator 0 makes floor 4 available again.
+        schedulerController.processError(id);
+        assertTrue(schedulerController.getUnclaimedFloors().contains(4));
+        assertTrue(schedulerController.getClaimedFloors()[id].isEmpty());
+
+        schedulerController.ackFloor(1, 12);
+        assertFalse(schedulerController.getUnclaimedFloors().contains(12));
+        assertTrue(schedulerController.getClaimedFloors()[1].isEmpty());
+        assertEquals(1, schedulerController.getUnclaimedFloors().size());
+    }
+
+    /**
+     * Tests that elevators and the floor listener dispatching
+     * concurrently never lose a request or leave a floor claimed.
+     */
+    @Test
+    public void testConcurrentDispatch() throws InterruptedException {
+        final int requestsPerFloorThread = 20_000;
+        Thread[] threads = new Thread[Config.NUMBER_ELEVATORS + 1];
+
+        threads[0] = new Thread(() -> {
+            Random random = new Random(3303);
+            for (int i = 0; i < requestsPerFloorThread; i++) {
+                int pickup = 1 + random.nextInt(Config.MAX_FLOOR);
+                int dest = 1 + random.nextInt(Config.MAX_FLOOR);
+                schedulerController.addRequest(pickup, dest, ElevatorState.NO_ERROR);
+            }
+        });
+
+        for (int id = 0; id < Config.NUMBER_ELEVATORS; id++) {
+            final int elevatorID = id;
+            threads[id + 1] = new Thread(() -> {
+                int currentFloor = 1;
+                for (int i = 0; i < requestsPerFloorThread; i++) {
+                    Integer nextFloor = schedulerController.getNextFloor(elevatorID, currentFloor, ElevatorDirection.UP);
+                    if (nextFloor == null) { continue; }
+
+                    schedulerController.ackFloor(elevatorID, nextFloor);
+                    currentFloor = nextFloor;
+                }
+            });
+        }
+
+        for (Thread thread : threads) { thread.start(); }
+        for (Thread thread : threads) { thread.join(); }
+
+        // Drain whatever is left with a single elevator.
+        int currentFloor = 1;
+        Integer nextFloor;
+        while ((nextFloor = schedulerController.getNextFloor(0, currentFloor, ElevatorDirection.UP)) != null) {
+            schedulerController.ackFloor(0, nextFloor);
+            currentFloor = nextFloor;
+        }
+
+        assertTrue(schedulerController.getUnclaimedFloors().isEmpty());
+        for (int id = 0; id < Config.NUMBER_ELEVATORS; id++) {
+            assertTrue(schedulerController.getClaimedFloors()[id].isEmpty());
+        }
+        for (int floor = 1; floor <= Config.MAX_FLOOR; floor++) {
+            assertTrue(schedulerController.getRequestQueue().isEmpty(floor));
+        }
+    }
+
+    /**
+     * Tests that an elevator only collects riders going its way
+     * and picks up the rest once it reverses.
+     */
+    @Test
+    public void testDirectionalHallCalls() {
+        int id = 0;
+        schedulerController.addRequest(1, 10, ElevatorState.NO_ERROR);
+        assertTrue(schedulerController.getNextFloor(id, 1, ElevatorDirection.UP) == 1);
+        schedulerController.ackFloor(id, 1, ElevatorDirection.UP);
+
+        schedulerController.addRequest(5, 8, ElevatorDirection.UP, ElevatorState.NO_ERROR);
+        schedulerController.addRequest(5, 2, ElevatorDirection.DOWN, ElevatorState.NO_ERROR);
+        assertTrue(schedulerController.getHallCalls(ElevatorDirection.UP).contains(5));
+        assertTrue(schedulerController.getHallCalls(ElevatorDirection.DOWN).contains(5));
+
+        // Going up, the rider for floor 2 is left for the way back.
+        assertTrue(schedulerController.getNextFloor(id, 1, ElevatorDirection.UP) == 5);
+        schedulerController.ackFloor(id, 5, ElevatorDirection.UP);
+        assertTrue(schedulerController.getElevatorRequests()[id].contains(8));
+        assertFalse(schedulerController.getElevatorRequests()[id].contains(2));
+        assertFalse(schedulerController.getHallCalls(ElevatorDirection.UP).contains(5));
+        assertTrue(schedulerController.getUnclaimedFloors().contains(5));
+
+        assertTrue(schedulerController.getNextFloor(id, 5, ElevatorDirection.UP) == 8);
+        schedulerController.ackFloor(id, 8, ElevatorDirection.UP);
+        assertTrue(schedulerController.getNextFloor(id, 8, ElevatorDirection.UP) == 10);
+        schedulerController.ackFloor(id, 10, ElevatorDirection.UP);
+
+        assertTrue(schedulerController.getNextFloor(id, 10, ElevatorDirection.UP) == 5);
+        schedulerController.ackFloor(id, 5, ElevatorDirection.DOWN);
+        assertTrue(schedulerController.getElevatorRequests()[id].contains(2));
+        assertTrue(schedulerController.getRequestQueue().isEmpty(5));
+    }
 }
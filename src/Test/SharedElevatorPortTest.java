@@ -0,0 +1,102 @@
+package Test;
+
+import System.Config;
+import System.Scheduler.Scheduler;
+import System.Util.JSONPacket;
+import System.Util.Utility;
+import Types.DispatchStrategyType;
+import Types.ElevatorDirection;
+import Types.ElevatorState;
+import Types.SchedulerState;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.HashMap;
+
+/**
+ * Tests running many elevators through the
+ * scheduler's one shared elevator port.
+ */
+public class SharedElevatorPortTest {
+    private static final int NUM_ELEVATORS = 300;
+    private static final int FLOOR_PORT = 13999;
+    private static final int SCHEDULER_PORT = 14000;
+    private static final int ELEVATOR_PORT = 16000;
+    private static final int RECEIVE_TIMEOUT = 5000;
+    private static final int DRAIN_WINDOW = 200;
+
+    /**
+     * Sends a floor update from the specified elevator.
+     * @param socket DatagramSocket, the elevator's socket.
+     * @param elevatorID int, the id to put in the frame (null for none).
+     * @param floor int, the floor reached.
+     */
+    private static void sendUpdate(DatagramSocket socket, Integer elevatorID, int floor) throws IOException {
+        byte[] msg = JSONPacket.serialize(JSONPacket.createPacket(new HashMap<>(){{
+            put(Config.K_TOPIC, Config.UPDATE_FLOOR_MSG);
+            if (elevatorID != null) put(Config.K_ELEVATOR_ID, elevatorID);
+            put(Config.K_FLOOR, floor);
+            put(Config.K_FLOOR_BUTTON, ElevatorDirection.UP);
+            put(Config.K_ERROR, ElevatorState.NO_ERROR);
+        }}));
+        socket.send(new DatagramPacket(msg, msg.length, InetAddress.getLoopbackAddress(), SCHEDULER_PORT + 1));
+    }
+
+    /**
+     * Tests that hundreds of elevators are told apart by the id
+     * in their frames, each getting its own acks, while the
+     * scheduler only listens on one elevator port.
+     */
+    @Test
+    public void testHundredsOfElevatorsOnOnePort() throws Exception {
+        Scheduler scheduler = new Scheduler("Scheduler", Config.MAX_FLOOR, 60 * Utility.SECONDS_TO_MILLISECONDS,
+                FLOOR_PORT, SCHEDULER_PORT, ELEVATOR_PORT, NUM_ELEVATORS, InetAddress.getLoopbackAddress(), null, false,
+                DispatchStrategyType.DIRECTIONAL);
+        scheduler.setSharedElevatorPort(true);
+        scheduler.start();
+
+        try {
+            DatagramSocket[] elevators = new DatagramSocket[NUM_ELEVATORS];
+            for (int i = 0; i < NUM_ELEVATORS; i++) {
+                elevators[i] = new DatagramSocket(ELEVATOR_PORT + i * Config.ELEVATOR_INCREMENT, InetAddress.getLoopbackAddress());
+                elevators[i].setSoTimeout(RECEIVE_TIMEOUT);
+            }
+
+            // Only the shared port is bound, the per elevator ports are free.
+            new DatagramSocket(SCHEDULER_PORT + 2, InetAddress.getLoopbackAddress()).close();
+
+            // A frame without an id is dropped.
+            sendUpdate(elevators[0], null, 2);
+
+            for (int floor = 2; floor <= 3; floor++) {
+                for (int i = 0; i < NUM_ELEVATORS; i++) {
+                    sendUpdate(elevators[i], i, floor);
+                }
+                for (int i = 0; i < NUM_ELEVATORS; i++) {
+                    DatagramPacket reply = new DatagramPacket(new byte[100], 100);
+                    elevators[i].receive(reply);
+                    JSONObject json = JSONPacket.deserialize(reply.getData(), reply.getLength());
+                    assertTrue(json.getBoolean(Config.K_ACK));
+                }
+            }
+
+            for (SchedulerState state : scheduler.getSchedulerElevatorState()) {
+                assertEquals(SchedulerState.RECEIVE, state);
+            }
+            // One drain window for every elevator: no stray packets arrive.
+            Thread.sleep(DRAIN_WINDOW);
+            for (DatagramSocket elevator : elevators) {
+                elevator.setSoTimeout(1);
+                assertThrows(IOException.class, () -> elevator.receive(new DatagramPacket(new byte[100], 100)));
+                elevator.close();
+            }
+        } finally {
+            scheduler.close();
+        }
+    }
+}
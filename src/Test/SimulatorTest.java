@@ -0,0 +1,135 @@
+package Test;
+
+import System.Config;
+import System.Simulation.BuildingSimulation;
+import System.Simulation.Simulator;
+import System.Util.MotionProfile;
+import System.Util.Utility;
+import Types.DispatchStrategyType;
+import Types.ElevatorState;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the discrete-event engine and building
+ * simulations run on its virtual clock.
+ */
+public class SimulatorTest {
+    private static final int NUM_FLOORS = 22;
+    private static final int NUM_ELEVATORS = 4;
+    private static final long DAY_MS = 24L * 60 * 60 * Utility.SECONDS_TO_MILLISECONDS;
+
+    /**
+     * Generates a seeded trace of interfloor calls with exponential gaps.
+     * @param seed long, the random seed.
+     * @param meanIntervalMs long, the mean time between calls.
+     * @param durationMs long, the time to generate calls for.
+     * @return List<long[]>, rows of {callTimeMs, pickupFloor, destFloor}.
+     */
+    private static List<long[]> generateTrace(long seed, long meanIntervalMs, long durationMs) {
+        Random random = new Random(seed);
+        List<long[]> trace = new ArrayList<>();
+
+        for (long time = 0; ; ) {
+            time += Math.round(-Math.log(1 - random.nextDouble()) * meanIntervalMs);
+            if (time >= durationMs) { return trace; }
+
+            int pickup = 1 + random.nextInt(NUM_FLOORS);
+            int dest = 1 + random.nextInt(NUM_FLOORS - 1);
+            if (dest >= pickup) { dest++; }
+            trace.add(new long[]{time, pickup, dest});
+        }
+    }
+
+    /**
+     * Replays a trace with the ETA strategy.
+     * @param trace List<long[]>, the trace.
+     * @param numElevators int, the number of elevators.
+     * @return BuildingSimulation, the finished simulation.
+     */
+    private static BuildingSimulation replay(List<long[]> trace, int numElevators) {
+        BuildingSimulation simulation = new BuildingSimulation(NUM_FLOORS, numElevators, DispatchStrategyType.ETA,
+                true, false);
+        simulation.run(trace.iterator());
+        return simulation;
+    }
+
+    /**
+     * Tests that actions run in time order, ties in scheduling
+     * order, and that the clock never runs backwards.
+     */
+    @Test
+    public void testEventOrdering() {
+        Simulator simulator = new Simulator();
+        List<String> order = new ArrayList<>();
+
+        simulator.scheduleAt(20, () -> order.add("c"));
+        simulator.scheduleAt(10, () -> {
+            order.add("a");
+            simulator.schedule(0, () -> order.add("b"));
+        });
+        simulator.scheduleAt(20, () -> order.add("d"));
+        simulator.scheduleAt(30, () -> order.add("e"));
+
+        simulator.runUntil(25);
+        assertEquals(Arrays.asList("a", "b", "c", "d"), order);
+        assertEquals(25, simulator.now());
+        assertEquals(1, simulator.getPendingCount());
+        assertThrows(IllegalArgumentException.class, () -> simulator.scheduleAt(24, () -> {}));
+
+        simulator.run();
+        assertEquals(30, simulator.now());
+        assertEquals(5, simulator.getProcessedCount());
+        assertFalse(simulator.step());
+    }
+
+    /**
+     * Tests that a busy day of traffic replays in seconds,
+     * and identically for the same seed.
+     */
+    @Test
+    public void testDeterministicDay() {
+        List<long[]> trace = generateTrace(3303, 15 * Utility.SECONDS_TO_MILLISECONDS, DAY_MS);
+
+        long start = System.currentTimeMillis();
+        BuildingSimulation first = replay(trace, NUM_ELEVATORS);
+        long elapsed = System.currentTimeMillis() - start;
+        BuildingSimulation second = replay(generateTrace(3303, 15 * Utility.SECONDS_TO_MILLISECONDS, DAY_MS), NUM_ELEVATORS);
+
+        assertEquals(trace.size(), first.getServedCount());
+        assertTrue(first.getMakespan() >= DAY_MS - 60 * Utility.SECONDS_TO_MILLISECONDS);
+        assertTrue(elapsed < 10 * Utility.SECONDS_TO_MILLISECONDS, "a day took " + elapsed + " ms");
+
+        assertArrayEquals(first.getWaits(), second.getWaits());
+        assertArrayEquals(first.getJourneys(), second.getJourneys());
+        assertEquals(first.getStops(), second.getStops());
+        assertEquals(first.getSimulator().getProcessedCount(), second.getSimulator().getProcessedCount());
+    }
+
+    /**
+     * Tests that a door jam delays its rider by the detection and
+     * unjamming times, and that a car stuck between floors is
+     * terminated and its call served by another car.
+     */
+    @Test
+    public void testFaults() {
+        long unjamMs = Config.DOOR_UNJAMMING_TIME * Utility.SECONDS_TO_MILLISECONDS;
+        BuildingSimulation normal = replay(List.<long[]>of(new long[]{0, 1, 2}), 1);
+        BuildingSimulation jammed = replay(List.<long[]>of(new long[]{0, 1, 2, ElevatorState.DOOR_JAM.ordinal()}), 1);
+
+        assertEquals(1, jammed.getServedCount());
+        assertEquals((long) (MotionProfile.getStopTime() * Utility.SECONDS_TO_MILLISECONDS), normal.getWaits()[0]);
+        assertEquals(Config.HEARTBEAT_INTERVAL + unjamMs, jammed.getWaits()[0] - normal.getWaits()[0]);
+
+        BuildingSimulation stuck = replay(List.<long[]>of(new long[]{0, 1, 2, ElevatorState.STUCK_FLOOR.ordinal()}), 2);
+        assertEquals(1, stuck.getTerminatedCount());
+        assertEquals(0, stuck.getStrandedCount());
+        assertEquals(1, stuck.getServedCount());
+        assertEquals(ElevatorState.TERMINATED, stuck.getElevators()[0].getState());
+    }
+}
@@ -0,0 +1,122 @@
+package Test;
+
+import System.Config;
+import System.Floor.TraceReader;
+import System.Floor.TraceSource;
+import System.Floor.TrafficGenerator;
+import Types.TrafficPattern;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Tests reading trace files a row at a time,
+ * buffered and memory mapped.
+ */
+public class TraceReaderTest {
+    private static final int NUM_CALLS = 10000;
+
+    /**
+     * Writes text to a new temporary trace file.
+     * @param text String, the file's contents.
+     * @return File, the trace file, deleted on exit.
+     */
+    private static File writeTrace(String text) throws Exception {
+        File file = File.createTempFile("trace", ".txt");
+        file.deleteOnExit();
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(text);
+        }
+        return file;
+    }
+
+    /**
+     * Tests that both reads return every generated row as the packet the
+     * generator streams for it, through Windows line breaks and blank lines.
+     */
+    @Test
+    public void testReadsGeneratedTrace() throws Exception {
+        StringWriter writer = new StringWriter();
+        new TrafficGenerator(Config.MAX_FLOOR, 15000, 3303, TrafficPattern.DOWN_PEAK).write(writer, NUM_CALLS);
+        File file = writeTrace(writer.toString().replace("\n", "\r\n") + "\r\n");
+
+        for (boolean mapped : new boolean[]{false, true}) {
+            TraceSource expected = new TrafficGenerator(Config.MAX_FLOOR, 15000, 3303, TrafficPattern.DOWN_PEAK).asTraceSource(NUM_CALLS);
+            try (TraceReader reader = new TraceReader(file, mapped)) {
+                JSONObject request;
+                while ((request = reader.next()) != null) {
+                    assertEquals(expected.next().toString(), request.toString());
+                }
+                assertEquals(NUM_CALLS, reader.getRowsRead());
+                assertNull(expected.next());
+                assertNull(reader.next());
+            }
+        }
+    }
+
+    /**
+     * Tests that columns are found by header name in any order,
+     * and that missing columns and short rows are refused.
+     */
+    @Test
+    public void testColumns() throws Exception {
+        File file = writeTrace("Error, Car Button, Time, Floor Button, Floor\nstuck_floor, 1, 14:40:15.0, Down, 17");
+
+        for (boolean mapped : new boolean[]{false, true}) {
+            try (TraceReader reader = new TraceReader(file, mapped)) {
+                JSONObject request = reader.next();
+                assertEquals("14:40:15.0", request.getString(Config.K_TIME));
+                assertEquals("17", request.getString(Config.K_FLOOR));
+                assertEquals("Down", request.getString(Config.K_FLOOR_BUTTON));
+                assertEquals("1", request.getString(Config.K_DESTINATION_FLOOR));
+                assertEquals("STUCK_FLOOR", request.getString(Config.K_ERROR));
+                assertNull(reader.next());
+            }
+
+            File missing = writeTrace("Time, Floor, Floor Button, Car Button\n14:05:15.0, 2, Up, 4\n");
+            assertThrows(IllegalArgumentException.class, () -> new TraceReader(missing, mapped));
+            assertThrows(IllegalArgumentException.class, () -> new TraceReader(writeTrace(""), mapped));
+
+            try (TraceReader reader = new TraceReader(writeTrace(TrafficGenerator.HEADER + "\n14:05:15.0, 2, Up\n"), mapped)) {
+                assertThrows(IllegalArgumentException.class, reader::next);
+            }
+        }
+    }
+
+    /**
+     * Tests that a small mapped window remaps mid-row, and that
+     * rows or a header longer than the window are refused.
+     */
+    @Test
+    public void testMapWindow() throws Exception {
+        final int window = 64;
+        StringWriter writer = new StringWriter();
+        new TrafficGenerator(Config.MAX_FLOOR, 15000, 3303, TrafficPattern.LUNCH).write(writer, 1000);
+        File file = writeTrace(writer.toString().replace("\n", "\r\n"));
+
+        TraceSource expected = new TrafficGenerator(Config.MAX_FLOOR, 15000, 3303, TrafficPattern.LUNCH).asTraceSource(1000);
+        try (TraceReader reader = new TraceReader(file, true, window)) {
+            JSONObject request;
+            while ((request = reader.next()) != null) {
+                assertEquals(expected.next().toString(), request.toString());
+            }
+            assertEquals(1000, reader.getRowsRead());
+        }
+
+        String longRow = "14:05:15.0, 2, Up, 4, " + "no_error".repeat(8);
+        try (TraceReader reader = new TraceReader(writeTrace(TrafficGenerator.HEADER + "\n14:05:15.0, 2, Up, 4, no_error\n"
+                + longRow + "\n"), true, window)) {
+            assertNotNull(reader.next());
+            assertThrows(UncheckedIOException.class, reader::next);
+        }
+        assertThrows(IOException.class, () -> new TraceReader(writeTrace(TrafficGenerator.HEADER + "\n"), true, 16));
+        assertThrows(IllegalArgumentException.class, () -> new TraceReader(file, true, 0));
+    }
+}
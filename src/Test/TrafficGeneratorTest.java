@@ -0,0 +1,201 @@
+package Test;
+
+import System.Config;
+import System.Floor.Floor;
+import System.Floor.TraceSource;
+import System.Floor.TrafficGenerator;
+import System.Util.BatchReceiver;
+import System.Util.DuplexSocket;
+import System.Util.InMemoryDuplexSocket;
+import System.Util.JSONPacket;
+import System.Util.Logger;
+import System.Util.Utility;
+import Types.TrafficPattern;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests seeded synthetic traffic: its arrivals, origin/destination
+ * shares, file layout and streaming into a floor.
+ */
+public class TrafficGeneratorTest {
+    private static final int FLOOR_PORT = 14640;
+    private static final int SCHEDULER_PORT = 14641;
+    private static final int NUM_FLOORS = 22;
+    private static final int NUM_CALLS = 100000;
+    private static final long INTERVAL = 15000;
+    private static final long SEED = 3303;
+    private static final int WINDOW = 32;
+
+    /**
+     * Returns the share of calls from floor origin, or to floor dest
+     * (0 for any floor).
+     */
+    private static double share(TrafficGenerator generator, int origin, int dest) {
+        int matches = 0;
+        for (int i = 0; i < NUM_CALLS; i++) {
+            long[] call = generator.next();
+            assertNotEquals(call[1], call[2]);
+            assertTrue(call[1] >= 1 && call[1] <= NUM_FLOORS && call[2] >= 1 && call[2] <= NUM_FLOORS);
+            if ((origin == 0 || call[1] == origin) && (dest == 0 || call[2] == dest)) {
+                matches++;
+            }
+        }
+        return (double) matches / NUM_CALLS;
+    }
+
+    /**
+     * Tests that a seed always generates the same calls, and
+     * that gaps between calls are exponential with the mean interval.
+     */
+    @Test
+    public void testSeededPoissonArrivals() {
+        TrafficGenerator a = new TrafficGenerator(NUM_FLOORS, INTERVAL, SEED, TrafficPattern.INTERFLOOR);
+        TrafficGenerator b = new TrafficGenerator(NUM_FLOORS, INTERVAL, SEED, TrafficPattern.INTERFLOOR);
+        TrafficGenerator other = new TrafficGenerator(NUM_FLOORS, INTERVAL, SEED + 1, TrafficPattern.INTERFLOOR);
+        boolean differs = false;
+        double sum = 0, sumSquares = 0;
+        long previous = 0;
+
+        for (int i = 0; i < NUM_CALLS; i++) {
+            long[] call = a.next();
+            long[] same = b.next();
+            for (int j = 0; j < call.length; j++) {
+                assertEquals(call[j], same[j]);
+            }
+            differs |= call[0] != other.next()[0];
+
+            double gap = call[0] - previous;
+            sum += gap;
+            sumSquares += gap * gap;
+            previous = call[0];
+        }
+
+        // An exponential's standard deviation equals its mean.
+        double mean = sum / NUM_CALLS;
+        double deviation = Math.sqrt(sumSquares / NUM_CALLS - mean * mean);
+        assertTrue(differs);
+        assertEquals(INTERVAL, mean, INTERVAL * 0.02);
+        assertEquals(mean, deviation, mean * 0.03);
+    }
+
+    /**
+     * Tests each pattern's share of lobby trips, and
+     * that a custom matrix only makes the trips it weights.
+     */
+    @Test
+    public void testPatternShares() {
+        int lobby = TrafficGenerator.LOBBY;
+        double interfloorLobby = 1.0 / NUM_FLOORS;
+        TrafficGenerator generator = new TrafficGenerator(NUM_FLOORS, INTERVAL, SEED, TrafficPattern.UP_PEAK);
+
+        assertEquals(0.9 + 0.1 * interfloorLobby, share(generator, lobby, 0), 0.01);
+        generator.setPattern(TrafficPattern.DOWN_PEAK);
+        assertEquals(0.9 + 0.1 * interfloorLobby, share(generator, 0, lobby), 0.01);
+        generator.setPattern(TrafficPattern.LUNCH);
+        assertEquals(0.45 + 0.1 * interfloorLobby, share(generator, lobby, 0), 0.01);
+        assertEquals(0.45 + 0.1 * interfloorLobby, share(generator, 0, lobby), 0.01);
+        generator.setPattern(TrafficPattern.INTERFLOOR);
+        assertEquals(interfloorLobby, share(generator, lobby, 0), 0.01);
+        assertEquals(1.0 / (NUM_FLOORS * (NUM_FLOORS - 1)), share(generator, 5, 9), 0.001);
+
+        double[][] matrix = new double[NUM_FLOORS][NUM_FLOORS];
+        matrix[3][7] = 1;
+        matrix[7][3] = 3;
+        matrix[4][4] = 100;     // Trips to the same floor are never made.
+        generator.setMatrix(matrix);
+        assertEquals(0.25, share(generator, 4, 8), 0.01);
+        assertEquals(0.75, share(generator, 8, 4), 0.01);
+
+        assertThrows(IllegalArgumentException.class, () -> generator.setMatrix(new double[NUM_FLOORS][NUM_FLOORS]));
+        assertThrows(IllegalArgumentException.class, () -> generator.setMatrix(new double[2][2]));
+    }
+
+    /**
+     * Tests that calls are written in the input file's layout
+     * and match the packets the floor sends for them.
+     */
+    @Test
+    public void testWriteInputFileLayout() throws Exception {
+        StringWriter writer = new StringWriter();
+        new TrafficGenerator(NUM_FLOORS, INTERVAL, SEED, TrafficPattern.LUNCH).write(writer, 1000);
+        TraceSource source = new TrafficGenerator(NUM_FLOORS, INTERVAL, SEED, TrafficPattern.LUNCH).asTraceSource(1000);
+        TrafficGenerator calls = new TrafficGenerator(NUM_FLOORS, INTERVAL, SEED, TrafficPattern.LUNCH);
+
+        String[] lines = writer.toString().split("\n");
+        assertEquals(1001, lines.length);
+        assertEquals(TrafficGenerator.HEADER, lines[0]);
+
+        for (int i = 1; i < lines.length; i++) {
+            String[] row = lines[i].split(", ");
+            JSONObject packet = source.next();
+            long[] call = calls.next();
+
+            assertEquals(5, row.length);
+            assertEquals(row[0], packet.getString(Config.K_TIME));
+            assertEquals(row[1], packet.getString(Config.K_FLOOR));
+            assertEquals(row[2], packet.getString(Config.K_FLOOR_BUTTON));
+            assertEquals(row[3], packet.getString(Config.K_DESTINATION_FLOOR));
+            assertEquals(row[4].toUpperCase(), packet.getString(Config.K_ERROR));
+            assertEquals(call[2] > call[1] ? "Up" : "Down", row[2]);
+
+            // Stamped a trace compression slower, wrapping past midnight.
+            long stamp = Utility.stringToTime(row[0]).getTime() - Utility.stringToTime("00:00:00.0").getTime();
+            assertEquals(call[0] * Config.TRACE_COMPRESSION % Utility.MILLISECONDS_PER_DAY, stamp);
+        }
+        assertNull(source.next());
+    }
+
+    /**
+     * Tests that generated calls stream through a floor to the
+     * scheduler in order, a window at a time.
+     */
+    @Test
+    public void testStreamIntoFloor() throws Exception {
+        final int numCalls = 20000;
+        InetAddress host = InetAddress.getLoopbackAddress();
+        Logger logger = new Logger("TrafficGeneratorTest");
+        InMemoryDuplexSocket scheduler = new InMemoryDuplexSocket(SCHEDULER_PORT, FLOOR_PORT, host, logger, 0);
+        BatchReceiver receiver = new BatchReceiver();
+        List<JSONObject> delivered = new ArrayList<>();
+
+        // Stands in for the scheduler: accepts every request and acks each batch.
+        Thread schedulerThread = new Thread(() -> {
+            try {
+                while (true) {
+                    DatagramPacket receivePacket = scheduler.receive();
+                    JSONObject batch = JSONPacket.deserialize(receivePacket.getData(), receivePacket.getLength());
+                    scheduler.send(JSONPacket.serialize(receiver.receive(batch, delivered::add)));
+                }
+            } catch (Exception e) {
+                // Closed.
+            }
+        });
+        schedulerThread.setDaemon(true);
+        schedulerThread.start();
+
+        DuplexSocket.setInMemory(true);
+        try {
+            Floor floor = new Floor("Floor", null, FLOOR_PORT, SCHEDULER_PORT, host, 1000);
+            floor.setWindow(WINDOW);
+            floor.setTraceSource(new TrafficGenerator(NUM_FLOORS, 0, SEED, TrafficPattern.UP_PEAK).asTraceSource(numCalls));
+            floor.run();
+        } finally {
+            DuplexSocket.setInMemory(false);
+            scheduler.close();
+        }
+
+        TraceSource expected = new TrafficGenerator(NUM_FLOORS, 0, SEED, TrafficPattern.UP_PEAK).asTraceSource(numCalls);
+        assertEquals(numCalls, delivered.size());
+        for (JSONObject request : delivered) {
+            assertEquals(expected.next().toString(), request.toString());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package Types;
+
+/**
+ * Enum for how the scheduler noticed an elevator needed a status check.
+ */
+public enum DetectionCause {
+    FAULT_REPORT, HEARTBEAT_LOSS, COMMAND_TIMEOUT
+}
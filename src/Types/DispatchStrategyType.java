@@ -0,0 +1,8 @@
+package Types;
+
+/**
+ * Enum for the scheduler's dispatch algorithms.
+ */
+public enum DispatchStrategyType {
+    DIRECTIONAL, LOOK, NEAREST, NEAREST_CAR, ETA, DESTINATION
+}
@@ -0,0 +1,8 @@
+package Types;
+
+/**
+ * Enum for the wire format packets are sent in.
+ */
+public enum PacketCodec {
+    JSON, BINARY
+}
@@ -0,0 +1,8 @@
+package Types;
+
+/**
+ * Enum for the kind of threads listeners and elevators run on.
+ */
+public enum ThreadMode {
+    PLATFORM, VIRTUAL
+}
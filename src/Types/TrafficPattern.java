@@ -0,0 +1,8 @@
+package Types;
+
+/**
+ * Enum for the standard building traffic patterns synthetic traffic is generated with.
+ */
+public enum TrafficPattern {
+    UP_PEAK, DOWN_PEAK, INTERFLOOR, LUNCH
+}